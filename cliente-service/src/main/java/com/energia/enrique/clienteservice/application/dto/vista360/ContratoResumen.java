@@ -0,0 +1,5 @@
+package com.energia.enrique.clienteservice.application.dto.vista360;
+
+/** Contrato del cliente según contrato-service. */
+public record ContratoResumen(Long id, String numeroContrato, String cicloFacturacion, Long idCliente) {
+}
@@ -0,0 +1,8 @@
+package com.energia.enrique.clienteservice.application.dto.vista360;
+
+import java.time.LocalDate;
+
+/** Factura sin pagar de un contrato según facturacion-service. */
+public record FacturaPendiente(Long id, String numeroFactura, LocalDate fechaEmision, LocalDate fechaVencimiento,
+                               Double montoTotal, Long idContrato) {
+}
@@ -0,0 +1,7 @@
+package com.energia.enrique.clienteservice.application.dto.vista360;
+
+import java.time.Instant;
+
+/** Lectura de un medidor según consumo-service; valor es el acumulado en kWh. */
+public record LecturaReciente(Long idMedidor, Instant instante, double valor) {
+}
@@ -0,0 +1,5 @@
+package com.energia.enrique.clienteservice.application.dto.vista360;
+
+/** Medidor de un contrato según medidor-service. */
+public record MedidorResumen(Long id, String numeroMedidor, String tipoMedidor, Long idContrato) {
+}
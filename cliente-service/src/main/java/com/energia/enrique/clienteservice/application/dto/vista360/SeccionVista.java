@@ -0,0 +1,33 @@
+package com.energia.enrique.clienteservice.application.dto.vista360;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Resultado de una rama de la vista 360. Solo trae datos si el estado es OK;
+ * en otro caso la vista se entrega igual, sin esa parte.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record SeccionVista<T>(Estado estado, T datos) {
+
+    public enum Estado {
+        OK,
+        /** La rama no respondió dentro de su límite (o del límite total). */
+        TIEMPO_AGOTADO,
+        /** El servicio respondió con error o rechazó la consulta. */
+        ERROR,
+        /** No se consultó porque faltan los datos de la rama de la que depende. */
+        OMITIDA
+    }
+
+    public static <T> SeccionVista<T> ok(T datos) {
+        return new SeccionVista<>(Estado.OK, datos);
+    }
+
+    public static <T> SeccionVista<T> sinDatos(Estado estado) {
+        return new SeccionVista<>(estado, null);
+    }
+
+    public boolean completa() {
+        return estado == Estado.OK;
+    }
+}
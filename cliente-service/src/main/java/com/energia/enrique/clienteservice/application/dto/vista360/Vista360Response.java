@@ -0,0 +1,22 @@
+package com.energia.enrique.clienteservice.application.dto.vista360;
+
+import com.energia.enrique.clienteservice.model.ClienteEntity;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Vista 360 de un cliente para el centro de atención.
+ * @param medidores Medidores por id de contrato
+ * @param ultimasLecturas Lecturas más recientes por id de medidor, de la más nueva a la más vieja
+ * @param facturasPendientes Facturas sin pagar por id de contrato, por vencimiento
+ * @param parcial true si alguna sección no está completa
+ */
+public record Vista360Response(SeccionVista<ClienteEntity> cliente,
+                               SeccionVista<List<ContratoResumen>> contratos,
+                               SeccionVista<Map<Long, List<MedidorResumen>>> medidores,
+                               SeccionVista<Map<Long, List<LecturaReciente>>> ultimasLecturas,
+                               SeccionVista<Map<Long, List<FacturaPendiente>>> facturasPendientes,
+                               boolean parcial,
+                               long milisegundos) {
+}
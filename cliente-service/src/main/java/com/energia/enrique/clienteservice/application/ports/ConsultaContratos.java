@@ -0,0 +1,14 @@
+package com.energia.enrique.clienteservice.application.ports;
+
+import com.energia.enrique.clienteservice.application.dto.vista360.ContratoResumen;
+
+import java.util.List;
+
+/**
+ * Puerto de salida hacia contrato-service.
+ * Parte de la capa de aplicación - Clean Architecture.
+ */
+public interface ConsultaContratos {
+
+    List<ContratoResumen> porCliente(Long idCliente);
+}
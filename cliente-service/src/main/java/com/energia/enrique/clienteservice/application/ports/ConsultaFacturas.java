@@ -0,0 +1,20 @@
+package com.energia.enrique.clienteservice.application.ports;
+
+import com.energia.enrique.clienteservice.application.dto.vista360.FacturaPendiente;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Puerto de salida hacia facturacion-service.
+ * Parte de la capa de aplicación - Clean Architecture.
+ */
+public interface ConsultaFacturas {
+
+    /**
+     * Facturas sin pagar de varios contratos en una sola consulta (o en la menor cantidad posible).
+     * @return Facturas agrupadas por id de contrato
+     */
+    Map<Long, List<FacturaPendiente>> pendientesPorContratos(Collection<Long> idsContrato);
+}
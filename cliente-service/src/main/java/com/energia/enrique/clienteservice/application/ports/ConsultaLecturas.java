@@ -0,0 +1,21 @@
+package com.energia.enrique.clienteservice.application.ports;
+
+import com.energia.enrique.clienteservice.application.dto.vista360.LecturaReciente;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Puerto de salida hacia consumo-service.
+ * Parte de la capa de aplicación - Clean Architecture.
+ */
+public interface ConsultaLecturas {
+
+    /**
+     * Últimas lecturas de varios medidores en una sola consulta (o en la menor cantidad posible).
+     * @param cantidad Lecturas por medidor
+     * @return Lecturas agrupadas por id de medidor, de la más nueva a la más vieja
+     */
+    Map<Long, List<LecturaReciente>> ultimasPorMedidores(Collection<Long> idsMedidor, int cantidad);
+}
@@ -0,0 +1,20 @@
+package com.energia.enrique.clienteservice.application.ports;
+
+import com.energia.enrique.clienteservice.application.dto.vista360.MedidorResumen;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Puerto de salida hacia medidor-service.
+ * Parte de la capa de aplicación - Clean Architecture.
+ */
+public interface ConsultaMedidores {
+
+    /**
+     * Medidores de varios contratos en una sola consulta (o en la menor cantidad posible).
+     * @return Medidores agrupados por id de contrato
+     */
+    Map<Long, List<MedidorResumen>> porContratos(Collection<Long> idsContrato);
+}
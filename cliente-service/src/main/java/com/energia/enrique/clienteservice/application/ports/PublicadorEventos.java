@@ -0,0 +1,22 @@
+package com.energia.enrique.clienteservice.application.ports;
+
+import java.util.Map;
+
+/**
+ * Puerto de salida para publicar eventos de dominio de Cliente.
+ * Parte de la capa de aplicación - Clean Architecture.
+ * La implementación debe registrar el evento dentro de la transacción en curso.
+ */
+public interface PublicadorEventos {
+
+    String CLIENTE_CREADO = "ClienteCreado";
+    String CLIENTE_SUSPENDIDO = "ClienteSuspendido";
+
+    /**
+     * Registra un evento de dominio asociado a un cliente.
+     * @param tipoEvento Tipo del evento (ver constantes)
+     * @param idCliente ID del cliente afectado
+     * @param datos Datos del evento a serializar
+     */
+    void publicar(String tipoEvento, String idCliente, Map<String, Object> datos);
+}
@@ -0,0 +1,250 @@
+package com.energia.enrique.clienteservice.application.usecases;
+
+import com.energia.enrique.clienteservice.application.dto.vista360.ContratoResumen;
+import com.energia.enrique.clienteservice.application.dto.vista360.FacturaPendiente;
+import com.energia.enrique.clienteservice.application.dto.vista360.LecturaReciente;
+import com.energia.enrique.clienteservice.application.dto.vista360.MedidorResumen;
+import com.energia.enrique.clienteservice.application.dto.vista360.SeccionVista;
+import com.energia.enrique.clienteservice.application.dto.vista360.Vista360Response;
+import com.energia.enrique.clienteservice.application.ports.ConsultaContratos;
+import com.energia.enrique.clienteservice.application.ports.ConsultaFacturas;
+import com.energia.enrique.clienteservice.application.ports.ConsultaLecturas;
+import com.energia.enrique.clienteservice.application.ports.ConsultaMedidores;
+import com.energia.enrique.clienteservice.model.ClienteEntity;
+import com.energia.enrique.clienteservice.service.ClienteService;
+import com.energia.shared.infrastructure.trazas.Span;
+import com.energia.shared.infrastructure.trazas.Trazador;
+
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Caso de uso para armar la vista 360 de un cliente: datos, contratos,
+ * medidores, últimas lecturas y facturas pendientes.
+ * Implementa Clean Architecture - Capa de aplicación.
+ * <p>
+ * Las ramas corren en paralelo y cada una consulta su servicio una sola vez
+ * para todos los ids (contratos → medidores → lecturas, y contratos →
+ * facturas). Cada rama tiene su propio límite y además hay un límite total;
+ * lo que no llega a tiempo se informa como sección incompleta y el resto se
+ * entrega igual. La latencia queda acotada por el camino más lento
+ * (contratos, medidores, lecturas), no por la suma de todas las llamadas.
+ */
+@Slf4j
+@Service
+public class ConsultarVista360UseCase {
+
+    private final ClienteService clienteService;
+    private final ConsultaContratos consultaContratos;
+    private final ConsultaMedidores consultaMedidores;
+    private final ConsultaFacturas consultaFacturas;
+    private final ConsultaLecturas consultaLecturas;
+    private final Trazador trazador;
+    private final LimitesVista360 limites;
+    private final int lecturasPorMedidor;
+    private final ThreadPoolExecutor pool;
+
+    public ConsultarVista360UseCase(ClienteService clienteService, ConsultaContratos consultaContratos,
+                                    ConsultaMedidores consultaMedidores, ConsultaFacturas consultaFacturas,
+                                    ConsultaLecturas consultaLecturas, Trazador trazador, LimitesVista360 limites,
+                                    @Value("${energia.cliente.vista360.lecturas-por-medidor:3}") int lecturasPorMedidor,
+                                    @Value("${energia.cliente.vista360.hilos:32}") int hilos,
+                                    @Value("${energia.cliente.vista360.capacidad-cola:256}") int capacidadCola) {
+        this.clienteService = clienteService;
+        this.consultaContratos = consultaContratos;
+        this.consultaMedidores = consultaMedidores;
+        this.consultaFacturas = consultaFacturas;
+        this.consultaLecturas = consultaLecturas;
+        this.trazador = trazador;
+        this.limites = limites;
+        this.lecturasPorMedidor = lecturasPorMedidor;
+
+        // Cola acotada: con el pool saturado la rama falla enseguida en vez de esperar turno
+        AtomicInteger contador = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(hilos, hilos, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacidadCola),
+                tarea -> {
+                    Thread hilo = new Thread(tarea, "vista360-" + contador.incrementAndGet());
+                    hilo.setDaemon(true);
+                    return hilo;
+                });
+    }
+
+    /**
+     * Ejecuta el caso de uso.
+     * @param idCliente ID del cliente
+     * @return Vacío solo si el cliente no existe; si alguna rama falla, la vista sale marcada como parcial
+     */
+    @Timed(value = "energia.caso.uso", extraTags = {"caso", "vista_360"}, histogram = true)
+    public Optional<Vista360Response> ejecutar(Long idCliente) {
+        long inicio = System.nanoTime();
+        long vencimiento = inicio + TimeUnit.MILLISECONDS.toNanos(limites.total());
+
+        CompletableFuture<Optional<ClienteEntity>> cliente =
+                lanzar(() -> clienteService.obtenerClientePorId(idCliente), limites.cliente(), vencimiento);
+        CompletableFuture<List<ContratoResumen>> contratos =
+                lanzar(() -> consultaContratos.porCliente(idCliente), limites.contratos(), vencimiento);
+
+        CompletableFuture<Map<Long, List<MedidorResumen>>> medidores = despues(contratos, lista -> ids(lista),
+                ids -> consultaMedidores.porContratos(ids), limites.medidores(), vencimiento);
+        CompletableFuture<Map<Long, List<FacturaPendiente>>> facturas = despues(contratos, lista -> ids(lista),
+                ids -> consultaFacturas.pendientesPorContratos(ids), limites.facturas(), vencimiento);
+        CompletableFuture<Map<Long, List<LecturaReciente>>> lecturas = despues(medidores, porContrato -> idsMedidor(porContrato),
+                ids -> consultaLecturas.ultimasPorMedidores(ids, lecturasPorMedidor), limites.lecturas(), vencimiento);
+
+        esperar(vencimiento, cliente, contratos, medidores, facturas, lecturas);
+
+        SeccionVista<Optional<ClienteEntity>> seccionCliente = seccion(cliente, null);
+        if (seccionCliente.completa() && seccionCliente.datos().isEmpty()) {
+            return Optional.empty();
+        }
+
+        Vista360Response vista = new Vista360Response(
+                seccionCliente.completa() ? SeccionVista.ok(seccionCliente.datos().get())
+                        : SeccionVista.sinDatos(seccionCliente.estado()),
+                seccion(contratos, null),
+                seccion(medidores, contratos),
+                seccion(lecturas, medidores),
+                seccion(facturas, contratos),
+                false,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio));
+        boolean parcial = !(vista.cliente().completa() && vista.contratos().completa() && vista.medidores().completa()
+                && vista.ultimasLecturas().completa() && vista.facturasPendientes().completa());
+        if (parcial) {
+            log.info("Vista 360 parcial del cliente {}: cliente={} contratos={} medidores={} lecturas={} facturas={}",
+                    idCliente, vista.cliente().estado(), vista.contratos().estado(), vista.medidores().estado(),
+                    vista.ultimasLecturas().estado(), vista.facturasPendientes().estado());
+        }
+        return Optional.of(parcial ? conParcial(vista) : vista);
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Corre la consulta en el pool con el límite de la rama, recortado a lo que
+     * quede del límite total. La traza y el MDC del hilo de la petición viajan
+     * con la tarea.
+     */
+    private <T> CompletableFuture<T> lanzar(Supplier<T> consulta, long limiteMs, long vencimiento) {
+        long restante = vencimiento - System.nanoTime();
+        if (restante <= 0) {
+            return CompletableFuture.failedFuture(new TimeoutException("Sin tiempo para la rama"));
+        }
+        Span span = trazador.actual();
+        Map<String, String> mdc = MDC.getCopyOfContextMap();
+        try {
+            return CompletableFuture.supplyAsync(() -> conContexto(span, mdc, consulta), pool)
+                    .orTimeout(Math.min(TimeUnit.MILLISECONDS.toNanos(limiteMs), restante), TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /** Rama que arranca con el resultado de otra; sin ids que consultar no sale del proceso. */
+    private <P, T> CompletableFuture<Map<Long, T>> despues(CompletableFuture<P> previa, Function<P, List<Long>> ids,
+                                                           Function<List<Long>, Map<Long, T>> consulta,
+                                                           long limiteMs, long vencimiento) {
+        return previa.thenCompose(resultado -> {
+            List<Long> lote = ids.apply(resultado);
+            if (lote.isEmpty()) {
+                return CompletableFuture.completedFuture(Map.of());
+            }
+            return lanzar(() -> consulta.apply(lote), limiteMs, vencimiento);
+        });
+    }
+
+    private <T> T conContexto(Span span, Map<String, String> mdc, Supplier<T> consulta) {
+        Span anterior = trazador.actual();
+        trazador.continuar(span);
+        if (mdc != null) {
+            MDC.setContextMap(mdc);
+        }
+        try {
+            return consulta.get();
+        } finally {
+            trazador.continuar(anterior);
+            MDC.clear();
+        }
+    }
+
+    private static void esperar(long vencimiento, CompletableFuture<?>... ramas) {
+        try {
+            CompletableFuture.allOf(ramas).get(Math.max(0L, vencimiento - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            // Cada rama se evalúa por separado en seccion()
+        }
+    }
+
+    private static <T> SeccionVista<T> seccion(CompletableFuture<T> rama, CompletableFuture<?> dependencia) {
+        if (dependencia != null && (!dependencia.isDone() || dependencia.isCompletedExceptionally())) {
+            return SeccionVista.sinDatos(SeccionVista.Estado.OMITIDA);
+        }
+        if (!rama.isDone()) {
+            // Lo que llegue después se descarta
+            rama.cancel(false);
+            return SeccionVista.sinDatos(SeccionVista.Estado.TIEMPO_AGOTADO);
+        }
+        try {
+            return SeccionVista.ok(rama.join());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof TimeoutException) {
+                return SeccionVista.sinDatos(SeccionVista.Estado.TIEMPO_AGOTADO);
+            }
+            log.warn("Rama de la vista 360 con error: {}", e.getCause() == null ? e.getMessage() : e.getCause().toString());
+            return SeccionVista.sinDatos(SeccionVista.Estado.ERROR);
+        }
+    }
+
+    private static Vista360Response conParcial(Vista360Response vista) {
+        return new Vista360Response(vista.cliente(), vista.contratos(), vista.medidores(), vista.ultimasLecturas(),
+                vista.facturasPendientes(), true, vista.milisegundos());
+    }
+
+    private static List<Long> ids(List<ContratoResumen> contratos) {
+        return contratos.stream().map(ContratoResumen::id).toList();
+    }
+
+    private static List<Long> idsMedidor(Map<Long, List<MedidorResumen>> porContrato) {
+        List<Long> ids = new ArrayList<>();
+        for (Collection<MedidorResumen> medidores : porContrato.values()) {
+            for (MedidorResumen medidor : medidores) {
+                ids.add(medidor.id());
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Límites en milisegundos de cada rama y de la vista completa. Las ramas
+     * dependientes cuentan desde que arrancan, no desde el inicio de la petición.
+     */
+    public record LimitesVista360(long cliente, long contratos, long medidores, long lecturas, long facturas,
+                                  long total) {
+    }
+}
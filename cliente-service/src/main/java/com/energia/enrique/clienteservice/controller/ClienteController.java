@@ -1,5 +1,7 @@
 package com.energia.enrique.clienteservice.controller;
 
+import com.energia.enrique.clienteservice.application.dto.vista360.Vista360Response;
+import com.energia.enrique.clienteservice.application.usecases.ConsultarVista360UseCase;
 import com.energia.enrique.clienteservice.model.ClienteEntity;
 import com.energia.enrique.clienteservice.service.ClienteService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -8,8 +10,11 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
@@ -17,6 +22,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Slf4j
@@ -27,6 +33,7 @@ import java.util.Optional;
 public class ClienteController {
 
     private final ClienteService clienteService;
+    private final ConsultarVista360UseCase consultarVista360UseCase;
 
     @Operation(summary = "Obtener todos los clientes", description = "Retorna una lista paginada de todos los clientes")
     @ApiResponses(value = {
@@ -35,7 +42,7 @@ public class ClienteController {
     })
     @GetMapping
     public ResponseEntity<Page<ClienteEntity>> obtenerTodosClientes(Pageable pageable) {
-        log.info("Solicitando lista de clientes - Página: {}, Tamaño: {}", pageable.getPageNumber(), pageable.getPageSize());
+        log.debug("Solicitando lista de clientes - Página: {}, Tamaño: {}", pageable.getPageNumber(), pageable.getPageSize());
         Page<ClienteEntity> clientes = clienteService.obtenerTodosClientes(pageable);
         return ResponseEntity.ok(clientes);
     }
@@ -55,10 +62,10 @@ public class ClienteController {
             return ResponseEntity.badRequest().build();
         }
 
-        log.info("Solicitando cliente con ID: {}", id);
+        log.debug("Solicitando cliente con ID: {}", id);
         return clienteService.obtenerClientePorId(id)
                 .map(cliente -> {
-                    log.info("Cliente encontrado con ID: {}", id);
+                    log.debug("Cliente encontrado con ID: {}", id);
                     return ResponseEntity.ok(cliente);
                 })
                 .orElseGet(() -> {
@@ -75,7 +82,7 @@ public class ClienteController {
     })
     @PostMapping
     public ResponseEntity<ClienteEntity> crearCliente(@Valid @RequestBody ClienteEntity cliente) {
-        log.info("Creando nuevo cliente: {}", cliente.getNombre());
+        log.debug("Creando nuevo cliente");
         ClienteEntity nuevoCliente = clienteService.crearCliente(cliente);
         log.info("Cliente creado exitosamente con ID: {}", nuevoCliente.getId());
         return ResponseEntity.status(HttpStatus.CREATED).body(nuevoCliente);
@@ -85,7 +92,8 @@ public class ClienteController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Cliente actualizado exitosamente"),
             @ApiResponse(responseCode = "404", description = "Cliente no encontrado"),
-            @ApiResponse(responseCode = "400", description = "Datos inválidos")
+            @ApiResponse(responseCode = "400", description = "Datos inválidos"),
+            @ApiResponse(responseCode = "409", description = "El RUC/CI ya pertenece a otro cliente")
     })
     @PutMapping("/{id}")
     public ResponseEntity<ClienteEntity> actualizarCliente(
@@ -98,15 +106,54 @@ public class ClienteController {
         }
 
         log.info("Actualizando cliente con ID: {}", id);
-        return clienteService.actualizarCliente(id, cliente)
-                .map(clienteActualizado -> {
-                    log.info("Cliente actualizado exitosamente con ID: {}", id);
-                    return ResponseEntity.ok(clienteActualizado);
-                })
-                .orElseGet(() -> {
-                    log.warn("Intento de actualizar cliente inexistente con ID: {}", id);
-                    return ResponseEntity.notFound().build();
-                });
+        try {
+            return clienteService.actualizarCliente(id, cliente)
+                    .map(clienteActualizado -> {
+                        log.info("Cliente actualizado exitosamente con ID: {}", id);
+                        return ResponseEntity.ok(clienteActualizado);
+                    })
+                    .orElseGet(() -> {
+                        log.warn("Intento de actualizar cliente inexistente con ID: {}", id);
+                        return ResponseEntity.notFound().build();
+                    });
+        } catch (DuplicateKeyException e) {
+            log.info("Actualización rechazada para cliente con ID: {}: RUC/CI duplicado", id);
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    @Operation(summary = "Actualizar cliente parcialmente", description = "Actualiza solo los campos enviados")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Cliente actualizado exitosamente"),
+            @ApiResponse(responseCode = "404", description = "Cliente no encontrado"),
+            @ApiResponse(responseCode = "400", description = "Campo no actualizable o valor inválido"),
+            @ApiResponse(responseCode = "409", description = "El RUC/CI ya pertenece a otro cliente")
+    })
+    @PatchMapping("/{id}")
+    public ResponseEntity<?> actualizarClienteParcial(
+            @Parameter(description = "ID del cliente", required = true) @PathVariable Long id,
+            @RequestBody Map<String, Object> cambios) {
+
+        if (id <= 0) {
+            log.warn("Intento de actualización con ID inválido: {}", id);
+            return ResponseEntity.badRequest().build();
+        }
+
+        log.info("Actualizando parcialmente cliente con ID: {}. Campos: {}", id, cambios.keySet());
+        try {
+            return clienteService.actualizarClienteParcial(id, cambios)
+                    .<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .orElseGet(() -> {
+                        log.warn("Intento de actualizar cliente inexistente con ID: {}", id);
+                        return ResponseEntity.notFound().build();
+                    });
+        } catch (IllegalArgumentException e) {
+            log.debug("Actualización parcial rechazada para cliente con ID: {}: {}", id, e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (DuplicateKeyException e) {
+            log.info("Actualización parcial rechazada para cliente con ID: {}: RUC/CI duplicado", id);
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("El RUC/CI ya pertenece a otro cliente");
+        }
     }
 
     @Operation(summary = "Eliminar cliente", description = "Elimina un cliente del sistema")
@@ -136,14 +183,68 @@ public class ClienteController {
         }
     }
 
+    @Operation(summary = "Suspender cliente", description = "Marca al cliente como suspendido y publica ClienteSuspendido. "
+            + "Suspender a un cliente ya suspendido lo devuelve sin cambios")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Cliente suspendido"),
+            @ApiResponse(responseCode = "404", description = "Cliente no encontrado"),
+            @ApiResponse(responseCode = "400", description = "ID o motivo inválido")
+    })
+    @PostMapping("/{id}/suspension")
+    public ResponseEntity<ClienteEntity> suspenderCliente(
+            @Parameter(description = "ID del cliente", required = true) @PathVariable Long id,
+            @Valid @RequestBody SolicitudSuspension solicitud) {
+
+        if (id <= 0) {
+            log.warn("Intento de suspensión con ID inválido: {}", id);
+            return ResponseEntity.badRequest().build();
+        }
+
+        log.info("Suspendiendo cliente con ID: {}", id);
+        return clienteService.suspenderCliente(id, solicitud.motivo())
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> {
+                    log.warn("Intento de suspender cliente inexistente con ID: {}", id);
+                    return ResponseEntity.notFound().build();
+                });
+    }
+
+    @Operation(summary = "Vista 360 del cliente",
+            description = "Cliente, contratos, medidores, últimas lecturas y facturas pendientes en una sola respuesta. "
+                    + "Si alguna sección no llega a tiempo o falla, se responde igual con parcial=true")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Vista armada (completa o parcial)"),
+            @ApiResponse(responseCode = "404", description = "Cliente no encontrado"),
+            @ApiResponse(responseCode = "400", description = "ID inválido")
+    })
+    @GetMapping("/{id}/vista-360")
+    public ResponseEntity<Vista360Response> obtenerVista360(
+            @Parameter(description = "ID del cliente", required = true) @PathVariable Long id) {
+
+        if (id <= 0) {
+            log.warn("Intento de acceso con ID inválido: {}", id);
+            return ResponseEntity.badRequest().build();
+        }
+
+        return consultarVista360UseCase.ejecutar(id)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> {
+                    log.warn("Cliente no encontrado con ID: {}", id);
+                    return ResponseEntity.notFound().build();
+                });
+    }
+
     @Operation(summary = "Buscar clientes por nombre", description = "Busca clientes que contengan el texto especificado en el nombre")
     @GetMapping("/buscar")
     public ResponseEntity<Page<ClienteEntity>> buscarClientesPorNombre(
             @Parameter(description = "Texto a buscar en el nombre") @RequestParam String nombre,
             Pageable pageable) {
 
-        log.info("Buscando clientes con nombre que contiene: '{}'", nombre);
+        log.debug("Buscando clientes con nombre que contiene: '{}'", nombre);
         Page<ClienteEntity> clientes = clienteService.buscarPorNombre(nombre, pageable);
         return ResponseEntity.ok(clientes);
     }
+
+    public record SolicitudSuspension(@NotBlank @Size(max = 500) String motivo) {
+    }
 }
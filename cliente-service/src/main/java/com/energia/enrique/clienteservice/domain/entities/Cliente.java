@@ -2,7 +2,8 @@ package com.energia.enrique.clienteservice.domain.entities;
 
 import com.energia.shared.domain.entities.BaseEntity;
 import com.energia.shared.domain.valueobjects.ContactoInfo;
-import com.energia.shared.domain.exceptions.DomainValidationException;
+import com.energia.shared.domain.validacion.ErrorValidacion;
+import com.energia.shared.domain.validacion.ResultadoValidacion;
 
 import java.time.LocalDate;
 import java.util.Objects;
@@ -13,6 +14,22 @@ import java.util.Objects;
  */
 public class Cliente extends BaseEntity {
 
+    // Reglas de negocio; cada una reutiliza su excepción (sin traza) en los puntos que lanzan
+    private static final ErrorValidacion NOMBRE_OBLIGATORIO = ErrorValidacion.de("nombre", "El nombre es obligatorio");
+    private static final ErrorValidacion NOMBRE_LONGITUD = ErrorValidacion.de("nombre", "El nombre debe tener entre 2 y 50 caracteres");
+    private static final ErrorValidacion APELLIDO_OBLIGATORIO = ErrorValidacion.de("apellido", "El apellido es obligatorio");
+    private static final ErrorValidacion APELLIDO_LONGITUD = ErrorValidacion.de("apellido", "El apellido debe tener entre 2 y 50 caracteres");
+    private static final ErrorValidacion IDENTIFICACION_OBLIGATORIA = ErrorValidacion.de("identificacion", "La identificación es obligatoria");
+    private static final ErrorValidacion IDENTIFICACION_LONGITUD = ErrorValidacion.de("identificacion", "La identificación debe tener entre 5 y 20 caracteres");
+    private static final ErrorValidacion TIPO_IDENTIFICACION_OBLIGATORIO = ErrorValidacion.de("tipoIdentificacion", "El tipo de identificación es obligatorio");
+    private static final ErrorValidacion TIPO_CLIENTE_OBLIGATORIO = ErrorValidacion.de("tipoCliente", "El tipo de cliente es obligatorio");
+    private static final ErrorValidacion CONTACTO_OBLIGATORIO = ErrorValidacion.de("contactoInfo", "La información de contacto es obligatoria");
+    private static final ErrorValidacion FECHA_NACIMIENTO_ANTIGUA = ErrorValidacion.de("fechaNacimiento", "La fecha de nacimiento no puede ser anterior a 120 años");
+    private static final ErrorValidacion MENOR_DE_EDAD = ErrorValidacion.de("fechaNacimiento", "El cliente debe ser mayor de 18 años");
+    private static final ErrorValidacion NUEVO_TIPO_NULO = ErrorValidacion.de("tipoCliente", "El nuevo tipo de cliente no puede ser nulo");
+    private static final ErrorValidacion YA_SUSPENDIDO = ErrorValidacion.de(null, "El cliente ya está suspendido");
+    private static final ErrorValidacion YA_ACTIVO = ErrorValidacion.de(null, "El cliente ya está activo");
+
     private String nombre;
     private String apellido;
     private String identificacion;
@@ -63,113 +80,102 @@ public class Cliente extends BaseEntity {
                 .build();
     }
 
-    // Validaciones de reglas de negocio
+    // Validaciones de reglas de negocio: se evalúan todas y se informan juntas
     private void validarReglasDeNegocio() {
-        validarNombre();
-        validarApellido();
-        validarIdentificacion();
-        validarTipoIdentificacion();
-        validarTipoCliente();
-        validarContactoInfo();
-        validarFechaNacimiento();
+        validar(nombre, apellido, identificacion, tipoIdentificacion, tipoCliente, contactoInfo, null,
+                fechaNacimiento, new ResultadoValidacion()).lanzarSiInvalido();
     }
 
-    private void validarNombre() {
-        if (nombre == null || nombre.trim().isEmpty()) {
-            throw new DomainValidationException("El nombre es obligatorio", "nombre");
-        }
-        if (nombre.length() < 2 || nombre.length() > 50) {
-            throw new DomainValidationException("El nombre debe tener entre 2 y 50 caracteres", "nombre");
+    private static ResultadoValidacion validar(String nombre, String apellido, String identificacion,
+                                               TipoIdentificacion tipoIdentificacion, TipoCliente tipoCliente,
+                                               ContactoInfo contactoInfo, ContactoInfo.Builder datosContacto,
+                                               LocalDate fechaNacimiento, ResultadoValidacion resultado) {
+        validarNombre(nombre, resultado);
+        validarApellido(apellido, resultado);
+        validarIdentificacion(identificacion, resultado);
+        if (tipoIdentificacion == null) {
+            resultado.agregar(TIPO_IDENTIFICACION_OBLIGATORIO);
         }
-    }
-
-    private void validarApellido() {
-        if (apellido == null || apellido.trim().isEmpty()) {
-            throw new DomainValidationException("El apellido es obligatorio", "apellido");
+        if (tipoCliente == null) {
+            resultado.agregar(TIPO_CLIENTE_OBLIGATORIO);
         }
-        if (apellido.length() < 2 || apellido.length() > 50) {
-            throw new DomainValidationException("El apellido debe tener entre 2 y 50 caracteres", "apellido");
+        if (contactoInfo == null && datosContacto != null) {
+            datosContacto.validar(resultado);
+        } else {
+            validarContactoInfo(contactoInfo, resultado);
         }
+        validarFechaNacimiento(fechaNacimiento, resultado);
+        return resultado;
     }
 
-    private void validarIdentificacion() {
-        if (identificacion == null || identificacion.trim().isEmpty()) {
-            throw new DomainValidationException("La identificación es obligatoria", "identificacion");
-        }
-        if (identificacion.length() < 5 || identificacion.length() > 20) {
-            throw new DomainValidationException("La identificación debe tener entre 5 y 20 caracteres", "identificacion");
+    private static void validarNombre(String nombre, ResultadoValidacion resultado) {
+        if (nombre == null || nombre.trim().isEmpty()) {
+            resultado.agregar(NOMBRE_OBLIGATORIO);
+        } else if (nombre.length() < 2 || nombre.length() > 50) {
+            resultado.agregar(NOMBRE_LONGITUD);
         }
     }
 
-    private void validarTipoIdentificacion() {
-        if (tipoIdentificacion == null) {
-            throw new DomainValidationException("El tipo de identificación es obligatorio", "tipoIdentificacion");
+    private static void validarApellido(String apellido, ResultadoValidacion resultado) {
+        if (apellido == null || apellido.trim().isEmpty()) {
+            resultado.agregar(APELLIDO_OBLIGATORIO);
+        } else if (apellido.length() < 2 || apellido.length() > 50) {
+            resultado.agregar(APELLIDO_LONGITUD);
         }
     }
 
-    private void validarTipoCliente() {
-        if (tipoCliente == null) {
-            throw new DomainValidationException("El tipo de cliente es obligatorio", "tipoCliente");
+    private static void validarIdentificacion(String identificacion, ResultadoValidacion resultado) {
+        if (identificacion == null || identificacion.trim().isEmpty()) {
+            resultado.agregar(IDENTIFICACION_OBLIGATORIA);
+        } else if (identificacion.length() < 5 || identificacion.length() > 20) {
+            resultado.agregar(IDENTIFICACION_LONGITUD);
         }
     }
 
-    private void validarContactoInfo() {
+    private static void validarContactoInfo(ContactoInfo contactoInfo, ResultadoValidacion resultado) {
         if (contactoInfo == null) {
-            throw new DomainValidationException("La información de contacto es obligatoria", "contactoInfo");
+            resultado.agregar(CONTACTO_OBLIGATORIO);
         }
     }
 
-    private void validarFechaNacimiento() {
+    private static void validarFechaNacimiento(LocalDate fechaNacimiento, ResultadoValidacion resultado) {
         if (fechaNacimiento != null) {
             LocalDate fechaMinima = LocalDate.now().minusYears(120);
             LocalDate fechaMaxima = LocalDate.now().minusYears(18);
 
             if (fechaNacimiento.isBefore(fechaMinima)) {
-                throw new DomainValidationException("La fecha de nacimiento no puede ser anterior a 120 años", "fechaNacimiento");
-            }
-
-            if (fechaNacimiento.isAfter(fechaMaxima)) {
-                throw new DomainValidationException("El cliente debe ser mayor de 18 años", "fechaNacimiento");
+                resultado.agregar(FECHA_NACIMIENTO_ANTIGUA);
+            } else if (fechaNacimiento.isAfter(fechaMaxima)) {
+                resultado.agregar(MENOR_DE_EDAD);
             }
         }
     }
 
     // Métodos de comportamiento de negocio
     public void actualizarInformacionPersonal(String nombre, String apellido) {
-        String nombreAnterior = this.nombre;
-        String apellidoAnterior = this.apellido;
+        // Se valida antes de asignar, así un error no deja cambios a medias
+        ResultadoValidacion resultado = new ResultadoValidacion();
+        validarNombre(nombre, resultado);
+        validarApellido(apellido, resultado);
+        resultado.lanzarSiInvalido();
 
         this.nombre = nombre;
         this.apellido = apellido;
-
-        try {
-            validarNombre();
-            validarApellido();
-            marcarComoActualizado("SYSTEM"); // En un caso real vendría del contexto
-        } catch (DomainValidationException e) {
-            // Revertir cambios en caso de error
-            this.nombre = nombreAnterior;
-            this.apellido = apellidoAnterior;
-            throw e;
-        }
+        marcarComoActualizado("SYSTEM"); // En un caso real vendría del contexto
     }
 
     public void actualizarContacto(ContactoInfo nuevoContacto) {
-        ContactoInfo contactoAnterior = this.contactoInfo;
-        this.contactoInfo = nuevoContacto;
+        ResultadoValidacion resultado = new ResultadoValidacion();
+        validarContactoInfo(nuevoContacto, resultado);
+        resultado.lanzarPrimerError();
 
-        try {
-            validarContactoInfo();
-            marcarComoActualizado("SYSTEM");
-        } catch (DomainValidationException e) {
-            this.contactoInfo = contactoAnterior;
-            throw e;
-        }
+        this.contactoInfo = nuevoContacto;
+        marcarComoActualizado("SYSTEM");
     }
 
     public void cambiarTipoCliente(TipoCliente nuevoTipo) {
         if (nuevoTipo == null) {
-            throw new DomainValidationException("El nuevo tipo de cliente no puede ser nulo", "tipoCliente");
+            throw NUEVO_TIPO_NULO.excepcion();
         }
 
         if (this.tipoCliente == nuevoTipo) {
@@ -182,7 +188,7 @@ public class Cliente extends BaseEntity {
 
     public void suspender(String motivo) {
         if (this.estado == EstadoCliente.SUSPENDIDO) {
-            throw new DomainValidationException("El cliente ya está suspendido");
+            throw YA_SUSPENDIDO.excepcion();
         }
 
         this.estado = EstadoCliente.SUSPENDIDO;
@@ -192,7 +198,7 @@ public class Cliente extends BaseEntity {
 
     public void reactivar() {
         if (this.estado == EstadoCliente.ACTIVO) {
-            throw new DomainValidationException("El cliente ya está activo");
+            throw YA_ACTIVO.excepcion();
         }
 
         this.estado = EstadoCliente.ACTIVO;
@@ -268,6 +274,7 @@ public class Cliente extends BaseEntity {
         private TipoIdentificacion tipoIdentificacion;
         private TipoCliente tipoCliente;
         private ContactoInfo contactoInfo;
+        private ContactoInfo.Builder datosContacto;
         private LocalDate fechaNacimiento;
         private String observaciones;
 
@@ -301,6 +308,15 @@ public class Cliente extends BaseEntity {
             return this;
         }
 
+        /**
+         * Datos de contacto sin construir: se validan junto con el cliente y
+         * se construyen en {@link #build()}.
+         */
+        public Builder datosContacto(ContactoInfo.Builder datosContacto) {
+            this.datosContacto = datosContacto;
+            return this;
+        }
+
         public Builder fechaNacimiento(LocalDate fechaNacimiento) {
             this.fechaNacimiento = fechaNacimiento;
             return this;
@@ -311,7 +327,23 @@ public class Cliente extends BaseEntity {
             return this;
         }
 
+        /**
+         * Valida los datos sin construir el cliente ni lanzar excepciones,
+         * para importaciones masivas donde muchas filas son inválidas.
+         * @param resultado Resultado donde se agregan los errores
+         * @return El mismo resultado
+         */
+        public ResultadoValidacion validar(ResultadoValidacion resultado) {
+            return Cliente.validar(nombre, apellido, identificacion, tipoIdentificacion, tipoCliente, contactoInfo,
+                    datosContacto, fechaNacimiento, resultado);
+        }
+
         public Cliente build() {
+            if (contactoInfo == null && datosContacto != null) {
+                // Primero todo junto, para no informar solo los errores del contacto
+                validar(new ResultadoValidacion()).lanzarSiInvalido();
+                contactoInfo = datosContacto.build();
+            }
             return new Cliente(this);
         }
     }
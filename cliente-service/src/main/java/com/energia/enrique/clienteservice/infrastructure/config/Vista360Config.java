@@ -0,0 +1,79 @@
+package com.energia.enrique.clienteservice.infrastructure.config;
+
+import com.energia.enrique.clienteservice.application.ports.ConsultaContratos;
+import com.energia.enrique.clienteservice.application.ports.ConsultaFacturas;
+import com.energia.enrique.clienteservice.application.ports.ConsultaLecturas;
+import com.energia.enrique.clienteservice.application.ports.ConsultaMedidores;
+import com.energia.enrique.clienteservice.application.usecases.ConsultarVista360UseCase.LimitesVista360;
+import com.energia.enrique.clienteservice.infrastructure.remoto.ConsultaContratosRest;
+import com.energia.enrique.clienteservice.infrastructure.remoto.ConsultaFacturasRest;
+import com.energia.enrique.clienteservice.infrastructure.remoto.ConsultaLecturasRest;
+import com.energia.enrique.clienteservice.infrastructure.remoto.ConsultaMedidoresRest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.ClientHttpRequestFactories;
+import org.springframework.boot.web.client.ClientHttpRequestFactorySettings;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+
+/**
+ * Clientes HTTP de la vista 360. Cada servicio tiene su propio RestClient con
+ * timeout de lectura igual al límite de su rama, así una llamada colgada no
+ * retiene el hilo del pool después de que la rama ya se dio por perdida.
+ * Los builders salen del de Spring, que ya trae la propagación de la traza.
+ */
+@Configuration
+public class Vista360Config {
+
+    @Bean
+    public LimitesVista360 limitesVista360(
+            @Value("${energia.cliente.vista360.limite-ms.cliente:300}") long cliente,
+            @Value("${energia.cliente.vista360.limite-ms.contratos:300}") long contratos,
+            @Value("${energia.cliente.vista360.limite-ms.medidores:300}") long medidores,
+            @Value("${energia.cliente.vista360.limite-ms.lecturas:300}") long lecturas,
+            @Value("${energia.cliente.vista360.limite-ms.facturas:300}") long facturas,
+            @Value("${energia.cliente.vista360.limite-ms.total:800}") long total) {
+        return new LimitesVista360(cliente, contratos, medidores, lecturas, facturas, total);
+    }
+
+    @Bean
+    public ConsultaContratos consultaContratos(RestClient.Builder builder, LimitesVista360 limites,
+                                               @Value("${energia.servicios.contrato.url}") String url,
+                                               @Value("${energia.cliente.vista360.conexion-ms:100}") long conexionMs) {
+        return new ConsultaContratosRest(cliente(builder, url, conexionMs, limites.contratos()));
+    }
+
+    @Bean
+    public ConsultaMedidores consultaMedidores(RestClient.Builder builder, LimitesVista360 limites,
+                                               @Value("${energia.servicios.medidor.url}") String url,
+                                               @Value("${energia.cliente.vista360.conexion-ms:100}") long conexionMs) {
+        return new ConsultaMedidoresRest(cliente(builder, url, conexionMs, limites.medidores()));
+    }
+
+    @Bean
+    public ConsultaFacturas consultaFacturas(RestClient.Builder builder, LimitesVista360 limites,
+                                             @Value("${energia.servicios.facturacion.url}") String url,
+                                             @Value("${energia.cliente.vista360.conexion-ms:100}") long conexionMs) {
+        return new ConsultaFacturasRest(cliente(builder, url, conexionMs, limites.facturas()));
+    }
+
+    @Bean
+    public ConsultaLecturas consultaLecturas(RestClient.Builder builder, LimitesVista360 limites,
+                                             @Value("${energia.servicios.consumo.url}") String url,
+                                             @Value("${energia.cliente.vista360.conexion-ms:100}") long conexionMs) {
+        return new ConsultaLecturasRest(cliente(builder, url, conexionMs, limites.lecturas()));
+    }
+
+    private static RestClient cliente(RestClient.Builder builder, String url, long conexionMs, long lecturaMs) {
+        ClientHttpRequestFactorySettings ajustes = ClientHttpRequestFactorySettings.DEFAULTS
+                .withConnectTimeout(Duration.ofMillis(conexionMs))
+                .withReadTimeout(Duration.ofMillis(lecturaMs));
+        // clone(): el builder de Spring es prototipo, pero se comparte entre los cuatro beans de esta clase
+        return builder.clone()
+                .baseUrl(url)
+                .requestFactory(ClientHttpRequestFactories.get(ajustes))
+                .build();
+    }
+}
@@ -0,0 +1,41 @@
+package com.energia.enrique.clienteservice.infrastructure.outbox;
+
+import com.energia.enrique.clienteservice.application.ports.PublicadorEventos;
+import com.energia.shared.infrastructure.outbox.AlmacenOutboxJdbc;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+
+/**
+ * Implementación del publicador de eventos sobre la tabla outbox.
+ * Capa de infraestructura - Clean Architecture.
+ */
+@Component
+@RequiredArgsConstructor
+public class PublicadorEventosOutbox implements PublicadorEventos {
+
+    private static final String AGREGADO_CLIENTE = "Cliente";
+
+    private final AlmacenOutboxJdbc almacenOutbox;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publicar(String tipoEvento, String idCliente, Map<String, Object> datos) {
+        almacenOutbox.registrar(new AlmacenOutboxJdbc.EventoNuevo(tipoEvento, AGREGADO_CLIENTE, idCliente,
+                serializar(datos)));
+    }
+
+    private String serializar(Map<String, Object> datos) {
+        try {
+            return objectMapper.writeValueAsString(datos);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el evento de dominio", e);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.energia.enrique.clienteservice.infrastructure.remoto;
+
+import com.energia.enrique.clienteservice.application.dto.vista360.ContratoResumen;
+import com.energia.enrique.clienteservice.application.ports.ConsultaContratos;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.web.client.RestClient;
+
+import java.util.List;
+
+/**
+ * Contratos del cliente vía contrato-service ({@code GET /contratos/cliente/{id}}).
+ */
+public class ConsultaContratosRest implements ConsultaContratos {
+
+    private static final ParameterizedTypeReference<List<ContratoResumen>> TIPO = new ParameterizedTypeReference<>() {
+    };
+
+    private final RestClient restClient;
+
+    public ConsultaContratosRest(RestClient restClient) {
+        this.restClient = restClient;
+    }
+
+    @Override
+    public List<ContratoResumen> porCliente(Long idCliente) {
+        List<ContratoResumen> contratos = restClient.get()
+                .uri("/contratos/cliente/{idCliente}", idCliente)
+                .retrieve()
+                .body(TIPO);
+        return contratos == null ? List.of() : contratos;
+    }
+}
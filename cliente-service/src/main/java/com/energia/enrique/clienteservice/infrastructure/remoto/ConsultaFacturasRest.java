@@ -0,0 +1,43 @@
+package com.energia.enrique.clienteservice.infrastructure.remoto;
+
+import com.energia.enrique.clienteservice.application.dto.vista360.FacturaPendiente;
+import com.energia.enrique.clienteservice.application.ports.ConsultaFacturas;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.web.client.RestClient;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Facturas pendientes por contrato vía facturacion-service
+ * ({@code GET /facturas/pendientes/contratos?ids=}), una llamada por tramo de ids.
+ */
+public class ConsultaFacturasRest implements ConsultaFacturas {
+
+    private static final ParameterizedTypeReference<Map<Long, List<FacturaPendiente>>> TIPO =
+            new ParameterizedTypeReference<>() {
+            };
+
+    private final RestClient restClient;
+
+    public ConsultaFacturasRest(RestClient restClient) {
+        this.restClient = restClient;
+    }
+
+    @Override
+    public Map<Long, List<FacturaPendiente>> pendientesPorContratos(Collection<Long> idsContrato) {
+        Map<Long, List<FacturaPendiente>> facturas = new HashMap<>();
+        for (String tramo : Tramos.de(idsContrato)) {
+            Map<Long, List<FacturaPendiente>> parcial = restClient.get()
+                    .uri(uri -> uri.path("/facturas/pendientes/contratos").queryParam("ids", tramo).build())
+                    .retrieve()
+                    .body(TIPO);
+            if (parcial != null) {
+                facturas.putAll(parcial);
+            }
+        }
+        return facturas;
+    }
+}
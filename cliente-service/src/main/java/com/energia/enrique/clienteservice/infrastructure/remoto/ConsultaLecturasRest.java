@@ -0,0 +1,46 @@
+package com.energia.enrique.clienteservice.infrastructure.remoto;
+
+import com.energia.enrique.clienteservice.application.dto.vista360.LecturaReciente;
+import com.energia.enrique.clienteservice.application.ports.ConsultaLecturas;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.web.client.RestClient;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Últimas lecturas por medidor vía consumo-service
+ * ({@code GET /lecturas/ultimas?medidores=&cantidad=}), una llamada por tramo de ids.
+ */
+public class ConsultaLecturasRest implements ConsultaLecturas {
+
+    private static final ParameterizedTypeReference<Map<Long, List<LecturaReciente>>> TIPO =
+            new ParameterizedTypeReference<>() {
+            };
+
+    private final RestClient restClient;
+
+    public ConsultaLecturasRest(RestClient restClient) {
+        this.restClient = restClient;
+    }
+
+    @Override
+    public Map<Long, List<LecturaReciente>> ultimasPorMedidores(Collection<Long> idsMedidor, int cantidad) {
+        Map<Long, List<LecturaReciente>> lecturas = new HashMap<>();
+        for (String tramo : Tramos.de(idsMedidor)) {
+            Map<Long, List<LecturaReciente>> parcial = restClient.get()
+                    .uri(uri -> uri.path("/lecturas/ultimas")
+                            .queryParam("medidores", tramo)
+                            .queryParam("cantidad", cantidad)
+                            .build())
+                    .retrieve()
+                    .body(TIPO);
+            if (parcial != null) {
+                lecturas.putAll(parcial);
+            }
+        }
+        return lecturas;
+    }
+}
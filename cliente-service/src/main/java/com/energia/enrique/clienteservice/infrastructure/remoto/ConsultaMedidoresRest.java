@@ -0,0 +1,43 @@
+package com.energia.enrique.clienteservice.infrastructure.remoto;
+
+import com.energia.enrique.clienteservice.application.dto.vista360.MedidorResumen;
+import com.energia.enrique.clienteservice.application.ports.ConsultaMedidores;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.web.client.RestClient;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Medidores por contrato vía medidor-service ({@code GET /medidores/contratos?ids=}),
+ * una llamada por tramo de ids.
+ */
+public class ConsultaMedidoresRest implements ConsultaMedidores {
+
+    private static final ParameterizedTypeReference<Map<Long, List<MedidorResumen>>> TIPO =
+            new ParameterizedTypeReference<>() {
+            };
+
+    private final RestClient restClient;
+
+    public ConsultaMedidoresRest(RestClient restClient) {
+        this.restClient = restClient;
+    }
+
+    @Override
+    public Map<Long, List<MedidorResumen>> porContratos(Collection<Long> idsContrato) {
+        Map<Long, List<MedidorResumen>> medidores = new HashMap<>();
+        for (String tramo : Tramos.de(idsContrato)) {
+            Map<Long, List<MedidorResumen>> parcial = restClient.get()
+                    .uri(uri -> uri.path("/medidores/contratos").queryParam("ids", tramo).build())
+                    .retrieve()
+                    .body(TIPO);
+            if (parcial != null) {
+                medidores.putAll(parcial);
+            }
+        }
+        return medidores;
+    }
+}
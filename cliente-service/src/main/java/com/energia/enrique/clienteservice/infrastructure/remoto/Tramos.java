@@ -0,0 +1,32 @@
+package com.energia.enrique.clienteservice.infrastructure.remoto;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Parte una lista de ids en tramos que entren en la query string. Los
+ * servicios aceptan hasta 1000 ids por consulta; 500 deja margen para que la
+ * URL no pase los 8 KB que admite Tomcat por defecto.
+ */
+final class Tramos {
+
+    static final int TAMANO_TRAMO = 500;
+
+    private Tramos() {
+    }
+
+    /** Tramos sin ids repetidos, ya unidos por comas. */
+    static List<String> de(Collection<Long> ids) {
+        List<Long> unicos = new ArrayList<>(new LinkedHashSet<>(ids));
+        List<String> tramos = new ArrayList<>();
+        for (int desde = 0; desde < unicos.size(); desde += TAMANO_TRAMO) {
+            tramos.add(unicos.subList(desde, Math.min(desde + TAMANO_TRAMO, unicos.size())).stream()
+                    .map(String::valueOf)
+                    .collect(Collectors.joining(",")));
+        }
+        return tramos;
+    }
+}
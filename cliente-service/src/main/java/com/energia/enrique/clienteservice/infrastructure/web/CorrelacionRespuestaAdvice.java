@@ -0,0 +1,38 @@
+package com.energia.enrique.clienteservice.infrastructure.web;
+
+import com.energia.enrique.clienteservice.infrastructure.web.dto.ApiResponse;
+import com.energia.shared.infrastructure.trazas.Trazador;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Completa el requestId de toda ApiResponse con el id de correlación de la
+ * petición, el mismo que aparece en los logs y en la cabecera X-Correlation-Id.
+ */
+@RestControllerAdvice
+@RequiredArgsConstructor
+public class CorrelacionRespuestaAdvice implements ResponseBodyAdvice<Object> {
+
+    private final Trazador trazador;
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (body instanceof ApiResponse<?> apiResponse && apiResponse.getRequestId() == null) {
+            apiResponse.setRequestId(trazador.idCorrelacionActual());
+        }
+        return body;
+    }
+}
@@ -0,0 +1,85 @@
+package com.energia.enrique.clienteservice.infrastructure.web;
+
+import com.energia.enrique.clienteservice.infrastructure.web.dto.ApiResponse;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Estado e información del servicio de clientes.
+ * Capa de infraestructura - Clean Architecture.
+ * El alta y la gestión de clientes están en {@link com.energia.enrique.clienteservice.controller.ClienteController}.
+ */
+@RestController
+@RequestMapping("/api/v1/clientes")
+@Tag(name = "Estado del servicio", description = "Estado e información del servicio de clientes")
+public class EstadoServicioController {
+
+    @GetMapping("/health")
+    @Operation(
+        summary = "Verificar estado del servicio",
+        description = "Endpoint para verificar que el servicio de clientes está funcionando"
+    )
+    public ResponseEntity<ApiResponse<Map<String, Object>>> health() {
+        Map<String, Object> healthData = Map.of(
+            "status", "UP",
+            "service", "cliente-service",
+            "version", "1.0.0",
+            "timestamp", LocalDateTime.now()
+        );
+
+        ApiResponse<Map<String, Object>> response = ApiResponse.<Map<String, Object>>builder()
+            .success(true)
+            .message("Servicio funcionando correctamente")
+            .data(healthData)
+            .timestamp(LocalDateTime.now())
+            .path("/api/v1/clientes/health")
+            .build();
+
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/info")
+    @Operation(
+        summary = "Información del servicio",
+        description = "Obtiene información detallada del microservicio de clientes"
+    )
+    public ResponseEntity<ApiResponse<Map<String, Object>>> info() {
+        Map<String, Object> infoData = Map.of(
+            "serviceName", "Cliente Microservice",
+            "version", "1.0.0",
+            "description", "Microservicio para gestión de clientes del sistema energético",
+            "architecture", "Clean Architecture",
+            "technologies", Map.of(
+                "framework", "Spring Boot 3.3.4",
+                "language", "Java 17",
+                "database", "PostgreSQL",
+                "documentation", "OpenAPI 3"
+            ),
+            "endpoints", Map.of(
+                "create", "POST /api/v1/clientes",
+                "suspend", "POST /api/v1/clientes/{id}/suspension",
+                "view360", "GET /api/v1/clientes/{id}/vista-360",
+                "health", "GET /api/v1/clientes/health",
+                "info", "GET /api/v1/clientes/info"
+            ),
+            "timestamp", LocalDateTime.now()
+        );
+
+        ApiResponse<Map<String, Object>> response = ApiResponse.<Map<String, Object>>builder()
+            .success(true)
+            .message("Información del servicio")
+            .data(infoData)
+            .timestamp(LocalDateTime.now())
+            .path("/api/v1/clientes/info")
+            .build();
+
+        return ResponseEntity.ok(response);
+    }
+}
\ No newline at end of file
@@ -25,6 +25,8 @@ public class ApiResponse<T> {
     private String message;
     private T data;
     private ErrorDetail error;
+    // Todos los errores de validación de la petición; error es el primero
+    private List<ErrorDetail> errors;
     private PaginationInfo pagination;
     private MetaInfo meta;
 
@@ -96,6 +98,16 @@ public class ApiResponse<T> {
                 .build();
     }
 
+    public static <T> ApiResponse<T> validationErrors(String message, List<ErrorDetail> errors) {
+        return ApiResponse.<T>builder()
+                .success(false)
+                .message(message)
+                .error(errors.isEmpty() ? null : errors.get(0))
+                .errors(errors)
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+
     // Métodos para respuestas paginadas
     public static <T> ApiResponse<List<T>> paginated(List<T> data, PaginationInfo pagination) {
         return ApiResponse.<List<T>>builder()
@@ -34,6 +34,15 @@ public class ClienteEntity {
     @Column(name = "tipo_cliente", nullable = false)
     private TipoCliente tipoCliente;
 
+    // Solo lo cambia la suspensión; al crear siempre queda ACTIVO
+    @Enumerated(EnumType.STRING)
+    @Column(name = "estado", nullable = false)
+    @Builder.Default
+    private EstadoCliente estado = EstadoCliente.ACTIVO;
+
+    @Column(name = "motivo_suspension")
+    private String motivoSuspension;
+
     // Otros atributos y métodos según sea necesario
 
     public enum TipoCliente {
@@ -41,4 +50,9 @@ public class ClienteEntity {
         COMERCIAL,
         INDUSTRIAL
     }
+
+    public enum EstadoCliente {
+        ACTIVO,
+        SUSPENDIDO
+    }
 }
@@ -0,0 +1,17 @@
+package com.energia.enrique.clienteservice.repository;
+
+import com.energia.enrique.clienteservice.model.ClienteEntity;
+
+import java.util.Map;
+import java.util.Optional;
+
+// Fragmento de ClienteRepository: PATCH como un único UPDATE con las columnas recibidas
+public interface ActualizacionParcialCliente {
+
+    /**
+     * @param cambios Campo → valor; solo esas columnas se escriben
+     * @return Vacío si no hay cliente con ese id
+     * @throws IllegalArgumentException si un campo no es actualizable o su valor es inválido
+     */
+    Optional<ClienteEntity> actualizarCampos(Long id, Map<String, ?> cambios);
+}
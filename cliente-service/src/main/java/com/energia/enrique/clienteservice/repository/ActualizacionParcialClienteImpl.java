@@ -0,0 +1,32 @@
+package com.energia.enrique.clienteservice.repository;
+
+import com.energia.enrique.clienteservice.model.ClienteEntity;
+import com.energia.shared.infrastructure.persistencia.ActualizacionParcial;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Map;
+import java.util.Optional;
+
+@RequiredArgsConstructor
+public class ActualizacionParcialClienteImpl implements ActualizacionParcialCliente {
+
+    private static final ActualizacionParcial ACTUALIZACION = ActualizacionParcial.tabla("clientes")
+            .retornando("*")
+            .campo("rucCi", "ruc_ci", ActualizacionParcial.textoObligatorio())
+            .campo("nombre", "nombre", ActualizacionParcial.textoObligatorio())
+            .campo("direccion", "direccion", ActualizacionParcial.textoObligatorio())
+            .campo("tipoCliente", "tipo_cliente", ActualizacionParcial.enumerado(ClienteEntity.TipoCliente.class))
+            .build();
+
+    private static final BeanPropertyRowMapper<ClienteEntity> MAPEADOR = new BeanPropertyRowMapper<>(ClienteEntity.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public Optional<ClienteEntity> actualizarCampos(Long id, Map<String, ?> cambios) {
+        ActualizacionParcial.Sentencia sentencia = ACTUALIZACION.construir(id, cambios, null);
+        return jdbcTemplate.query(sentencia.sql(), MAPEADOR, sentencia.parametros()).stream().findFirst();
+    }
+}
@@ -1,7 +1,24 @@
 package com.energia.enrique.clienteservice.repository;
 
 import com.energia.enrique.clienteservice.model.ClienteEntity;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface ClienteRepository extends JpaRepository<ClienteEntity,Long> {
+public interface ClienteRepository extends JpaRepository<ClienteEntity,Long>, ActualizacionParcialCliente {
+
+    Page<ClienteEntity> findByNombreContainingIgnoreCase(String nombre, Pageable pageable);
+
+    // Solo escribe si el cliente no estaba suspendido: entre dos suspensiones concurrentes, una sola publica el evento
+    @Modifying(clearAutomatically = true)
+    @Query(value = "UPDATE clientes SET estado = 'SUSPENDIDO', motivo_suspension = :motivo " +
+            "WHERE id = :id AND estado <> 'SUSPENDIDO'", nativeQuery = true)
+    int suspender(@Param("id") Long id, @Param("motivo") String motivo);
+
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM ClienteEntity c WHERE c.id = :id")
+    int eliminarPorId(@Param("id") Long id);
 }
@@ -1,19 +1,42 @@
 package com.energia.enrique.clienteservice.service;
 
 import com.energia.enrique.clienteservice.model.ClienteEntity;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface ClienteService {
 
     List<ClienteEntity> obtenerTodosClientes();
 
+    Page<ClienteEntity> obtenerTodosClientes(Pageable pageable);
+
+    Page<ClienteEntity> buscarPorNombre(String nombre, Pageable pageable);
+
     Optional<ClienteEntity> obtenerClientePorId(Long id);
 
     ClienteEntity crearCliente(ClienteEntity cliente);
 
-    ClienteEntity actualizarCliente(Long id, ClienteEntity cliente);
-
-    void eliminarCliente(Long id);
+    Optional<ClienteEntity> actualizarCliente(Long id, ClienteEntity cliente);
+
+    /**
+     * Actualización parcial: solo se escriben los campos presentes en {@code cambios}.
+     * @return Vacío si el cliente no existe
+     * @throws IllegalArgumentException si un campo no es actualizable o su valor es inválido
+     */
+    Optional<ClienteEntity> actualizarClienteParcial(Long id, Map<String, Object> cambios);
+
+    /**
+     * Suspende al cliente y publica ClienteSuspendido. Suspender a uno ya suspendido no publica de nuevo.
+     * @return Vacío si el cliente no existe
+     */
+    Optional<ClienteEntity> suspenderCliente(Long id, String motivo);
+
+    /**
+     * @return false si el cliente no existía
+     */
+    boolean eliminarCliente(Long id);
 }
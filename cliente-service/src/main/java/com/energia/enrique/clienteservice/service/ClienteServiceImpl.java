@@ -1,52 +1,107 @@
 package com.energia.enrique.clienteservice.service;
 
+import com.energia.enrique.clienteservice.application.ports.PublicadorEventos;
 import com.energia.enrique.clienteservice.model.ClienteEntity;
 import com.energia.enrique.clienteservice.repository.ClienteRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
+@Timed(value = "energia.servicio", histogram = true)
 public class ClienteServiceImpl implements ClienteService {
 
     @Autowired
     private ClienteRepository clienteRepository;
 
+    @Autowired
+    private PublicadorEventos publicadorEventos;
+
     @Override
+    @Transactional(readOnly = true)
     public List<ClienteEntity> obtenerTodosClientes() {
         return clienteRepository.findAll();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Page<ClienteEntity> obtenerTodosClientes(Pageable pageable) {
+        return clienteRepository.findAll(pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<ClienteEntity> buscarPorNombre(String nombre, Pageable pageable) {
+        return clienteRepository.findByNombreContainingIgnoreCase(nombre, pageable);
+    }
+
     @Override
     public Optional<ClienteEntity> obtenerClientePorId(Long id) {
         return clienteRepository.findById(id);
     }
 
     @Override
+    @Transactional
     public ClienteEntity crearCliente(ClienteEntity cliente) {
-        // Puedes agregar validaciones u lógica de negocio aquí antes de guardar
-        return clienteRepository.save(cliente);
+        cliente.setEstado(ClienteEntity.EstadoCliente.ACTIVO);
+        cliente.setMotivoSuspension(null);
+        ClienteEntity guardado = clienteRepository.save(cliente);
+
+        // En la misma transacción que el INSERT: el evento sale si y solo si el cliente quedó guardado
+        publicadorEventos.publicar(PublicadorEventos.CLIENTE_CREADO, String.valueOf(guardado.getId()), Map.of(
+                "id", guardado.getId(),
+                "rucCi", guardado.getRucCi(),
+                "tipoCliente", guardado.getTipoCliente().name()));
+        return guardado;
+    }
+
+    @Override
+    @Transactional
+    public Optional<ClienteEntity> actualizarCliente(Long id, ClienteEntity cliente) {
+        // Un solo UPDATE con todos los campos: sin existsById previo; vacío si el cliente no existe
+        Map<String, Object> cambios = new LinkedHashMap<>();
+        cambios.put("rucCi", cliente.getRucCi());
+        cambios.put("nombre", cliente.getNombre());
+        cambios.put("direccion", cliente.getDireccion());
+        cambios.put("tipoCliente", cliente.getTipoCliente() == null ? null : cliente.getTipoCliente().name());
+        return clienteRepository.actualizarCampos(id, cambios);
     }
 
     @Override
-    public ClienteEntity actualizarCliente(Long id, ClienteEntity cliente) {
-        // Verificar si el cliente existe antes de actualizar
-        if (clienteRepository.existsById(id)) {
-            // Puedes agregar validaciones u lógica de negocio aquí antes de actualizar
-            cliente.setId(id);
-            return clienteRepository.save(cliente);
-        } else {
-            // Manejar el caso en que el cliente no existe
-            // Puedes lanzar una excepción, devolver un valor predeterminado, etc.
-            return null;
+    @Transactional
+    public Optional<ClienteEntity> actualizarClienteParcial(Long id, Map<String, Object> cambios) {
+        return clienteRepository.actualizarCampos(id, cambios);
+    }
+
+    @Override
+    @Transactional
+    public Optional<ClienteEntity> suspenderCliente(Long id, String motivo) {
+        if (clienteRepository.suspender(id, motivo) == 0) {
+            // Ya suspendido (se devuelve tal cual, sin otro evento) o inexistente
+            return clienteRepository.findById(id);
         }
+
+        ClienteEntity suspendido = clienteRepository.findById(id).orElseThrow();
+        Map<String, Object> datos = new LinkedHashMap<>();
+        datos.put("id", suspendido.getId());
+        datos.put("rucCi", suspendido.getRucCi());
+        datos.put("motivo", motivo);
+        publicadorEventos.publicar(PublicadorEventos.CLIENTE_SUSPENDIDO, String.valueOf(id), datos);
+        return Optional.of(suspendido);
     }
 
     @Override
-    public void eliminarCliente(Long id) {
-        // Eliminar el cliente si existe
-        clienteRepository.deleteById(id);
+    @Transactional
+    public boolean eliminarCliente(Long id) {
+        // Un solo DELETE: la cantidad de filas dice si existía
+        return clienteRepository.eliminarPorId(id) == 1;
     }
 }
@@ -0,0 +1,53 @@
+-- Esquema propio de cliente-service.
+-- Si la tabla fue creada antes por generate-ddl en el esquema public, se mueve con sus datos.
+DO $$
+BEGIN
+    IF to_regclass('public.clientes') IS NOT NULL THEN
+        ALTER TABLE public.clientes SET SCHEMA ${flyway:defaultSchema};
+    END IF;
+END $$;
+
+CREATE TABLE IF NOT EXISTS clientes (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    ruc_ci       VARCHAR(255) NOT NULL UNIQUE,
+    nombre       VARCHAR(255) NOT NULL,
+    direccion    VARCHAR(255) NOT NULL,
+    tipo_cliente VARCHAR(255) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS outbox_eventos (
+    id                BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    tipo_evento       VARCHAR(100) NOT NULL,
+    tipo_agregado     VARCHAR(50)  NOT NULL,
+    id_agregado       VARCHAR(50)  NOT NULL,
+    payload           TEXT         NOT NULL,
+    fecha_creacion    TIMESTAMP    NOT NULL,
+    fecha_publicacion TIMESTAMP,
+    intentos          INTEGER      NOT NULL DEFAULT 0,
+    ultimo_error      VARCHAR(500)
+);
+
+-- El relay solo recorre los eventos sin publicar
+CREATE INDEX IF NOT EXISTS idx_outbox_eventos_pendientes
+    ON outbox_eventos (id) WHERE fecha_publicacion IS NULL;
+
+-- El outbox que dejó generate-ddl en public lo compartían cliente, contrato y medidor:
+-- cada servicio se lleva sus eventos (por tipo de agregado) y el último en migrar la borra.
+DO $$
+BEGIN
+    IF to_regclass('public.outbox_eventos') IS NOT NULL THEN
+        INSERT INTO outbox_eventos (id, tipo_evento, tipo_agregado, id_agregado, payload, fecha_creacion,
+                                    fecha_publicacion, intentos, ultimo_error)
+        SELECT id, tipo_evento, tipo_agregado, id_agregado, payload, fecha_creacion,
+               fecha_publicacion, intentos, ultimo_error
+        FROM public.outbox_eventos WHERE tipo_agregado = 'Cliente'
+        ON CONFLICT (id) DO NOTHING;
+        DELETE FROM public.outbox_eventos WHERE tipo_agregado = 'Cliente';
+        IF NOT EXISTS (SELECT 1 FROM public.outbox_eventos) THEN
+            DROP TABLE public.outbox_eventos;
+        END IF;
+        -- Los ids nuevos siguen después de los copiados
+        PERFORM setval(pg_get_serial_sequence('outbox_eventos', 'id'),
+                       GREATEST((SELECT max(id) FROM outbox_eventos), 1));
+    END IF;
+END $$;
@@ -0,0 +1,4 @@
+-- Suspensión de clientes (POST /api/v1/clientes/{id}/suspension): publica ClienteSuspendido.
+-- Los clientes existentes quedan activos.
+ALTER TABLE clientes ADD COLUMN IF NOT EXISTS estado VARCHAR(20) NOT NULL DEFAULT 'ACTIVO';
+ALTER TABLE clientes ADD COLUMN IF NOT EXISTS motivo_suspension VARCHAR(500);
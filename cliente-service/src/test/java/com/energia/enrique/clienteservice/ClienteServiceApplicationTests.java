@@ -1,13 +1,41 @@
 package com.energia.enrique.clienteservice;
 
+import com.energia.enrique.clienteservice.controller.ClienteController;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
 
-@SpringBootTest
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Arranca el contexto completo contra un PostgreSQL real, con las migraciones de Flyway:
+// lo mismo que levanta el monolito como primer módulo
+@SpringBootTest(properties = "energia.trazas.exportador=memoria")
+@Testcontainers
 class ClienteServiceApplicationTests {
 
+	@Container
+	static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine")
+			.withUrlParam("currentSchema", "cliente");
+
+	@DynamicPropertySource
+	static void baseDeDatos(DynamicPropertyRegistry registro) {
+		registro.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+		registro.add("spring.datasource.username", POSTGRES::getUsername);
+		registro.add("spring.datasource.password", POSTGRES::getPassword);
+	}
+
+	@Autowired
+	private ApplicationContext contexto;
+
 	@Test
 	void contextLoads() {
+		assertEquals(1, contexto.getBeansOfType(ClienteController.class).size());
 	}
 
 }
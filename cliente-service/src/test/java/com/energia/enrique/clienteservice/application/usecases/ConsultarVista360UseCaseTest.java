@@ -0,0 +1,197 @@
+package com.energia.enrique.clienteservice.application.usecases;
+
+import com.energia.enrique.clienteservice.application.dto.vista360.ContratoResumen;
+import com.energia.enrique.clienteservice.application.dto.vista360.FacturaPendiente;
+import com.energia.enrique.clienteservice.application.dto.vista360.LecturaReciente;
+import com.energia.enrique.clienteservice.application.dto.vista360.MedidorResumen;
+import com.energia.enrique.clienteservice.application.dto.vista360.SeccionVista;
+import com.energia.enrique.clienteservice.application.dto.vista360.Vista360Response;
+import com.energia.enrique.clienteservice.application.ports.ConsultaContratos;
+import com.energia.enrique.clienteservice.application.ports.ConsultaFacturas;
+import com.energia.enrique.clienteservice.application.ports.ConsultaLecturas;
+import com.energia.enrique.clienteservice.application.ports.ConsultaMedidores;
+import com.energia.enrique.clienteservice.application.usecases.ConsultarVista360UseCase.LimitesVista360;
+import com.energia.enrique.clienteservice.model.ClienteEntity;
+import com.energia.enrique.clienteservice.service.ClienteService;
+import com.energia.shared.infrastructure.trazas.ExportadorSpans;
+import com.energia.shared.infrastructure.trazas.Trazador;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConsultarVista360UseCaseTest {
+
+    private static final LimitesVista360 LIMITES = new LimitesVista360(200, 200, 200, 200, 200, 500);
+
+    private final Trazador trazador = new Trazador("msvc-cliente", ExportadorSpans.NINGUNO);
+    private final List<ConsultarVista360UseCase> casos = new CopyOnWriteArrayList<>();
+
+    private ConsultaContratos contratos = idCliente -> List.of(
+            new ContratoResumen(10L, "C-10", "MENSUAL", idCliente),
+            new ContratoResumen(11L, "C-11", "MENSUAL", idCliente));
+    private ConsultaMedidores medidores = idsContrato -> Map.of(
+            10L, List.of(new MedidorResumen(100L, "M-100", "DIGITAL", 10L)),
+            11L, List.of(new MedidorResumen(101L, "M-101", "DIGITAL", 11L)));
+    private ConsultaFacturas facturas = idsContrato -> Map.of(
+            10L, List.of(new FacturaPendiente(1L, "F-1", LocalDate.of(2026, 1, 1), LocalDate.of(2026, 1, 20), 150.0, 10L)),
+            11L, List.of());
+    private ConsultaLecturas lecturas = (idsMedidor, cantidad) -> Map.of(
+            100L, List.of(new LecturaReciente(100L, Instant.parse("2026-01-01T00:00:00Z"), 12.5)));
+
+    @AfterEach
+    void cerrar() {
+        casos.forEach(ConsultarVista360UseCase::cerrar);
+    }
+
+    @Test
+    void armaLaVistaCompletaCuandoTodasLasRamasResponden() {
+        Vista360Response vista = caso(new ClientesFijos(cliente(1L))).ejecutar(1L).orElseThrow();
+
+        assertFalse(vista.parcial());
+        assertEquals(1L, vista.cliente().datos().getId());
+        assertEquals(2, vista.contratos().datos().size());
+        assertEquals(Map.of(100L, List.of(new LecturaReciente(100L, Instant.parse("2026-01-01T00:00:00Z"), 12.5))),
+                vista.ultimasLecturas().datos());
+        assertEquals(1, vista.facturasPendientes().datos().get(10L).size());
+    }
+
+    @Test
+    void unaRamaLentaSaleComoTiempoAgotadoYArrastraASusDependientes() {
+        medidores = idsContrato -> {
+            dormir(2_000);
+            return Map.of();
+        };
+
+        long inicio = System.nanoTime();
+        Vista360Response vista = caso(new ClientesFijos(cliente(1L))).ejecutar(1L).orElseThrow();
+        long milisegundos = (System.nanoTime() - inicio) / 1_000_000;
+
+        assertTrue(vista.parcial());
+        assertEquals(SeccionVista.Estado.TIEMPO_AGOTADO, vista.medidores().estado());
+        assertEquals(SeccionVista.Estado.OMITIDA, vista.ultimasLecturas().estado());
+        assertEquals(SeccionVista.Estado.OK, vista.facturasPendientes().estado());
+        assertEquals(SeccionVista.Estado.OK, vista.cliente().estado());
+        assertTrue(milisegundos < 1_000, "La vista esperó a la rama lenta: " + milisegundos + " ms");
+    }
+
+    @Test
+    void unaRamaConErrorNoTiraLaVista() {
+        facturas = idsContrato -> {
+            throw new IllegalStateException("facturación caída");
+        };
+
+        Vista360Response vista = caso(new ClientesFijos(cliente(1L))).ejecutar(1L).orElseThrow();
+
+        assertTrue(vista.parcial());
+        assertEquals(SeccionVista.Estado.ERROR, vista.facturasPendientes().estado());
+        assertEquals(SeccionVista.Estado.OK, vista.ultimasLecturas().estado());
+    }
+
+    @Test
+    void sinContratosNoConsultaLosDemasServicios() {
+        contratos = idCliente -> List.of();
+        medidores = idsContrato -> {
+            throw new AssertionError("No debería consultarse");
+        };
+        facturas = idsContrato -> {
+            throw new AssertionError("No debería consultarse");
+        };
+
+        Vista360Response vista = caso(new ClientesFijos(cliente(1L))).ejecutar(1L).orElseThrow();
+
+        assertFalse(vista.parcial());
+        assertEquals(Map.of(), vista.medidores().datos());
+        assertEquals(Map.of(), vista.facturasPendientes().datos());
+    }
+
+    @Test
+    void clienteInexistenteDevuelveVacio() {
+        assertTrue(caso(new ClientesFijos(null)).ejecutar(99L).isEmpty());
+    }
+
+    private ConsultarVista360UseCase caso(ClienteService clienteService) {
+        ConsultarVista360UseCase caso = new ConsultarVista360UseCase(clienteService, contratos, medidores, facturas,
+                lecturas, trazador, LIMITES, 3, 8, 32);
+        casos.add(caso);
+        return caso;
+    }
+
+    private static ClienteEntity cliente(Long id) {
+        return ClienteEntity.builder().id(id).nombre("Ana").build();
+    }
+
+    private static void dormir(long milisegundos) {
+        try {
+            Thread.sleep(milisegundos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Solo responde obtenerClientePorId; el resto no lo usa el caso de uso. */
+    private static final class ClientesFijos implements ClienteService {
+
+        private final ClienteEntity cliente;
+
+        private ClientesFijos(ClienteEntity cliente) {
+            this.cliente = cliente;
+        }
+
+        @Override
+        public Optional<ClienteEntity> obtenerClientePorId(Long id) {
+            return Optional.ofNullable(cliente);
+        }
+
+        @Override
+        public List<ClienteEntity> obtenerTodosClientes() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Page<ClienteEntity> obtenerTodosClientes(Pageable pageable) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Page<ClienteEntity> buscarPorNombre(String nombre, Pageable pageable) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ClienteEntity crearCliente(ClienteEntity cliente) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Optional<ClienteEntity> actualizarCliente(Long id, ClienteEntity cliente) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Optional<ClienteEntity> actualizarClienteParcial(Long id, Map<String, Object> cambios) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Optional<ClienteEntity> suspenderCliente(Long id, String motivo) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean eliminarCliente(Long id) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
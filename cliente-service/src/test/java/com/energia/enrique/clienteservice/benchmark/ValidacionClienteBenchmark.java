@@ -0,0 +1,135 @@
+package com.energia.enrique.clienteservice.benchmark;
+
+import com.energia.enrique.clienteservice.domain.entities.Cliente;
+import com.energia.shared.domain.exceptions.DomainValidationException;
+import com.energia.shared.domain.validacion.ResultadoValidacion;
+import com.energia.shared.domain.valueobjects.ContactoInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Valida un lote de altas de clientes, en su mayoría inválidas (como en una
+ * importación masiva), de tres formas:
+ * <ul>
+ *   <li>conExcepcionesConTraza: una excepción con traza por fila inválida, como antes</li>
+ *   <li>conExcepciones: el camino actual de build(), con excepciones sin traza reutilizadas</li>
+ *   <li>sinExcepciones: Builder.validar(), que acumula los errores sin lanzar</li>
+ * </ul>
+ * Ejecutar con: {@code mvn -pl cliente-service test-compile exec:java
+ * -Dexec.mainClass=com.energia.enrique.clienteservice.benchmark.ValidacionClienteBenchmark
+ * -Dexec.classpathScope=test}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ValidacionClienteBenchmark {
+
+    private static final int TAMANO_LOTE = 1_000;
+
+    @Param({"0.9"})
+    private double proporcionInvalidas;
+
+    private Fila[] filas;
+
+    @Setup
+    public void preparar() {
+        Random aleatorio = new Random(42);
+        filas = new Fila[TAMANO_LOTE];
+        for (int i = 0; i < TAMANO_LOTE; i++) {
+            boolean invalida = aleatorio.nextDouble() < proporcionInvalidas;
+            filas[i] = invalida ? filaInvalida(i, aleatorio) : filaValida(i);
+        }
+    }
+
+    @Benchmark
+    public int conExcepcionesConTraza() {
+        int invalidas = 0;
+        for (Fila fila : filas) {
+            try {
+                fila.cliente().build();
+            } catch (DomainValidationException e) {
+                // Con causa la excepción conserva la traza, igual que antes de este cambio
+                invalidas += new DomainValidationException(e.getMessage(), e.getCampo(), e).getCampo() != null ? 1 : 0;
+            }
+        }
+        return invalidas;
+    }
+
+    @Benchmark
+    public int conExcepciones() {
+        int invalidas = 0;
+        for (Fila fila : filas) {
+            try {
+                fila.cliente().build();
+            } catch (DomainValidationException e) {
+                invalidas++;
+            }
+        }
+        return invalidas;
+    }
+
+    @Benchmark
+    public int sinExcepciones() {
+        int errores = 0;
+        for (Fila fila : filas) {
+            ResultadoValidacion resultado = fila.cliente().validar(new ResultadoValidacion());
+            errores += resultado.getErrores().size();
+        }
+        return errores;
+    }
+
+    private static Fila filaValida(int i) {
+        return new Fila("Nombre" + i, "Apellido" + i, "ID" + (100000 + i), "0981" + (100000 + i),
+                "cliente" + i + "@correo.com", "Calle " + i);
+    }
+
+    private static Fila filaInvalida(int i, Random aleatorio) {
+        Fila fila = filaValida(i);
+        return switch (aleatorio.nextInt(5)) {
+            case 0 -> new Fila("", fila.apellido, fila.identificacion, fila.telefono, fila.email, fila.direccion);
+            case 1 -> new Fila(fila.nombre, fila.apellido, "12", fila.telefono, fila.email, fila.direccion);
+            case 2 -> new Fila(fila.nombre, fila.apellido, fila.identificacion, "abc", fila.email, fila.direccion);
+            case 3 -> new Fila(fila.nombre, fila.apellido, fila.identificacion, fila.telefono, "sin-arroba", fila.direccion);
+            default -> new Fila("X", "", "1", "", "", "");
+        };
+    }
+
+    private record Fila(String nombre, String apellido, String identificacion, String telefono, String email,
+                        String direccion) {
+
+        Cliente.Builder cliente() {
+            return Cliente.builder()
+                    .nombre(nombre)
+                    .apellido(apellido)
+                    .identificacion(identificacion)
+                    .tipoIdentificacion(Cliente.TipoIdentificacion.CEDULA)
+                    .tipoCliente(Cliente.TipoCliente.RESIDENCIAL)
+                    .datosContacto(ContactoInfo.builder()
+                            .telefonoPrincipal(telefono)
+                            .email(email)
+                            .direccion(direccion));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ValidacionClienteBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,55 @@
+package com.energia.enrique.clienteservice.domain.entities;
+
+import com.energia.shared.domain.exceptions.DomainValidationException;
+import com.energia.shared.domain.validacion.ErrorValidacion;
+import com.energia.shared.domain.validacion.ResultadoValidacion;
+import com.energia.shared.domain.valueobjects.ContactoInfo;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClienteValidacionTest {
+
+    @Test
+    void informaTodosLosCamposInvalidosEnUnaSolaExcepcion() {
+        Cliente.Builder datos = Cliente.builder()
+                .nombre("")
+                .apellido("P")
+                .identificacion("12")
+                .tipoIdentificacion(Cliente.TipoIdentificacion.CEDULA)
+                .datosContacto(ContactoInfo.builder()
+                        .telefonoPrincipal("abc")
+                        .email("sin-arroba")
+                        .direccion("Calle 1"));
+
+        DomainValidationException e = assertThrows(DomainValidationException.class, datos::build);
+
+        List<String> campos = e.getErrores().stream().map(ErrorValidacion::getCampo).toList();
+        assertEquals(List.of("nombre", "apellido", "identificacion", "tipoCliente", "telefonoPrincipal", "email"), campos);
+        assertEquals("nombre", e.getCampo());
+        assertEquals(0, e.getStackTrace().length);
+    }
+
+    @Test
+    void validarNoLanzaYNoReservaErroresSiLosDatosSonValidos() {
+        Cliente.Builder datos = Cliente.builder()
+                .nombre("Ana")
+                .apellido("Pérez")
+                .identificacion("1234567")
+                .tipoIdentificacion(Cliente.TipoIdentificacion.CEDULA)
+                .tipoCliente(Cliente.TipoCliente.RESIDENCIAL)
+                .datosContacto(ContactoInfo.builder()
+                        .telefonoPrincipal("0981123456")
+                        .email("ana@correo.com")
+                        .direccion("Calle 1"));
+
+        ResultadoValidacion resultado = datos.validar(new ResultadoValidacion());
+
+        assertTrue(resultado.esValido());
+        assertEquals("ana@correo.com", datos.build().getContactoInfo().getEmail());
+    }
+}
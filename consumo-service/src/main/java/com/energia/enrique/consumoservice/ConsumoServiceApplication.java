@@ -1,9 +1,13 @@
 package com.energia.enrique.consumoservice;
 
+import com.energia.shared.infrastructure.carga.CargaConfig;
+import com.energia.shared.infrastructure.metricas.MetricasConfig;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Import;
 
 @SpringBootApplication
+@Import({CargaConfig.class, MetricasConfig.class})
 public class ConsumoServiceApplication {
 
 	public static void main(String[] args) {
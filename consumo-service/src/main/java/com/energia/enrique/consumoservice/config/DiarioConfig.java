@@ -0,0 +1,36 @@
+package com.energia.enrique.consumoservice.config;
+
+import com.energia.enrique.consumoservice.ingesta.DiarioLecturas;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+// Diario de escritura anticipada de la ingesta (DiarioLecturas); lo drena DrenajeDiario
+@Configuration
+@ConditionalOnProperty(prefix = "energia.consumo.diario", name = "habilitado", havingValue = "true")
+public class DiarioConfig {
+
+    @Bean(destroyMethod = "close")
+    public DiarioLecturas diarioLecturas(MeterRegistry registro,
+            @Value("${energia.consumo.diario.directorio:${java.io.tmpdir}/consumo/diario}") String directorio,
+            @Value("${energia.consumo.diario.tamano-segmento-mb:64}") int tamanoSegmentoMb,
+            @Value("${energia.consumo.diario.maximo-segmentos:32}") int maximoSegmentos) {
+        DiarioLecturas diario = DiarioLecturas.abrir(Path.of(directorio), tamanoSegmentoMb * 1024 * 1024, maximoSegmentos);
+        Gauge.builder("energia.consumo.diario.pendientes", diario, DiarioLecturas::pendientes)
+                .description("Lotes anotados en el diario y todavía no drenados a la base")
+                .register(registro);
+        Gauge.builder("energia.consumo.diario.segmentos", diario, DiarioLecturas::cantidadSegmentos)
+                .description("Segmentos del diario en disco")
+                .register(registro);
+        FunctionCounter.builder("energia.consumo.diario.sincronizaciones", diario, DiarioLecturas::sincronizaciones)
+                .description("Sincronizaciones con el disco; cada una confirma todos los lotes agregados hasta ese momento")
+                .register(registro);
+        return diario;
+    }
+}
@@ -0,0 +1,10 @@
+package com.energia.enrique.consumoservice.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Guardado periódico de las marcas de agua de la ingesta (IngestaLecturasService) y barrido del reordenamiento
+@Configuration
+@EnableScheduling
+public class IngestaConfig {
+}
@@ -0,0 +1,57 @@
+package com.energia.enrique.consumoservice.controller;
+
+import com.energia.enrique.consumoservice.repository.EstimacionRepository;
+import com.energia.enrique.consumoservice.service.EstimacionHuecosService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Instant;
+import java.util.List;
+
+@RestController
+@RequestMapping("/consumos/estimaciones")
+public class EstimacionController {
+
+    private final EstimacionHuecosService estimacionHuecosService;
+    private final Logger logger = LoggerFactory.getLogger(EstimacionController.class);
+
+    public EstimacionController(EstimacionHuecosService estimacionHuecosService) {
+        this.estimacionHuecosService = estimacionHuecosService;
+    }
+
+    // POST /consumos/estimaciones?inicio=2024-05-01T00:00:00Z&corte=2024-06-01T00:00:00Z estima los huecos del ciclo.
+    // 409 si ya hay una estimación en curso
+    @PostMapping
+    public ResponseEntity<?> estimarCiclo(@RequestParam Instant inicio, @RequestParam Instant corte) {
+        try {
+            EstimacionHuecosService.ResultadoEstimacion resultado = estimacionHuecosService.estimar(inicio, corte);
+            logger.debug("Ciclo estimado. Huecos: {}. Estimadas: {}. Guardadas: {}",
+                    resultado.huecos(), resultado.estimadas(), resultado.guardadas());
+            return ResponseEntity.ok(resultado);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+
+    // Incluye las reemplazadas (reemplazadaEn no nulo), para que facturación corrija lo ya facturado
+    @GetMapping("/{idMedidor}")
+    public ResponseEntity<List<EstimacionRepository.Estimacion>> listar(@PathVariable long idMedidor,
+                                                                        @RequestParam Instant desde,
+                                                                        @RequestParam Instant hasta) {
+        if (!hasta.isAfter(desde)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(estimacionHuecosService.listar(idMedidor, desde, hasta));
+    }
+
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<String> handleException(Exception e) {
+        logger.error("Ocurrió un error inesperado: {}", e.getMessage(), e);
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Ocurrió un error inesperado. Consulta los registros para más detalles.");
+    }
+}
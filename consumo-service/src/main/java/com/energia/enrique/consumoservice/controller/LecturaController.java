@@ -0,0 +1,74 @@
+package com.energia.enrique.consumoservice.controller;
+
+import com.energia.enrique.consumoservice.model.Lectura;
+import com.energia.enrique.consumoservice.service.IngestaLecturasService;
+import com.energia.enrique.consumoservice.service.LecturaService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/lecturas")
+public class LecturaController {
+
+    private final IngestaLecturasService ingestaLecturasService;
+    private final LecturaService lecturaService;
+    private final int maximoMedidores;
+    private final int maximoCantidad;
+    private final Logger logger = LoggerFactory.getLogger(LecturaController.class);
+
+    public LecturaController(IngestaLecturasService ingestaLecturasService, LecturaService lecturaService,
+                             @Value("${energia.consumo.ultimas.maximo-medidores:1000}") int maximoMedidores,
+                             @Value("${energia.consumo.ultimas.maximo-cantidad:50}") int maximoCantidad) {
+        this.ingestaLecturasService = ingestaLecturasService;
+        this.lecturaService = lecturaService;
+        this.maximoMedidores = maximoMedidores;
+        this.maximoCantidad = maximoCantidad;
+    }
+
+    // Ingesta por lote desde los concentradores. Reenviar el mismo lote es seguro: las repetidas se descartan.
+    // 202 si quedó en el diario sin clasificar; 503 si el diario está lleno o el disco no respondió a tiempo
+    @PostMapping
+    public ResponseEntity<?> ingerirLecturas(@RequestBody List<Lectura> lecturas) {
+        try {
+            IngestaLecturasService.ResultadoIngesta resultado = ingestaLecturasService.ingerir(lecturas);
+            logger.debug("Lote de lecturas procesado. Recibidas: {}. Aceptadas: {}. Repetidas: {}. Rechazadas: {}. Pendientes: {}",
+                    resultado.recibidas(), resultado.aceptadas(), resultado.repetidas(), resultado.rechazadas(),
+                    resultado.pendientes());
+            return ResponseEntity.status(resultado.pendientes() > 0 ? HttpStatus.ACCEPTED : HttpStatus.OK).body(resultado);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            logger.warn("Lote de lecturas rechazado: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(e.getMessage());
+        }
+    }
+
+    // GET /lecturas/ultimas?medidores=1,2,3&cantidad=3 resuelve todos los medidores en una consulta
+    @GetMapping("/ultimas")
+    public ResponseEntity<Map<Long, List<Lectura>>> obtenerUltimasLecturas(@RequestParam Set<Long> medidores,
+                                                                          @RequestParam(defaultValue = "1") int cantidad) {
+        if (medidores.isEmpty() || medidores.size() > maximoMedidores || cantidad <= 0 || cantidad > maximoCantidad) {
+            return ResponseEntity.badRequest().build();
+        }
+        Map<Long, List<Lectura>> lecturas = lecturaService.obtenerUltimasPorMedidores(medidores, cantidad);
+        logger.debug("Últimas lecturas de {} medidores", medidores.size());
+        return ResponseEntity.ok(lecturas);
+    }
+
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<String> handleException(Exception e) {
+        logger.error("Ocurrió un error inesperado: {}", e.getMessage(), e);
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Ocurrió un error inesperado. Consulta los registros para más detalles.");
+    }
+}
@@ -0,0 +1,26 @@
+package com.energia.enrique.consumoservice.estimacion;
+
+/**
+ * Lecturas estimadas por columnas, agrupadas por hueco y en orden de instante
+ * dentro de cada uno. {@code desdeMs} y {@code hastaMs} son los del hueco que
+ * llenan ({@link Huecos#ABIERTO} si sigue abierto); {@code metodos} es
+ * {@link EstimadorHuecos#PERFIL} o {@link EstimadorHuecos#LINEAL}.
+ * {@code huecosSinBase}: huecos abiertos sin perfil ni tasa previa, que quedaron sin estimar.
+ */
+public record Estimaciones(long[] idsMedidor, long[] instantesMs, double[] valores, byte[] metodos, long[] desdeMs,
+                           long[] hastaMs, int huecosSinBase) {
+
+    public int cantidad() {
+        return idsMedidor.length;
+    }
+
+    public int cantidad(byte metodo) {
+        int cantidad = 0;
+        for (byte m : metodos) {
+            if (m == metodo) {
+                cantidad++;
+            }
+        }
+        return cantidad;
+    }
+}
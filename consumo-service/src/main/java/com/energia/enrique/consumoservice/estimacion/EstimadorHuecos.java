@@ -0,0 +1,210 @@
+package com.energia.enrique.consumoservice.estimacion;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Estima las lecturas que faltan en cada punto de la grilla del intervalo
+ * dentro de los huecos, para que facturación tenga un consumo aunque el
+ * medidor no haya informado.
+ * <ul>
+ * <li>Hueco cerrado: la energía entre las dos lecturas reales se conoce y se
+ * reparte según el perfil del medidor; sin perfil, en proporción al tiempo.</li>
+ * <li>Hueco abierto al corte: se acumula la energía del perfil franja por
+ * franja; sin perfil, se sigue la tasa del último intervalo conocido.</li>
+ * </ul>
+ * Todo trabaja sobre arrays primitivos en dos pasadas paralelas por hueco: la
+ * primera cuenta los puntos de cada uno, una suma prefija da dónde escribe
+ * cada hueco y la segunda llena los resultados sin sincronizar. Sin estado
+ * mutable compartido: es seguro entre hilos.
+ */
+public final class EstimadorHuecos {
+
+    public static final byte SIN_BASE = 0;
+    public static final byte PERFIL = 1;
+    public static final byte LINEAL = 2;
+
+    private static final long DIA_MS = 86_400_000L;
+
+    private final long intervaloMs;
+    private final int franjas;
+
+    public EstimadorHuecos(long intervaloMs) {
+        if (intervaloMs <= 0 || DIA_MS % intervaloMs != 0) {
+            throw new IllegalArgumentException("El intervalo de lectura debe dividir el día en partes iguales");
+        }
+        this.intervaloMs = intervaloMs;
+        this.franjas = (int) (DIA_MS / intervaloMs);
+    }
+
+    public int franjas() {
+        return franjas;
+    }
+
+    /**
+     * Estimaciones de los puntos de cada hueco que caen en [inicioMs, corteMs].
+     * Los perfiles con menos de la mitad de las franjas se descartan; en los
+     * demás, la franja sin historia toma el promedio de las otras.
+     */
+    public Estimaciones estimar(Huecos huecos, Perfiles perfiles, long inicioMs, long corteMs) {
+        if (perfiles.cantidad() > 0 && perfiles.franjas() != franjas) {
+            throw new IllegalArgumentException("Los perfiles no tienen " + franjas + " franjas");
+        }
+        int n = huecos.cantidad();
+        double[] tasas = completar(perfiles);
+        int[] perfilDeHueco = new int[n];
+        byte[] metodos = new byte[n];
+        double[] pesosTotales = new double[n];
+        int[] fines = new int[n];
+
+        IntStream.range(0, n).parallel().forEach(i -> {
+            int perfil = Arrays.binarySearch(perfiles.idsMedidor(), huecos.idsMedidor()[i]);
+            perfilDeHueco[i] = perfil >= 0 && !Double.isNaN(tasas[perfil * franjas]) ? perfil : -1;
+            metodos[i] = decidir(huecos, i, perfilDeHueco[i], tasas, pesosTotales);
+            fines[i] = metodos[i] == SIN_BASE ? 0 : cantidadEnVentana(huecos, i, inicioMs, corteMs);
+        });
+        // Suma prefija: fines[i] es dónde termina lo del hueco i en los arrays de salida
+        Arrays.parallelPrefix(fines, Integer::sum);
+
+        int total = n == 0 ? 0 : fines[n - 1];
+        Estimaciones estimaciones = new Estimaciones(new long[total], new long[total], new double[total],
+                new byte[total], new long[total], new long[total], contar(metodos, SIN_BASE));
+        IntStream.range(0, n).parallel().forEach(i -> {
+            int inicioSalida = i == 0 ? 0 : fines[i - 1];
+            if (fines[i] > inicioSalida) {
+                llenar(huecos, i, metodos[i], perfilDeHueco[i], tasas, pesosTotales[i], inicioMs, inicioSalida,
+                        fines[i], estimaciones);
+            }
+        });
+        return estimaciones;
+    }
+
+    // Copia de los perfiles con las franjas vacías completadas; el perfil descartado queda todo en NaN
+    private double[] completar(Perfiles perfiles) {
+        double[] tasas = perfiles.energias().clone();
+        IntStream.range(0, perfiles.cantidad()).parallel().forEach(p -> {
+            int base = p * franjas;
+            double suma = 0;
+            int conDatos = 0;
+            for (int f = base; f < base + franjas; f++) {
+                if (!Double.isNaN(tasas[f])) {
+                    suma += tasas[f];
+                    conDatos++;
+                }
+            }
+            double relleno = conDatos * 2 < franjas ? Double.NaN : suma / conDatos;
+            for (int f = base; f < base + franjas; f++) {
+                if (Double.isNaN(relleno) || Double.isNaN(tasas[f])) {
+                    tasas[f] = relleno;
+                }
+            }
+        });
+        return tasas;
+    }
+
+    private byte decidir(Huecos huecos, int i, int perfil, double[] tasas, double[] pesosTotales) {
+        boolean abierto = huecos.hastaMs()[i] == Huecos.ABIERTO;
+        if (abierto) {
+            if (perfil >= 0) {
+                return PERFIL;
+            }
+            double tasa = huecos.tasasPrevias()[i];
+            return Double.isFinite(tasa) && tasa >= 0 ? LINEAL : SIN_BASE;
+        }
+        // Energía negativa (cambio o vuelta del medidor): el perfil no sabe repartirla
+        if (perfil < 0 || huecos.valoresHasta()[i] < huecos.valoresDesde()[i]) {
+            return LINEAL;
+        }
+        double total = pesoHasta(huecos.desdeMs()[i], huecos.hastaMs()[i], perfil, tasas);
+        pesosTotales[i] = total;
+        return total > 0 ? PERFIL : LINEAL;
+    }
+
+    private int cantidadEnVentana(Huecos huecos, int i, long inicioMs, long corteMs) {
+        long primero = Math.max(siguientePunto(huecos.desdeMs()[i]), alinearArriba(inicioMs));
+        long ultimo = Math.min(ultimoPunto(huecos.hastaMs()[i], corteMs), alinearAbajo(corteMs));
+        return ultimo < primero ? 0 : (int) ((ultimo - primero) / intervaloMs + 1);
+    }
+
+    private void llenar(Huecos huecos, int i, byte metodo, int perfil, double[] tasas, double pesoTotal,
+                        long inicioMs, int desdeSalida, int hastaSalida, Estimaciones salida) {
+        long desde = huecos.desdeMs()[i];
+        long hasta = huecos.hastaMs()[i];
+        double valorDesde = huecos.valoresDesde()[i];
+        boolean abierto = hasta == Huecos.ABIERTO;
+        double energia = abierto ? Double.NaN : huecos.valoresHasta()[i] - valorDesde;
+        long primeroEnVentana = alinearArriba(inicioMs);
+
+        int j = desdeSalida;
+        long anterior = desde;
+        double acumulado = 0;
+        for (long punto = siguientePunto(desde); j < hastaSalida; punto += intervaloMs) {
+            // El perfil se acumula desde el comienzo del hueco aunque la ventana empiece después
+            if (metodo == PERFIL) {
+                acumulado += peso(anterior, punto, perfil, tasas);
+                anterior = punto;
+            }
+            if (punto < primeroEnVentana) {
+                continue;
+            }
+            double valor;
+            if (metodo == PERFIL) {
+                valor = abierto ? valorDesde + acumulado : valorDesde + energia * acumulado / pesoTotal;
+            } else {
+                double tasa = abierto ? huecos.tasasPrevias()[i] : energia / (hasta - desde);
+                valor = valorDesde + tasa * (punto - desde);
+            }
+            salida.idsMedidor()[j] = huecos.idsMedidor()[i];
+            salida.instantesMs()[j] = punto;
+            salida.valores()[j] = valor;
+            salida.metodos()[j] = metodo;
+            salida.desdeMs()[j] = desde;
+            salida.hastaMs()[j] = hasta;
+            j++;
+        }
+    }
+
+    // Peso del perfil entre dos lecturas reales, sumando todos los puntos intermedios
+    private double pesoHasta(long desde, long hasta, int perfil, double[] tasas) {
+        double total = 0;
+        long anterior = desde;
+        for (long punto = siguientePunto(desde); punto < hasta; punto += intervaloMs) {
+            total += peso(anterior, punto, perfil, tasas);
+            anterior = punto;
+        }
+        return total + peso(anterior, hasta, perfil, tasas);
+    }
+
+    // Energía del perfil en (a, b]: la de la franja donde termina, proporcional a la fracción del intervalo
+    private double peso(long a, long b, int perfil, double[] tasas) {
+        int franja = (int) (Math.floorMod(alinearArriba(b), DIA_MS) / intervaloMs);
+        return tasas[perfil * franjas + franja] * (b - a) / intervaloMs;
+    }
+
+    private long ultimoPunto(long hasta, long corteMs) {
+        // En un hueco cerrado el último punto es anterior a la lectura real que lo cierra
+        return hasta == Huecos.ABIERTO ? alinearAbajo(corteMs) : alinearAbajo(hasta - 1);
+    }
+
+    private long siguientePunto(long instanteMs) {
+        return alinearAbajo(instanteMs) + intervaloMs;
+    }
+
+    private long alinearAbajo(long instanteMs) {
+        return Math.floorDiv(instanteMs, intervaloMs) * intervaloMs;
+    }
+
+    private long alinearArriba(long instanteMs) {
+        return -Math.floorDiv(-instanteMs, intervaloMs) * intervaloMs;
+    }
+
+    private static int contar(byte[] metodos, byte metodo) {
+        int cantidad = 0;
+        for (byte m : metodos) {
+            if (m == metodo) {
+                cantidad++;
+            }
+        }
+        return cantidad;
+    }
+}
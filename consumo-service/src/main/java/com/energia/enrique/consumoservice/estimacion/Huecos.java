@@ -0,0 +1,75 @@
+package com.energia.enrique.consumoservice.estimacion;
+
+import java.util.Arrays;
+
+/**
+ * Huecos de lectura por columnas, ordenados por medidor y por {@code desde}.
+ * Un hueco empieza en una lectura real ({@code desdeMs}, {@code valoresDesde})
+ * y termina en la siguiente; si todavía no llegó, {@code hastaMs} es
+ * {@link #ABIERTO} y el hueco sigue hasta el corte del ciclo.
+ * {@code tasasPrevias} es la energía por milisegundo del intervalo que
+ * termina en {@code desde}, o NaN si no se conoce; solo se usa en los abiertos.
+ */
+public record Huecos(long[] idsMedidor, long[] desdeMs, double[] valoresDesde, long[] hastaMs, double[] valoresHasta,
+                     double[] tasasPrevias) {
+
+    public static final long ABIERTO = Long.MIN_VALUE;
+
+    public int cantidad() {
+        return idsMedidor.length;
+    }
+
+    /** Copia de los huecos [desde, hasta). */
+    public Huecos tramo(int desde, int hasta) {
+        return new Huecos(Arrays.copyOfRange(idsMedidor, desde, hasta), Arrays.copyOfRange(desdeMs, desde, hasta),
+                Arrays.copyOfRange(valoresDesde, desde, hasta), Arrays.copyOfRange(hastaMs, desde, hasta),
+                Arrays.copyOfRange(valoresHasta, desde, hasta), Arrays.copyOfRange(tasasPrevias, desde, hasta));
+    }
+
+    /** Medidores distintos, en orden. */
+    public long[] medidores() {
+        return Arrays.stream(idsMedidor).distinct().toArray();
+    }
+
+    /** Arma los arrays a medida que se leen las filas, sin conocer la cantidad de antemano. */
+    public static final class Acumulador {
+        private long[] idsMedidor = new long[1024];
+        private long[] desdeMs = new long[1024];
+        private double[] valoresDesde = new double[1024];
+        private long[] hastaMs = new long[1024];
+        private double[] valoresHasta = new double[1024];
+        private double[] tasasPrevias = new double[1024];
+        private int cantidad;
+
+        public void cerrado(long idMedidor, long desdeMs, double valorDesde, long hastaMs, double valorHasta) {
+            agregar(idMedidor, desdeMs, valorDesde, hastaMs, valorHasta, Double.NaN);
+        }
+
+        public void abierto(long idMedidor, long desdeMs, double valorDesde, double tasaPrevia) {
+            agregar(idMedidor, desdeMs, valorDesde, ABIERTO, Double.NaN, tasaPrevia);
+        }
+
+        public Huecos construir() {
+            return new Huecos(idsMedidor, desdeMs, valoresDesde, hastaMs, valoresHasta, tasasPrevias).tramo(0, cantidad);
+        }
+
+        private void agregar(long idMedidor, long desde, double valorDesde, long hasta, double valorHasta, double tasa) {
+            if (cantidad == idsMedidor.length) {
+                int capacidad = cantidad * 2;
+                idsMedidor = Arrays.copyOf(idsMedidor, capacidad);
+                desdeMs = Arrays.copyOf(desdeMs, capacidad);
+                valoresDesde = Arrays.copyOf(valoresDesde, capacidad);
+                hastaMs = Arrays.copyOf(hastaMs, capacidad);
+                valoresHasta = Arrays.copyOf(valoresHasta, capacidad);
+                tasasPrevias = Arrays.copyOf(tasasPrevias, capacidad);
+            }
+            idsMedidor[cantidad] = idMedidor;
+            desdeMs[cantidad] = desde;
+            valoresDesde[cantidad] = valorDesde;
+            hastaMs[cantidad] = hasta;
+            valoresHasta[cantidad] = valorHasta;
+            tasasPrevias[cantidad] = tasa;
+            cantidad++;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.energia.enrique.consumoservice.estimacion;
+
+/**
+ * Perfil de carga por medidor: energía promedio de un intervalo según la
+ * franja del día en que termina. {@code energias[i * franjas + f]} es la del
+ * medidor {@code idsMedidor[i]} en la franja {@code f}, o NaN si no hay
+ * historia. {@code idsMedidor} está ordenado.
+ */
+public record Perfiles(long[] idsMedidor, double[] energias, int franjas) {
+
+    public int cantidad() {
+        return idsMedidor.length;
+    }
+}
@@ -0,0 +1,221 @@
+package com.energia.enrique.consumoservice.ingesta;
+
+import com.energia.enrique.consumoservice.model.Lectura;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reordena por medidor las lecturas que llegan desordenadas. Cada medidor
+ * retiene sus lecturas hasta que la más nueva recibida las supera en la
+ * ventana de retraso; recién ahí salen, en orden de instante. Lo que llega
+ * más viejo que algo ya emitido no se puede intercalar y sale como tardía.
+ * <p>
+ * La memoria está acotada: cada medidor retiene como máximo
+ * {@code maximoPorMedidor} lecturas (al pasarse, sale la más vieja) y hay como
+ * máximo {@code maximoMedidores} medidores con lecturas retenidas; al pasarse,
+ * o al quedar inactivo, el medidor usado hace más tiempo se vacía y se
+ * descarta. De cada medidor se recuerda siempre el instante de su última
+ * lectura emitida (16 bytes), para reconocer las tardías aun después de
+ * descartarlo.
+ * <p>
+ * No es seguro entre hilos.
+ */
+public final class BufferReordenamiento {
+
+    private final long ventanaRetrasoMs;
+    private final long inactividadMs;
+    private final int maximoPorMedidor;
+    private final int maximoMedidores;
+    // Orden de acceso: el primero es el medidor inactivo hace más tiempo
+    private final LinkedHashMap<Long, Retenidas> retenidas = new LinkedHashMap<>(16, 0.75f, true);
+    private final MapaLongLong ultimaEmitida;
+    private int totalRetenidas;
+
+    public BufferReordenamiento(long ventanaRetrasoMs, long inactividadMs, int maximoPorMedidor, int maximoMedidores,
+                                int capacidadInicialMedidores) {
+        if (ventanaRetrasoMs < 0 || inactividadMs <= 0 || maximoPorMedidor <= 0 || maximoMedidores <= 0) {
+            throw new IllegalArgumentException("Ventana, inactividad y máximos del reordenamiento inválidos");
+        }
+        this.ventanaRetrasoMs = ventanaRetrasoMs;
+        this.inactividadMs = inactividadMs;
+        this.maximoPorMedidor = maximoPorMedidor;
+        this.maximoMedidores = maximoMedidores;
+        this.ultimaEmitida = new MapaLongLong(capacidadInicialMedidores);
+    }
+
+    /**
+     * Recibe lecturas ya deduplicadas (no se repite un mismo medidor e instante).
+     * @param ahoraMs Hora del proceso, para la inactividad
+     */
+    public Emision agregar(List<Lectura> lecturas, long ahoraMs) {
+        Emision emision = new Emision();
+        for (Lectura lectura : lecturas) {
+            long idMedidor = lectura.idMedidor();
+            long instanteMs = lectura.instante().toEpochMilli();
+            long ultima = ultimaEmitida.obtener(idMedidor);
+            if (ultima != MapaLongLong.AUSENTE && instanteMs <= ultima) {
+                emision.tardias.add(lectura);
+                continue;
+            }
+
+            Retenidas delMedidor = retenidas.get(idMedidor);
+            if (delMedidor == null) {
+                delMedidor = new Retenidas(idMedidor);
+                retenidas.put(idMedidor, delMedidor);
+            }
+            delMedidor.insertar(instanteMs, lectura.valor());
+            delMedidor.ultimaActividadMs = ahoraMs;
+            totalRetenidas++;
+
+            long limite = delMedidor.maximoMs - ventanaRetrasoMs;
+            int hasta = delMedidor.contarHasta(limite);
+            if (delMedidor.cantidad - hasta > maximoPorMedidor) {
+                emision.forzadas += delMedidor.cantidad - hasta - maximoPorMedidor;
+                hasta = delMedidor.cantidad - maximoPorMedidor;
+            }
+            emitir(delMedidor, hasta, emision);
+            if (delMedidor.cantidad == 0) {
+                retenidas.remove(idMedidor);
+            }
+        }
+
+        while (retenidas.size() > maximoMedidores) {
+            desalojarMasViejo(emision);
+            emision.desalojados++;
+        }
+        return emision;
+    }
+
+    /** Vacía los medidores sin lecturas nuevas en el último {@code inactividadMs}. */
+    public Emision barrer(long ahoraMs) {
+        Emision emision = new Emision();
+        Iterator<Retenidas> it = retenidas.values().iterator();
+        while (it.hasNext()) {
+            Retenidas delMedidor = it.next();
+            if (ahoraMs - delMedidor.ultimaActividadMs < inactividadMs) {
+                break;
+            }
+            emitir(delMedidor, delMedidor.cantidad, emision);
+            it.remove();
+            emision.desalojados++;
+        }
+        return emision;
+    }
+
+    /** Emite todo lo retenido, p. ej. al apagar. */
+    public Emision vaciar() {
+        Emision emision = new Emision();
+        for (Retenidas delMedidor : retenidas.values()) {
+            emitir(delMedidor, delMedidor.cantidad, emision);
+        }
+        retenidas.clear();
+        return emision;
+    }
+
+    public int medidoresRetenidos() {
+        return retenidas.size();
+    }
+
+    public int lecturasRetenidas() {
+        return totalRetenidas;
+    }
+
+    private void desalojarMasViejo(Emision emision) {
+        Iterator<Retenidas> it = retenidas.values().iterator();
+        Retenidas delMedidor = it.next();
+        emitir(delMedidor, delMedidor.cantidad, emision);
+        it.remove();
+    }
+
+    // Emite las primeras "cantidad" lecturas del medidor
+    private void emitir(Retenidas delMedidor, int cantidad, Emision emision) {
+        if (cantidad == 0) {
+            return;
+        }
+        for (int i = 0; i < cantidad; i++) {
+            emision.ordenadas.add(new Lectura(delMedidor.idMedidor, Instant.ofEpochMilli(delMedidor.instantes[i]),
+                    delMedidor.valores[i]));
+        }
+        ultimaEmitida.poner(delMedidor.idMedidor, delMedidor.instantes[cantidad - 1]);
+        delMedidor.descartarPrimeras(cantidad);
+        totalRetenidas -= cantidad;
+    }
+
+    /** Resultado de una operación: lo que sale hacia el destino. */
+    public static final class Emision {
+        private final List<Lectura> ordenadas = new ArrayList<>();
+        private final List<Lectura> tardias = new ArrayList<>();
+        private int forzadas;
+        private int desalojados;
+
+        public List<Lectura> ordenadas() {
+            return ordenadas;
+        }
+
+        public List<Lectura> tardias() {
+            return tardias;
+        }
+
+        /** Lecturas que salieron antes de cumplir la ventana porque el medidor llegó a su máximo. */
+        public int forzadas() {
+            return forzadas;
+        }
+
+        /** Medidores vaciados por inactividad o por exceso de medidores. */
+        public int desalojados() {
+            return desalojados;
+        }
+    }
+
+    // Lecturas retenidas de un medidor, ordenadas por instante en arrays paralelos
+    private static final class Retenidas {
+        private final long idMedidor;
+        private long[] instantes = new long[4];
+        private double[] valores = new double[4];
+        private int cantidad;
+        private long maximoMs = Long.MIN_VALUE;
+        private long ultimaActividadMs;
+
+        private Retenidas(long idMedidor) {
+            this.idMedidor = idMedidor;
+        }
+
+        // Casi siempre llegan en orden: la búsqueda termina en la última posición
+        private void insertar(long instanteMs, double valor) {
+            if (cantidad == instantes.length) {
+                instantes = Arrays.copyOf(instantes, cantidad * 2);
+                valores = Arrays.copyOf(valores, cantidad * 2);
+            }
+            int posicion = cantidad;
+            while (posicion > 0 && instantes[posicion - 1] > instanteMs) {
+                posicion--;
+            }
+            System.arraycopy(instantes, posicion, instantes, posicion + 1, cantidad - posicion);
+            System.arraycopy(valores, posicion, valores, posicion + 1, cantidad - posicion);
+            instantes[posicion] = instanteMs;
+            valores[posicion] = valor;
+            cantidad++;
+            maximoMs = Math.max(maximoMs, instanteMs);
+        }
+
+        private int contarHasta(long limiteMs) {
+            int i = 0;
+            while (i < cantidad && instantes[i] <= limiteMs) {
+                i++;
+            }
+            return i;
+        }
+
+        private void descartarPrimeras(int n) {
+            System.arraycopy(instantes, n, instantes, 0, cantidad - n);
+            System.arraycopy(valores, n, valores, 0, cantidad - n);
+            cantidad -= n;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.energia.enrique.consumoservice.ingesta;
+
+import com.energia.enrique.consumoservice.model.Lectura;
+
+import java.util.List;
+
+/**
+ * Lo que viene después del reordenamiento. Se llama siempre desde un solo
+ * hilo a la vez.
+ */
+public interface DestinoLecturas {
+
+    /**
+     * Lecturas en orden de instante dentro de cada medidor, después de todas las ya emitidas de ese medidor.
+     * Tras una entrega fallida se reciben otra vez, antes de las nuevas: lo que ya no sea posterior a lo
+     * guardado se debe tratar como tardío.
+     */
+    void ordenadas(List<Lectura> lecturas);
+
+    /** Lecturas más viejas que alguna ya emitida de su medidor: llegaron fuera de la ventana de retraso. */
+    void tardias(List<Lectura> lecturas);
+}
@@ -0,0 +1,510 @@
+package com.energia.enrique.consumoservice.ingesta;
+
+import com.energia.enrique.consumoservice.model.Lectura;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Diario de escritura anticipada de la ingesta: cada lote aceptado se agrega a
+ * un segmento mapeado en memoria y se confirma al concentrador cuando el
+ * segmento llegó al disco, sin esperar a PostgreSQL. Un hilo lector lo drena
+ * hacia la base y confirma lo drenado; al arrancar, lo no confirmado se vuelve
+ * a leer. Garantiza al menos una vez: quien drena debe tolerar repeticiones.
+ * <p>
+ * Un solo hilo sincroniza con el disco. Mientras un {@code force()} está en
+ * curso los escritores siguen agregando, y el siguiente {@code force()} los
+ * confirma a todos juntos (group commit): con carga, una sincronización cubre
+ * muchos lotes.
+ * <p>
+ * Formato de cada registro: largo del cuerpo (int), CRC32 del cuerpo (int) y
+ * cuerpo: secuencia (long), cantidad (int) y por lectura medidor (long),
+ * instante en ms (long) y valor (double). Un largo 0 marca el final de lo
+ * escrito. Un registro cortado por una caída no pasa el CRC y se descarta:
+ * nunca se confirmó. Después de abrir se escribe siempre en un segmento nuevo.
+ * <p>
+ * {@link #agregar} y {@link #esperarDurable} son seguros entre hilos;
+ * {@link #leer} y {@link #confirmar} los usa un único hilo lector.
+ */
+public final class DiarioLecturas implements AutoCloseable {
+
+    private static final String PREFIJO = "diario-";
+    private static final String EXTENSION = ".seg";
+    private static final String CONFIRMADO = "confirmado";
+    private static final int ENCABEZADO = 8;
+    private static final int FIJO = 12;
+    private static final int BYTES_LECTURA = 24;
+
+    private final Path directorio;
+    private final int tamanoSegmento;
+    private final int maximoSegmentos;
+    private final Thread hiloSincronizacion;
+    private final Object durabilidad = new Object();
+    private volatile boolean abierto = true;
+
+    // Protegidos por this. El último segmento es el que se escribe
+    private final ArrayDeque<Segmento> segmentos = new ArrayDeque<>();
+    private long ultimaSecuencia;
+
+    // Protegidos por durabilidad
+    private long durableHasta;
+    private long sincronizaciones;
+    private RuntimeException falla;
+
+    // Solo el hilo lector
+    private Segmento segmentoLectura;
+    private int posicionLectura;
+    private long leidaHasta;
+    private volatile long confirmadaHasta;
+
+    private DiarioLecturas(Path directorio, int tamanoSegmento, int maximoSegmentos) {
+        this.directorio = directorio;
+        this.tamanoSegmento = tamanoSegmento;
+        this.maximoSegmentos = maximoSegmentos;
+        this.hiloSincronizacion = new Thread(this::sincronizar, "diario-lecturas");
+        this.hiloSincronizacion.setDaemon(true);
+    }
+
+    /**
+     * Abre el diario del directorio y recupera los registros válidos de los
+     * segmentos existentes; los no confirmados quedan pendientes de leer.
+     * @param maximoSegmentos Con tantos segmentos sin drenar, {@link #agregar} rechaza lotes
+     */
+    public static DiarioLecturas abrir(Path directorio, int tamanoSegmento, int maximoSegmentos) {
+        if (tamanoSegmento < 1 << 16 || maximoSegmentos < 2) {
+            throw new IllegalArgumentException("El segmento debe tener al menos 64 KiB y el máximo ser al menos 2");
+        }
+        DiarioLecturas diario = new DiarioLecturas(directorio, tamanoSegmento, maximoSegmentos);
+        try {
+            diario.recuperar();
+        } catch (IOException e) {
+            diario.cerrarSegmentos();
+            throw new UncheckedIOException("No se pudo abrir el diario de lecturas en " + directorio, e);
+        }
+        diario.hiloSincronizacion.start();
+        return diario;
+    }
+
+    /**
+     * Agrega un lote. Vuelve sin esperar al disco: para confirmarlo al
+     * cliente hay que llamar a {@link #esperarDurable} con la secuencia.
+     * @return Secuencia del registro
+     * @throws IllegalArgumentException si el lote no entra en un segmento
+     * @throws IllegalStateException si el diario está cerrado o lleno de registros sin drenar
+     */
+    public synchronized long agregar(List<Lectura> lecturas) {
+        if (!abierto) {
+            throw new IllegalStateException("El diario de lecturas está cerrado");
+        }
+        int largo = FIJO + lecturas.size() * BYTES_LECTURA;
+        if (ENCABEZADO + largo + ENCABEZADO > tamanoSegmento) {
+            throw new IllegalArgumentException("El lote no entra en un segmento del diario");
+        }
+        Segmento actual = segmentos.getLast();
+        if (actual.fin + ENCABEZADO + largo + ENCABEZADO > tamanoSegmento) {
+            if (segmentos.size() >= maximoSegmentos) {
+                throw new IllegalStateException("El diario de lecturas está lleno: la base no drena a tiempo");
+            }
+            // Lo anterior al segmento nuevo queda en disco antes de escribir en él
+            actual.mapa.force();
+            actual = nuevoSegmento(ultimaSecuencia + 1);
+        }
+
+        long secuencia = ultimaSecuencia + 1;
+        MappedByteBuffer mapa = actual.mapa;
+        int cuerpo = actual.fin + ENCABEZADO;
+        mapa.putLong(cuerpo, secuencia);
+        mapa.putInt(cuerpo + 8, lecturas.size());
+        int posicion = cuerpo + FIJO;
+        for (Lectura lectura : lecturas) {
+            mapa.putLong(posicion, lectura.idMedidor());
+            mapa.putLong(posicion + 8, lectura.instante().toEpochMilli());
+            mapa.putDouble(posicion + 16, lectura.valor());
+            posicion += BYTES_LECTURA;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(mapa.slice(cuerpo, largo));
+        mapa.putInt(actual.fin + 4, (int) crc.getValue());
+        // El largo al final: hasta acá el registro no existe para la recuperación
+        mapa.putInt(actual.fin, largo);
+
+        actual.fin = posicion;
+        ultimaSecuencia = secuencia;
+        notifyAll();
+        return secuencia;
+    }
+
+    /**
+     * Espera a que el registro esté en disco.
+     * @throws IllegalStateException si no llega a tiempo o falló la sincronización con el disco
+     */
+    public void esperarDurable(long secuencia, long esperaMaximaMs) throws InterruptedException {
+        long vencimiento = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(esperaMaximaMs);
+        synchronized (durabilidad) {
+            while (durableHasta < secuencia) {
+                if (falla != null) {
+                    throw new IllegalStateException("No se pudo sincronizar el diario de lecturas", falla);
+                }
+                long restanteMs = TimeUnit.NANOSECONDS.toMillis(vencimiento - System.nanoTime());
+                if (restanteMs <= 0) {
+                    throw new IllegalStateException("El diario de lecturas no llegó al disco a tiempo");
+                }
+                durabilidad.wait(restanteMs);
+            }
+        }
+    }
+
+    /**
+     * Devuelve los registros en disco siguientes a los ya leídos, hasta
+     * completar {@code maximoLecturas} (al menos un registro). Si no hay,
+     * espera hasta {@code esperaMs} a que llegue alguno.
+     */
+    public List<Registro> leer(int maximoLecturas, long esperaMs) throws InterruptedException {
+        long durable;
+        synchronized (durabilidad) {
+            // wait(0) esperaría sin límite
+            if (durableHasta <= leidaHasta && abierto && esperaMs > 0) {
+                durabilidad.wait(esperaMs);
+            }
+            durable = durableHasta;
+        }
+
+        List<Registro> registros = new ArrayList<>();
+        int lecturas = 0;
+        while (lecturas < maximoLecturas) {
+            Registro registro = siguiente(durable);
+            if (registro == null) {
+                break;
+            }
+            leidaHasta = registro.secuencia();
+            if (registro.secuencia() > confirmadaHasta) {
+                registros.add(registro);
+                lecturas += registro.lecturas().size();
+            }
+        }
+        return registros;
+    }
+
+    /**
+     * Marca como drenado todo hasta la secuencia y borra los segmentos que ya
+     * no tienen nada pendiente. Si el punto de confirmación se pierde en una
+     * caída, lo drenado se vuelve a leer: por eso no se sincroniza.
+     */
+    public void confirmar(long secuencia) {
+        if (secuencia <= confirmadaHasta) {
+            return;
+        }
+        try {
+            Path temporal = directorio.resolve(CONFIRMADO + ".tmp");
+            Files.writeString(temporal, Long.toString(secuencia), StandardCharsets.US_ASCII);
+            Files.move(temporal, directorio.resolve(CONFIRMADO),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo guardar el punto de confirmación del diario", e);
+        }
+        confirmadaHasta = secuencia;
+
+        List<Segmento> drenados = new ArrayList<>();
+        synchronized (this) {
+            // Un segmento está drenado si el siguiente empieza después de lo confirmado
+            while (segmentos.size() > 1) {
+                Iterator<Segmento> it = segmentos.iterator();
+                Segmento primero = it.next();
+                Segmento segundo = it.next();
+                if (segundo.primera - 1 > secuencia || primero == segmentoLectura) {
+                    break;
+                }
+                drenados.add(segmentos.removeFirst());
+            }
+        }
+        for (Segmento segmento : drenados) {
+            segmento.cerrar();
+            try {
+                // El mapeo se libera recién cuando el GC recoge el buffer; en Linux el archivo ya se puede borrar
+                Files.deleteIfExists(segmento.ruta);
+            } catch (IOException e) {
+                throw new UncheckedIOException("No se pudo borrar el segmento " + segmento.ruta, e);
+            }
+        }
+    }
+
+    /** Registros agregados y todavía no confirmados como drenados. */
+    public long pendientes() {
+        synchronized (this) {
+            return ultimaSecuencia - confirmadaHasta;
+        }
+    }
+
+    public synchronized int cantidadSegmentos() {
+        return segmentos.size();
+    }
+
+    /** Sincronizaciones con el disco hechas; frente a los registros agregados muestra cuánto agrupa el group commit. */
+    public long sincronizaciones() {
+        synchronized (durabilidad) {
+            return sincronizaciones;
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (!abierto) {
+                return;
+            }
+            abierto = false;
+            notifyAll();
+        }
+        synchronized (durabilidad) {
+            durabilidad.notifyAll();
+        }
+        try {
+            hiloSincronizacion.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            cerrarSegmentos();
+        }
+    }
+
+    private void sincronizar() {
+        long sincronizada = durableHastaInicial();
+        while (true) {
+            long objetivo;
+            MappedByteBuffer mapa;
+            synchronized (this) {
+                while (abierto && ultimaSecuencia == sincronizada) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+                if (ultimaSecuencia == sincronizada) {
+                    return;
+                }
+                objetivo = ultimaSecuencia;
+                mapa = segmentos.getLast().mapa;
+            }
+
+            // Fuera del candado: mientras tanto se siguen agregando registros para la próxima vuelta
+            try {
+                mapa.force();
+                sincronizada = objetivo;
+                synchronized (durabilidad) {
+                    durableHasta = objetivo;
+                    sincronizaciones++;
+                    falla = null;
+                    durabilidad.notifyAll();
+                }
+            } catch (RuntimeException e) {
+                synchronized (durabilidad) {
+                    falla = e;
+                    durabilidad.notifyAll();
+                }
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private long durableHastaInicial() {
+        synchronized (durabilidad) {
+            return durableHasta;
+        }
+    }
+
+    // Siguiente registro del cursor de lectura con secuencia hasta "durable", o null
+    private Registro siguiente(long durable) {
+        while (true) {
+            Segmento segmento;
+            synchronized (this) {
+                if (segmentoLectura == null) {
+                    segmentoLectura = segmentos.getFirst();
+                    posicionLectura = 0;
+                }
+                segmento = segmentoLectura;
+                int fin = segmento.fin;
+                if (posicionLectura >= fin) {
+                    Segmento proximo = posterior(segmento);
+                    if (proximo == null) {
+                        return null;
+                    }
+                    segmentoLectura = proximo;
+                    posicionLectura = 0;
+                    continue;
+                }
+            }
+            MappedByteBuffer mapa = segmento.mapa;
+            int largo = mapa.getInt(posicionLectura);
+            long secuencia = mapa.getLong(posicionLectura + ENCABEZADO);
+            if (secuencia > durable) {
+                return null;
+            }
+            int cantidad = mapa.getInt(posicionLectura + ENCABEZADO + 8);
+            List<Lectura> lecturas = new ArrayList<>(cantidad);
+            int posicion = posicionLectura + ENCABEZADO + FIJO;
+            for (int i = 0; i < cantidad; i++) {
+                lecturas.add(new Lectura(mapa.getLong(posicion), Instant.ofEpochMilli(mapa.getLong(posicion + 8)),
+                        mapa.getDouble(posicion + 16)));
+                posicion += BYTES_LECTURA;
+            }
+            posicionLectura += ENCABEZADO + largo;
+            return new Registro(secuencia, lecturas);
+        }
+    }
+
+    private Segmento posterior(Segmento segmento) {
+        boolean encontrado = false;
+        for (Segmento candidato : segmentos) {
+            if (encontrado) {
+                return candidato;
+            }
+            encontrado = candidato == segmento;
+        }
+        return null;
+    }
+
+    private void recuperar() throws IOException {
+        Files.createDirectories(directorio);
+        Path confirmado = directorio.resolve(CONFIRMADO);
+        if (Files.exists(confirmado)) {
+            confirmadaHasta = Long.parseLong(Files.readString(confirmado, StandardCharsets.US_ASCII).trim());
+        }
+
+        List<Path> archivos;
+        try (Stream<Path> listado = Files.list(directorio)) {
+            archivos = listado
+                    .filter(ruta -> ruta.getFileName().toString().startsWith(PREFIJO)
+                            && ruta.getFileName().toString().endsWith(EXTENSION))
+                    .sorted()
+                    .toList();
+        }
+        long ultima = confirmadaHasta;
+        for (Path archivo : archivos) {
+            Segmento segmento = Segmento.abrirExistente(archivo, primeraDe(archivo));
+            long hasta = segmento.validar();
+            if (hasta < segmento.primera || hasta <= confirmadaHasta) {
+                // Vacío, o todo drenado antes de la caída
+                segmento.cerrar();
+                Files.deleteIfExists(archivo);
+                continue;
+            }
+            // Si solo cayó el proceso, lo escrito puede estar todavía solo en la caché del sistema
+            segmento.mapa.force();
+            segmentos.addLast(segmento);
+            ultima = Math.max(ultima, hasta);
+        }
+        ultimaSecuencia = ultima;
+        leidaHasta = confirmadaHasta;
+        durableHasta = ultima;
+        nuevoSegmento(ultima + 1);
+    }
+
+    private Segmento nuevoSegmento(long primera) {
+        Path ruta = directorio.resolve(PREFIJO + String.format("%020d", primera) + EXTENSION);
+        try {
+            Segmento segmento = Segmento.crear(ruta, primera, tamanoSegmento);
+            segmentos.addLast(segmento);
+            return segmento;
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo crear el segmento " + ruta, e);
+        }
+    }
+
+    private void cerrarSegmentos() {
+        for (Segmento segmento : segmentos) {
+            segmento.cerrar();
+        }
+    }
+
+    private static long primeraDe(Path archivo) {
+        String nombre = archivo.getFileName().toString();
+        return Long.parseLong(nombre.substring(PREFIJO.length(), nombre.length() - EXTENSION.length()));
+    }
+
+    /** Un lote tal como se agregó. */
+    public record Registro(long secuencia, List<Lectura> lecturas) {
+    }
+
+    private static final class Segmento {
+        private final Path ruta;
+        private final long primera;
+        private final FileChannel canal;
+        private final MappedByteBuffer mapa;
+        // Bytes con registros completos; lo escribe agregar y lo lee el lector, ambos bajo el candado del diario
+        private int fin;
+
+        private Segmento(Path ruta, long primera, FileChannel canal, MappedByteBuffer mapa) {
+            this.ruta = ruta;
+            this.primera = primera;
+            this.canal = canal;
+            this.mapa = mapa;
+        }
+
+        private static Segmento crear(Path ruta, long primera, int tamano) throws IOException {
+            FileChannel canal = FileChannel.open(ruta, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            // Mapear más allá del final agranda el archivo con ceros: el largo 0 marca el final
+            return new Segmento(ruta, primera, canal, canal.map(FileChannel.MapMode.READ_WRITE, 0, tamano));
+        }
+
+        private static Segmento abrirExistente(Path ruta, long primera) throws IOException {
+            FileChannel canal = FileChannel.open(ruta, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            return new Segmento(ruta, primera, canal, canal.map(FileChannel.MapMode.READ_WRITE, 0, canal.size()));
+        }
+
+        // Recorre los registros válidos y deja "fin" detrás del último; devuelve su secuencia (primera - 1 si no hay)
+        private long validar() {
+            long esperada = primera;
+            int posicion = 0;
+            CRC32 crc = new CRC32();
+            while (posicion + ENCABEZADO + FIJO <= mapa.capacity()) {
+                int largo = mapa.getInt(posicion);
+                if (largo < FIJO || (largo - FIJO) % BYTES_LECTURA != 0
+                        || posicion + ENCABEZADO + largo > mapa.capacity()) {
+                    break;
+                }
+                crc.reset();
+                crc.update(mapa.slice(posicion + ENCABEZADO, largo));
+                if ((int) crc.getValue() != mapa.getInt(posicion + 4)
+                        || mapa.getLong(posicion + ENCABEZADO) != esperada) {
+                    break;
+                }
+                posicion += ENCABEZADO + largo;
+                esperada++;
+            }
+            fin = posicion;
+            return esperada - 1;
+        }
+
+        private void cerrar() {
+            try {
+                canal.close();
+            } catch (IOException e) {
+                // Solo se pierde el descriptor; el contenido ya está en el mapeo
+            }
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.energia.enrique.consumoservice.ingesta;
+
+import java.util.Arrays;
+
+/**
+ * Marca de agua por medidor en arrays primitivos con direccionamiento abierto
+ * (sondeo lineal): sin boxing ni un objeto por entrada, unos 25 bytes por
+ * ranura frente a los ~150 de un {@code HashMap<Long, ...>}.
+ * <p>
+ * Cada medidor guarda el instante de su lectura más nueva y una ventana de
+ * {@value #VENTANA} bits, uno por intervalo de lectura hacia atrás desde la
+ * marca (como la ventana anti-repetición de IPsec): el bit i indica que la
+ * lectura alineada de ese intervalo ya está guardada. Dentro de la ventana,
+ * una lectura alineada se clasifica en memoria como nueva o repetida; fuera de
+ * ella, o si no cae justo en el inicio del intervalo, hace falta verificarla.
+ * <p>
+ * Solo es exacta si ve todas las lecturas guardadas del medidor. No es segura
+ * entre hilos.
+ */
+public final class MarcasPorMedidor {
+
+    public static final int VENTANA = Long.SIZE;
+
+    private static final long LIBRE = Long.MIN_VALUE;
+    private static final double CARGA_MAXIMA = 0.7;
+
+    public enum Veredicto {
+        NUEVA,
+        REPETIDA,
+        /** La marca no alcanza para decidir: verificar contra la base. */
+        VERIFICAR
+    }
+
+    private final long intervaloMs;
+    private long[] medidores;
+    private long[] marcas;
+    private long[] ventanas;
+    private boolean[] modificadas;
+    private int desplazamiento;
+    private int tamano;
+    private int umbral;
+
+    public MarcasPorMedidor(int capacidadInicial, long intervaloMs) {
+        if (intervaloMs <= 0) {
+            throw new IllegalArgumentException("El intervalo de lectura debe ser mayor que 0");
+        }
+        this.intervaloMs = intervaloMs;
+        int ranuras = Integer.highestOneBit(Math.max(16, (int) Math.ceil(Math.max(1, capacidadInicial) / CARGA_MAXIMA)) - 1) << 1;
+        reservar(ranuras);
+    }
+
+    public Veredicto clasificar(long idMedidor, long instanteMs) {
+        int i = buscar(idMedidor);
+        if (medidores[i] == LIBRE || instanteMs > marcas[i]) {
+            return Veredicto.NUEVA;
+        }
+        if (instanteMs == marcas[i]) {
+            return Veredicto.REPETIDA;
+        }
+        long distancia = Math.floorDiv(marcas[i], intervaloMs) - Math.floorDiv(instanteMs, intervaloMs);
+        if (!alineada(instanteMs) || distancia >= VENTANA) {
+            return Veredicto.VERIFICAR;
+        }
+        return (ventanas[i] & (1L << distancia)) != 0 ? Veredicto.REPETIDA : Veredicto.NUEVA;
+    }
+
+    /** Registra una lectura ya guardada. Acepta lecturas atrasadas y repetidas. */
+    public void registrar(long idMedidor, long instanteMs) {
+        validar(idMedidor);
+        int i = buscar(idMedidor);
+        if (medidores[i] == LIBRE) {
+            medidores[i] = idMedidor;
+            marcas[i] = instanteMs;
+            ventanas[i] = alineada(instanteMs) ? 1L : 0L;
+            modificadas[i] = true;
+            if (++tamano > umbral) {
+                crecer();
+            }
+            return;
+        }
+
+        long marca = marcas[i];
+        long ventana = ventanas[i];
+        long intervaloMarca = Math.floorDiv(marca, intervaloMs);
+        long intervalo = Math.floorDiv(instanteMs, intervaloMs);
+        if (instanteMs > marca) {
+            long corrimiento = intervalo - intervaloMarca;
+            ventana = corrimiento >= VENTANA ? 0L : ventana << corrimiento;
+            marca = instanteMs;
+            intervaloMarca = intervalo;
+        }
+        long distancia = intervaloMarca - intervalo;
+        if (alineada(instanteMs) && distancia < VENTANA) {
+            ventana |= 1L << distancia;
+        }
+        if (marca != marcas[i] || ventana != ventanas[i]) {
+            marcas[i] = marca;
+            ventanas[i] = ventana;
+            modificadas[i] = true;
+        }
+    }
+
+    /** Carga el estado guardado de un medidor; no cuenta como modificación. */
+    public void cargar(long idMedidor, long instanteMs, long ventana) {
+        validar(idMedidor);
+        int i = buscar(idMedidor);
+        boolean nueva = medidores[i] == LIBRE;
+        medidores[i] = idMedidor;
+        marcas[i] = instanteMs;
+        ventanas[i] = ventana;
+        if (nueva && ++tamano > umbral) {
+            crecer();
+        }
+    }
+
+    /** Devuelve las entradas modificadas desde el último drenaje y las deja como guardadas. */
+    public Entradas drenarModificadas() {
+        int cantidad = 0;
+        for (boolean modificada : modificadas) {
+            if (modificada) {
+                cantidad++;
+            }
+        }
+        Entradas entradas = new Entradas(new long[cantidad], new long[cantidad], new long[cantidad]);
+        int j = 0;
+        for (int i = 0; i < modificadas.length; i++) {
+            if (modificadas[i]) {
+                entradas.idsMedidor[j] = medidores[i];
+                entradas.instantesMs[j] = marcas[i];
+                entradas.ventanas[j] = ventanas[i];
+                modificadas[i] = false;
+                j++;
+            }
+        }
+        return entradas;
+    }
+
+    /** Vuelve a marcar como modificados los medidores de un guardado que falló. */
+    public void marcarModificadas(long[] idsMedidor) {
+        for (long idMedidor : idsMedidor) {
+            int i = buscar(idMedidor);
+            if (medidores[i] != LIBRE) {
+                modificadas[i] = true;
+            }
+        }
+    }
+
+    public int tamano() {
+        return tamano;
+    }
+
+    private boolean alineada(long instanteMs) {
+        return Math.floorMod(instanteMs, intervaloMs) == 0;
+    }
+
+    // Ranura del medidor, o la ranura libre donde iría
+    private int buscar(long idMedidor) {
+        int mascara = medidores.length - 1;
+        int i = (int) ((idMedidor * 0x9E3779B97F4A7C15L) >>> desplazamiento);
+        while (medidores[i] != LIBRE && medidores[i] != idMedidor) {
+            i = (i + 1) & mascara;
+        }
+        return i;
+    }
+
+    private void crecer() {
+        long[] medidoresAnteriores = medidores;
+        long[] marcasAnteriores = marcas;
+        long[] ventanasAnteriores = ventanas;
+        boolean[] modificadasAnteriores = modificadas;
+        reservar(medidores.length << 1);
+        for (int i = 0; i < medidoresAnteriores.length; i++) {
+            if (medidoresAnteriores[i] != LIBRE) {
+                int j = buscar(medidoresAnteriores[i]);
+                medidores[j] = medidoresAnteriores[i];
+                marcas[j] = marcasAnteriores[i];
+                ventanas[j] = ventanasAnteriores[i];
+                modificadas[j] = modificadasAnteriores[i];
+            }
+        }
+    }
+
+    private void reservar(int ranuras) {
+        medidores = new long[ranuras];
+        Arrays.fill(medidores, LIBRE);
+        marcas = new long[ranuras];
+        ventanas = new long[ranuras];
+        modificadas = new boolean[ranuras];
+        desplazamiento = Long.SIZE - Integer.numberOfTrailingZeros(ranuras);
+        umbral = (int) (ranuras * CARGA_MAXIMA);
+    }
+
+    private static void validar(long idMedidor) {
+        if (idMedidor == LIBRE) {
+            throw new IllegalArgumentException("Id de medidor reservado: " + idMedidor);
+        }
+    }
+
+    /** Arrays paralelos: posición i = un medidor. */
+    public record Entradas(long[] idsMedidor, long[] instantesMs, long[] ventanas) {
+
+        public int cantidad() {
+            return idsMedidor.length;
+        }
+    }
+}
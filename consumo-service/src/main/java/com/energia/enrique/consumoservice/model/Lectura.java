@@ -0,0 +1,10 @@
+package com.energia.enrique.consumoservice.model;
+
+import java.time.Instant;
+
+/**
+ * Lectura de un medidor. Se guarda con precisión de milisegundos.
+ * @param valor Energía acumulada (kWh) que informa el medidor en ese instante
+ */
+public record Lectura(Long idMedidor, Instant instante, Double valor) {
+}
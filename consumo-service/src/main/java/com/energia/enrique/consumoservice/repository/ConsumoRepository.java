@@ -0,0 +1,82 @@
+package com.energia.enrique.consumoservice.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Intervalos de consumo por medidor. Cada lectura cierra el intervalo que
+ * abrió la anterior del mismo medidor; una lectura tardía parte en dos el
+ * intervalo que la contiene.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ConsumoRepository {
+
+    private static final String INSTANTE = "TIMESTAMPTZ 'epoch' + %s * INTERVAL '1 millisecond'";
+
+    // La anterior de cada lectura es la previa del lote o, para la primera, el último intervalo guardado.
+    // Las que no son posteriores a ese último intervalo no se insertan (no vuelven en RETURNING).
+    private static final String AGREGAR = "WITH e AS (" +
+            "SELECT x.id_medidor, " + INSTANTE.formatted("x.instante_ms") + " AS instante, x.valor " +
+            "FROM unnest(?::bigint[], ?::bigint[], ?::float8[]) AS x(id_medidor, instante_ms, valor)), " +
+            "u AS (SELECT m.id_medidor, c.hasta, c.valor_hasta FROM (SELECT DISTINCT id_medidor FROM e) m " +
+            "LEFT JOIN LATERAL (SELECT hasta, valor_hasta FROM consumos WHERE id_medidor = m.id_medidor " +
+            "ORDER BY hasta DESC LIMIT 1) c ON true), " +
+            "f AS (SELECT e.id_medidor, e.instante, e.valor, u.hasta AS ultimo, u.valor_hasta AS valor_ultimo " +
+            "FROM e JOIN u USING (id_medidor) WHERE u.hasta IS NULL OR e.instante > u.hasta) " +
+            "INSERT INTO consumos (id_medidor, desde, hasta, valor_desde, valor_hasta) " +
+            "SELECT id_medidor, coalesce(lag(instante) OVER w, ultimo), instante, " +
+            "coalesce(lag(valor) OVER w, valor_ultimo), valor " +
+            "FROM f WINDOW w AS (PARTITION BY id_medidor ORDER BY instante) " +
+            "RETURNING id_medidor, (extract(epoch FROM hasta) * 1000)::bigint AS instante_ms";
+
+    // El intervalo (desde, hasta) que contiene la lectura termina ahora en ella, y uno nuevo va de ella a hasta
+    private static final String PARTIR = "WITH c AS (" +
+            "SELECT id_medidor, desde, hasta, valor_desde FROM consumos " +
+            "WHERE id_medidor = ? AND hasta > " + INSTANTE.formatted("?") + " AND (desde IS NULL OR desde < " +
+            INSTANTE.formatted("?") + ") ORDER BY hasta LIMIT 1 FOR UPDATE), " +
+            "actualizado AS (UPDATE consumos SET desde = " + INSTANTE.formatted("?") + ", valor_desde = ?, corregido = true " +
+            "FROM c WHERE consumos.id_medidor = c.id_medidor AND consumos.hasta = c.hasta) " +
+            "INSERT INTO consumos (id_medidor, desde, hasta, valor_desde, valor_hasta, corregido) " +
+            "SELECT id_medidor, desde, " + INSTANTE.formatted("?") + ", valor_desde, ?, true FROM c";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Agrega los intervalos que cierran las lecturas, ordenadas por medidor e instante.
+     * @return Claves (medidor, instante en ms) de las lecturas que cerraron un intervalo
+     */
+    public List<LecturaRepository.ClaveLectura> agregar(Long[] idsMedidor, Long[] instantesMs, Double[] valores) {
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(AGREGAR);
+            ps.setArray(1, con.createArrayOf("bigint", idsMedidor));
+            ps.setArray(2, con.createArrayOf("bigint", instantesMs));
+            ps.setArray(3, con.createArrayOf("float8", valores));
+            return ps;
+        }, (rs, fila) -> new LecturaRepository.ClaveLectura(rs.getLong("id_medidor"), rs.getLong("instante_ms")));
+    }
+
+    /**
+     * Intercala lecturas tardías, una sentencia por lectura en un batch JDBC.
+     * @return Cuántas partieron un intervalo; el resto no tenía intervalo que las contuviera
+     */
+    public int partir(long[] idsMedidor, long[] instantesMs, double[] valores) {
+        List<Object[]> parametros = new ArrayList<>(idsMedidor.length);
+        for (int i = 0; i < idsMedidor.length; i++) {
+            parametros.add(new Object[]{idsMedidor[i], instantesMs[i], instantesMs[i], instantesMs[i], valores[i],
+                    instantesMs[i], valores[i]});
+        }
+        int partidas = 0;
+        for (int filas : jdbcTemplate.batchUpdate(PARTIR, parametros)) {
+            if (filas > 0) {
+                partidas++;
+            }
+        }
+        return partidas;
+    }
+}
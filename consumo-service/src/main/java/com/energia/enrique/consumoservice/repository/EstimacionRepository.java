@@ -0,0 +1,193 @@
+package com.energia.enrique.consumoservice.repository;
+
+import com.energia.enrique.consumoservice.estimacion.EstimadorHuecos;
+import com.energia.enrique.consumoservice.estimacion.Estimaciones;
+import com.energia.enrique.consumoservice.estimacion.Huecos;
+import com.energia.enrique.consumoservice.estimacion.Perfiles;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Huecos, perfiles de carga y lecturas estimadas. Los huecos y los perfiles
+ * salen de la tabla {@code consumos}: un hueco es un intervalo más largo que
+ * el de lectura o el tramo entre la última lectura de un medidor y el corte.
+ */
+@Repository
+@RequiredArgsConstructor
+public class EstimacionRepository {
+
+    private static final String INSTANTE = "TIMESTAMPTZ 'epoch' + %s * INTERVAL '1 millisecond'";
+    private static final String MS = "(extract(epoch FROM %s) * 1000)::bigint";
+
+    // Cerrados que tocan el ciclo, y abiertos: medidores cuya última lectura quedó antes del corte
+    private static final String HUECOS = "SELECT id_medidor, " + MS.formatted("desde") + " AS desde_ms, valor_desde, " +
+            MS.formatted("hasta") + " AS hasta_ms, valor_hasta, NULL::float8 AS tasa " +
+            "FROM consumos WHERE desde IS NOT NULL AND hasta > " + INSTANTE.formatted("?") +
+            " AND desde < " + INSTANTE.formatted("?") + " AND hasta - desde > ? * INTERVAL '1 millisecond' " +
+            "UNION ALL " +
+            "SELECT id_medidor, " + MS.formatted("hasta") + ", valor_hasta, NULL, NULL, " +
+            "(valor_hasta - valor_desde) / nullif(" + MS.formatted("hasta") + " - " + MS.formatted("desde") + ", 0) " +
+            "FROM (SELECT DISTINCT ON (id_medidor) id_medidor, desde, hasta, valor_desde, valor_hasta FROM consumos " +
+            "WHERE hasta >= " + INSTANTE.formatted("?") + " ORDER BY id_medidor, hasta DESC) u " +
+            "WHERE hasta < " + INSTANTE.formatted("?") + " " +
+            "ORDER BY 1, 2";
+
+    // Solo intervalos completos y sin energía negativa (cambios de medidor)
+    private static final String PERFILES = "SELECT id_medidor, (" + MS.formatted("hasta") + " % 86400000) / ? AS franja, " +
+            "avg(energia) AS energia FROM consumos " +
+            "WHERE id_medidor = ANY(?::bigint[]) AND hasta >= " + INSTANTE.formatted("?") +
+            " AND hasta < " + INSTANTE.formatted("?") +
+            " AND hasta - desde = ? * INTERVAL '1 millisecond' AND energia >= 0 " +
+            "GROUP BY 1, 2";
+
+    // Se descarta lo de un hueco que ya no existe: entró una lectura real mientras se estimaba.
+    // Una estimación vigente no se pisa; una reemplazada sí, si el punto vuelve a quedar en un hueco
+    private static final String GUARDAR = "INSERT INTO estimaciones (id_medidor, instante, valor, metodo, desde, hasta) " +
+            "SELECT x.id_medidor, " + INSTANTE.formatted("x.instante_ms") + ", x.valor, x.metodo, " +
+            INSTANTE.formatted("x.desde_ms") + ", " + INSTANTE.formatted("x.hasta_ms") + " " +
+            "FROM unnest(?::bigint[], ?::bigint[], ?::float8[], ?::text[], ?::bigint[], ?::bigint[]) " +
+            "AS x(id_medidor, instante_ms, valor, metodo, desde_ms, hasta_ms) " +
+            "WHERE NOT EXISTS (SELECT 1 FROM consumos c WHERE c.id_medidor = x.id_medidor " +
+            "AND c.hasta > " + INSTANTE.formatted("x.desde_ms") +
+            " AND (x.hasta_ms IS NULL OR c.hasta < " + INSTANTE.formatted("x.hasta_ms") + ")) " +
+            "ON CONFLICT (id_medidor, instante) DO UPDATE SET valor = EXCLUDED.valor, metodo = EXCLUDED.metodo, " +
+            "desde = EXCLUDED.desde, hasta = EXCLUDED.hasta, estimada_en = now(), reemplazada_en = NULL " +
+            "WHERE estimaciones.reemplazada_en IS NOT NULL";
+
+    // Toda la estimación del hueco donde cae la lectura real queda vieja, no solo el punto
+    private static final String REEMPLAZAR = "UPDATE estimaciones e SET reemplazada_en = now() " +
+            "FROM unnest(?::bigint[], ?::bigint[]) AS x(id_medidor, instante_ms) " +
+            "WHERE e.id_medidor = x.id_medidor AND e.reemplazada_en IS NULL " +
+            "AND e.desde < " + INSTANTE.formatted("x.instante_ms") +
+            " AND (e.hasta IS NULL OR e.hasta > " + INSTANTE.formatted("x.instante_ms") + ")";
+
+    private static final String LISTAR = "SELECT id_medidor, instante, valor, metodo, reemplazada_en FROM estimaciones " +
+            "WHERE id_medidor = ? AND instante >= " + INSTANTE.formatted("?") + " AND instante < " +
+            INSTANTE.formatted("?") + " ORDER BY instante";
+
+    private static final int TANDA_LECTURA = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /** Huecos que tocan [inicioMs, corteMs], ordenados por medidor; los abiertos, de lecturas posteriores a {@code desdeAbiertosMs}. */
+    @Transactional(readOnly = true)
+    public Huecos huecos(long inicioMs, long corteMs, long intervaloMs, long desdeAbiertosMs) {
+        Huecos.Acumulador huecos = new Huecos.Acumulador();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(HUECOS);
+            ps.setLong(1, inicioMs);
+            ps.setLong(2, corteMs);
+            ps.setLong(3, intervaloMs);
+            ps.setLong(4, desdeAbiertosMs);
+            ps.setLong(5, corteMs);
+            ps.setFetchSize(TANDA_LECTURA);
+            return ps;
+        }, rs -> {
+            long hastaMs = rs.getLong("hasta_ms");
+            if (rs.wasNull()) {
+                double tasa = rs.getDouble("tasa");
+                huecos.abierto(rs.getLong("id_medidor"), rs.getLong("desde_ms"), rs.getDouble("valor_desde"),
+                        rs.wasNull() ? Double.NaN : tasa);
+            } else {
+                huecos.cerrado(rs.getLong("id_medidor"), rs.getLong("desde_ms"), rs.getDouble("valor_desde"),
+                        hastaMs, rs.getDouble("valor_hasta"));
+            }
+        });
+        return huecos.construir();
+    }
+
+    /** Perfil de cada medidor (ordenados) con los intervalos completos que terminan en [desdeMs, hastaMs). */
+    public Perfiles perfiles(long[] idsMedidor, long desdeMs, long hastaMs, long intervaloMs, int franjas) {
+        double[] energias = new double[idsMedidor.length * franjas];
+        Arrays.fill(energias, Double.NaN);
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(PERFILES);
+            ps.setLong(1, intervaloMs);
+            ps.setArray(2, con.createArrayOf("bigint", encajonar(idsMedidor)));
+            ps.setLong(3, desdeMs);
+            ps.setLong(4, hastaMs);
+            ps.setLong(5, intervaloMs);
+            return ps;
+        }, rs -> {
+            int medidor = Arrays.binarySearch(idsMedidor, rs.getLong("id_medidor"));
+            energias[medidor * franjas + rs.getInt("franja")] = rs.getDouble("energia");
+        });
+        return new Perfiles(idsMedidor, energias, franjas);
+    }
+
+    /**
+     * Guarda las estimaciones de a {@code tamanoTramo} filas por sentencia.
+     * @return Cuántas se guardaron
+     */
+    @Transactional
+    public int guardar(Estimaciones estimaciones, int tamanoTramo) {
+        int guardadas = 0;
+        for (int desde = 0; desde < estimaciones.cantidad(); desde += tamanoTramo) {
+            int hasta = Math.min(desde + tamanoTramo, estimaciones.cantidad());
+            Long[] idsMedidor = new Long[hasta - desde];
+            Long[] instantesMs = new Long[hasta - desde];
+            Double[] valores = new Double[hasta - desde];
+            String[] metodos = new String[hasta - desde];
+            Long[] desdeMs = new Long[hasta - desde];
+            Long[] hastaMs = new Long[hasta - desde];
+            for (int i = desde; i < hasta; i++) {
+                int j = i - desde;
+                idsMedidor[j] = estimaciones.idsMedidor()[i];
+                instantesMs[j] = estimaciones.instantesMs()[i];
+                valores[j] = estimaciones.valores()[i];
+                metodos[j] = estimaciones.metodos()[i] == EstimadorHuecos.PERFIL ? "perfil" : "lineal";
+                desdeMs[j] = estimaciones.desdeMs()[i];
+                hastaMs[j] = estimaciones.hastaMs()[i] == Huecos.ABIERTO ? null : estimaciones.hastaMs()[i];
+            }
+            guardadas += jdbcTemplate.update(con -> {
+                PreparedStatement ps = con.prepareStatement(GUARDAR);
+                ps.setArray(1, con.createArrayOf("bigint", idsMedidor));
+                ps.setArray(2, con.createArrayOf("bigint", instantesMs));
+                ps.setArray(3, con.createArrayOf("float8", valores));
+                ps.setArray(4, con.createArrayOf("text", metodos));
+                ps.setArray(5, con.createArrayOf("bigint", desdeMs));
+                ps.setArray(6, con.createArrayOf("bigint", hastaMs));
+                return ps;
+            });
+        }
+        return guardadas;
+    }
+
+    /**
+     * Marca como reemplazadas las estimaciones de los huecos donde caen las lecturas reales.
+     * @return Cuántas estimaciones se marcaron
+     */
+    public int reemplazar(long[] idsMedidor, long[] instantesMs) {
+        return jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(REEMPLAZAR);
+            ps.setArray(1, con.createArrayOf("bigint", encajonar(idsMedidor)));
+            ps.setArray(2, con.createArrayOf("bigint", encajonar(instantesMs)));
+            return ps;
+        });
+    }
+
+    /** Estimaciones de un medidor con instante en [desde, hasta), vigentes y reemplazadas. */
+    public List<Estimacion> listar(long idMedidor, long desdeMs, long hastaMs) {
+        return jdbcTemplate.query(LISTAR, (rs, fila) -> {
+            OffsetDateTime reemplazadaEn = rs.getObject("reemplazada_en", OffsetDateTime.class);
+            return new Estimacion(rs.getLong("id_medidor"), rs.getObject("instante", OffsetDateTime.class).toInstant(),
+                    rs.getDouble("valor"), rs.getString("metodo"), reemplazadaEn == null ? null : reemplazadaEn.toInstant());
+        }, idMedidor, desdeMs, hastaMs);
+    }
+
+    private static Long[] encajonar(long[] valores) {
+        return Arrays.stream(valores).boxed().toArray(Long[]::new);
+    }
+
+    /** {@code reemplazadaEn} en null mientras ninguna lectura real haya caído en su hueco. */
+    public record Estimacion(long idMedidor, Instant instante, double valor, String metodo, Instant reemplazadaEn) {
+    }
+}
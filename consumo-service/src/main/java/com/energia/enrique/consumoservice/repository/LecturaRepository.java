@@ -0,0 +1,135 @@
+package com.energia.enrique.consumoservice.repository;
+
+import com.energia.enrique.consumoservice.model.Lectura;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lecturas por lotes. Los lotes viajan como arrays en una sola sentencia
+ * (unnest) y los instantes como epoch en milisegundos, que se convierten en
+ * la base sin pasar por la zona horaria de la sesión.
+ */
+@Repository
+@RequiredArgsConstructor
+public class LecturaRepository {
+
+    private static final String INSTANTE = "TIMESTAMPTZ 'epoch' + %s * INTERVAL '1 millisecond'";
+
+    private static final String INSERTAR = "WITH nuevas AS (" +
+            "INSERT INTO lecturas (id_medidor, instante, valor) " +
+            "SELECT e.id_medidor, " + INSTANTE.formatted("e.instante_ms") + ", e.valor " +
+            "FROM unnest(?::bigint[], ?::bigint[], ?::float8[]) AS e(id_medidor, instante_ms, valor) " +
+            "RETURNING id) SELECT coalesce(max(id), 0) FROM nuevas";
+
+    // Cada candidata es una búsqueda puntual en uq_lecturas_medidor_instante; RETURNING trae solo las insertadas
+    private static final String INSERTAR_FALTANTES = "INSERT INTO lecturas (id_medidor, instante, valor) " +
+            "SELECT e.id_medidor, " + INSTANTE.formatted("e.instante_ms") + ", e.valor " +
+            "FROM unnest(?::bigint[], ?::bigint[], ?::float8[]) AS e(id_medidor, instante_ms, valor) " +
+            "ON CONFLICT (id_medidor, instante) DO NOTHING " +
+            "RETURNING id, id_medidor, (extract(epoch FROM instante) * 1000)::bigint AS instante_ms";
+
+    private static final String DESDE_ID = "SELECT id_medidor, (extract(epoch FROM instante) * 1000)::bigint AS instante_ms " +
+            "FROM lecturas WHERE id > ? ORDER BY id";
+
+    // Un recorrido del índice por medidor, de la más nueva hacia atrás, cortado en :cantidad
+    private static final String ULTIMAS = "SELECT l.id_medidor, l.instante, l.valor " +
+            "FROM unnest(?::bigint[]) AS m(id_medidor) " +
+            "CROSS JOIN LATERAL (SELECT id_medidor, instante, valor FROM lecturas " +
+            "WHERE id_medidor = m.id_medidor ORDER BY instante DESC LIMIT ?) l " +
+            "ORDER BY l.id_medidor, l.instante DESC";
+
+    private static final int TANDA_LECTURA = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserta el lote en una sentencia, sin tolerar repetidas: para lecturas
+     * que las marcas ya clasificaron como nuevas.
+     * @return Id más alto asignado (0 si el lote está vacío)
+     * @throws org.springframework.dao.DuplicateKeyException si alguna ya estaba guardada; no se inserta ninguna
+     */
+    public long insertar(Long[] idsMedidor, Long[] instantesMs, Double[] valores) {
+        Long ultimoId = jdbcTemplate.query(con -> preparar(con, INSERTAR,
+                        con.createArrayOf("bigint", idsMedidor), con.createArrayOf("bigint", instantesMs),
+                        con.createArrayOf("float8", valores)),
+                rs -> rs.next() ? rs.getLong(1) : 0L);
+        return ultimoId == null ? 0L : ultimoId;
+    }
+
+    /** Inserta las lecturas que todavía no están guardadas y saltea las demás, en una sentencia. */
+    public Insertadas insertarFaltantes(Long[] idsMedidor, Long[] instantesMs, Double[] valores) {
+        List<ClaveLectura> claves = new ArrayList<>();
+        long[] ultimoId = {0L};
+        jdbcTemplate.query(con -> preparar(con, INSERTAR_FALTANTES,
+                        con.createArrayOf("bigint", idsMedidor), con.createArrayOf("bigint", instantesMs),
+                        con.createArrayOf("float8", valores)),
+                rs -> {
+                    claves.add(new ClaveLectura(rs.getLong("id_medidor"), rs.getLong("instante_ms")));
+                    ultimoId[0] = Math.max(ultimoId[0], rs.getLong("id"));
+                });
+        return new Insertadas(claves, ultimoId[0]);
+    }
+
+    /** Recorre, en orden de inserción, las lecturas con id mayor al indicado. */
+    @Transactional(readOnly = true)
+    public void recorrerDesde(long desdeId, ConsumidorLectura consumidor) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(DESDE_ID);
+            ps.setLong(1, desdeId);
+            ps.setFetchSize(TANDA_LECTURA);
+            return ps;
+        }, rs -> {
+            consumidor.aceptar(rs.getLong("id_medidor"), rs.getLong("instante_ms"));
+        });
+    }
+
+    public long ultimoId() {
+        Long ultimoId = jdbcTemplate.queryForObject("SELECT coalesce(max(id), 0) FROM lecturas", Long.class);
+        return ultimoId == null ? 0L : ultimoId;
+    }
+
+    /** Hasta {@code cantidad} lecturas por medidor, de la más nueva a la más vieja. */
+    public List<Lectura> ultimasPorMedidores(Long[] idsMedidor, int cantidad) {
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = preparar(con, ULTIMAS, con.createArrayOf("bigint", idsMedidor));
+            ps.setInt(2, cantidad);
+            return ps;
+        }, (rs, fila) -> aLectura(rs));
+    }
+
+    private static PreparedStatement preparar(Connection con, String sql, Array... arrays) throws SQLException {
+        PreparedStatement ps = con.prepareStatement(sql);
+        for (int i = 0; i < arrays.length; i++) {
+            ps.setArray(i + 1, arrays[i]);
+        }
+        return ps;
+    }
+
+    private static Lectura aLectura(ResultSet rs) throws SQLException {
+        return new Lectura(rs.getLong("id_medidor"), rs.getObject("instante", OffsetDateTime.class).toInstant(),
+                rs.getDouble("valor"));
+    }
+
+    public record ClaveLectura(long idMedidor, long instanteMs) {
+    }
+
+    /** {@code ultimoId}: id más alto asignado, 0 si no se insertó ninguna. */
+    public record Insertadas(List<ClaveLectura> claves, long ultimoId) {
+    }
+
+    @FunctionalInterface
+    public interface ConsumidorLectura {
+        void aceptar(long idMedidor, long instanteMs);
+    }
+}
@@ -0,0 +1,66 @@
+package com.energia.enrique.consumoservice.repository;
+
+import com.energia.enrique.consumoservice.ingesta.MarcasPorMedidor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.util.Arrays;
+
+/**
+ * Copia en base de las marcas de agua por medidor ({@link MarcasPorMedidor}).
+ * Junto con las marcas se guarda hasta qué lectura (por id) están al día.
+ */
+@Repository
+@RequiredArgsConstructor
+public class MarcaLecturaRepository {
+
+    // Nunca se retrocede: si otra escritura dejó una marca más nueva, se conserva
+    private static final String GUARDAR = "INSERT INTO marcas_lectura (id_medidor, instante_ms, ventana) " +
+            "SELECT * FROM unnest(?::bigint[], ?::bigint[], ?::bigint[]) " +
+            "ON CONFLICT (id_medidor) DO UPDATE SET instante_ms = EXCLUDED.instante_ms, ventana = EXCLUDED.ventana " +
+            "WHERE EXCLUDED.instante_ms >= marcas_lectura.instante_ms";
+
+    private static final String AVANZAR = "UPDATE marcas_lectura_control SET hasta_id = greatest(hasta_id, ?) WHERE id = 1";
+
+    private static final int TANDA_LECTURA = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /** Vuelca todas las marcas guardadas en el mapa, de a tandas (cursor dentro de la transacción). */
+    @Transactional(readOnly = true)
+    public void cargarEn(MarcasPorMedidor marcas) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement("SELECT id_medidor, instante_ms, ventana FROM marcas_lectura");
+            ps.setFetchSize(TANDA_LECTURA);
+            return ps;
+        }, rs -> {
+            marcas.cargar(rs.getLong(1), rs.getLong(2), rs.getLong(3));
+        });
+    }
+
+    public long hastaId() {
+        Long hastaId = jdbcTemplate.queryForObject("SELECT hasta_id FROM marcas_lectura_control WHERE id = 1", Long.class);
+        return hastaId == null ? 0L : hastaId;
+    }
+
+    @Transactional
+    public void guardar(MarcasPorMedidor.Entradas entradas, long hastaId) {
+        if (entradas.cantidad() > 0) {
+            jdbcTemplate.update(con -> {
+                PreparedStatement ps = con.prepareStatement(GUARDAR);
+                ps.setArray(1, con.createArrayOf("bigint", encajonar(entradas.idsMedidor())));
+                ps.setArray(2, con.createArrayOf("bigint", encajonar(entradas.instantesMs())));
+                ps.setArray(3, con.createArrayOf("bigint", encajonar(entradas.ventanas())));
+                return ps;
+            });
+        }
+        jdbcTemplate.update(AVANZAR, hastaId);
+    }
+
+    private static Long[] encajonar(long[] valores) {
+        return Arrays.stream(valores).boxed().toArray(Long[]::new);
+    }
+}
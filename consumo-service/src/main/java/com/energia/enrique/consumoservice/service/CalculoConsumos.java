@@ -0,0 +1,98 @@
+package com.energia.enrique.consumoservice.service;
+
+import com.energia.enrique.consumoservice.ingesta.DestinoLecturas;
+import com.energia.enrique.consumoservice.model.Lectura;
+import com.energia.enrique.consumoservice.repository.ConsumoRepository;
+import com.energia.enrique.consumoservice.repository.EstimacionRepository;
+import com.energia.enrique.consumoservice.repository.LecturaRepository.ClaveLectura;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Consumo por diferencia entre lecturas consecutivas de cada medidor. Necesita
+ * las lecturas en orden: las recibe del reordenamiento. Las tardías parten el
+ * intervalo que las contiene y lo marcan como corregido.
+ * <p>
+ * Toda lectura real, en orden o tardía, marca como reemplazadas las
+ * estimaciones del hueco donde cae ({@link EstimacionHuecosService}).
+ */
+@Service
+@RequiredArgsConstructor
+public class CalculoConsumos implements DestinoLecturas {
+
+    private final ConsumoRepository consumoRepository;
+    private final EstimacionRepository estimacionRepository;
+    private final Logger logger = LoggerFactory.getLogger(CalculoConsumos.class);
+
+    @Override
+    public void ordenadas(List<Lectura> lecturas) {
+        if (lecturas.isEmpty()) {
+            return;
+        }
+        Long[] idsMedidor = new Long[lecturas.size()];
+        Long[] instantesMs = new Long[lecturas.size()];
+        Double[] valores = new Double[lecturas.size()];
+        for (int i = 0; i < lecturas.size(); i++) {
+            idsMedidor[i] = lecturas.get(i).idMedidor();
+            instantesMs[i] = lecturas.get(i).instante().toEpochMilli();
+            valores[i] = lecturas.get(i).valor();
+        }
+        Set<ClaveLectura> agregadas = new HashSet<>(consumoRepository.agregar(idsMedidor, instantesMs, valores));
+        reemplazarEstimaciones(lecturas);
+        if (agregadas.size() == lecturas.size()) {
+            return;
+        }
+
+        // Tras un reinicio el reordenamiento no recuerda lo ya emitido: lo que no es posterior al último
+        // intervalo guardado también es tardío
+        List<Lectura> atrasadas = new ArrayList<>();
+        for (Lectura lectura : lecturas) {
+            if (!agregadas.contains(new ClaveLectura(lectura.idMedidor(), lectura.instante().toEpochMilli()))) {
+                atrasadas.add(lectura);
+            }
+        }
+        partir(atrasadas);
+    }
+
+    @Override
+    public void tardias(List<Lectura> lecturas) {
+        if (lecturas.isEmpty()) {
+            return;
+        }
+        partir(lecturas);
+        reemplazarEstimaciones(lecturas);
+    }
+
+    private void partir(List<Lectura> lecturas) {
+        long[] idsMedidor = new long[lecturas.size()];
+        long[] instantesMs = new long[lecturas.size()];
+        double[] valores = new double[lecturas.size()];
+        for (int i = 0; i < lecturas.size(); i++) {
+            idsMedidor[i] = lecturas.get(i).idMedidor();
+            instantesMs[i] = lecturas.get(i).instante().toEpochMilli();
+            valores[i] = lecturas.get(i).valor();
+        }
+        int partidas = consumoRepository.partir(idsMedidor, instantesMs, valores);
+        logger.info("Lecturas tardías: {}. Intervalos de consumo corregidos: {}", lecturas.size(), partidas);
+    }
+
+    private void reemplazarEstimaciones(List<Lectura> lecturas) {
+        long[] idsMedidor = new long[lecturas.size()];
+        long[] instantesMs = new long[lecturas.size()];
+        for (int i = 0; i < lecturas.size(); i++) {
+            idsMedidor[i] = lecturas.get(i).idMedidor();
+            instantesMs[i] = lecturas.get(i).instante().toEpochMilli();
+        }
+        int reemplazadas = estimacionRepository.reemplazar(idsMedidor, instantesMs);
+        if (reemplazadas > 0) {
+            logger.info("Estimaciones reemplazadas por lecturas reales: {}", reemplazadas);
+        }
+    }
+}
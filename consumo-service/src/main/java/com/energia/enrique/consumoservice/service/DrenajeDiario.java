@@ -0,0 +1,129 @@
+package com.energia.enrique.consumoservice.service;
+
+import com.energia.enrique.consumoservice.ingesta.DiarioLecturas;
+import com.energia.enrique.consumoservice.model.Lectura;
+import com.energia.shared.infrastructure.carga.LimiteConcurrencia;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pasa a la base lo anotado en el diario, en orden y desde un hilo propio.
+ * Junta registros hasta {@code maximo-lecturas} para que cada vuelta sea un
+ * INSERT grande. Si la base falla, reintenta lo mismo con espera creciente y
+ * el diario acumula mientras tanto; al arrancar empieza por lo que quedó sin
+ * confirmar antes de la caída.
+ */
+@Component
+@ConditionalOnProperty(prefix = "energia.consumo.diario", name = "habilitado", havingValue = "true")
+public class DrenajeDiario {
+
+    private static final long ESPERA_MAXIMA_MS = 30_000;
+    private static final long ESPERA_SIN_LUGAR_MS = 50;
+
+    private final DiarioLecturas diario;
+    private final IngestaLecturasService ingestaLecturasService;
+    private final LimiteConcurrencia limiteConcurrencia;
+    private final int maximoLecturas;
+    private final Thread hilo;
+    private final Counter fallos;
+    private final Logger logger = LoggerFactory.getLogger(DrenajeDiario.class);
+    private volatile boolean activo = true;
+
+    public DrenajeDiario(DiarioLecturas diario, IngestaLecturasService ingestaLecturasService,
+                         LimiteConcurrencia limiteConcurrencia, MeterRegistry registro,
+                         @Value("${energia.consumo.diario.drenaje.maximo-lecturas:20000}") int maximoLecturas) {
+        this.diario = diario;
+        this.ingestaLecturasService = ingestaLecturasService;
+        this.limiteConcurrencia = limiteConcurrencia;
+        this.maximoLecturas = maximoLecturas;
+        this.fallos = Counter.builder("energia.consumo.diario.drenaje.fallos")
+                .description("Vueltas del drenaje del diario que fallaron y se reintentan")
+                .register(registro);
+        this.hilo = new Thread(this::drenar, "consumo-drenaje-diario");
+        this.hilo.setDaemon(true);
+    }
+
+    // Recién con la aplicación lista: antes Flyway puede no haber migrado el esquema
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        if (diario.pendientes() > 0) {
+            logger.info("Diario de lecturas: {} lotes sin drenar de la ejecución anterior", diario.pendientes());
+        }
+        hilo.start();
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        activo = false;
+        if (!hilo.isAlive()) {
+            return;
+        }
+        try {
+            // Lo que no alcance a drenar queda en el diario para el próximo arranque
+            hilo.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drenar() {
+        List<DiarioLecturas.Registro> registros = List.of();
+        long esperaMs = 0;
+        while (activo) {
+            try {
+                if (registros.isEmpty()) {
+                    registros = diario.leer(maximoLecturas, 200);
+                    if (registros.isEmpty()) {
+                        continue;
+                    }
+                }
+                // Con el servicio saturado el drenaje cede el lugar: el diario acumula mientras tanto
+                LimiteConcurrencia.Permiso permiso = limiteConcurrencia.adquirirParaFondo();
+                if (permiso == null) {
+                    Thread.sleep(ESPERA_SIN_LUGAR_MS);
+                    continue;
+                }
+                List<Lectura> lecturas = new ArrayList<>();
+                for (DiarioLecturas.Registro registro : registros) {
+                    lecturas.addAll(registro.lecturas());
+                }
+                int nuevas;
+                try {
+                    nuevas = ingestaLecturasService.guardarDiferidas(lecturas);
+                } finally {
+                    permiso.liberar();
+                }
+                diario.confirmar(registros.get(registros.size() - 1).secuencia());
+                logger.debug("Diario drenado: {} registros, {} lecturas, {} nuevas", registros.size(), lecturas.size(), nuevas);
+                registros = List.of();
+                esperaMs = 0;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // Los mismos registros se reintentan: guardarDiferidas descarta lo que ya hubiera entrado
+                fallos.increment();
+                esperaMs = esperaMs == 0 ? 100 : Math.min(esperaMs * 2, ESPERA_MAXIMA_MS);
+                logger.warn("No se pudo drenar el diario de lecturas; se reintenta en {} ms", esperaMs, e);
+                try {
+                    Thread.sleep(esperaMs);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+}
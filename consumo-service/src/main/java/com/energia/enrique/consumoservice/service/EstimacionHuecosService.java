@@ -0,0 +1,158 @@
+package com.energia.enrique.consumoservice.service;
+
+import com.energia.enrique.consumoservice.estimacion.EstimadorHuecos;
+import com.energia.enrique.consumoservice.estimacion.Estimaciones;
+import com.energia.enrique.consumoservice.estimacion.Huecos;
+import com.energia.enrique.consumoservice.estimacion.Perfiles;
+import com.energia.enrique.consumoservice.repository.EstimacionRepository;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Estimación de las lecturas faltantes de un ciclo de facturación con
+ * {@link EstimadorHuecos}. Los huecos se procesan por tandas de medidores:
+ * cada tanda trae sus perfiles en una consulta, se estima en paralelo y se
+ * guarda. Volver a estimar el mismo ciclo es inofensivo: lo vigente no se
+ * pisa y solo se completan los huecos nuevos o los que cambiaron.
+ * <p>
+ * Conviene estimar después de que el reordenamiento haya emitido las lecturas
+ * del corte ({@code energia.consumo.reordenamiento.ventana-ms}); lo que llegue
+ * después reemplaza la estimación igual, a través de {@link CalculoConsumos}.
+ */
+@Service
+@Timed(value = "energia.servicio", histogram = true)
+public class EstimacionHuecosService {
+
+    private final EstimacionRepository estimacionRepository;
+    private final EstimadorHuecos estimador;
+    private final long intervaloMs;
+    private final long historiaMs;
+    private final long maximoHuecoAbiertoMs;
+    private final long maximoCicloMs;
+    private final int tandaMedidores;
+    private final int tamanoTramo;
+    private final ReentrantLock enCurso = new ReentrantLock();
+    private final Counter porPerfil;
+    private final Counter lineales;
+    private final Counter sinBase;
+    private final Logger logger = LoggerFactory.getLogger(EstimacionHuecosService.class);
+
+    public EstimacionHuecosService(EstimacionRepository estimacionRepository, MeterRegistry registro,
+                                   @Value("${energia.consumo.ingesta.intervalo-lectura-ms:900000}") long intervaloMs,
+                                   @Value("${energia.consumo.estimacion.historia-dias:28}") int historiaDias,
+                                   @Value("${energia.consumo.estimacion.maximo-hueco-abierto-dias:10}") int maximoHuecoAbiertoDias,
+                                   @Value("${energia.consumo.estimacion.maximo-ciclo-dias:62}") int maximoCicloDias,
+                                   @Value("${energia.consumo.estimacion.tanda-medidores:1000}") int tandaMedidores,
+                                   @Value("${energia.consumo.estimacion.tamano-tramo:20000}") int tamanoTramo) {
+        this.estimacionRepository = estimacionRepository;
+        this.estimador = new EstimadorHuecos(intervaloMs);
+        this.intervaloMs = intervaloMs;
+        this.historiaMs = Duration.ofDays(historiaDias).toMillis();
+        this.maximoHuecoAbiertoMs = Duration.ofDays(maximoHuecoAbiertoDias).toMillis();
+        this.maximoCicloMs = Duration.ofDays(maximoCicloDias).toMillis();
+        this.tandaMedidores = tandaMedidores;
+        this.tamanoTramo = tamanoTramo;
+        this.porPerfil = contador(registro, "perfil");
+        this.lineales = contador(registro, "lineal");
+        this.sinBase = contador(registro, "sin_base");
+    }
+
+    /**
+     * Estima los puntos faltantes entre {@code inicio} y {@code corte}, ambos incluidos.
+     * @throws IllegalArgumentException si el ciclo está vacío, es demasiado largo o termina en el futuro
+     * @throws IllegalStateException si ya hay una estimación en curso
+     */
+    public ResultadoEstimacion estimar(Instant inicio, Instant corte) {
+        if (!corte.isAfter(inicio) || Duration.between(inicio, corte).toMillis() > maximoCicloMs) {
+            throw new IllegalArgumentException("El ciclo debe terminar después de empezar y durar como mucho "
+                    + Duration.ofMillis(maximoCicloMs).toDays() + " días");
+        }
+        if (corte.isAfter(Instant.now())) {
+            throw new IllegalArgumentException("El corte del ciclo no puede estar en el futuro");
+        }
+        if (!enCurso.tryLock()) {
+            throw new IllegalStateException("Ya hay una estimación en curso");
+        }
+        try {
+            return estimarCiclo(inicio.toEpochMilli(), corte.toEpochMilli());
+        } finally {
+            enCurso.unlock();
+        }
+    }
+
+    /** Estimaciones de un medidor, con las reemplazadas por lecturas reales. */
+    public List<EstimacionRepository.Estimacion> listar(long idMedidor, Instant desde, Instant hasta) {
+        return estimacionRepository.listar(idMedidor, desde.toEpochMilli(), hasta.toEpochMilli());
+    }
+
+    private ResultadoEstimacion estimarCiclo(long inicioMs, long corteMs) {
+        long inicio = System.nanoTime();
+        Huecos huecos = estimacionRepository.huecos(inicioMs, corteMs, intervaloMs, corteMs - maximoHuecoAbiertoMs);
+        int estimadas = 0;
+        int conPerfil = 0;
+        int sinEstimar = 0;
+        int guardadas = 0;
+
+        int desde = 0;
+        while (desde < huecos.cantidad()) {
+            int hasta = finDeTanda(huecos, desde);
+            Huecos tanda = huecos.tramo(desde, hasta);
+            Perfiles perfiles = estimacionRepository.perfiles(tanda.medidores(), inicioMs - historiaMs, corteMs,
+                    intervaloMs, estimador.franjas());
+            Estimaciones estimaciones = estimador.estimar(tanda, perfiles, inicioMs, corteMs);
+            guardadas += estimacionRepository.guardar(estimaciones, tamanoTramo);
+
+            estimadas += estimaciones.cantidad();
+            conPerfil += estimaciones.cantidad(EstimadorHuecos.PERFIL);
+            sinEstimar += estimaciones.huecosSinBase();
+            desde = hasta;
+        }
+
+        porPerfil.increment(conPerfil);
+        lineales.increment(estimadas - conPerfil);
+        sinBase.increment(sinEstimar);
+        logger.info("Estimación del ciclo: {} huecos, {} puntos estimados ({} por perfil), {} guardados, {} huecos sin base, en {} ms",
+                huecos.cantidad(), estimadas, conPerfil, guardadas, sinEstimar, (System.nanoTime() - inicio) / 1_000_000);
+        return new ResultadoEstimacion(huecos.cantidad(), estimadas, conPerfil, estimadas - conPerfil, sinEstimar, guardadas);
+    }
+
+    // Fin de la tanda que empieza en "desde": hasta juntar tandaMedidores medidores, sin partir los huecos de uno
+    private int finDeTanda(Huecos huecos, int desde) {
+        long[] idsMedidor = huecos.idsMedidor();
+        int medidores = 0;
+        int i = desde;
+        while (i < idsMedidor.length) {
+            if (i == desde || idsMedidor[i] != idsMedidor[i - 1]) {
+                if (medidores == tandaMedidores) {
+                    break;
+                }
+                medidores++;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    // sin_base cuenta huecos; perfil y lineal, puntos estimados
+    private static Counter contador(MeterRegistry registro, String metodo) {
+        return Counter.builder("energia.consumo.estimaciones")
+                .description("Lecturas estimadas por método, y huecos que quedaron sin estimar")
+                .tag("metodo", metodo)
+                .register(registro);
+    }
+
+    /** {@code guardadas} puede ser menor que {@code estimadas}: lo ya vigente o lo de huecos que se llenaron mientras tanto no se guarda. */
+    public record ResultadoEstimacion(int huecos, int estimadas, int porPerfil, int lineales, int huecosSinBase,
+                                      int guardadas) {
+    }
+}
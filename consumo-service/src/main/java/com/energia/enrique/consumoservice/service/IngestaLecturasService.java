@@ -0,0 +1,387 @@
+package com.energia.enrique.consumoservice.service;
+
+import com.energia.enrique.consumoservice.ingesta.DiarioLecturas;
+import com.energia.enrique.consumoservice.ingesta.MarcasPorMedidor;
+import com.energia.enrique.consumoservice.model.Lectura;
+import com.energia.enrique.consumoservice.repository.LecturaRepository;
+import com.energia.enrique.consumoservice.repository.LecturaRepository.ClaveLectura;
+import com.energia.enrique.consumoservice.repository.LecturaRepository.Insertadas;
+import com.energia.enrique.consumoservice.repository.MarcaLecturaRepository;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Ingesta idempotente de lecturas. Los concentradores reenvían lo que no les
+ * confirmamos a tiempo, así que la misma lectura puede llegar varias veces.
+ * <p>
+ * Las repetidas se descartan en memoria con la marca de agua de cada medidor
+ * ({@link MarcasPorMedidor}) y las nuevas van en un INSERT sin manejo de
+ * conflictos. Las que la marca no alcanza a decidir (muy atrasadas o fuera de
+ * la grilla del intervalo) van con ON CONFLICT DO NOTHING y la base dice cuáles
+ * entraron, todas en una sentencia por lote.
+ * <p>
+ * La unicidad de (medidor, instante) la garantiza la base: las marcas solo
+ * ven lo que guardó esta instancia y con varias instancias una retransmisión
+ * puede caer en otra. Si el INSERT rápido choca con una lectura ya guardada,
+ * el lote se repite por el camino con ON CONFLICT. El candado cubre solo las
+ * marcas: las consultas a la base corren fuera de él y lotes concurrentes se
+ * guardan en paralelo. Las marcas se guardan periódicamente; al arrancar se
+ * cargan y se ponen al día con las lecturas insertadas después del último
+ * guardado.
+ * <p>
+ * Las lecturas nuevas siguen hacia el cálculo de consumos a través de
+ * {@link ReordenamientoLecturas}.
+ * <p>
+ * Con el diario habilitado ({@link DiarioLecturas}) el lote se confirma al
+ * concentrador apenas está en disco, y la clasificación y el INSERT los hace
+ * después {@link DrenajeDiario} con {@link #guardarDiferidas}. La respuesta ya
+ * no distingue nuevas de repetidas: informa las lecturas como pendientes.
+ */
+@Service
+@Timed(value = "energia.servicio", histogram = true)
+public class IngestaLecturasService {
+
+    private static final Comparator<Lectura> POR_MEDIDOR_E_INSTANTE = Comparator
+            .comparing(Lectura::idMedidor)
+            .thenComparing(Lectura::instante);
+
+    private final LecturaRepository lecturaRepository;
+    private final MarcaLecturaRepository marcaLecturaRepository;
+    private final ReordenamientoLecturas reordenamiento;
+    private final DiarioLecturas diario;
+    private final long esperaDiscoMs;
+    private final int maximoItems;
+    private final MarcasPorMedidor marcas;
+    private final ReentrantLock escritura = new ReentrantLock();
+    private final ReentrantLock guardado = new ReentrantLock();
+    private final Counter aceptadasEnMemoria;
+    private final Counter aceptadasEnBase;
+    private final Counter repetidasEnMemoria;
+    private final Counter repetidasEnBase;
+    private final Logger logger = LoggerFactory.getLogger(IngestaLecturasService.class);
+
+    // Protegidos por "escritura"
+    private boolean cargadas;
+    private long ultimoId;
+
+    public IngestaLecturasService(LecturaRepository lecturaRepository, MarcaLecturaRepository marcaLecturaRepository,
+                                  ReordenamientoLecturas reordenamiento, ObjectProvider<DiarioLecturas> diario,
+                                  MeterRegistry registro,
+                                  @Value("${energia.consumo.ingesta.maximo-items:5000}") int maximoItems,
+                                  @Value("${energia.consumo.diario.espera-disco-ms:2000}") long esperaDiscoMs,
+                                  @Value("${energia.consumo.ingesta.intervalo-lectura-ms:900000}") long intervaloLecturaMs,
+                                  @Value("${energia.consumo.marcas.capacidad-inicial:65536}") int capacidadInicial) {
+        if (maximoItems <= 0) {
+            throw new IllegalArgumentException("El máximo de ítems debe ser mayor que 0");
+        }
+        this.lecturaRepository = lecturaRepository;
+        this.marcaLecturaRepository = marcaLecturaRepository;
+        this.reordenamiento = reordenamiento;
+        this.diario = diario.getIfAvailable();
+        this.esperaDiscoMs = esperaDiscoMs;
+        this.maximoItems = maximoItems;
+        this.marcas = new MarcasPorMedidor(capacidadInicial, intervaloLecturaMs);
+        this.aceptadasEnMemoria = contador(registro, "aceptada", "memoria");
+        this.aceptadasEnBase = contador(registro, "aceptada", "base");
+        this.repetidasEnMemoria = contador(registro, "repetida", "memoria");
+        this.repetidasEnBase = contador(registro, "repetida", "base");
+    }
+
+    /**
+     * Guarda las lecturas nuevas del lote y descarta las repetidas, tanto las
+     * que ya estaban guardadas como las que vienen dos veces en el mismo lote.
+     * Con el diario, solo descarta las repetidas dentro del lote y anota el
+     * resto en el diario.
+     * @throws IllegalArgumentException si el lote está vacío o supera el máximo
+     * @throws IllegalStateException si el diario está lleno o no llegó al disco a tiempo
+     */
+    public ResultadoIngesta ingerir(List<Lectura> lecturas) {
+        if (lecturas == null || lecturas.isEmpty()) {
+            throw new IllegalArgumentException("El lote no puede estar vacío");
+        }
+        if (lecturas.size() > maximoItems) {
+            throw new IllegalArgumentException("El lote admite como máximo " + maximoItems + " ítems");
+        }
+
+        List<ItemRechazado> rechazadas = new ArrayList<>();
+        List<Lectura> validas = new ArrayList<>(lecturas.size());
+        for (int i = 0; i < lecturas.size(); i++) {
+            String error = validar(lecturas.get(i));
+            if (error != null) {
+                rechazadas.add(new ItemRechazado(i, error));
+            } else {
+                validas.add(truncar(lecturas.get(i)));
+            }
+        }
+
+        List<Lectura> unicas = ordenarSinRepetir(validas);
+        int repetidasEnLote = validas.size() - unicas.size();
+        repetidasEnMemoria.increment(repetidasEnLote);
+
+        if (diario != null) {
+            anotarEnDiario(unicas);
+            return new ResultadoIngesta(lecturas.size(), 0, repetidasEnLote, rechazadas.size(), unicas.size(),
+                    rechazadas);
+        }
+        Guardado guardado = guardar(unicas);
+        return new ResultadoIngesta(lecturas.size(), guardado.nuevas(), repetidasEnLote + guardado.repetidas(),
+                rechazadas.size(), 0, rechazadas);
+    }
+
+    /**
+     * Clasifica y guarda lecturas ya validadas que salen del diario. Pueden
+     * llegar repetidas, incluso lotes enteros después de una caída: se
+     * descartan igual que en la ingesta directa.
+     * @return Cuántas eran nuevas
+     */
+    public int guardarDiferidas(List<Lectura> lecturas) {
+        List<Lectura> unicas = ordenarSinRepetir(new ArrayList<>(lecturas));
+        repetidasEnMemoria.increment(lecturas.size() - unicas.size());
+        return guardar(unicas).nuevas();
+    }
+
+    private Guardado guardar(List<Lectura> unicas) {
+        List<Lectura> aGuardar = new ArrayList<>(unicas.size());
+        List<Lectura> aVerificar = new ArrayList<>();
+        int repetidasPorMarca = 0;
+        escritura.lock();
+        try {
+            asegurarCargadas();
+            for (Lectura lectura : unicas) {
+                switch (marcas.clasificar(lectura.idMedidor(), lectura.instante().toEpochMilli())) {
+                    case NUEVA -> aGuardar.add(lectura);
+                    case REPETIDA -> repetidasPorMarca++;
+                    case VERIFICAR -> aVerificar.add(lectura);
+                }
+            }
+        } finally {
+            escritura.unlock();
+        }
+        repetidasEnMemoria.increment(repetidasPorMarca);
+
+        // Las dos listas salen ordenadas de "unicas": los INSERT recorren el índice en orden
+        List<Lectura> nuevas = new ArrayList<>(unicas.size());
+        long ultimoInsertado = 0;
+        if (!aGuardar.isEmpty()) {
+            try {
+                ultimoInsertado = insertar(aGuardar);
+                nuevas.addAll(aGuardar);
+                aceptadasEnMemoria.increment(aGuardar.size());
+            } catch (DuplicateKeyException e) {
+                // Otra instancia, o un lote concurrente de esta, ya guardó alguna: decide la base
+                aVerificar.addAll(aGuardar);
+                aVerificar.sort(POR_MEDIDOR_E_INSTANTE);
+            }
+        }
+        int repetidasPorBase = 0;
+        if (!aVerificar.isEmpty()) {
+            Insertadas insertadas = insertarFaltantes(aVerificar);
+            Set<ClaveLectura> claves = new HashSet<>(insertadas.claves());
+            for (Lectura lectura : aVerificar) {
+                if (claves.contains(new ClaveLectura(lectura.idMedidor(), lectura.instante().toEpochMilli()))) {
+                    nuevas.add(lectura);
+                }
+            }
+            ultimoInsertado = Math.max(ultimoInsertado, insertadas.ultimoId());
+            repetidasPorBase = aVerificar.size() - claves.size();
+            aceptadasEnBase.increment(claves.size());
+            repetidasEnBase.increment(repetidasPorBase);
+        }
+
+        escritura.lock();
+        try {
+            // Las verificadas también: estén o no repetidas, ya están en la base
+            for (Lectura lectura : aGuardar) {
+                marcas.registrar(lectura.idMedidor(), lectura.instante().toEpochMilli());
+            }
+            for (Lectura lectura : aVerificar) {
+                marcas.registrar(lectura.idMedidor(), lectura.instante().toEpochMilli());
+            }
+            ultimoId = Math.max(ultimoId, ultimoInsertado);
+        } finally {
+            escritura.unlock();
+        }
+
+        // La base asigna cada lectura nueva a un solo INSERT: el reordenamiento la recibe una sola vez
+        if (!nuevas.isEmpty()) {
+            nuevas.sort(POR_MEDIDOR_E_INSTANTE);
+            reordenamiento.recibir(nuevas);
+        }
+        return new Guardado(nuevas.size(), repetidasPorMarca + repetidasPorBase);
+    }
+
+    private void anotarEnDiario(List<Lectura> unicas) {
+        if (unicas.isEmpty()) {
+            return;
+        }
+        long secuencia = diario.agregar(unicas);
+        try {
+            diario.esperarDurable(secuencia, esperaDiscoMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Se interrumpió la espera del diario de lecturas", e);
+        }
+    }
+
+    // Ordenadas, las repetidas quedan juntas y el INSERT recorre el índice en orden
+    private static List<Lectura> ordenarSinRepetir(List<Lectura> lecturas) {
+        lecturas.sort(POR_MEDIDOR_E_INSTANTE);
+        List<Lectura> unicas = new ArrayList<>(lecturas.size());
+        for (Lectura lectura : lecturas) {
+            Lectura anterior = unicas.isEmpty() ? null : unicas.get(unicas.size() - 1);
+            if (anterior == null || POR_MEDIDOR_E_INSTANTE.compare(anterior, lectura) != 0) {
+                unicas.add(lectura);
+            }
+        }
+        return unicas;
+    }
+
+    /**
+     * Guarda las marcas modificadas desde el último guardado. Si falla, quedan
+     * pendientes para el siguiente: no se pierde nada porque {@code hasta_id}
+     * tampoco avanza.
+     */
+    @Scheduled(fixedDelayString = "${energia.consumo.marcas.intervalo-ms:5000}")
+    public void guardarMarcas() {
+        guardado.lock();
+        try {
+            MarcasPorMedidor.Entradas entradas;
+            long hastaId;
+            escritura.lock();
+            try {
+                if (!cargadas) {
+                    return;
+                }
+                entradas = marcas.drenarModificadas();
+                // Un lote en vuelo con ids menores puede quedar fuera: su marca falta y la unicidad de la base lo cubre
+                hastaId = ultimoId;
+            } finally {
+                escritura.unlock();
+            }
+
+            try {
+                marcaLecturaRepository.guardar(entradas, hastaId);
+                if (entradas.cantidad() > 0) {
+                    logger.debug("Marcas de lectura guardadas: {}. Al día hasta la lectura {}", entradas.cantidad(), hastaId);
+                }
+            } catch (RuntimeException e) {
+                escritura.lock();
+                try {
+                    marcas.marcarModificadas(entradas.idsMedidor());
+                } finally {
+                    escritura.unlock();
+                }
+                logger.warn("No se pudieron guardar las marcas de lectura; se reintenta en el próximo ciclo", e);
+            }
+        } finally {
+            guardado.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        guardarMarcas();
+    }
+
+    // Se carga en la primera ingesta y no al arrancar: el arranque no depende de la base
+    private void asegurarCargadas() {
+        if (cargadas) {
+            return;
+        }
+        long inicio = System.nanoTime();
+        long hastaId = marcaLecturaRepository.hastaId();
+        marcaLecturaRepository.cargarEn(marcas);
+        int guardadas = marcas.tamano();
+        // Las lecturas posteriores al último guardado quedan como modificadas y se guardan en el próximo ciclo
+        lecturaRepository.recorrerDesde(hastaId, marcas::registrar);
+        ultimoId = Math.max(hastaId, lecturaRepository.ultimoId());
+        cargadas = true;
+        logger.info("Marcas de lectura cargadas: {} medidores ({} desde la copia guardada) en {} ms",
+                marcas.tamano(), guardadas, (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    private long insertar(List<Lectura> lecturas) {
+        Columnas columnas = new Columnas(lecturas);
+        return lecturaRepository.insertar(columnas.idsMedidor(), columnas.instantesMs(), columnas.valores());
+    }
+
+    private Insertadas insertarFaltantes(List<Lectura> lecturas) {
+        Columnas columnas = new Columnas(lecturas);
+        return lecturaRepository.insertarFaltantes(columnas.idsMedidor(), columnas.instantesMs(), columnas.valores());
+    }
+
+    private static String validar(Lectura lectura) {
+        if (lectura == null) {
+            return "La lectura no puede ser nula";
+        }
+        if (lectura.idMedidor() == null || lectura.idMedidor() <= 0) {
+            return "El ID del medidor debe ser mayor que 0";
+        }
+        if (lectura.instante() == null) {
+            return "El instante no puede ser nulo";
+        }
+        if (lectura.valor() == null || !Double.isFinite(lectura.valor())) {
+            return "El valor debe ser un número finito";
+        }
+        return null;
+    }
+
+    // La base guarda milisegundos: dos instantes que solo difieren en micros son la misma lectura
+    private static Lectura truncar(Lectura lectura) {
+        if (lectura.instante().getNano() % 1_000_000 == 0) {
+            return lectura;
+        }
+        return new Lectura(lectura.idMedidor(), Instant.ofEpochMilli(lectura.instante().toEpochMilli()), lectura.valor());
+    }
+
+    // decidida_en=base cuenta las que necesitaron la consulta puntual: si crece, la ventana queda corta
+    private static Counter contador(MeterRegistry registro, String resultado, String decididaEn) {
+        return Counter.builder("energia.consumo.lecturas")
+                .description("Lecturas válidas recibidas, por resultado y por dónde se decidió")
+                .tag("resultado", resultado)
+                .tag("decidida_en", decididaEn)
+                .register(registro);
+    }
+
+    /** Lectura descartada por datos inválidos; {@code indice} es su posición en el lote recibido. */
+    public record ItemRechazado(int indice, String mensaje) {
+    }
+
+    /** {@code pendientes}: lecturas anotadas en el diario, que todavía no se clasificaron como nuevas o repetidas. */
+    public record ResultadoIngesta(int recibidas, int aceptadas, int repetidas, int rechazadas, int pendientes,
+                                   List<ItemRechazado> errores) {
+    }
+
+    private record Guardado(int nuevas, int repetidas) {
+    }
+
+    // El lote en arrays por columna, como los recibe el unnest del repositorio
+    private record Columnas(Long[] idsMedidor, Long[] instantesMs, Double[] valores) {
+
+        Columnas(List<Lectura> lecturas) {
+            this(new Long[lecturas.size()], new Long[lecturas.size()], new Double[lecturas.size()]);
+            for (int i = 0; i < lecturas.size(); i++) {
+                idsMedidor[i] = lecturas.get(i).idMedidor();
+                instantesMs[i] = lecturas.get(i).instante().toEpochMilli();
+                valores[i] = lecturas.get(i).valor();
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.energia.enrique.consumoservice.service;
+
+import com.energia.enrique.consumoservice.model.Lectura;
+import com.energia.enrique.consumoservice.telemetria.PoolBuffers;
+import com.energia.enrique.consumoservice.telemetria.ServidorTelemetria;
+import com.energia.enrique.consumoservice.telemetria.TramaLecturas;
+import com.energia.enrique.consumoservice.telemetria.TramaLecturas.Estado;
+import com.energia.enrique.consumoservice.telemetria.TramaLecturas.Respuesta;
+import com.energia.shared.infrastructure.carga.LimiteConcurrencia;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.net.InetSocketAddress;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ingesta por TCP binario ({@link ServidorTelemetria}) para los medidores y
+ * concentradores que no hablan HTTP/JSON con holgura. Cada trama es un lote de
+ * {@link IngestaLecturasService#ingerir}, con las mismas reglas que el POST
+ * /lecturas: idempotente, al diario si está habilitado y sujeto al mismo
+ * límite de concurrencia que las peticiones HTTP.
+ */
+@Component
+@ConditionalOnProperty(prefix = "energia.consumo.telemetria", name = "habilitado", havingValue = "true")
+public class IngestaTelemetria {
+
+    private final IngestaLecturasService ingestaLecturasService;
+    private final LimiteConcurrencia limiteConcurrencia;
+    private final ServidorTelemetria servidor;
+    private final Map<Estado, Counter> respuestas = new EnumMap<>(Estado.class);
+    private final Logger logger = LoggerFactory.getLogger(IngestaTelemetria.class);
+
+    public IngestaTelemetria(IngestaLecturasService ingestaLecturasService, LimiteConcurrencia limiteConcurrencia,
+                             MeterRegistry registro,
+                             @Value("${energia.consumo.telemetria.host:0.0.0.0}") String host,
+                             @Value("${energia.consumo.telemetria.puerto:9005}") int puerto,
+                             @Value("${energia.consumo.telemetria.maximo-conexiones:1000}") int maximoConexiones,
+                             @Value("${energia.consumo.telemetria.hilos-trabajo:8}") int hilosTrabajo,
+                             @Value("${energia.consumo.telemetria.plazo-trama-ms:30000}") long plazoTramaMs,
+                             @Value("${energia.consumo.telemetria.buffer-inicial-bytes:4096}") int bufferInicial,
+                             @Value("${energia.consumo.telemetria.buffers-retenidos:64}") int buffersRetenidos,
+                             @Value("${energia.consumo.ingesta.maximo-items:5000}") int maximoItems) {
+        this.ingestaLecturasService = ingestaLecturasService;
+        this.limiteConcurrencia = limiteConcurrencia;
+        int largoMaximo = TramaLecturas.largoMaximo(maximoItems);
+        PoolBuffers pool = new PoolBuffers(Math.min(bufferInicial, largoMaximo), largoMaximo, buffersRetenidos);
+        this.servidor = new ServidorTelemetria(new InetSocketAddress(host, puerto), maximoItems, maximoConexiones,
+                hilosTrabajo, plazoTramaMs, pool, this::recibir);
+
+        for (Estado estado : Estado.values()) {
+            respuestas.put(estado, Counter.builder("energia.consumo.telemetria.tramas")
+                    .description("Tramas de telemetría entregadas a la ingesta, por estado")
+                    .tag("estado", estado.name().toLowerCase())
+                    .register(registro));
+        }
+        Gauge.builder("energia.consumo.telemetria.conexiones", servidor, ServidorTelemetria::conexiones)
+                .description("Conexiones de telemetría abiertas")
+                .register(registro);
+        FunctionCounter.builder("energia.consumo.telemetria.errores_protocolo", servidor, ServidorTelemetria::erroresProtocolo)
+                .description("Tramas con largo, versión o cantidad inválidos")
+                .register(registro);
+        FunctionCounter.builder("energia.consumo.telemetria.tramas_vencidas", servidor, ServidorTelemetria::tramasVencidas)
+                .description("Conexiones cerradas por no completar una trama dentro del plazo")
+                .register(registro);
+        // Si crece con carga estable, buffers-retenidos queda corto y cada trama reserva memoria directa
+        FunctionCounter.builder("energia.consumo.telemetria.buffers_creados", pool, PoolBuffers::creados)
+                .description("Buffers directos reservados por el pool de telemetría")
+                .register(registro);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        servidor.iniciar();
+        logger.info("Telemetría binaria escuchando en el puerto {}", servidor.puerto());
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        servidor.close();
+    }
+
+    private Respuesta recibir(List<Lectura> lecturas) {
+        Respuesta respuesta = ingerir(lecturas);
+        respuestas.get(respuesta.estado()).increment();
+        return respuesta;
+    }
+
+    private Respuesta ingerir(List<Lectura> lecturas) {
+        LimiteConcurrencia.Permiso permiso = limiteConcurrencia.adquirir();
+        if (permiso == null) {
+            return Respuesta.sinProcesar(Estado.SATURADO);
+        }
+        try {
+            IngestaLecturasService.ResultadoIngesta resultado = ingestaLecturasService.ingerir(lecturas);
+            permiso.exito();
+            return new Respuesta(Estado.ACEPTADA, resultado.aceptadas() + resultado.pendientes(),
+                    resultado.repetidas(), resultado.rechazadas());
+        } catch (IllegalArgumentException e) {
+            permiso.liberar();
+            return Respuesta.sinProcesar(Estado.INVALIDA);
+        } catch (IllegalStateException e) {
+            // Diario lleno o disco lento: igual que el 503 del POST, achica el límite
+            permiso.sobrecarga();
+            logger.warn("Trama de telemetría rechazada: {}", e.getMessage());
+            return Respuesta.sinProcesar(Estado.SATURADO);
+        } catch (RuntimeException e) {
+            permiso.sobrecarga();
+            logger.error("No se pudo ingerir una trama de telemetría de {} lecturas", lecturas.size(), e);
+            return Respuesta.sinProcesar(Estado.ERROR);
+        }
+    }
+}
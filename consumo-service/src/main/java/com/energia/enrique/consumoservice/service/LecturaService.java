@@ -0,0 +1,16 @@
+package com.energia.enrique.consumoservice.service;
+
+import com.energia.enrique.consumoservice.model.Lectura;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface LecturaService {
+
+    /**
+     * Últimas lecturas de varios medidores en una sola consulta.
+     * @return Lecturas por medidor, de la más nueva a la más vieja; cada id pedido figura aunque no tenga lecturas
+     */
+    Map<Long, List<Lectura>> obtenerUltimasPorMedidores(Collection<Long> idsMedidor, int cantidad);
+}
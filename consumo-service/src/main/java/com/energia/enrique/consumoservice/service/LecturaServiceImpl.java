@@ -0,0 +1,35 @@
+package com.energia.enrique.consumoservice.service;
+
+import com.energia.enrique.consumoservice.model.Lectura;
+import com.energia.enrique.consumoservice.repository.LecturaRepository;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@Timed(value = "energia.servicio", histogram = true)
+@RequiredArgsConstructor
+public class LecturaServiceImpl implements LecturaService {
+
+    private final LecturaRepository lecturaRepository;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Long, List<Lectura>> obtenerUltimasPorMedidores(Collection<Long> idsMedidor, int cantidad) {
+        Map<Long, List<Lectura>> porMedidor = new LinkedHashMap<>();
+        for (Long idMedidor : idsMedidor) {
+            porMedidor.put(idMedidor, new ArrayList<>());
+        }
+        for (Lectura lectura : lecturaRepository.ultimasPorMedidores(porMedidor.keySet().toArray(Long[]::new), cantidad)) {
+            porMedidor.get(lectura.idMedidor()).add(lectura);
+        }
+        return porMedidor;
+    }
+}
@@ -0,0 +1,195 @@
+package com.energia.enrique.consumoservice.service;
+
+import com.energia.enrique.consumoservice.ingesta.BufferReordenamiento;
+import com.energia.enrique.consumoservice.ingesta.DestinoLecturas;
+import com.energia.enrique.consumoservice.model.Lectura;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Etapa entre la ingesta y el cálculo de consumos: las lecturas nuevas pasan
+ * por el {@link BufferReordenamiento} en un hilo propio, para que la respuesta
+ * al concentrador no espere el cálculo. Lo que sale en orden va a
+ * {@link DestinoLecturas#ordenadas}; lo que llega fuera de la ventana, a
+ * {@link DestinoLecturas#tardias}.
+ * <p>
+ * Si el destino falla, las lecturas no se pierden: quedan pendientes y se
+ * vuelven a entregar junto con la siguiente emisión (a más tardar en el
+ * próximo barrido), las ordenadas otra vez como ordenadas y las tardías como
+ * tardías. Los pendientes están acotados por {@code maximo-pendientes}; al
+ * pasarse se descartan los más viejos, que se cuentan aparte.
+ * <p>
+ * Lo retenido y lo pendiente vive solo en memoria: si el proceso cae, esas
+ * lecturas siguen en la tabla de lecturas pero no entran al cálculo hasta que
+ * se reprocesen. Lo mismo vale para lo descartado. Si la
+ * cola se llena, el hilo de la ingesta procesa el lote él mismo y así frena a
+ * los concentradores en vez de acumular sin límite.
+ */
+@Component
+public class ReordenamientoLecturas {
+
+    private final BufferReordenamiento buffer;
+    private final DestinoLecturas destino;
+    private final ThreadPoolExecutor hilo;
+    private final Counter tardias;
+    private final Counter forzadas;
+    private final Counter desalojados;
+    private final Counter fallidas;
+    private final Counter descartadas;
+    private final int maximoPendientes;
+    private final Logger logger = LoggerFactory.getLogger(ReordenamientoLecturas.class);
+
+    // Copias para los gauges, que se leen desde otro hilo
+    private volatile int medidoresRetenidos;
+    private volatile int lecturasRetenidas;
+    private volatile int lecturasPendientes;
+
+    // Entregas que fallaron, protegidas por this como el buffer
+    private List<Lectura> ordenadasPendientes = List.of();
+    private List<Lectura> tardiasPendientes = List.of();
+
+    public ReordenamientoLecturas(DestinoLecturas destino, MeterRegistry registro,
+                                  @Value("${energia.consumo.reordenamiento.ventana-ms:21600000}") long ventanaMs,
+                                  @Value("${energia.consumo.reordenamiento.inactividad-ms:86400000}") long inactividadMs,
+                                  @Value("${energia.consumo.reordenamiento.maximo-por-medidor:96}") int maximoPorMedidor,
+                                  @Value("${energia.consumo.reordenamiento.maximo-medidores:200000}") int maximoMedidores,
+                                  @Value("${energia.consumo.reordenamiento.capacidad-cola:64}") int capacidadCola,
+                                  @Value("${energia.consumo.reordenamiento.maximo-pendientes:100000}") int maximoPendientes) {
+        this.buffer = new BufferReordenamiento(ventanaMs, inactividadMs, maximoPorMedidor, maximoMedidores,
+                Math.min(maximoMedidores, 65536));
+        this.destino = destino;
+        this.maximoPendientes = maximoPendientes;
+        this.hilo = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(capacidadCola),
+                tarea -> {
+                    Thread hilo = new Thread(tarea, "consumo-reordenamiento");
+                    hilo.setDaemon(true);
+                    return hilo;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.tardias = contador(registro, "tardia");
+        this.forzadas = contador(registro, "forzada");
+        this.desalojados = contador(registro, "medidor_desalojado");
+        this.fallidas = contador(registro, "fallida");
+        this.descartadas = contador(registro, "descartada");
+        Gauge.builder("energia.consumo.reordenamiento.medidores", this, r -> r.medidoresRetenidos)
+                .description("Medidores con lecturas retenidas")
+                .register(registro);
+        Gauge.builder("energia.consumo.reordenamiento.lecturas", this, r -> r.lecturasRetenidas)
+                .description("Lecturas retenidas esperando la ventana de retraso")
+                .register(registro);
+        Gauge.builder("energia.consumo.reordenamiento.pendientes", this, r -> r.lecturasPendientes)
+                .description("Lecturas cuya entrega al cálculo de consumos falló y se va a reintentar")
+                .register(registro);
+    }
+
+    /** Encola lecturas nuevas (ya deduplicadas) sin esperar a que se procesen. */
+    public void recibir(List<Lectura> lecturas) {
+        if (lecturas.isEmpty()) {
+            return;
+        }
+        List<Lectura> copia = List.copyOf(lecturas);
+        hilo.execute(() -> procesar(copia));
+    }
+
+    @Scheduled(fixedDelayString = "${energia.consumo.reordenamiento.barrido-ms:60000}")
+    public synchronized void barrer() {
+        entregar(buffer.barrer(System.currentTimeMillis()));
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        hilo.shutdown();
+        try {
+            if (!hilo.awaitTermination(10, TimeUnit.SECONDS)) {
+                logger.warn("El reordenamiento no terminó de procesar la cola antes de cerrar");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            entregar(buffer.vaciar());
+            if (lecturasPendientes > 0) {
+                logger.error("Se cierra con {} lecturas sin entregar al cálculo de consumos; quedan en la tabla de lecturas",
+                        lecturasPendientes);
+            }
+        }
+    }
+
+    // Sincronizado: con la cola llena también lo corre el hilo de la ingesta
+    private synchronized void procesar(List<Lectura> lecturas) {
+        entregar(buffer.agregar(lecturas, System.currentTimeMillis()));
+    }
+
+    private void entregar(BufferReordenamiento.Emision emision) {
+        forzadas.increment(emision.forzadas());
+        desalojados.increment(emision.desalojados());
+        tardias.increment(emision.tardias().size());
+        medidoresRetenidos = buffer.medidoresRetenidos();
+        lecturasRetenidas = buffer.lecturasRetenidas();
+
+        // Las pendientes van primero: son anteriores a lo recién emitido de su medidor
+        List<Lectura> ordenadas = conPendientes(ordenadasPendientes, emision.ordenadas());
+        try {
+            destino.ordenadas(ordenadas);
+            ordenadasPendientes = List.of();
+        } catch (RuntimeException e) {
+            fallidas.increment(emision.ordenadas().size());
+            ordenadasPendientes = acotar(ordenadas);
+            logger.error("No se pudieron entregar {} lecturas ordenadas al cálculo de consumos; se reintentan",
+                    ordenadas.size(), e);
+        }
+        List<Lectura> tardias = conPendientes(tardiasPendientes, emision.tardias());
+        try {
+            destino.tardias(tardias);
+            tardiasPendientes = List.of();
+        } catch (RuntimeException e) {
+            fallidas.increment(emision.tardias().size());
+            tardiasPendientes = acotar(tardias);
+            logger.error("No se pudieron corregir los consumos con {} lecturas tardías; se reintentan", tardias.size(), e);
+        }
+        lecturasPendientes = ordenadasPendientes.size() + tardiasPendientes.size();
+    }
+
+    private static List<Lectura> conPendientes(List<Lectura> pendientes, List<Lectura> nuevas) {
+        if (pendientes.isEmpty()) {
+            return nuevas;
+        }
+        List<Lectura> todas = new ArrayList<>(pendientes.size() + nuevas.size());
+        todas.addAll(pendientes);
+        todas.addAll(nuevas);
+        return todas;
+    }
+
+    // Descarta las más viejas: son las que más tiempo llevan fallando
+    private List<Lectura> acotar(List<Lectura> lecturas) {
+        if (lecturas.size() <= maximoPendientes) {
+            return lecturas;
+        }
+        int sobrantes = lecturas.size() - maximoPendientes;
+        descartadas.increment(sobrantes);
+        logger.error("Se descartan {} lecturas pendientes de entrega: se superó el máximo de {}", sobrantes, maximoPendientes);
+        return List.copyOf(lecturas.subList(sobrantes, lecturas.size()));
+    }
+
+    // forzada y medidor_desalojado crecen si la ventana o los máximos quedan cortos para el tráfico real;
+    // fallida cuenta cada lectura una vez, aunque se reintente varias
+    private static Counter contador(MeterRegistry registro, String evento) {
+        return Counter.builder("energia.consumo.reordenamiento")
+                .description("Lecturas tardías, forzadas, fallidas o descartadas y medidores desalojados del reordenamiento")
+                .tag("evento", evento)
+                .register(registro);
+    }
+}
@@ -0,0 +1,103 @@
+package com.energia.enrique.consumoservice.telemetria;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Buffers directos reutilizados entre tramas, por clases de tamaño: la más
+ * chica mide {@code capacidadMinima} y cada clase duplica a la anterior hasta
+ * {@code capacidadMaxima}. Reservar un buffer directo es caro y su memoria la
+ * libera recién el GC: con un pool, el canal lee sin copia intermedia y la
+ * memoria fuera del heap retenida queda acotada a lo que ocuparían
+ * {@code maximoRetenidos} buffers de la clase más grande, más los que estén en
+ * uso. Es seguro entre hilos.
+ */
+public final class PoolBuffers {
+
+    private final int[] capacidades;
+    private final List<ArrayBlockingQueue<ByteBuffer>> libres;
+    private final long presupuestoRetenido;
+    private final AtomicLong bytesRetenidos = new AtomicLong();
+    private final AtomicLong creados = new AtomicLong();
+
+    public PoolBuffers(int capacidadMinima, int capacidadMaxima, int maximoRetenidos) {
+        if (capacidadMinima <= 0 || capacidadMaxima < capacidadMinima || maximoRetenidos <= 0) {
+            throw new IllegalArgumentException("Las capacidades y el máximo de buffers retenidos deben ser mayores que 0, " +
+                    "y la capacidad mínima no puede superar a la máxima");
+        }
+        int clases = 1;
+        for (long capacidad = capacidadMinima; capacidad < capacidadMaxima; capacidad *= 2) {
+            clases++;
+        }
+        this.capacidades = new int[clases];
+        this.libres = new ArrayList<>(clases);
+        for (int i = 0; i < clases; i++) {
+            capacidades[i] = (int) Math.min((long) capacidadMinima << i, capacidadMaxima);
+            libres.add(new ArrayBlockingQueue<>(maximoRetenidos));
+        }
+        this.presupuestoRetenido = (long) capacidadMaxima * maximoRetenidos;
+    }
+
+    /**
+     * Buffer vacío de la clase más chica que admite {@code minimo} bytes, con
+     * límite igual a su capacidad.
+     * @throws IllegalArgumentException si {@code minimo} supera la capacidad máxima
+     */
+    public ByteBuffer adquirir(int minimo) {
+        int clase = clase(minimo);
+        ByteBuffer buffer = libres.get(clase).poll();
+        if (buffer != null) {
+            bytesRetenidos.addAndGet(-buffer.capacity());
+            return buffer;
+        }
+        creados.incrementAndGet();
+        return ByteBuffer.allocateDirect(capacidades[clase]);
+    }
+
+    /** Devuelve el buffer al pool; si el pool ya retiene lo que admite, lo deja para el GC. */
+    public void liberar(ByteBuffer buffer) {
+        buffer.clear();
+        int clase = clase(buffer.capacity());
+        if (capacidades[clase] != buffer.capacity()) {
+            return;
+        }
+        long retenidos = bytesRetenidos.addAndGet(buffer.capacity());
+        if (retenidos > presupuestoRetenido || !libres.get(clase).offer(buffer)) {
+            bytesRetenidos.addAndGet(-buffer.capacity());
+        }
+    }
+
+    /** Capacidad de la clase más chica: lo que se reserva al empezar a leer una trama. */
+    public int capacidadMinima() {
+        return capacidades[0];
+    }
+
+    /** Capacidad de la clase más grande: el largo máximo de trama que admite el pool. */
+    public int capacidad() {
+        return capacidades[capacidades.length - 1];
+    }
+
+    public int libres() {
+        int total = 0;
+        for (ArrayBlockingQueue<ByteBuffer> clase : libres) {
+            total += clase.size();
+        }
+        return total;
+    }
+
+    public long creados() {
+        return creados.get();
+    }
+
+    private int clase(int minimo) {
+        for (int i = 0; i < capacidades.length; i++) {
+            if (capacidades[i] >= minimo) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Ningún buffer del pool admite " + minimo + " bytes");
+    }
+}
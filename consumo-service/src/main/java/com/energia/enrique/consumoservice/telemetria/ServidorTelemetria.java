@@ -0,0 +1,388 @@
+package com.energia.enrique.consumoservice.telemetria;
+
+import com.energia.enrique.consumoservice.model.Lectura;
+import com.energia.enrique.consumoservice.telemetria.TramaLecturas.Estado;
+import com.energia.enrique.consumoservice.telemetria.TramaLecturas.Respuesta;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Servidor TCP no bloqueante de tramas {@link TramaLecturas}. Un solo hilo
+ * atiende todas las conexiones con un {@link Selector}: acepta, lee el prefijo
+ * de largo y el cuerpo directo a un buffer del {@link PoolBuffers} y escribe
+ * las respuestas. El cuerpo empieza en un buffer de la clase más chica y pasa
+ * a uno del doble a medida que llegan los bytes, hasta el largo declarado: una
+ * trama chica, o una grande que llega despacio, no retiene un buffer máximo.
+ * Decodificar y entregar el lote al {@link Receptor}, que puede esperar al
+ * disco o a la base, lo hacen {@code hilosTrabajo} hilos aparte.
+ * <p>
+ * Cada conexión tiene como mucho una trama en proceso: mientras tanto no se le
+ * lee nada más y el control de flujo de TCP frena al concentrador. Si la cola
+ * de trabajo está llena, la trama se responde SATURADO sin procesarla. Un
+ * largo imposible cierra la conexión, porque ya no se sabe dónde empieza la
+ * trama siguiente.
+ * <p>
+ * Una trama empezada tiene {@code plazoTramaMs} para llegar completa; si no,
+ * se cierra la conexión y se libera su buffer. Así un cliente lento o colgado
+ * no ocupa memoria ni un lugar de {@code maximoConexiones} indefinidamente.
+ * Una conexión sin trama a medias puede quedar abierta sin enviar nada.
+ */
+public final class ServidorTelemetria implements AutoCloseable {
+
+    private final InetSocketAddress direccion;
+    private final int largoMaximo;
+    private final int maximoConexiones;
+    private final long plazoTramaNanos;
+    private final long intervaloBarridoMs;
+    private final PoolBuffers pool;
+    private final Receptor receptor;
+    private final ThreadPoolExecutor trabajadores;
+    private final ConcurrentLinkedQueue<Conexion> respondidas = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger conexiones = new AtomicInteger();
+    private final LongAdder tramas = new LongAdder();
+    private final LongAdder erroresProtocolo = new LongAdder();
+    private final LongAdder tramasVencidas = new LongAdder();
+    private final Logger logger = LoggerFactory.getLogger(ServidorTelemetria.class);
+    private Selector selector;
+    private ServerSocketChannel servidor;
+    private Thread hilo;
+    private volatile boolean abierto;
+
+    public ServidorTelemetria(InetSocketAddress direccion, int maximoLecturas, int maximoConexiones,
+                              int hilosTrabajo, long plazoTramaMs, PoolBuffers pool, Receptor receptor) {
+        this.largoMaximo = TramaLecturas.largoMaximo(maximoLecturas);
+        if (pool.capacidad() < largoMaximo) {
+            throw new IllegalArgumentException("Los buffers del pool no alcanzan para una trama de " + maximoLecturas + " lecturas");
+        }
+        if (plazoTramaMs <= 0) {
+            throw new IllegalArgumentException("El plazo de trama debe ser mayor que 0");
+        }
+        this.plazoTramaNanos = TimeUnit.MILLISECONDS.toNanos(plazoTramaMs);
+        // Una trama vencida se cierra como mucho un cuarto de plazo (o un segundo) después
+        this.intervaloBarridoMs = Math.max(1, Math.min(1000, plazoTramaMs / 4));
+        this.direccion = direccion;
+        this.maximoConexiones = maximoConexiones;
+        this.pool = pool;
+        this.receptor = receptor;
+        AtomicInteger numero = new AtomicInteger();
+        // Cola del tamaño del máximo de conexiones: con una trama por conexión, solo se llena si el pool no da abasto
+        this.trabajadores = new ThreadPoolExecutor(hilosTrabajo, hilosTrabajo, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(maximoConexiones), tarea -> {
+                    Thread hiloTrabajo = new Thread(tarea, "consumo-telemetria-" + numero.incrementAndGet());
+                    hiloTrabajo.setDaemon(true);
+                    return hiloTrabajo;
+                });
+    }
+
+    public synchronized void iniciar() {
+        if (abierto) {
+            return;
+        }
+        try {
+            selector = Selector.open();
+            servidor = ServerSocketChannel.open();
+            servidor.bind(direccion);
+            servidor.configureBlocking(false);
+            servidor.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo abrir el puerto de telemetría " + direccion, e);
+        }
+        abierto = true;
+        hilo = new Thread(this::atender, "consumo-telemetria");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    /** Puerto local; con puerto 0 en la dirección, el que asignó el sistema. */
+    public int puerto() {
+        return servidor.socket().getLocalPort();
+    }
+
+    public int conexiones() {
+        return conexiones.get();
+    }
+
+    public long tramas() {
+        return tramas.sum();
+    }
+
+    public long erroresProtocolo() {
+        return erroresProtocolo.sum();
+    }
+
+    public long tramasVencidas() {
+        return tramasVencidas.sum();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!abierto) {
+            return;
+        }
+        abierto = false;
+        selector.wakeup();
+        try {
+            hilo.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        trabajadores.shutdown();
+        try {
+            // Las tramas en proceso terminan; su respuesta ya no se envía y el concentrador las reenvía
+            trabajadores.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (SelectionKey clave : selector.keys()) {
+            cerrarCanal(clave);
+        }
+        try {
+            selector.close();
+        } catch (IOException e) {
+            logger.debug("Error al cerrar el selector de telemetría", e);
+        }
+    }
+
+    private void atender() {
+        long proximoBarrido = System.nanoTime();
+        while (abierto) {
+            try {
+                selector.select(intervaloBarridoMs);
+                long ahora = System.nanoTime();
+                if (ahora - proximoBarrido >= 0) {
+                    cerrarVencidas(ahora);
+                    proximoBarrido = ahora + TimeUnit.MILLISECONDS.toNanos(intervaloBarridoMs);
+                }
+                Conexion respondida;
+                while ((respondida = respondidas.poll()) != null) {
+                    escribir(respondida);
+                }
+                Iterator<SelectionKey> seleccionadas = selector.selectedKeys().iterator();
+                while (seleccionadas.hasNext()) {
+                    SelectionKey clave = seleccionadas.next();
+                    seleccionadas.remove();
+                    if (!clave.isValid()) {
+                        continue;
+                    }
+                    if (clave.isAcceptable()) {
+                        aceptar();
+                    } else if (clave.isReadable()) {
+                        leer((Conexion) clave.attachment());
+                    } else if (clave.isWritable()) {
+                        escribir((Conexion) clave.attachment());
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                // Un error del selector no debe tirar el servidor: se registra y se sigue atendiendo
+                logger.error("Error en el bucle de telemetría", e);
+            }
+        }
+    }
+
+    // Solo las conexiones con una trama a medias: las que esperan respuesta o están ociosas no vencen
+    private void cerrarVencidas(long ahora) throws IOException {
+        for (SelectionKey clave : selector.keys()) {
+            if (clave.isValid() && clave.attachment() instanceof Conexion conexion
+                    && conexion.inicioTrama != 0 && ahora - conexion.inicioTrama > plazoTramaNanos) {
+                tramasVencidas.increment();
+                logger.warn("Trama de telemetría incompleta después de {} ms desde {}; se cierra la conexión",
+                        TimeUnit.NANOSECONDS.toMillis(plazoTramaNanos), conexion.canal.getRemoteAddress());
+                cerrar(conexion);
+            }
+        }
+    }
+
+    private void aceptar() throws IOException {
+        SocketChannel canal = servidor.accept();
+        if (canal == null) {
+            return;
+        }
+        if (conexiones.get() >= maximoConexiones) {
+            logger.warn("Conexión de telemetría rechazada desde {}: ya hay {} abiertas", canal.getRemoteAddress(), maximoConexiones);
+            canal.close();
+            return;
+        }
+        canal.configureBlocking(false);
+        canal.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        canal.setOption(StandardSocketOptions.SO_KEEPALIVE, true);
+        Conexion conexion = new Conexion(canal);
+        conexion.clave = canal.register(selector, SelectionKey.OP_READ, conexion);
+        conexiones.incrementAndGet();
+    }
+
+    private void leer(Conexion conexion) {
+        try {
+            while (true) {
+                ByteBuffer destino = conexion.cuerpo == null ? conexion.largo : conexion.cuerpo;
+                int leidos = conexion.canal.read(destino);
+                if (leidos < 0) {
+                    cerrar(conexion);
+                    return;
+                }
+                if (leidos > 0 && conexion.inicioTrama == 0) {
+                    // 0 es "sin trama": un nanoTime que justo valga 0 solo corre el plazo un instante
+                    conexion.inicioTrama = System.nanoTime() | 1;
+                }
+                if (destino.hasRemaining()) {
+                    return;
+                }
+                if (conexion.cuerpo == null) {
+                    int largo = conexion.largo.flip().getInt();
+                    conexion.largo.clear();
+                    if (largo < TramaLecturas.BYTES_ENCABEZADO || largo > largoMaximo) {
+                        erroresProtocolo.increment();
+                        logger.warn("Trama de telemetría con largo inválido ({}) desde {}; se cierra la conexión",
+                                largo, conexion.canal.getRemoteAddress());
+                        cerrar(conexion);
+                        return;
+                    }
+                    conexion.largoCuerpo = largo;
+                    conexion.cuerpo = acotar(pool.adquirir(Math.min(largo, pool.capacidadMinima())), largo);
+                } else if (conexion.cuerpo.position() < conexion.largoCuerpo) {
+                    crecer(conexion);
+                } else {
+                    despachar(conexion);
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            logger.debug("Conexión de telemetría perdida", e);
+            cerrar(conexion);
+        }
+    }
+
+    // El buffer se llenó antes del largo declarado: lo leído pasa a uno del doble
+    private void crecer(Conexion conexion) {
+        ByteBuffer anterior = conexion.cuerpo;
+        ByteBuffer mayor = pool.adquirir((int) Math.min(conexion.largoCuerpo, 2L * anterior.capacity()));
+        mayor.put(anterior.flip());
+        pool.liberar(anterior);
+        conexion.cuerpo = acotar(mayor, conexion.largoCuerpo);
+    }
+
+    private static ByteBuffer acotar(ByteBuffer buffer, int largo) {
+        return buffer.limit(Math.min(largo, buffer.capacity()));
+    }
+
+    private void despachar(Conexion conexion) {
+        ByteBuffer cuerpo = conexion.cuerpo.flip();
+        conexion.cuerpo = null;
+        conexion.inicioTrama = 0;
+        conexion.clave.interestOps(0);
+        tramas.increment();
+        try {
+            trabajadores.execute(() -> procesar(conexion, cuerpo));
+        } catch (RejectedExecutionException e) {
+            pool.liberar(cuerpo);
+            conexion.preparar(Respuesta.sinProcesar(Estado.SATURADO));
+            escribir(conexion);
+        }
+    }
+
+    // En un hilo de trabajo
+    private void procesar(Conexion conexion, ByteBuffer cuerpo) {
+        Respuesta respuesta;
+        List<Lectura> lecturas = null;
+        try {
+            lecturas = TramaLecturas.decodificar(cuerpo);
+        } catch (IllegalArgumentException e) {
+            erroresProtocolo.increment();
+            logger.debug("Trama de telemetría inválida: {}", e.getMessage());
+        } finally {
+            pool.liberar(cuerpo);
+        }
+        if (lecturas == null) {
+            respuesta = Respuesta.sinProcesar(Estado.INVALIDA);
+        } else {
+            try {
+                respuesta = receptor.recibir(lecturas);
+            } catch (RuntimeException e) {
+                logger.error("No se pudo procesar una trama de telemetría de {} lecturas", lecturas.size(), e);
+                respuesta = Respuesta.sinProcesar(Estado.ERROR);
+            }
+        }
+        conexion.preparar(respuesta);
+        respondidas.add(conexion);
+        selector.wakeup();
+    }
+
+    private void escribir(Conexion conexion) {
+        if (!conexion.clave.isValid()) {
+            return;
+        }
+        try {
+            conexion.canal.write(conexion.respuesta);
+            // Respuesta completa: se vuelve a leer. Si no, se espera a que el socket acepte el resto
+            conexion.clave.interestOps(conexion.respuesta.hasRemaining() ? SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+        } catch (IOException e) {
+            logger.debug("Conexión de telemetría perdida al responder", e);
+            cerrar(conexion);
+        }
+    }
+
+    private void cerrar(Conexion conexion) {
+        if (conexion.cuerpo != null) {
+            pool.liberar(conexion.cuerpo);
+            conexion.cuerpo = null;
+        }
+        if (conexion.clave.isValid()) {
+            conexiones.decrementAndGet();
+        }
+        cerrarCanal(conexion.clave);
+    }
+
+    private void cerrarCanal(SelectionKey clave) {
+        clave.cancel();
+        try {
+            clave.channel().close();
+        } catch (IOException e) {
+            logger.debug("Error al cerrar un canal de telemetría", e);
+        }
+    }
+
+    /** Destino de las lecturas de cada trama válida. Corre en los hilos de trabajo y puede bloquear. */
+    @FunctionalInterface
+    public interface Receptor {
+        Respuesta recibir(List<Lectura> lecturas);
+    }
+
+    private static final class Conexion {
+        private final SocketChannel canal;
+        private final ByteBuffer largo = ByteBuffer.allocate(TramaLecturas.BYTES_LARGO);
+        private final ByteBuffer respuesta = ByteBuffer.allocate(TramaLecturas.BYTES_RESPUESTA);
+        private SelectionKey clave;
+        private ByteBuffer cuerpo;
+        private int largoCuerpo;
+        // System.nanoTime() del primer byte de la trama en curso; 0 sin trama a medias
+        private long inicioTrama;
+
+        private Conexion(SocketChannel canal) {
+            this.canal = canal;
+        }
+
+        private void preparar(Respuesta datos) {
+            respuesta.clear();
+            TramaLecturas.codificar(datos, respuesta);
+            respuesta.flip();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.energia.enrique.consumoservice.telemetria;
+
+import com.energia.enrique.consumoservice.model.Lectura;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Formato binario de la telemetría por TCP. Todo en big-endian.
+ * <pre>
+ * trama:     [largo int][versión byte][cantidad int][cantidad × lectura]
+ * lectura:   [id medidor long][instante ms long][valor double]
+ * respuesta: [estado byte][aceptadas int][repetidas int][rechazadas int]
+ * </pre>
+ * {@code largo} cuenta los bytes que siguen. Las tramas de una conexión se
+ * responden una por una y en orden: el concentrador manda la siguiente
+ * después de leer la respuesta de la anterior. Una lectura ocupa 24 bytes
+ * contra los ~70 del mismo dato en JSON.
+ */
+public final class TramaLecturas {
+
+    public static final byte VERSION = 1;
+    public static final int BYTES_LARGO = Integer.BYTES;
+    public static final int BYTES_ENCABEZADO = Byte.BYTES + Integer.BYTES;
+    public static final int BYTES_LECTURA = 2 * Long.BYTES + Double.BYTES;
+    public static final int BYTES_RESPUESTA = Byte.BYTES + 3 * Integer.BYTES;
+
+    private TramaLecturas() {
+    }
+
+    /** Largo máximo (sin contar el prefijo) de una trama de hasta {@code maximoLecturas}. */
+    public static int largoMaximo(int maximoLecturas) {
+        return BYTES_ENCABEZADO + maximoLecturas * BYTES_LECTURA;
+    }
+
+    /**
+     * Lee las lecturas del cuerpo de una trama, sin el prefijo de largo, entre
+     * la posición y el límite del buffer.
+     * @throws IllegalArgumentException si la versión es desconocida o la cantidad no coincide con el largo
+     */
+    public static List<Lectura> decodificar(ByteBuffer cuerpo) {
+        if (cuerpo.remaining() < BYTES_ENCABEZADO) {
+            throw new IllegalArgumentException("Trama incompleta");
+        }
+        byte version = cuerpo.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Versión de trama desconocida: " + version);
+        }
+        int cantidad = cuerpo.getInt();
+        if (cantidad <= 0 || (long) cantidad * BYTES_LECTURA != cuerpo.remaining()) {
+            throw new IllegalArgumentException("La cantidad de lecturas no coincide con el largo de la trama");
+        }
+        List<Lectura> lecturas = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            long idMedidor = cuerpo.getLong();
+            long instanteMs = cuerpo.getLong();
+            double valor = cuerpo.getDouble();
+            lecturas.add(new Lectura(idMedidor, Instant.ofEpochMilli(instanteMs), valor));
+        }
+        return lecturas;
+    }
+
+    /** Escribe la trama completa, con el prefijo de largo, a partir de la posición del buffer. */
+    public static void codificar(List<Lectura> lecturas, ByteBuffer destino) {
+        destino.putInt(BYTES_ENCABEZADO + lecturas.size() * BYTES_LECTURA);
+        destino.put(VERSION);
+        destino.putInt(lecturas.size());
+        for (Lectura lectura : lecturas) {
+            destino.putLong(lectura.idMedidor());
+            destino.putLong(lectura.instante().toEpochMilli());
+            destino.putDouble(lectura.valor());
+        }
+    }
+
+    public static void codificar(Respuesta respuesta, ByteBuffer destino) {
+        destino.put(respuesta.estado().codigo);
+        destino.putInt(respuesta.aceptadas());
+        destino.putInt(respuesta.repetidas());
+        destino.putInt(respuesta.rechazadas());
+    }
+
+    public static Respuesta decodificarRespuesta(ByteBuffer origen) {
+        Estado estado = Estado.de(origen.get());
+        return new Respuesta(estado, origen.getInt(), origen.getInt(), origen.getInt());
+    }
+
+    /**
+     * ACEPTADA: la trama se guardó o quedó en el diario; no hace falta reenviarla.
+     * SATURADO: no se procesó, reenviar más tarde. INVALIDA: reenviarla no sirve.
+     * ERROR: falla interna; se puede reenviar, las repetidas se descartan.
+     */
+    public enum Estado {
+        ACEPTADA(0), SATURADO(1), INVALIDA(2), ERROR(3);
+
+        private final byte codigo;
+
+        Estado(int codigo) {
+            this.codigo = (byte) codigo;
+        }
+
+        static Estado de(byte codigo) {
+            for (Estado estado : values()) {
+                if (estado.codigo == codigo) {
+                    return estado;
+                }
+            }
+            throw new IllegalArgumentException("Estado de respuesta desconocido: " + codigo);
+        }
+    }
+
+    /** {@code aceptadas} incluye las que quedaron pendientes en el diario. */
+    public record Respuesta(Estado estado, int aceptadas, int repetidas, int rechazadas) {
+
+        public static Respuesta sinProcesar(Estado estado) {
+            return new Respuesta(estado, 0, 0, 0);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+-- Esquema propio de consumo-service.
+CREATE TABLE IF NOT EXISTS lecturas (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    id_medidor BIGINT           NOT NULL,
+    instante   TIMESTAMPTZ      NOT NULL,
+    valor      DOUBLE PRECISION NOT NULL
+);
+
+-- Sin UNIQUE (id_medidor, instante): las retransmisiones se descartan antes de
+-- llegar a la base (marcas de agua por medidor), así el INSERT no paga la
+-- verificación de unicidad ni el manejo del conflicto. El índice resuelve la
+-- verificación puntual de lecturas atrasadas y las últimas lecturas por medidor.
+CREATE INDEX IF NOT EXISTS idx_lecturas_medidor_instante
+    ON lecturas (id_medidor, instante DESC) INCLUDE (valor);
+
+-- Marca de agua por medidor: instante (epoch ms) de la lectura más nueva guardada
+-- y un bit por cada uno de los 64 intervalos anteriores (lectura alineada guardada).
+-- Se escribe periódicamente desde memoria, así que puede ir atrasada.
+CREATE TABLE IF NOT EXISTS marcas_lectura (
+    id_medidor  BIGINT PRIMARY KEY,
+    instante_ms BIGINT NOT NULL,
+    ventana     BIGINT NOT NULL
+);
+
+-- Última lectura (por id) cubierta por marcas_lectura. Al arrancar se recorren
+-- solo las lecturas posteriores para ponerse al día.
+CREATE TABLE IF NOT EXISTS marcas_lectura_control (
+    id       SMALLINT PRIMARY KEY CHECK (id = 1),
+    hasta_id BIGINT NOT NULL
+);
+
+INSERT INTO marcas_lectura_control (id, hasta_id) VALUES (1, 0) ON CONFLICT (id) DO NOTHING;
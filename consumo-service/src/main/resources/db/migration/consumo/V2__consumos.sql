@@ -0,0 +1,13 @@
+-- Consumo por intervalo entre dos lecturas consecutivas de un medidor.
+-- La primera lectura de cada medidor es la base: desde y valor_desde en null.
+-- corregido marca los intervalos partidos por una lectura que llegó tarde.
+CREATE TABLE IF NOT EXISTS consumos (
+    id_medidor  BIGINT           NOT NULL,
+    desde       TIMESTAMPTZ,
+    hasta       TIMESTAMPTZ      NOT NULL,
+    valor_desde DOUBLE PRECISION,
+    valor_hasta DOUBLE PRECISION NOT NULL,
+    energia     DOUBLE PRECISION GENERATED ALWAYS AS (valor_hasta - valor_desde) STORED,
+    corregido   BOOLEAN          NOT NULL DEFAULT false,
+    PRIMARY KEY (id_medidor, hasta)
+);
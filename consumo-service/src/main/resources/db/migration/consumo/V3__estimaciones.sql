@@ -0,0 +1,19 @@
+-- Lecturas estimadas en los huecos de cada medidor, para facturar aunque falten lecturas.
+-- desde y hasta son las lecturas reales que delimitan el hueco; hasta en null si seguía
+-- abierto al corte del ciclo. Una lectura real que cae dentro del hueco marca sus
+-- estimaciones con reemplazada_en: facturación corrige lo facturado con el consumo real.
+CREATE TABLE IF NOT EXISTS estimaciones (
+    id_medidor     BIGINT           NOT NULL,
+    instante       TIMESTAMPTZ      NOT NULL,
+    valor          DOUBLE PRECISION NOT NULL,
+    metodo         TEXT             NOT NULL CHECK (metodo IN ('perfil', 'lineal')),
+    desde          TIMESTAMPTZ      NOT NULL,
+    hasta          TIMESTAMPTZ,
+    estimada_en    TIMESTAMPTZ      NOT NULL DEFAULT now(),
+    reemplazada_en TIMESTAMPTZ,
+    PRIMARY KEY (id_medidor, instante)
+);
+
+-- Cada lectura real que llega busca acá las estimaciones vigentes de su medidor
+CREATE INDEX IF NOT EXISTS idx_estimaciones_vigentes
+    ON estimaciones (id_medidor, desde) WHERE reemplazada_en IS NULL;
@@ -0,0 +1,17 @@
+-- Unicidad de (id_medidor, instante) como respaldo de las marcas de agua. Las marcas
+-- son exactas solo si una instancia ve todas las lecturas de un medidor; con varias
+-- instancias de consumo una retransmisión puede caer en otra y la base es la que
+-- decide. El INSERT del camino rápido sigue sin ON CONFLICT: si choca, el lote se
+-- repite con ON CONFLICT DO NOTHING, igual que las lecturas que la marca no decide.
+
+-- Repetidas que hayan entrado antes de la restricción: queda la primera
+DELETE FROM lecturas l
+USING lecturas o
+WHERE l.id_medidor = o.id_medidor
+  AND l.instante = o.instante
+  AND l.id > o.id;
+
+CREATE UNIQUE INDEX IF NOT EXISTS uq_lecturas_medidor_instante
+    ON lecturas (id_medidor, instante DESC) INCLUDE (valor);
+
+DROP INDEX IF EXISTS idx_lecturas_medidor_instante;
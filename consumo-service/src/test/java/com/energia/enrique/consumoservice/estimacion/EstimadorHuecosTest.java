@@ -0,0 +1,108 @@
+package com.energia.enrique.consumoservice.estimacion;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class EstimadorHuecosTest {
+
+    private static final long MINUTO = 60_000;
+    private static final long INTERVALO = 15 * MINUTO;
+
+    private final EstimadorHuecos estimador = new EstimadorHuecos(INTERVALO);
+
+    @Test
+    void sinPerfilRepartePorTiempoLaEnergiaDelHuecoCerrado() {
+        Huecos.Acumulador huecos = new Huecos.Acumulador();
+        huecos.cerrado(7L, 0, 10.0, 60 * MINUTO, 14.0);
+
+        Estimaciones estimaciones = estimador.estimar(huecos.construir(), sinPerfiles(), 0, 120 * MINUTO);
+
+        assertArrayEquals(new long[]{15 * MINUTO, 30 * MINUTO, 45 * MINUTO}, estimaciones.instantesMs());
+        assertArrayEquals(new double[]{11.0, 12.0, 13.0}, estimaciones.valores(), 1e-9);
+        assertEquals(3, estimaciones.cantidad(EstimadorHuecos.LINEAL));
+        assertEquals(60 * MINUTO, estimaciones.hastaMs()[0]);
+    }
+
+    @Test
+    void conPerfilRepartePorFranjaLaEnergiaDelHuecoCerrado() {
+        Huecos.Acumulador huecos = new Huecos.Acumulador();
+        huecos.cerrado(7L, 0, 10.0, 60 * MINUTO, 22.0);
+        double[] energias = new double[estimador.franjas()];
+        Arrays.fill(energias, 1.0);
+        energias[2] = 3.0;
+
+        Estimaciones estimaciones = estimador.estimar(huecos.construir(),
+                new Perfiles(new long[]{7L}, energias, estimador.franjas()), 0, 120 * MINUTO);
+
+        // Pesos 1, 3, 1, 1 sobre 12 kWh
+        assertArrayEquals(new double[]{12.0, 18.0, 20.0}, estimaciones.valores(), 1e-9);
+        assertEquals(3, estimaciones.cantidad(EstimadorHuecos.PERFIL));
+    }
+
+    @Test
+    void elHuecoAbiertoSigueElPerfilOLaTasaPreviaHastaElCorte() {
+        Huecos.Acumulador huecos = new Huecos.Acumulador();
+        huecos.abierto(7L, 0, 5.0, Double.NaN);
+        huecos.abierto(8L, 0, 100.0, 1.0 / MINUTO);
+        huecos.abierto(9L, 0, 1.0, Double.NaN);
+        double[] energias = new double[estimador.franjas()];
+        Arrays.fill(energias, 2.0);
+        // Menos de la mitad de las franjas con historia: el perfil se descarta
+        double[] escaso = new double[estimador.franjas()];
+        Arrays.fill(escaso, Double.NaN);
+        escaso[1] = 4.0;
+        double[] todas = new double[2 * estimador.franjas()];
+        System.arraycopy(energias, 0, todas, 0, energias.length);
+        System.arraycopy(escaso, 0, todas, energias.length, escaso.length);
+
+        Estimaciones estimaciones = estimador.estimar(huecos.construir(),
+                new Perfiles(new long[]{7L, 9L}, todas, estimador.franjas()), 0, 45 * MINUTO);
+
+        assertArrayEquals(new long[]{7L, 7L, 7L, 8L, 8L, 8L}, estimaciones.idsMedidor());
+        assertArrayEquals(new double[]{7.0, 9.0, 11.0, 115.0, 130.0, 145.0}, estimaciones.valores(), 1e-9);
+        assertEquals(Huecos.ABIERTO, estimaciones.hastaMs()[0]);
+        assertEquals(1, estimaciones.huecosSinBase());
+    }
+
+    @Test
+    void soloDevuelveLosPuntosDentroDelCiclo() {
+        Huecos.Acumulador huecos = new Huecos.Acumulador();
+        huecos.cerrado(7L, 0, 0.0, 120 * MINUTO, 8.0);
+
+        Estimaciones estimaciones = estimador.estimar(huecos.construir(), sinPerfiles(), 30 * MINUTO, 60 * MINUTO);
+
+        assertArrayEquals(new long[]{30 * MINUTO, 45 * MINUTO, 60 * MINUTO}, estimaciones.instantesMs());
+        assertArrayEquals(new double[]{2.0, 3.0, 4.0}, estimaciones.valores(), 1e-9);
+    }
+
+    @Test
+    void cadaHuecoEscribeEnSuLugarAunqueSeProcesenEnParalelo() {
+        Huecos.Acumulador huecos = new Huecos.Acumulador();
+        for (long medidor = 1; medidor <= 20_000; medidor++) {
+            // Cada medidor con un hueco de largo distinto: de 1 a 8 puntos faltantes
+            long puntos = medidor % 8 + 1;
+            huecos.cerrado(medidor, 0, 0.0, (puntos + 1) * INTERVALO, medidor);
+        }
+
+        Estimaciones estimaciones = estimador.estimar(huecos.construir(), sinPerfiles(), 0, 24 * 60 * MINUTO);
+
+        int esperadas = 0;
+        for (long medidor = 1; medidor <= 20_000; medidor++) {
+            esperadas += (int) (medidor % 8 + 1);
+        }
+        assertEquals(esperadas, estimaciones.cantidad());
+        for (int j = 0; j < estimaciones.cantidad(); j++) {
+            long medidor = estimaciones.idsMedidor()[j];
+            double esperado = medidor * (double) estimaciones.instantesMs()[j] / ((medidor % 8 + 2) * INTERVALO);
+            assertEquals(esperado, estimaciones.valores()[j], 1e-9);
+        }
+    }
+
+    private static Perfiles sinPerfiles() {
+        return new Perfiles(new long[0], new double[0], 0);
+    }
+}
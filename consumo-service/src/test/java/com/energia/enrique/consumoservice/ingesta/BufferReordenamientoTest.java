@@ -0,0 +1,76 @@
+package com.energia.enrique.consumoservice.ingesta;
+
+import com.energia.enrique.consumoservice.model.Lectura;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BufferReordenamientoTest {
+
+    private static final long HORA = 3_600_000L;
+
+    @Test
+    void retieneHastaCumplirLaVentanaYEmiteEnOrden() {
+        BufferReordenamiento buffer = new BufferReordenamiento(2 * HORA, 24 * HORA, 100, 100, 16);
+
+        BufferReordenamiento.Emision emision = buffer.agregar(List.of(lectura(7L, 4), lectura(7L, 3)), 0);
+        assertEquals(List.of(), emision.ordenadas());
+        assertEquals(2, buffer.lecturasRetenidas());
+
+        // La de 1 h ya está fuera de la ventana al llegar; la de 6 h deja fuera a las de 3 h y 4 h
+        assertEquals(List.of(lectura(7L, 1)), buffer.agregar(List.of(lectura(7L, 1)), 0).ordenadas());
+        emision = buffer.agregar(List.of(lectura(7L, 6)), 0);
+        assertEquals(List.of(lectura(7L, 3), lectura(7L, 4)), emision.ordenadas());
+        assertEquals(1, buffer.lecturasRetenidas());
+    }
+
+    @Test
+    void loAnteriorALoYaEmitidoSaleComoTardia() {
+        BufferReordenamiento buffer = new BufferReordenamiento(HORA, 24 * HORA, 100, 100, 16);
+        assertEquals(List.of(lectura(7L, 2)), buffer.agregar(List.of(lectura(7L, 2), lectura(7L, 5)), 0).ordenadas());
+
+        BufferReordenamiento.Emision emision = buffer.agregar(List.of(lectura(7L, 1), lectura(7L, 3)), 0);
+        assertEquals(List.of(lectura(7L, 1)), emision.tardias());
+        assertEquals(List.of(lectura(7L, 3)), emision.ordenadas());
+
+        // Después de vaciar se sigue recordando la última emitida
+        assertEquals(List.of(lectura(7L, 5)), buffer.vaciar().ordenadas());
+        assertEquals(List.of(lectura(7L, 4)), buffer.agregar(List.of(lectura(7L, 4)), 0).tardias());
+    }
+
+    @Test
+    void acotaLaMemoriaPorMedidorYPorCantidadDeMedidores() {
+        BufferReordenamiento buffer = new BufferReordenamiento(100 * HORA, 24 * HORA, 2, 2, 16);
+
+        BufferReordenamiento.Emision emision = buffer.agregar(
+                List.of(lectura(7L, 1), lectura(7L, 2), lectura(7L, 3)), 0);
+        assertEquals(List.of(lectura(7L, 1)), emision.ordenadas());
+        assertEquals(1, emision.forzadas());
+
+        // El tercer medidor desaloja al usado hace más tiempo
+        buffer.agregar(List.of(lectura(8L, 1)), 0);
+        emision = buffer.agregar(List.of(lectura(9L, 1)), 0);
+        assertEquals(List.of(lectura(7L, 2), lectura(7L, 3)), emision.ordenadas());
+        assertEquals(1, emision.desalojados());
+        assertEquals(2, buffer.medidoresRetenidos());
+    }
+
+    @Test
+    void elBarridoVaciaSoloLosMedidoresInactivos() {
+        BufferReordenamiento buffer = new BufferReordenamiento(HORA, 10 * HORA, 100, 100, 16);
+        buffer.agregar(List.of(lectura(7L, 1)), 0);
+        buffer.agregar(List.of(lectura(8L, 1)), 5 * HORA);
+
+        BufferReordenamiento.Emision emision = buffer.barrer(12 * HORA);
+        assertEquals(List.of(lectura(7L, 1)), emision.ordenadas());
+        assertEquals(1, emision.desalojados());
+        assertEquals(1, buffer.medidoresRetenidos());
+    }
+
+    private static Lectura lectura(long idMedidor, long horas) {
+        return new Lectura(idMedidor, Instant.ofEpochMilli(horas * HORA), (double) horas);
+    }
+}
@@ -0,0 +1,111 @@
+package com.energia.enrique.consumoservice.ingesta;
+
+import com.energia.enrique.consumoservice.model.Lectura;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DiarioLecturasTest {
+
+    private static final int SEGMENTO = 1 << 16;
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void loAgregadoSeLeeEnOrdenUnaVezEnDisco() throws Exception {
+        try (DiarioLecturas diario = DiarioLecturas.abrir(directorio, SEGMENTO, 4)) {
+            long primera = diario.agregar(List.of(lectura(7L, 1, 10.5), lectura(8L, 1, 3.0)));
+            long segunda = diario.agregar(List.of(lectura(7L, 2, 11.0)));
+            diario.esperarDurable(segunda, 5_000);
+
+            List<DiarioLecturas.Registro> registros = diario.leer(100, 0);
+            assertEquals(List.of(primera, segunda), registros.stream().map(DiarioLecturas.Registro::secuencia).toList());
+            assertEquals(List.of(lectura(7L, 1, 10.5), lectura(8L, 1, 3.0)), registros.get(0).lecturas());
+            assertEquals(List.of(), diario.leer(100, 0));
+            assertEquals(2, diario.pendientes());
+
+            diario.confirmar(segunda);
+            assertEquals(0, diario.pendientes());
+        }
+    }
+
+    @Test
+    void alReabrirVuelveALeerLoNoConfirmado() throws Exception {
+        try (DiarioLecturas diario = DiarioLecturas.abrir(directorio, SEGMENTO, 4)) {
+            diario.agregar(List.of(lectura(7L, 1, 1.0)));
+            diario.esperarDurable(diario.agregar(List.of(lectura(7L, 2, 2.0))), 5_000);
+            diario.leer(1, 0);
+            diario.confirmar(1);
+        }
+
+        try (DiarioLecturas diario = DiarioLecturas.abrir(directorio, SEGMENTO, 4)) {
+            List<DiarioLecturas.Registro> registros = diario.leer(100, 0);
+            assertEquals(1, registros.size());
+            assertEquals(2L, registros.get(0).secuencia());
+            // La secuencia sigue después de lo recuperado
+            assertEquals(3L, diario.agregar(List.of(lectura(7L, 3, 3.0))));
+        }
+    }
+
+    @Test
+    void descartaElRegistroCortadoPorUnaCaida() throws Exception {
+        try (DiarioLecturas diario = DiarioLecturas.abrir(directorio, SEGMENTO, 4)) {
+            diario.agregar(List.of(lectura(7L, 1, 1.0)));
+            diario.esperarDurable(diario.agregar(List.of(lectura(7L, 2, 2.0))), 5_000);
+        }
+        // Se pisa un byte del cuerpo del segundo registro: su CRC ya no coincide
+        int segundo = 8 + 12 + 24;
+        try (FileChannel canal = FileChannel.open(unicoSegmento(), StandardOpenOption.WRITE)) {
+            canal.write(ByteBuffer.wrap(new byte[]{0x7f}), segundo + 8 + 14);
+        }
+
+        try (DiarioLecturas diario = DiarioLecturas.abrir(directorio, SEGMENTO, 4)) {
+            List<DiarioLecturas.Registro> registros = diario.leer(100, 0);
+            assertEquals(List.of(1L), registros.stream().map(DiarioLecturas.Registro::secuencia).toList());
+            assertEquals(2L, diario.agregar(List.of(lectura(7L, 2, 2.0))));
+        }
+    }
+
+    @Test
+    void rotaSegmentosBorraLosDrenadosYRechazaAlLlenarse() throws Exception {
+        List<Lectura> lote = Stream.iterate(1L, i -> i + 1).limit(1000).map(i -> lectura(i, 1, 1.0)).toList();
+        try (DiarioLecturas diario = DiarioLecturas.abrir(directorio, SEGMENTO, 2)) {
+            long ultima = 0;
+            for (int i = 0; i < 4; i++) {
+                ultima = diario.agregar(lote);
+            }
+            assertEquals(2, diario.cantidadSegmentos());
+            assertThrows(IllegalStateException.class, () -> diario.agregar(lote));
+
+            diario.esperarDurable(ultima, 5_000);
+            List<DiarioLecturas.Registro> registros = diario.leer(100_000, 0);
+            assertEquals(4, registros.size());
+            diario.confirmar(ultima);
+            assertEquals(1, diario.cantidadSegmentos());
+            diario.agregar(lote);
+        }
+    }
+
+    private Path unicoSegmento() throws IOException {
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            return archivos.filter(ruta -> ruta.toString().endsWith(".seg")).findFirst().orElseThrow();
+        }
+    }
+
+    private static Lectura lectura(long idMedidor, long minuto, double valor) {
+        return new Lectura(idMedidor, Instant.ofEpochMilli(minuto * 60_000), valor);
+    }
+}
@@ -0,0 +1,85 @@
+package com.energia.enrique.consumoservice.ingesta;
+
+import com.energia.enrique.consumoservice.ingesta.MarcasPorMedidor.Veredicto;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MarcasPorMedidorTest {
+
+    private static final long INTERVALO = 900_000L;
+
+    @Test
+    void decideEnMemoriaLasLecturasAlineadasDentroDeLaVentana() {
+        MarcasPorMedidor marcas = new MarcasPorMedidor(16, INTERVALO);
+        marcas.registrar(7L, 10 * INTERVALO);
+        marcas.registrar(7L, 12 * INTERVALO);
+
+        assertEquals(Veredicto.REPETIDA, marcas.clasificar(7L, 12 * INTERVALO));
+        assertEquals(Veredicto.REPETIDA, marcas.clasificar(7L, 10 * INTERVALO));
+        // El intervalo 11 nunca llegó: es una lectura atrasada, no una repetición
+        assertEquals(Veredicto.NUEVA, marcas.clasificar(7L, 11 * INTERVALO));
+        assertEquals(Veredicto.NUEVA, marcas.clasificar(7L, 13 * INTERVALO));
+        assertEquals(Veredicto.NUEVA, marcas.clasificar(8L, 10 * INTERVALO));
+    }
+
+    @Test
+    void pideVerificarLoQueQuedaFueraDeLaVentanaOFueraDeLaGrilla() {
+        MarcasPorMedidor marcas = new MarcasPorMedidor(16, INTERVALO);
+        marcas.registrar(7L, 100 * INTERVALO);
+
+        assertEquals(Veredicto.VERIFICAR, marcas.clasificar(7L, (100 - MarcasPorMedidor.VENTANA) * INTERVALO));
+        assertEquals(Veredicto.NUEVA, marcas.clasificar(7L, (100 - MarcasPorMedidor.VENTANA + 1) * INTERVALO));
+        assertEquals(Veredicto.VERIFICAR, marcas.clasificar(7L, 99 * INTERVALO + 1));
+    }
+
+    @Test
+    void laVentanaSeCorreConLaMarcaYConservaLasAtrasadas() {
+        MarcasPorMedidor marcas = new MarcasPorMedidor(16, INTERVALO);
+        marcas.registrar(7L, 10 * INTERVALO);
+        marcas.registrar(7L, 40 * INTERVALO);
+        marcas.registrar(7L, 20 * INTERVALO);
+
+        assertEquals(Veredicto.REPETIDA, marcas.clasificar(7L, 20 * INTERVALO));
+        assertEquals(Veredicto.REPETIDA, marcas.clasificar(7L, 10 * INTERVALO));
+
+        marcas.registrar(7L, 80 * INTERVALO);
+        assertEquals(Veredicto.REPETIDA, marcas.clasificar(7L, 40 * INTERVALO));
+        assertEquals(Veredicto.VERIFICAR, marcas.clasificar(7L, 10 * INTERVALO));
+    }
+
+    @Test
+    void creceSinPerderEntradasNiModificaciones() {
+        MarcasPorMedidor marcas = new MarcasPorMedidor(16, INTERVALO);
+        for (long id = 1; id <= 10_000; id++) {
+            marcas.registrar(id, id * INTERVALO);
+        }
+
+        assertEquals(10_000, marcas.tamano());
+        for (long id = 1; id <= 10_000; id++) {
+            assertEquals(Veredicto.REPETIDA, marcas.clasificar(id, id * INTERVALO));
+        }
+        assertEquals(10_000, marcas.drenarModificadas().cantidad());
+        assertEquals(0, marcas.drenarModificadas().cantidad());
+    }
+
+    @Test
+    void soloDrenaLoModificadoDesdeElUltimoGuardado() {
+        MarcasPorMedidor marcas = new MarcasPorMedidor(16, INTERVALO);
+        marcas.cargar(1L, 5 * INTERVALO, 1L);
+        marcas.cargar(2L, 5 * INTERVALO, 1L);
+        marcas.registrar(2L, 6 * INTERVALO);
+        // Repetir una lectura ya registrada no es una modificación
+        marcas.registrar(1L, 5 * INTERVALO);
+
+        MarcasPorMedidor.Entradas entradas = marcas.drenarModificadas();
+
+        assertArrayEquals(new long[]{2L}, entradas.idsMedidor());
+        assertArrayEquals(new long[]{6 * INTERVALO}, entradas.instantesMs());
+        assertArrayEquals(new long[]{0b11L}, entradas.ventanas());
+
+        marcas.marcarModificadas(entradas.idsMedidor());
+        assertEquals(1, marcas.drenarModificadas().cantidad());
+    }
+}
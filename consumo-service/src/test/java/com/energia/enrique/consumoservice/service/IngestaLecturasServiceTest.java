@@ -0,0 +1,103 @@
+package com.energia.enrique.consumoservice.service;
+
+import com.energia.enrique.consumoservice.ingesta.DiarioLecturas;
+import com.energia.enrique.consumoservice.model.Lectura;
+import com.energia.enrique.consumoservice.repository.LecturaRepository;
+import com.energia.enrique.consumoservice.repository.LecturaRepository.ClaveLectura;
+import com.energia.enrique.consumoservice.repository.LecturaRepository.Insertadas;
+import com.energia.enrique.consumoservice.repository.MarcaLecturaRepository;
+import com.energia.enrique.consumoservice.service.IngestaLecturasService.ResultadoIngesta;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IngestaLecturasServiceTest {
+
+    private static final long INTERVALO = 900_000L;
+    private static final Instant BASE = Instant.parse("2026-01-01T00:00:00Z");
+
+    private final LecturaRepository lecturaRepository = mock(LecturaRepository.class);
+    private final MarcaLecturaRepository marcaLecturaRepository = mock(MarcaLecturaRepository.class);
+    private final ReordenamientoLecturas reordenamiento = mock(ReordenamientoLecturas.class);
+    private final SimpleMeterRegistry registro = new SimpleMeterRegistry();
+    private IngestaLecturasService servicio;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void crear() {
+        ObjectProvider<DiarioLecturas> sinDiario = mock(ObjectProvider.class);
+        servicio = new IngestaLecturasService(lecturaRepository, marcaLecturaRepository, reordenamiento, sinDiario,
+                registro, 5000, 2000, INTERVALO, 16);
+    }
+
+    @Test
+    void lasNuevasSegunLaMarcaVanEnUnInsertSinConflicto() {
+        when(lecturaRepository.insertar(any(), any(), any())).thenReturn(2L);
+
+        ResultadoIngesta resultado = servicio.ingerir(List.of(lectura(7L, 0), lectura(7L, 1)));
+
+        assertEquals(2, resultado.aceptadas());
+        verify(lecturaRepository, never()).insertarFaltantes(any(), any(), any());
+        verify(reordenamiento).recibir(List.of(lectura(7L, 0), lectura(7L, 1)));
+        assertEquals(2.0, contador("aceptada", "memoria"), 0.0);
+    }
+
+    @Test
+    void siOtraInstanciaYaGuardoAlgunaDecideLaBase() {
+        // Para esta instancia las dos son nuevas, pero otra ya guardó la primera
+        when(lecturaRepository.insertar(any(), any(), any())).thenThrow(new DuplicateKeyException("uq"));
+        when(lecturaRepository.insertarFaltantes(any(), any(), any()))
+                .thenReturn(new Insertadas(List.of(clave(7L, 1)), 9L));
+
+        ResultadoIngesta resultado = servicio.ingerir(List.of(lectura(7L, 0), lectura(7L, 1)));
+
+        assertEquals(1, resultado.aceptadas());
+        assertEquals(1, resultado.repetidas());
+        verify(reordenamiento).recibir(List.of(lectura(7L, 1)));
+        assertEquals(0.0, contador("aceptada", "memoria"), 0.0);
+        assertEquals(1.0, contador("aceptada", "base"), 0.0);
+        assertEquals(1.0, contador("repetida", "base"), 0.0);
+    }
+
+    @Test
+    void despuesDelConflictoLaMarcaDescartaLasDosSinIrALaBase() {
+        when(lecturaRepository.insertar(any(), any(), any())).thenThrow(new DuplicateKeyException("uq"));
+        when(lecturaRepository.insertarFaltantes(any(), any(), any()))
+                .thenReturn(new Insertadas(List.of(clave(7L, 1)), 9L));
+        servicio.ingerir(List.of(lectura(7L, 0), lectura(7L, 1)));
+
+        ResultadoIngesta resultado = servicio.ingerir(List.of(lectura(7L, 0), lectura(7L, 1)));
+
+        assertEquals(0, resultado.aceptadas());
+        assertEquals(2, resultado.repetidas());
+        verify(lecturaRepository, times(1)).insertar(any(), any(), any());
+        verify(lecturaRepository, times(1)).insertarFaltantes(any(), any(), any());
+        assertEquals(2.0, contador("repetida", "memoria"), 0.0);
+    }
+
+    private double contador(String resultado, String decididaEn) {
+        return registro.get("energia.consumo.lecturas")
+                .tag("resultado", resultado).tag("decidida_en", decididaEn).counter().count();
+    }
+
+    private static Lectura lectura(long idMedidor, int intervalo) {
+        return new Lectura(idMedidor, BASE.plusMillis(intervalo * INTERVALO), 100.0 + intervalo);
+    }
+
+    private static ClaveLectura clave(long idMedidor, int intervalo) {
+        return new ClaveLectura(idMedidor, BASE.plusMillis(intervalo * INTERVALO).toEpochMilli());
+    }
+}
@@ -0,0 +1,81 @@
+package com.energia.enrique.consumoservice.service;
+
+import com.energia.enrique.consumoservice.ingesta.DestinoLecturas;
+import com.energia.enrique.consumoservice.model.Lectura;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReordenamientoLecturasTest {
+
+    private static final long HORA = 3_600_000L;
+
+    private final SimpleMeterRegistry registro = new SimpleMeterRegistry();
+    private final List<List<Lectura>> entregadas = new ArrayList<>();
+    private int fallosPendientes;
+
+    @Test
+    void unaEntregaFallidaSeReintentaConLaSiguiente() {
+        fallosPendientes = 1;
+        ReordenamientoLecturas reordenamiento = reordenamiento(100);
+
+        reordenamiento.recibir(List.of(lectura(7L, 1)));
+        // La de 3 h deja fuera de la ventana a la de 1 h, cuya entrega falla
+        reordenamiento.recibir(List.of(lectura(7L, 3)));
+        reordenamiento.cerrar();
+
+        assertEquals(List.of(List.of(lectura(7L, 1), lectura(7L, 3))), entregadas);
+        assertEquals(1.0, contador("fallida"), 0.0);
+        assertEquals(0.0, contador("descartada"), 0.0);
+        assertEquals(0.0, registro.get("energia.consumo.reordenamiento.pendientes").gauge().value(), 0.0);
+    }
+
+    @Test
+    void alPasarseDelMaximoDescartaLasPendientesMasViejas() {
+        fallosPendientes = Integer.MAX_VALUE;
+        ReordenamientoLecturas reordenamiento = reordenamiento(1);
+
+        reordenamiento.recibir(List.of(lectura(7L, 1)));
+        reordenamiento.recibir(List.of(lectura(7L, 3)));
+        reordenamiento.cerrar();
+
+        assertEquals(List.of(), entregadas);
+        assertEquals(2.0, contador("fallida"), 0.0);
+        assertEquals(1.0, contador("descartada"), 0.0);
+        assertEquals(1.0, registro.get("energia.consumo.reordenamiento.pendientes").gauge().value(), 0.0);
+    }
+
+    private ReordenamientoLecturas reordenamiento(int maximoPendientes) {
+        DestinoLecturas destino = new DestinoLecturas() {
+            @Override
+            public void ordenadas(List<Lectura> lecturas) {
+                if (lecturas.isEmpty()) {
+                    return;
+                }
+                if (fallosPendientes > 0) {
+                    fallosPendientes--;
+                    throw new IllegalStateException("Base no disponible");
+                }
+                entregadas.add(List.copyOf(lecturas));
+            }
+
+            @Override
+            public void tardias(List<Lectura> lecturas) {
+            }
+        };
+        return new ReordenamientoLecturas(destino, registro, HORA, 24 * HORA, 100, 100, 4, maximoPendientes);
+    }
+
+    private double contador(String evento) {
+        return registro.get("energia.consumo.reordenamiento").tag("evento", evento).counter().count();
+    }
+
+    private static Lectura lectura(long idMedidor, long horas) {
+        return new Lectura(idMedidor, Instant.ofEpochMilli(horas * HORA), (double) horas);
+    }
+}
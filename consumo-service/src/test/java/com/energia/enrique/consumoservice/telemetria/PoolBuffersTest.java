@@ -0,0 +1,48 @@
+package com.energia.enrique.consumoservice.telemetria;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PoolBuffersTest {
+
+    @Test
+    void entregaLaClaseMasChicaQueAlcanza() {
+        PoolBuffers pool = new PoolBuffers(100, 1000, 4);
+
+        assertEquals(100, pool.adquirir(1).capacity());
+        assertEquals(200, pool.adquirir(101).capacity());
+        assertEquals(800, pool.adquirir(800).capacity());
+        // La última clase es la capacidad máxima, aunque no sea el doble de la anterior
+        assertEquals(1000, pool.adquirir(801).capacity());
+        assertThrows(IllegalArgumentException.class, () -> pool.adquirir(1001));
+    }
+
+    @Test
+    void reutilizaLoLiberadoDentroDeSuClase() {
+        PoolBuffers pool = new PoolBuffers(100, 1000, 4);
+        ByteBuffer buffer = pool.adquirir(150);
+        buffer.put((byte) 1);
+
+        pool.liberar(buffer);
+
+        assertSame(buffer, pool.adquirir(101));
+        assertEquals(0, buffer.position());
+        assertEquals(1, pool.creados());
+    }
+
+    @Test
+    void noRetieneMasQueElPresupuestoDeBuffersMaximos() {
+        PoolBuffers pool = new PoolBuffers(100, 1000, 1);
+
+        pool.liberar(pool.adquirir(1000));
+        pool.liberar(pool.adquirir(100));
+
+        // Un buffer de 1000 ya ocupa todo el presupuesto: el de 100 queda para el GC
+        assertEquals(1, pool.libres());
+    }
+}
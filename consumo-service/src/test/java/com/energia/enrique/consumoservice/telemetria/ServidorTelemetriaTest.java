@@ -0,0 +1,135 @@
+package com.energia.enrique.consumoservice.telemetria;
+
+import com.energia.enrique.consumoservice.model.Lectura;
+import com.energia.enrique.consumoservice.telemetria.TramaLecturas.Estado;
+import com.energia.enrique.consumoservice.telemetria.TramaLecturas.Respuesta;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ServidorTelemetriaTest {
+
+    private static final int MAXIMO_LECTURAS = 100;
+    private static final long PLAZO_TRAMA_MS = 200;
+
+    private final List<List<Lectura>> recibidas = new CopyOnWriteArrayList<>();
+
+    @Test
+    void entregaCadaTramaYRespondeEnOrden() throws Exception {
+        try (ServidorTelemetria servidor = iniciar();
+             SimuladorConcentradores.Cliente cliente = cliente(servidor)) {
+            List<Lectura> primera = List.of(lectura(7L, 1, 10.5), lectura(8L, 1, 3.0));
+            List<Lectura> segunda = List.of(lectura(7L, 2, 11.0));
+
+            assertEquals(new Respuesta(Estado.ACEPTADA, 2, 0, 0), cliente.enviar(primera));
+            assertEquals(new Respuesta(Estado.ACEPTADA, 1, 0, 0), cliente.enviar(segunda));
+            assertEquals(List.of(primera, segunda), recibidas);
+            assertEquals(2L, servidor.tramas());
+        }
+    }
+
+    @Test
+    void respondeInvalidaSiLaCantidadNoCoincideYSigueLeyendo() throws Exception {
+        try (ServidorTelemetria servidor = iniciar();
+             SimuladorConcentradores.Cliente cliente = cliente(servidor)) {
+            ByteBuffer trama = ByteBuffer.allocate(64);
+            trama.putInt(TramaLecturas.BYTES_ENCABEZADO + TramaLecturas.BYTES_LECTURA);
+            trama.put(TramaLecturas.VERSION).putInt(2);
+            trama.putLong(7L).putLong(60_000).putDouble(1.0);
+
+            assertEquals(Respuesta.sinProcesar(Estado.INVALIDA), cliente.enviarCrudo(trama.flip()));
+            assertEquals(Estado.ACEPTADA, cliente.enviar(List.of(lectura(7L, 1, 1.0))).estado());
+            assertEquals(1L, servidor.erroresProtocolo());
+        }
+    }
+
+    @Test
+    void cierraLaConexionConUnLargoImposible() throws Exception {
+        try (ServidorTelemetria servidor = iniciar();
+             SimuladorConcentradores.Cliente cliente = cliente(servidor)) {
+            ByteBuffer trama = ByteBuffer.allocate(4).putInt(TramaLecturas.largoMaximo(MAXIMO_LECTURAS) + 1);
+
+            assertThrows(IOException.class, () -> cliente.enviarCrudo(trama.flip()));
+            assertEquals(List.of(), recibidas);
+        }
+    }
+
+    @Test
+    void unaTramaMasLargaQueElPrimerBufferLlegaCompleta() throws Exception {
+        try (ServidorTelemetria servidor = iniciar();
+             SimuladorConcentradores.Cliente cliente = cliente(servidor)) {
+            List<Lectura> lecturas = new ArrayList<>();
+            for (int minuto = 1; minuto <= MAXIMO_LECTURAS; minuto++) {
+                lecturas.add(lectura(7L, minuto, minuto));
+            }
+
+            assertEquals(new Respuesta(Estado.ACEPTADA, MAXIMO_LECTURAS, 0, 0), cliente.enviar(lecturas));
+            assertEquals(List.of(lecturas), recibidas);
+        }
+    }
+
+    @Test
+    void cierraLaConexionSiLaTramaNoSeCompletaEnElPlazo() throws Exception {
+        try (ServidorTelemetria servidor = iniciar();
+             SimuladorConcentradores.Cliente lento = cliente(servidor);
+             SimuladorConcentradores.Cliente ocioso = cliente(servidor)) {
+            // Declara una lectura y manda solo el encabezado
+            ByteBuffer trama = ByteBuffer.allocate(16);
+            trama.putInt(TramaLecturas.BYTES_ENCABEZADO + TramaLecturas.BYTES_LECTURA);
+            trama.put(TramaLecturas.VERSION).putInt(1);
+
+            long inicio = System.nanoTime();
+            assertThrows(IOException.class, () -> lento.enviarCrudo(trama.flip()));
+            assertTrue(System.nanoTime() - inicio >= TimeUnit.MILLISECONDS.toNanos(PLAZO_TRAMA_MS));
+            assertEquals(1L, servidor.tramasVencidas());
+            assertEquals(List.of(), recibidas);
+
+            // Una conexión sin trama a medias no vence
+            assertEquals(Estado.ACEPTADA, ocioso.enviar(List.of(lectura(7L, 1, 1.0))).estado());
+            assertEquals(1, servidor.conexiones());
+        }
+    }
+
+    @Test
+    void atiendeVariasConexionesALaVez() throws Exception {
+        try (ServidorTelemetria servidor = iniciar();
+             SimuladorConcentradores.Cliente uno = cliente(servidor);
+             SimuladorConcentradores.Cliente otro = cliente(servidor)) {
+            for (int minuto = 1; minuto <= 50; minuto++) {
+                assertEquals(Estado.ACEPTADA, uno.enviar(List.of(lectura(1L, minuto, minuto))).estado());
+                assertEquals(Estado.ACEPTADA, otro.enviar(List.of(lectura(2L, minuto, minuto))).estado());
+            }
+            assertEquals(100, recibidas.size());
+            assertEquals(2, servidor.conexiones());
+        }
+    }
+
+    private ServidorTelemetria iniciar() {
+        ServidorTelemetria servidor = new ServidorTelemetria(new InetSocketAddress("127.0.0.1", 0), MAXIMO_LECTURAS,
+                10, 2, PLAZO_TRAMA_MS, new PoolBuffers(64, TramaLecturas.largoMaximo(MAXIMO_LECTURAS), 4), lecturas -> {
+                    recibidas.add(lecturas);
+                    return new Respuesta(Estado.ACEPTADA, lecturas.size(), 0, 0);
+                });
+        servidor.iniciar();
+        return servidor;
+    }
+
+    private static SimuladorConcentradores.Cliente cliente(ServidorTelemetria servidor) throws IOException {
+        return new SimuladorConcentradores.Cliente(new InetSocketAddress("127.0.0.1", servidor.puerto()), MAXIMO_LECTURAS);
+    }
+
+    private static Lectura lectura(long idMedidor, long minuto, double valor) {
+        return new Lectura(idMedidor, Instant.ofEpochMilli(minuto * 60_000), valor);
+    }
+}
@@ -0,0 +1,139 @@
+package com.energia.enrique.consumoservice.telemetria;
+
+import com.energia.enrique.consumoservice.model.Lectura;
+import com.energia.enrique.consumoservice.telemetria.TramaLecturas.Estado;
+import com.energia.enrique.consumoservice.telemetria.TramaLecturas.Respuesta;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Simulador de concentradores para pruebas de carga de la telemetría binaria.
+ * Cada conexión manda tramas de un rango propio de medidores, una lectura por
+ * medidor y por intervalo, y espera la respuesta antes de la siguiente.
+ * <pre>
+ * java -cp target/classes:target/test-classes \
+ *   com.energia.enrique.consumoservice.telemetria.SimuladorConcentradores \
+ *   [host] [puerto] [conexiones] [medidores-por-conexion] [segundos]
+ * </pre>
+ */
+public class SimuladorConcentradores {
+
+    private static final long INTERVALO_MS = TimeUnit.MINUTES.toMillis(15);
+
+    public static void main(String[] args) throws Exception {
+        String host = args.length > 0 ? args[0] : "localhost";
+        int puerto = args.length > 1 ? Integer.parseInt(args[1]) : 9005;
+        int conexiones = args.length > 2 ? Integer.parseInt(args[2]) : 50;
+        int medidoresPorConexion = args.length > 3 ? Integer.parseInt(args[3]) : 2000;
+        int segundos = args.length > 4 ? Integer.parseInt(args[4]) : 30;
+
+        LongAdder lecturas = new LongAdder();
+        Map<Estado, LongAdder> porEstado = new EnumMap<>(Estado.class);
+        for (Estado estado : Estado.values()) {
+            porEstado.put(estado, new LongAdder());
+        }
+        long[] latenciasNanos = new long[1 << 20];
+        AtomicLong muestras = new AtomicLong();
+        long fin = System.nanoTime() + TimeUnit.SECONDS.toNanos(segundos);
+        // Cada corrida arranca en un intervalo nuevo para no chocar con las lecturas de la anterior
+        long primerIntervalo = System.currentTimeMillis() / INTERVALO_MS * INTERVALO_MS;
+
+        List<Thread> hilos = new ArrayList<>();
+        for (int c = 0; c < conexiones; c++) {
+            long primerMedidor = 1 + (long) c * medidoresPorConexion;
+            Thread hilo = new Thread(() -> {
+                try (Cliente cliente = new Cliente(new InetSocketAddress(host, puerto), medidoresPorConexion)) {
+                    for (long intervalo = 0; System.nanoTime() < fin; intervalo++) {
+                        List<Lectura> trama = new ArrayList<>(medidoresPorConexion);
+                        Instant instante = Instant.ofEpochMilli(primerIntervalo + intervalo * INTERVALO_MS);
+                        for (int m = 0; m < medidoresPorConexion; m++) {
+                            trama.add(new Lectura(primerMedidor + m, instante, (double) intervalo));
+                        }
+                        long inicio = System.nanoTime();
+                        Respuesta respuesta = cliente.enviar(trama);
+                        long muestra = muestras.getAndIncrement();
+                        if (muestra < latenciasNanos.length) {
+                            latenciasNanos[(int) muestra] = System.nanoTime() - inicio;
+                        }
+                        porEstado.get(respuesta.estado()).increment();
+                        if (respuesta.estado() == Estado.ACEPTADA) {
+                            lecturas.add(trama.size());
+                        } else if (respuesta.estado() == Estado.SATURADO) {
+                            intervalo--;
+                            Thread.sleep(100);
+                        }
+                    }
+                } catch (IOException | InterruptedException e) {
+                    System.err.println("Conexión terminada: " + e);
+                }
+            });
+            hilo.start();
+            hilos.add(hilo);
+        }
+        for (Thread hilo : hilos) {
+            hilo.join();
+        }
+
+        int n = (int) Math.min(muestras.get(), latenciasNanos.length);
+        long[] ordenadas = Arrays.copyOf(latenciasNanos, n);
+        Arrays.sort(ordenadas);
+        System.out.printf("Lecturas aceptadas: %d (%.0f/s)%n", lecturas.sum(), lecturas.sum() / (double) segundos);
+        System.out.println("Tramas por estado: " + porEstado);
+        if (n > 0) {
+            System.out.printf("Latencia por trama: p50 %.1f ms, p99 %.1f ms, máx %.1f ms%n",
+                    ordenadas[n / 2] / 1e6, ordenadas[(int) (n * 0.99)] / 1e6, ordenadas[n - 1] / 1e6);
+        }
+    }
+
+    /** Conexión bloqueante de un concentrador: manda una trama y espera su respuesta. */
+    public static class Cliente implements AutoCloseable {
+
+        private final SocketChannel canal;
+        private final ByteBuffer salida;
+        private final ByteBuffer entrada = ByteBuffer.allocate(TramaLecturas.BYTES_RESPUESTA);
+
+        public Cliente(InetSocketAddress direccion, int maximoLecturas) throws IOException {
+            this.canal = SocketChannel.open(direccion);
+            this.canal.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            this.salida = ByteBuffer.allocateDirect(TramaLecturas.BYTES_LARGO + TramaLecturas.largoMaximo(maximoLecturas));
+        }
+
+        public Respuesta enviar(List<Lectura> lecturas) throws IOException {
+            salida.clear();
+            TramaLecturas.codificar(lecturas, salida);
+            return enviarCrudo(salida.flip());
+        }
+
+        /** Manda los bytes tal cual, para probar tramas mal formadas. */
+        public Respuesta enviarCrudo(ByteBuffer trama) throws IOException {
+            while (trama.hasRemaining()) {
+                canal.write(trama);
+            }
+            entrada.clear();
+            while (entrada.hasRemaining()) {
+                if (canal.read(entrada) < 0) {
+                    throw new IOException("El servidor cerró la conexión");
+                }
+            }
+            return TramaLecturas.decodificarRespuesta(entrada.flip());
+        }
+
+        @Override
+        public void close() throws IOException {
+            canal.close();
+        }
+    }
+}
@@ -1,9 +1,16 @@
 package com.energia.enrique.contratoservice;
 
+import com.energia.shared.infrastructure.carga.CargaConfig;
+import com.energia.shared.infrastructure.datasource.DataSourceConfig;
+import com.energia.shared.infrastructure.metricas.MetricasConfig;
+import com.energia.shared.infrastructure.outbox.OutboxConfig;
+import com.energia.shared.infrastructure.trazas.TrazasConfig;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Import;
 
 @SpringBootApplication
+@Import({CargaConfig.class, DataSourceConfig.class, MetricasConfig.class, OutboxConfig.class, TrazasConfig.class})
 public class ContratoServiceApplication {
 
 	public static void main(String[] args) {
@@ -1,17 +1,25 @@
 package com.energia.enrique.contratoservice.controller;
 
 import com.energia.enrique.contratoservice.model.ContratoEntity;
+import com.energia.enrique.contratoservice.model.ContratoResumen;
 import com.energia.enrique.contratoservice.service.ContratoService;
+import com.energia.shared.infrastructure.web.VersionEtag;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/contratos")
@@ -19,6 +27,8 @@ public class ContratoController {
 
     private static final Logger logger = LoggerFactory.getLogger(ContratoController.class);
 
+    private static final int MAXIMO_IDS_POR_CONSULTA = 1000;
+
     private final ContratoService contratoService;
 
     @Autowired
@@ -28,52 +38,109 @@ public class ContratoController {
 
     @GetMapping
     public ResponseEntity<List<ContratoEntity>> obtenerTodosContratos() {
-        logger.info("Obteniendo todos los contratos");
         List<ContratoEntity> contratos = contratoService.obtenerTodosContratos();
-        logger.info("Contratos obtenidos: {}", contratos);
+        logger.debug("Contratos obtenidos. Cantidad: {}", contratos.size());
         return new ResponseEntity<>(contratos, HttpStatus.OK);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ContratoEntity> obtenerContratoPorId(@PathVariable Long id) {
-        logger.info("Obteniendo contrato por ID: {}", id);
+    public ResponseEntity<ContratoEntity> obtenerContratoPorId(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         Optional<ContratoEntity> contrato = contratoService.obtenerContratoPorId(id);
         return contrato.map(value -> {
-            logger.info("Contrato encontrado: {}", value);
-            return new ResponseEntity<>(value, HttpStatus.OK);
+            logger.debug("Contrato encontrado con ID: {}", id);
+            String etag = VersionEtag.etag(value.getVersion());
+            if (VersionEtag.coincide(ifNoneMatch, value.getVersion())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).<ContratoEntity>build();
+            }
+            return ResponseEntity.ok().eTag(etag).body(value);
         }).orElseGet(() -> {
-            logger.info("Contrato no encontrado con ID: {}", id);
+            logger.debug("Contrato no encontrado con ID: {}", id);
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         });
     }
 
+    @GetMapping("/cliente/{idCliente}")
+    public ResponseEntity<List<ContratoResumen>> obtenerContratosPorCliente(@PathVariable Long idCliente) {
+        List<ContratoResumen> contratos = contratoService.obtenerContratosPorCliente(idCliente);
+        logger.debug("Contratos del cliente {}. Cantidad: {}", idCliente, contratos.size());
+        return new ResponseEntity<>(contratos, HttpStatus.OK);
+    }
+
+    // Variante por lote: GET /contratos/clientes?ids=1,2,3 resuelve todos los clientes en una consulta
+    @GetMapping("/clientes")
+    public ResponseEntity<Map<Long, List<ContratoResumen>>> obtenerContratosPorClientes(@RequestParam Set<Long> ids) {
+        if (ids.isEmpty() || ids.size() > MAXIMO_IDS_POR_CONSULTA) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        Map<Long, List<ContratoResumen>> contratos = contratoService.obtenerContratosPorClientes(ids);
+        logger.debug("Contratos de {} clientes", ids.size());
+        return new ResponseEntity<>(contratos, HttpStatus.OK);
+    }
+
     @PostMapping
     public ResponseEntity<ContratoEntity> crearContrato(@Valid @RequestBody ContratoEntity contrato) {
-        logger.info("Creando un nuevo contrato: {}", contrato);
         ContratoEntity nuevoContrato = contratoService.crearContrato(contrato);
-        logger.info("Contrato creado: {}", nuevoContrato);
-        return new ResponseEntity<>(nuevoContrato, HttpStatus.CREATED);
+        logger.info("Contrato creado con ID: {}", nuevoContrato.getId());
+        return ResponseEntity.status(HttpStatus.CREATED).eTag(VersionEtag.etag(nuevoContrato.getVersion())).body(nuevoContrato);
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<ContratoEntity> actualizarContrato(@PathVariable Long id, @Valid @RequestBody ContratoEntity nuevoContrato) {
+    public ResponseEntity<ContratoEntity> actualizarContrato(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @Valid @RequestBody ContratoEntity nuevoContrato) {
+        if (VersionEtag.sinPrecondicion(ifMatch, nuevoContrato.getVersion())) {
+            return new ResponseEntity<>(HttpStatus.PRECONDITION_REQUIRED);
+        }
         try {
-            logger.info("Actualizando contrato con ID: {}", id);
-            ContratoEntity contratoActualizado = contratoService.actualizarContrato(id, nuevoContrato);
-            logger.info("Contrato actualizado: {}", contratoActualizado);
-            return new ResponseEntity<>(contratoActualizado, HttpStatus.OK);
-        } catch (Exception e) {
-            logger.error("Error al actualizar contrato con ID: {}", id, e);
+            ContratoEntity contratoActualizado = contratoService.actualizarContrato(id,
+                    VersionEtag.versionEsperada(ifMatch, nuevoContrato.getVersion()), nuevoContrato);
+            logger.info("Contrato actualizado con ID: {}", id);
+            return ResponseEntity.ok().eTag(VersionEtag.etag(contratoActualizado.getVersion())).body(contratoActualizado);
+        } catch (OptimisticLockingFailureException e) {
+            logger.info("Actualización rechazada por versión obsoleta. Contrato ID: {}", id);
+            return precondicionFallida(id);
+        } catch (NoSuchElementException e) {
+            logger.debug("Contrato no encontrado con ID: {}", id);
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+    }
+
+    @PatchMapping("/{id}")
+    public ResponseEntity<?> actualizarContratoParcial(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody Map<String, Object> cambios) {
+        try {
+            ContratoEntity contratoActualizado = contratoService.actualizarContratoParcial(id,
+                    VersionEtag.versionEsperada(ifMatch, null), cambios);
+            logger.info("Contrato actualizado parcialmente con ID: {}. Campos: {}", id, cambios.keySet());
+            return ResponseEntity.ok().eTag(VersionEtag.etag(contratoActualizado.getVersion())).body(contratoActualizado);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        } catch (OptimisticLockingFailureException e) {
+            logger.info("Actualización parcial rechazada por versión obsoleta. Contrato ID: {}", id);
+            return precondicionFallida(id);
+        } catch (DuplicateKeyException e) {
+            return new ResponseEntity<>("El número de contrato ya existe", HttpStatus.CONFLICT);
+        } catch (NoSuchElementException e) {
+            logger.debug("Contrato no encontrado con ID: {}", id);
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
     }
 
+    // 412 con el ETag vigente: el cliente sabe qué versión releer sin otro GET
+    private <T> ResponseEntity<T> precondicionFallida(Long id) {
+        String etag = contratoService.obtenerContratoPorId(id)
+                .map(contrato -> VersionEtag.etag(contrato.getVersion()))
+                .orElse(null);
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).eTag(etag).build();
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> eliminarContrato(@PathVariable Long id) {
         try {
-            logger.info("Eliminando contrato con ID: {}", id);
             contratoService.eliminarContrato(id);
-            logger.info("Contrato eliminado con éxito");
+            logger.info("Contrato eliminado con ID: {}", id);
             return new ResponseEntity<>(HttpStatus.NO_CONTENT);
         } catch (Exception e) {
             logger.error("Error al eliminar contrato con ID: {}", id, e);
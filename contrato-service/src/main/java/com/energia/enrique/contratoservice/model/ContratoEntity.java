@@ -41,6 +41,9 @@ public class ContratoEntity {
     @Column(name = "id_cliente", nullable = false)
     private Long idCliente;
 
+    // Se expone como ETag; en PUT el cliente la devuelve en If-Match (o en el cuerpo)
+    @Version
+    private Long version;
 
     @Override
     public boolean equals(Object o) {
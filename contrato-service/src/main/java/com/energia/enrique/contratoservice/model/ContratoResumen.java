@@ -0,0 +1,16 @@
+package com.energia.enrique.contratoservice.model;
+
+/**
+ * Proyección para recorrer cliente → contratos. Solo lee columnas cubiertas
+ * por idx_contratos_cliente.
+ */
+public interface ContratoResumen {
+
+    Long getId();
+
+    String getNumeroContrato();
+
+    String getCicloFacturacion();
+
+    Long getIdCliente();
+}
@@ -0,0 +1,48 @@
+package com.energia.enrique.contratoservice.outbox;
+
+import com.energia.shared.infrastructure.outbox.AlmacenOutboxJdbc;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+
+/**
+ * Registra eventos de dominio en la tabla outbox dentro de la transacción
+ * del cambio que los origina. El relay se encarga luego de publicarlos.
+ */
+@Component
+public class PublicadorEventos {
+
+    public static final String CONTRATO_CREADO = "ContratoCreado";
+    public static final String CONTRATO_ACTUALIZADO = "ContratoActualizado";
+    public static final String CONTRATO_ELIMINADO = "ContratoEliminado";
+
+    private static final String AGREGADO_CONTRATO = "Contrato";
+
+    private final AlmacenOutboxJdbc almacenOutbox;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public PublicadorEventos(AlmacenOutboxJdbc almacenOutbox, ObjectMapper objectMapper) {
+        this.almacenOutbox = almacenOutbox;
+        this.objectMapper = objectMapper;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarEventoContrato(String tipoEvento, Long idContrato, Map<String, Object> datos) {
+        almacenOutbox.registrar(new AlmacenOutboxJdbc.EventoNuevo(tipoEvento, AGREGADO_CONTRATO,
+                String.valueOf(idContrato), serializar(datos)));
+    }
+
+    private String serializar(Map<String, Object> datos) {
+        try {
+            return objectMapper.writeValueAsString(datos);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el evento de dominio", e);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.energia.enrique.contratoservice.repository;
+
+import com.energia.enrique.contratoservice.model.ContratoEntity;
+
+import java.util.Map;
+import java.util.Optional;
+
+// Fragmento de ContratoRepository: PATCH como un único UPDATE con las columnas recibidas
+public interface ActualizacionParcialContrato {
+
+    /**
+     * @param cambios Campo → valor; solo esas columnas se escriben
+     * @param versionEsperada null actualiza sin condición
+     * @return Vacío si no hay fila con ese id (y esa versión)
+     * @throws IllegalArgumentException si un campo no es actualizable o su valor es inválido
+     */
+    Optional<ContratoEntity> actualizarCampos(Long id, Long versionEsperada, Map<String, ?> cambios);
+}
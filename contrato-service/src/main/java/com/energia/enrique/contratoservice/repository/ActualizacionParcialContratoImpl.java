@@ -0,0 +1,38 @@
+package com.energia.enrique.contratoservice.repository;
+
+import com.energia.enrique.contratoservice.model.ContratoEntity;
+import com.energia.shared.infrastructure.persistencia.ActualizacionParcial;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Map;
+import java.util.Optional;
+
+public class ActualizacionParcialContratoImpl implements ActualizacionParcialContrato {
+
+    private static final ActualizacionParcial ACTUALIZACION = ActualizacionParcial.tabla("contratos")
+            .columnaVersion("version")
+            .retornando("*")
+            .campo("numeroContrato", "numero_contrato", ActualizacionParcial.textoObligatorio())
+            .campo("titularContrato", "titular_contrato", ActualizacionParcial.textoObligatorio())
+            .campo("direccionSuministro", "direccion_suministro", ActualizacionParcial.textoObligatorio())
+            .campo("cicloFacturacion", "ciclo_facturacion", ActualizacionParcial.textoObligatorio())
+            .campo("idCliente", "id_cliente", ActualizacionParcial.enteroObligatorio())
+            .build();
+
+    private static final BeanPropertyRowMapper<ContratoEntity> MAPEADOR = new BeanPropertyRowMapper<>(ContratoEntity.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public ActualizacionParcialContratoImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public Optional<ContratoEntity> actualizarCampos(Long id, Long versionEsperada, Map<String, ?> cambios) {
+        ActualizacionParcial.Sentencia sentencia = ACTUALIZACION.construir(id, cambios, versionEsperada);
+        return jdbcTemplate.query(sentencia.sql(), MAPEADOR, sentencia.parametros()).stream().findFirst();
+    }
+}
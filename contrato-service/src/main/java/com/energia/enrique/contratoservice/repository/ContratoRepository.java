@@ -1,7 +1,29 @@
 package com.energia.enrique.contratoservice.repository;
 
 import com.energia.enrique.contratoservice.model.ContratoEntity;
+import com.energia.enrique.contratoservice.model.ContratoResumen;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface ContratoRepository extends JpaRepository<ContratoEntity,Long> {
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface ContratoRepository extends JpaRepository<ContratoEntity,Long>, ActualizacionParcialContrato {
+
+    // Proyecciones: el SELECT solo trae las columnas de ContratoResumen (cubiertas por idx_contratos_cliente)
+    List<ContratoResumen> findByIdClienteOrderById(Long idCliente);
+
+    List<ContratoResumen> findByIdClienteInOrderByIdClienteAscIdAsc(Collection<Long> idsCliente);
+
+    // Un solo UPDATE, sin lectura previa. Con versión solo escribe si nadie actualizó la fila desde
+    // que el cliente la leyó; RETURNING devuelve la fila ya incrementada.
+    @Query(value = "UPDATE contratos SET numero_contrato = :#{#c.numeroContrato}, " +
+            "titular_contrato = :#{#c.titularContrato}, direccion_suministro = :#{#c.direccionSuministro}, " +
+            "ciclo_facturacion = :#{#c.cicloFacturacion}, id_cliente = :#{#c.idCliente}, version = version + 1 " +
+            "WHERE id = :id AND (CAST(:version AS BIGINT) IS NULL OR version = :version) " +
+            "RETURNING *", nativeQuery = true)
+    Optional<ContratoEntity> actualizarSiVersion(@Param("id") Long id, @Param("version") Long version,
+                                                 @Param("c") ContratoEntity contrato);
 }
@@ -1,8 +1,11 @@
 package com.energia.enrique.contratoservice.service;
 
 import com.energia.enrique.contratoservice.model.ContratoEntity;
+import com.energia.enrique.contratoservice.model.ContratoResumen;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface ContratoService {
@@ -11,9 +14,30 @@ public interface ContratoService {
 
     Optional<ContratoEntity> obtenerContratoPorId(Long id);
 
+    List<ContratoResumen> obtenerContratosPorCliente(Long idCliente);
+
+    /**
+     * Resuelve varios clientes en una sola consulta.
+     * @return Contratos agrupados por cliente; cada id pedido figura aunque no tenga contratos
+     */
+    Map<Long, List<ContratoResumen>> obtenerContratosPorClientes(Collection<Long> idsCliente);
+
     ContratoEntity crearContrato(ContratoEntity contrato);
 
-    ContratoEntity actualizarContrato(Long id, ContratoEntity nuevoContrato);
+    /**
+     * @param versionEsperada Versión leída por el cliente; null actualiza sin condición
+     * @throws java.util.NoSuchElementException si el contrato no existe
+     * @throws org.springframework.dao.OptimisticLockingFailureException si la versión ya no es la vigente
+     */
+    ContratoEntity actualizarContrato(Long id, Long versionEsperada, ContratoEntity nuevoContrato);
+
+    /**
+     * Actualización parcial: solo se escriben los campos presentes en {@code cambios}.
+     * @throws java.util.NoSuchElementException si el contrato no existe
+     * @throws IllegalArgumentException si un campo no es actualizable o su valor es inválido
+     * @throws org.springframework.dao.OptimisticLockingFailureException si la versión ya no es la vigente
+     */
+    ContratoEntity actualizarContratoParcial(Long id, Long versionEsperada, Map<String, Object> cambios);
 
     void eliminarContrato(Long id);
 }
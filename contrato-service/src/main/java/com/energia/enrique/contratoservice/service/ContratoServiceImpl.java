@@ -1,25 +1,38 @@
 package com.energia.enrique.contratoservice.service;
 
 import com.energia.enrique.contratoservice.model.ContratoEntity;
+import com.energia.enrique.contratoservice.model.ContratoResumen;
+import com.energia.enrique.contratoservice.outbox.PublicadorEventos;
 import com.energia.enrique.contratoservice.repository.ContratoRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.NoSuchElementException;
 
 @Service
+@Timed(value = "energia.servicio", histogram = true)
 public class ContratoServiceImpl implements ContratoService {
 
     private final ContratoRepository contratoRepository;
+    private final PublicadorEventos publicadorEventos;
 
     @Autowired
-    public ContratoServiceImpl(ContratoRepository contratoRepository) {
+    public ContratoServiceImpl(ContratoRepository contratoRepository, PublicadorEventos publicadorEventos) {
         this.contratoRepository = contratoRepository;
+        this.publicadorEventos = publicadorEventos;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ContratoEntity> obtenerTodosContratos() {
         return contratoRepository.findAll();
     }
@@ -30,27 +43,83 @@ public class ContratoServiceImpl implements ContratoService {
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public List<ContratoResumen> obtenerContratosPorCliente(Long idCliente) {
+        return contratoRepository.findByIdClienteOrderById(idCliente);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Long, List<ContratoResumen>> obtenerContratosPorClientes(Collection<Long> idsCliente) {
+        Map<Long, List<ContratoResumen>> porCliente = new LinkedHashMap<>();
+        for (Long idCliente : idsCliente) {
+            porCliente.put(idCliente, new ArrayList<>());
+        }
+        for (ContratoResumen contrato : contratoRepository.findByIdClienteInOrderByIdClienteAscIdAsc(porCliente.keySet())) {
+            porCliente.get(contrato.getIdCliente()).add(contrato);
+        }
+        return porCliente;
+    }
+
+    @Override
+    @Transactional
     public ContratoEntity crearContrato(ContratoEntity contrato) {
-        return contratoRepository.save(contrato);
+        // Con versión informada Spring Data lo trataría como existente
+        contrato.setVersion(null);
+        ContratoEntity contratoGuardado = contratoRepository.save(contrato);
+        publicadorEventos.registrarEventoContrato(PublicadorEventos.CONTRATO_CREADO,
+                contratoGuardado.getId(), datosEvento(contratoGuardado));
+        return contratoGuardado;
     }
 
     @Override
-    public ContratoEntity actualizarContrato(Long id, ContratoEntity nuevoContrato) {
-        return contratoRepository.findById(id)
-                .map(contratoExistente -> {
-                    contratoExistente.setNumeroContrato(nuevoContrato.getNumeroContrato());
-                    contratoExistente.setTitularContrato(nuevoContrato.getTitularContrato());
-                    contratoExistente.setDireccionSuministro(nuevoContrato.getDireccionSuministro());
-                    contratoExistente.setCicloFacturacion(nuevoContrato.getCicloFacturacion());
-                    contratoExistente.setIdCliente(nuevoContrato.getIdCliente());
+    @Transactional
+    public ContratoEntity actualizarContrato(Long id, Long versionEsperada, ContratoEntity nuevoContrato) {
+        ContratoEntity contratoGuardado = contratoRepository.actualizarSiVersion(id, versionEsperada, nuevoContrato)
+                .orElseThrow(() -> {
+                    // Solo en el camino de error se consulta si la fila existe
+                    if (versionEsperada != null && contratoRepository.existsById(id)) {
+                        return new OptimisticLockingFailureException("El contrato " + id
+                                + " fue modificado por otra operación (versión esperada " + versionEsperada + ")");
+                    }
+                    return new NoSuchElementException("Contrato no encontrado con ID: " + id);
+                });
 
-                    return contratoRepository.save(contratoExistente);
-                })
-                .orElseThrow(() -> new NoSuchElementException("Contrato no encontrado con ID: " + id));
+        publicadorEventos.registrarEventoContrato(PublicadorEventos.CONTRATO_ACTUALIZADO,
+                contratoGuardado.getId(), datosEvento(contratoGuardado));
+        return contratoGuardado;
     }
 
     @Override
+    @Transactional
+    public ContratoEntity actualizarContratoParcial(Long id, Long versionEsperada, Map<String, Object> cambios) {
+        ContratoEntity contratoGuardado = contratoRepository.actualizarCampos(id, versionEsperada, cambios)
+                .orElseThrow(() -> {
+                    if (versionEsperada != null && contratoRepository.existsById(id)) {
+                        return new OptimisticLockingFailureException("El contrato " + id
+                                + " fue modificado por otra operación (versión esperada " + versionEsperada + ")");
+                    }
+                    return new NoSuchElementException("Contrato no encontrado con ID: " + id);
+                });
+
+        publicadorEventos.registrarEventoContrato(PublicadorEventos.CONTRATO_ACTUALIZADO,
+                contratoGuardado.getId(), datosEvento(contratoGuardado));
+        return contratoGuardado;
+    }
+
+    @Override
+    @Transactional
     public void eliminarContrato(Long id) {
         contratoRepository.deleteById(id);
+        publicadorEventos.registrarEventoContrato(PublicadorEventos.CONTRATO_ELIMINADO, id, Map.of("id", id));
+    }
+
+    private Map<String, Object> datosEvento(ContratoEntity contrato) {
+        return Map.of(
+                "id", contrato.getId(),
+                "numeroContrato", contrato.getNumeroContrato(),
+                "cicloFacturacion", contrato.getCicloFacturacion(),
+                "idCliente", contrato.getIdCliente()
+        );
     }
 }
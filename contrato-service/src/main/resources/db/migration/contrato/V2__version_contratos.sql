@@ -0,0 +1,2 @@
+-- Versión para concurrencia optimista: cada UPDATE la incrementa y se condiciona a la versión leída
+ALTER TABLE contratos ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,4 @@
+-- Contratos de un cliente: la clave (id_cliente, id) resuelve el filtro y el orden,
+-- e INCLUDE cubre la proyección ContratoResumen para que alcance con un index-only scan.
+CREATE INDEX IF NOT EXISTS idx_contratos_cliente
+    ON contratos (id_cliente, id) INCLUDE (numero_contrato, ciclo_facturacion);
@@ -0,0 +1,123 @@
+package com.energia.enrique.contratoservice.controller;
+
+import com.energia.enrique.contratoservice.model.ContratoEntity;
+import com.energia.enrique.contratoservice.service.ContratoService;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Actualizaciones condicionales: la versión vigente del contrato 1 es 4. El
+ * servicio se reemplaza por un mock; el UPDATE condicional se prueba aparte.
+ */
+class ContratoControllerTest {
+
+    private final ContratoService servicio = mock(ContratoService.class);
+    private final ContratoController controlador = new ContratoController(servicio);
+
+    ContratoControllerTest() {
+        when(servicio.obtenerContratoPorId(1L)).thenReturn(Optional.of(contrato(4L)));
+    }
+
+    @Test
+    void conLaVersionVigenteActualizaYDevuelveElNuevoEtag() {
+        when(servicio.actualizarContrato(eq(1L), eq(4L), any())).thenReturn(contrato(5L));
+
+        ResponseEntity<ContratoEntity> respuesta = controlador.actualizarContrato(1L, "\"4\"", contrato(null));
+
+        assertEquals(HttpStatus.OK, respuesta.getStatusCode());
+        assertEquals("\"5\"", respuesta.getHeaders().getETag());
+    }
+
+    @Test
+    void laVersionDelCuerpoSirveDePrecondicion() {
+        when(servicio.actualizarContrato(eq(1L), eq(4L), any())).thenReturn(contrato(5L));
+
+        ResponseEntity<ContratoEntity> respuesta = controlador.actualizarContrato(1L, null, contrato(4L));
+
+        assertEquals(HttpStatus.OK, respuesta.getStatusCode());
+    }
+
+    @Test
+    void unPutSinPrecondicionSeRechazaSinEscribir() {
+        ResponseEntity<ContratoEntity> respuesta = controlador.actualizarContrato(1L, null, contrato(null));
+
+        assertEquals(HttpStatus.PRECONDITION_REQUIRED, respuesta.getStatusCode());
+        verify(servicio, never()).actualizarContrato(any(), any(), any());
+    }
+
+    @Test
+    void conUnaVersionViejaResponde412ConElEtagVigente() {
+        when(servicio.actualizarContrato(eq(1L), eq(3L), any()))
+                .thenThrow(new OptimisticLockingFailureException("Versión obsoleta"));
+
+        ResponseEntity<ContratoEntity> respuesta = controlador.actualizarContrato(1L, "\"3\"", contrato(null));
+
+        assertEquals(HttpStatus.PRECONDITION_FAILED, respuesta.getStatusCode());
+        assertEquals("\"4\"", respuesta.getHeaders().getETag());
+        assertNull(respuesta.getBody());
+    }
+
+    @Test
+    void elPatchConVersionViejaTambienDevuelveElEtagVigente() {
+        when(servicio.actualizarContratoParcial(eq(1L), eq(3L), anyMap()))
+                .thenThrow(new OptimisticLockingFailureException("Versión obsoleta"));
+
+        ResponseEntity<?> respuesta = controlador.actualizarContratoParcial(1L, "\"3\"", Map.of("titularContrato", "X"));
+
+        assertEquals(HttpStatus.PRECONDITION_FAILED, respuesta.getStatusCode());
+        assertEquals("\"4\"", respuesta.getHeaders().getETag());
+    }
+
+    @Test
+    void unPatchConNumeroDeContratoRepetidoEs409() {
+        // Lo que traduce JdbcTemplate de un unique_violation
+        when(servicio.actualizarContratoParcial(eq(1L), eq(4L), anyMap()))
+                .thenThrow(new DuplicateKeyException("numero_contrato duplicado"));
+
+        ResponseEntity<?> respuesta = controlador.actualizarContratoParcial(1L, "\"4\"", Map.of("numeroContrato", "DUPLICADO"));
+
+        assertEquals(HttpStatus.CONFLICT, respuesta.getStatusCode());
+    }
+
+    @Test
+    void soloUnContratoInexistenteEs404() {
+        when(servicio.actualizarContrato(eq(9L), anyLong(), any()))
+                .thenThrow(new NoSuchElementException("Contrato no encontrado con ID: 9"));
+        when(servicio.actualizarContrato(eq(1L), eq(4L), any()))
+                .thenThrow(new DataIntegrityViolationException("numero_contrato duplicado"));
+
+        assertEquals(HttpStatus.NOT_FOUND, controlador.actualizarContrato(9L, "\"1\"", contrato(null)).getStatusCode());
+
+        // Cualquier otro error sigue su camino, no se disfraza de 404
+        assertThrows(DataIntegrityViolationException.class,
+                () -> controlador.actualizarContrato(1L, "\"4\"", contrato(null)));
+    }
+
+    private static ContratoEntity contrato(Long version) {
+        ContratoEntity contrato = new ContratoEntity();
+        contrato.setId(1L);
+        contrato.setNumeroContrato("C-1");
+        contrato.setVersion(version);
+        return contrato;
+    }
+}
@@ -1,9 +1,16 @@
 package com.energia.enrique.facturacionservice;
 
+import com.energia.shared.infrastructure.carga.CargaConfig;
+import com.energia.shared.infrastructure.metricas.MetricasConfig;
+import com.energia.shared.infrastructure.trazas.TrazasConfig;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Import;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@Import({CargaConfig.class, MetricasConfig.class, TrazasConfig.class})
+@EnableScheduling
 public class FacturacionServiceApplication {
 
 	public static void main(String[] args) {
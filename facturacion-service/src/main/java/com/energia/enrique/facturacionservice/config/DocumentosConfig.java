@@ -0,0 +1,30 @@
+package com.energia.enrique.facturacionservice.config;
+
+import com.energia.enrique.facturacionservice.documento.DestinoArchivos;
+import com.energia.enrique.facturacionservice.documento.DestinoDocumentos;
+import com.energia.enrique.facturacionservice.documento.DestinoObjetosEnMemoria;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+@Configuration
+public class DocumentosConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "energia.facturacion.documentos", name = "destino", havingValue = "disco",
+            matchIfMissing = true)
+    public DestinoDocumentos destinoArchivos(
+            @Value("${energia.facturacion.documentos.directorio:${java.io.tmpdir}/facturas}") String directorio) {
+        return new DestinoArchivos(Path.of(directorio));
+    }
+
+    // Sustituto del almacén de objetos para pruebas y entornos sin disco compartido
+    @Bean
+    @ConditionalOnProperty(prefix = "energia.facturacion.documentos", name = "destino", havingValue = "memoria")
+    public DestinoDocumentos destinoObjetosEnMemoria() {
+        return new DestinoObjetosEnMemoria();
+    }
+}
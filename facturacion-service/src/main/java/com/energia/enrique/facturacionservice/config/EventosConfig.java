@@ -0,0 +1,15 @@
+package com.energia.enrique.facturacionservice.config;
+
+import com.energia.shared.infrastructure.outbox.TransporteEnMemoria;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class EventosConfig {
+
+    // Reparte a los suscriptores de este servicio lo que llega por POST /eventos
+    @Bean
+    public TransporteEnMemoria receptorEventos() {
+        return new TransporteEnMemoria();
+    }
+}
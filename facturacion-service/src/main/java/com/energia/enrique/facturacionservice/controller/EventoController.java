@@ -0,0 +1,44 @@
+package com.energia.enrique.facturacionservice.controller;
+
+import com.energia.shared.infrastructure.outbox.MensajeOutbox;
+import com.energia.shared.infrastructure.outbox.TransporteEnMemoria;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Recibe los lotes que publican los relays de outbox de los otros servicios.
+ * Un 2xx confirma el lote entero; ante cualquier error el relay lo reenvía
+ * completo, por eso cada suscriptor tiene que tolerar mensajes repetidos.
+ */
+@RestController
+@RequestMapping("/eventos")
+@RequiredArgsConstructor
+public class EventoController {
+
+    private final TransporteEnMemoria receptorEventos;
+    private final Logger logger = LoggerFactory.getLogger(EventoController.class);
+
+    @PostMapping
+    public ResponseEntity<Void> recibir(@RequestBody List<EventoRecibido> lote) {
+        receptorEventos.publicar(lote.stream().map(EventoRecibido::mensaje).toList());
+        logger.debug("Lote de eventos recibido. Cantidad: {}", lote.size());
+        return ResponseEntity.noContent().build();
+    }
+
+    public record EventoRecibido(Long id, String tipoEvento, String tipoAgregado, String idAgregado, String payload,
+                                 LocalDateTime fechaCreacion) {
+
+        MensajeOutbox mensaje() {
+            return new MensajeOutbox(id, tipoEvento, tipoAgregado, idAgregado, payload, fechaCreacion);
+        }
+    }
+}
@@ -1,17 +1,27 @@
 package com.energia.enrique.facturacionservice.controller;
 
+import com.energia.enrique.facturacionservice.documento.RenderizadorFacturas;
 import com.energia.enrique.facturacionservice.model.FacturaEntity;
 import com.energia.enrique.facturacionservice.service.FacturaService;
+import com.energia.shared.infrastructure.web.VersionEtag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/facturas")
@@ -19,7 +29,10 @@ import java.util.List;
 @RequiredArgsConstructor
 public class FacturaController {
 
+    private static final int MAXIMO_IDS_POR_CONSULTA = 1000;
+
     private final FacturaService facturaService;
+    private final RenderizadorFacturas renderizadorFacturas;
     private final Logger logger = LoggerFactory.getLogger(FacturaController.class);
 
     @GetMapping
@@ -29,30 +42,135 @@ public class FacturaController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<FacturaEntity> obtenerFacturaPorId(@PathVariable Long id) {
+    public ResponseEntity<FacturaEntity> obtenerFacturaPorId(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         return facturaService.obtenerFacturaPorId(id)
                 .map(factura -> {
-                    logger.info("Obteniendo factura con ID: {}", id);
-                    return ResponseEntity.ok(factura);
+                    logger.debug("Obteniendo factura con ID: {}", id);
+                    String etag = VersionEtag.etag(factura.getVersion());
+                    if (VersionEtag.coincide(ifNoneMatch, factura.getVersion())) {
+                        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).<FacturaEntity>build();
+                    }
+                    return ResponseEntity.ok().eTag(etag).body(factura);
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @GetMapping("/periodo")
+    public ResponseEntity<List<FacturaEntity>> obtenerFacturasPorPeriodo(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+        if (hasta.isBefore(desde)) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<FacturaEntity> facturas = facturaService.obtenerFacturasPorPeriodo(desde, hasta);
+        logger.debug("Facturas emitidas entre {} y {}. Cantidad: {}", desde, hasta, facturas.size());
+        return ResponseEntity.ok(facturas);
+    }
+
+    @GetMapping("/pendientes")
+    public ResponseEntity<List<FacturaEntity>> obtenerFacturasPorVencer(
+            @RequestParam(defaultValue = "7") int dias) {
+        if (dias < 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<FacturaEntity> facturas = facturaService.obtenerFacturasPorVencer(dias);
+        logger.debug("Facturas pendientes que vencen en {} días. Cantidad: {}", dias, facturas.size());
+        return ResponseEntity.ok(facturas);
+    }
+
+    // Variante por lote: GET /facturas/pendientes/contratos?ids=1,2,3 resuelve todos los contratos en una consulta
+    @GetMapping("/pendientes/contratos")
+    public ResponseEntity<Map<Long, List<FacturaEntity>>> obtenerPendientesPorContratos(@RequestParam Set<Long> ids) {
+        if (ids.isEmpty() || ids.size() > MAXIMO_IDS_POR_CONSULTA) {
+            return ResponseEntity.badRequest().build();
+        }
+        Map<Long, List<FacturaEntity>> facturas = facturaService.obtenerPendientesPorContratos(ids);
+        logger.debug("Facturas pendientes de {} contratos", ids.size());
+        return ResponseEntity.ok(facturas);
+    }
+
+    @GetMapping("/vencidas/contrato/{idContrato}")
+    public ResponseEntity<List<FacturaEntity>> obtenerFacturasVencidasPorContrato(@PathVariable Long idContrato) {
+        List<FacturaEntity> facturas = facturaService.obtenerFacturasVencidasPorContrato(idContrato);
+        logger.debug("Facturas vencidas del contrato {}. Cantidad: {}", idContrato, facturas.size());
+        return ResponseEntity.ok(facturas);
+    }
+
+    @PutMapping("/{id}/pagar")
+    public ResponseEntity<Void> pagarFactura(@PathVariable Long id, @RequestParam String referencia) {
+        FacturaService.ResultadoPago resultado = facturaService.pagarFactura(id, referencia);
+        logger.info("Pago de factura con ID: {}. Referencia: {}. Resultado: {}", id, referencia, resultado);
+        return switch (resultado) {
+            case PAGADA, YA_PAGADA -> ResponseEntity.noContent().build();
+            case CONFLICTO -> ResponseEntity.status(HttpStatus.CONFLICT).build();
+            case NO_ENCONTRADA -> ResponseEntity.notFound().build();
+        };
+    }
+
+    // 202 con el trabajo; su estado se consulta en la URL de Location
+    @PostMapping("/documentos")
+    public ResponseEntity<RenderizadorFacturas.EstadoTrabajo> generarDocumentos(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+        if (hasta.isBefore(desde)) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            RenderizadorFacturas.EstadoTrabajo trabajo = renderizadorFacturas.encolarPeriodo(desde, hasta);
+            logger.info("Generación de documentos encolada. Trabajo: {}", trabajo.id());
+            return ResponseEntity.accepted().location(URI.create("/facturas/documentos/" + trabajo.id())).body(trabajo);
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "60").build();
+        }
+    }
+
+    @GetMapping("/documentos/{idTrabajo}")
+    public ResponseEntity<RenderizadorFacturas.EstadoTrabajo> consultarDocumentos(@PathVariable String idTrabajo) {
+        return renderizadorFacturas.consultarTrabajo(idTrabajo)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     @PostMapping
     public ResponseEntity<FacturaEntity> crearFactura(@RequestBody @Valid FacturaEntity nuevaFactura) {
-        FacturaEntity facturaCreada = facturaService.crearFactura(nuevaFactura);
+        FacturaEntity facturaCreada;
+        try {
+            facturaCreada = facturaService.crearFactura(nuevaFactura);
+        } catch (IllegalStateException e) {
+            logger.info("Factura rechazada: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
         logger.info("Factura creada con éxito. Número de Factura: {}", facturaCreada.getNumeroFactura());
-        return ResponseEntity.status(HttpStatus.CREATED).body(facturaCreada);
+        return ResponseEntity.status(HttpStatus.CREATED).eTag(VersionEtag.etag(facturaCreada.getVersion())).body(facturaCreada);
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<FacturaEntity> actualizarFactura(@PathVariable Long id, @RequestBody @Valid FacturaEntity facturaActualizada) {
-        return facturaService.actualizarFactura(id, facturaActualizada)
-                .map(factura -> {
-                    logger.info("Actualizando factura con ID: {}", id);
-                    return ResponseEntity.ok(factura);
-                })
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<FacturaEntity> actualizarFactura(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody @Valid FacturaEntity facturaActualizada) {
+        if (VersionEtag.sinPrecondicion(ifMatch, facturaActualizada.getVersion())) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_REQUIRED).build();
+        }
+        try {
+            return facturaService.actualizarFactura(id,
+                            VersionEtag.versionEsperada(ifMatch, facturaActualizada.getVersion()), facturaActualizada)
+                    .map(factura -> {
+                        logger.info("Actualizando factura con ID: {}", id);
+                        return ResponseEntity.ok().eTag(VersionEtag.etag(factura.getVersion())).body(factura);
+                    })
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (OptimisticLockingFailureException e) {
+            logger.info("Actualización rechazada por versión obsoleta. Factura ID: {}", id);
+            // Con el ETag vigente: el cliente sabe qué versión releer sin otro GET
+            String etag = facturaService.obtenerFacturaPorId(id)
+                    .map(factura -> VersionEtag.etag(factura.getVersion()))
+                    .orElse(null);
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).eTag(etag).build();
+        } catch (IllegalStateException e) {
+            logger.info("Actualización rechazada. Factura ID: {}. {}", id, e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
     }
 
     @DeleteMapping("/{id}")
@@ -0,0 +1,36 @@
+package com.energia.enrique.facturacionservice.documento;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compila cada plantilla de classpath:plantillas/ una sola vez por proceso.
+ */
+@Component
+public class CachePlantillas {
+
+    private final Map<String, PlantillaCompilada> plantillas = new ConcurrentHashMap<>();
+
+    public PlantillaCompilada obtener(String nombre) {
+        return plantillas.computeIfAbsent(nombre, this::cargar);
+    }
+
+    public void invalidar(String nombre) {
+        plantillas.remove(nombre);
+    }
+
+    private PlantillaCompilada cargar(String nombre) {
+        try (InputStream entrada = new ClassPathResource("plantillas/" + nombre).getInputStream()) {
+            return PlantillaCompilada.compilar(nombre, new String(entrada.readAllBytes(), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer la plantilla " + nombre, e);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.energia.enrique.facturacionservice.documento;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Guarda los documentos como archivos bajo un directorio raíz.
+ */
+public class DestinoArchivos implements DestinoDocumentos {
+
+    private final Path raiz;
+    // Evita un createDirectories por documento: cada carpeta de periodo se crea una vez
+    private final Set<Path> directoriosCreados = ConcurrentHashMap.newKeySet();
+
+    public DestinoArchivos(Path raiz) {
+        this.raiz = raiz;
+    }
+
+    @Override
+    public WritableByteChannel abrir(String nombre) throws IOException {
+        Path archivo = raiz.resolve(nombre);
+        Path directorio = archivo.getParent();
+        if (directorio != null && !directoriosCreados.contains(directorio)) {
+            Files.createDirectories(directorio);
+            directoriosCreados.add(directorio);
+        }
+        return FileChannel.open(archivo, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+    }
+}
@@ -0,0 +1,13 @@
+package com.energia.enrique.facturacionservice.documento;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Lugar donde se guardan los documentos generados. El documento queda
+ * guardado al cerrar el canal.
+ */
+public interface DestinoDocumentos {
+
+    WritableByteChannel abrir(String nombre) throws IOException;
+}
@@ -0,0 +1,72 @@
+package com.energia.enrique.facturacionservice.documento;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sustituto de un almacén de objetos: cada documento es un objeto que se
+ * publica completo al cerrar el canal, como en un PUT.
+ */
+public class DestinoObjetosEnMemoria implements DestinoDocumentos {
+
+    private final Map<String, byte[]> objetos = new ConcurrentHashMap<>();
+
+    @Override
+    public WritableByteChannel abrir(String nombre) {
+        return new CanalObjeto(nombre);
+    }
+
+    public Optional<byte[]> obtener(String nombre) {
+        return Optional.ofNullable(objetos.get(nombre));
+    }
+
+    public int cantidad() {
+        return objetos.size();
+    }
+
+    private final class CanalObjeto implements WritableByteChannel {
+
+        private final String nombre;
+        private final ByteArrayOutputStream contenido = new ByteArrayOutputStream();
+        private boolean abierto = true;
+
+        private CanalObjeto(String nombre) {
+            this.nombre = nombre;
+        }
+
+        @Override
+        public int write(ByteBuffer origen) throws IOException {
+            if (!abierto) {
+                throw new IOException("Canal cerrado: " + nombre);
+            }
+            int cantidad = origen.remaining();
+            if (origen.hasArray()) {
+                contenido.write(origen.array(), origen.arrayOffset() + origen.position(), cantidad);
+                origen.position(origen.limit());
+            } else {
+                byte[] copia = new byte[cantidad];
+                origen.get(copia);
+                contenido.write(copia, 0, cantidad);
+            }
+            return cantidad;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return abierto;
+        }
+
+        @Override
+        public void close() {
+            if (abierto) {
+                abierto = false;
+                objetos.put(nombre, contenido.toByteArray());
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.energia.enrique.facturacionservice.documento;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Medidores de un hilo del pool de renderizado, con la etiqueta trabajador.
+ * La cantidad de documentos y su ritmo salen del timer.
+ */
+final class MetricasTrabajador {
+
+    private final Timer renderizado;
+    private final Counter bytes;
+    private final Counter errores;
+
+    MetricasTrabajador(MeterRegistry registro, String trabajador) {
+        this.renderizado = Timer.builder("energia.facturacion.documentos")
+                .description("Documentos de factura generados y su tiempo de renderizado y escritura")
+                .tag("trabajador", trabajador)
+                .register(registro);
+        this.bytes = Counter.builder("energia.facturacion.documentos.bytes")
+                .description("Bytes escritos en el destino de documentos")
+                .baseUnit("bytes")
+                .tag("trabajador", trabajador)
+                .register(registro);
+        this.errores = Counter.builder("energia.facturacion.documentos.errores")
+                .description("Documentos de factura que no se pudieron generar")
+                .tag("trabajador", trabajador)
+                .register(registro);
+    }
+
+    void registrarDocumento(long bytesEscritos, long nanos) {
+        renderizado.record(nanos, TimeUnit.NANOSECONDS);
+        bytes.increment(bytesEscritos);
+    }
+
+    void registrarError() {
+        errores.increment();
+    }
+}
@@ -0,0 +1,104 @@
+package com.energia.enrique.facturacionservice.documento;
+
+import com.energia.enrique.facturacionservice.model.FacturaEntity;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Plantilla de factura ya analizada: una secuencia de textos fijos y campos
+ * resueltos de antemano. Renderizar solo concatena, sin volver a recorrer el
+ * texto de la plantilla ni usar reflexión. Es inmutable y se comparte entre hilos.
+ */
+public final class PlantillaCompilada {
+
+    private static final String APERTURA = "{{";
+    private static final String CIERRE = "}}";
+
+    private static final Map<String, Function<FacturaEntity, Object>> CAMPOS = Map.ofEntries(
+            Map.entry("id", FacturaEntity::getId),
+            Map.entry("numeroFactura", FacturaEntity::getNumeroFactura),
+            Map.entry("numeroTimbrado", FacturaEntity::getNumeroTimbrado),
+            Map.entry("fechaEmision", FacturaEntity::getFechaEmision),
+            Map.entry("fechaVencimiento", FacturaEntity::getFechaVencimiento),
+            Map.entry("montoTotal", factura -> formatearMonto(factura.getMontoTotal())),
+            Map.entry("categoria", FacturaEntity::getCategoria),
+            Map.entry("actividad", FacturaEntity::getActividad),
+            Map.entry("idContrato", FacturaEntity::getIdContrato),
+            Map.entry("estadoPago", FacturaEntity::getEstadoPago)
+    );
+
+    private final String nombre;
+    private final String[] textos;
+    private final List<Function<FacturaEntity, Object>> campos;
+
+    private PlantillaCompilada(String nombre, String[] textos, List<Function<FacturaEntity, Object>> campos) {
+        this.nombre = nombre;
+        this.textos = textos;
+        this.campos = campos;
+    }
+
+    /**
+     * Analiza el texto de la plantilla. Los marcadores tienen la forma {{campo}}
+     * y un campo desconocido se rechaza aquí, no al renderizar.
+     */
+    public static PlantillaCompilada compilar(String nombre, String fuente) {
+        List<String> textos = new ArrayList<>();
+        List<Function<FacturaEntity, Object>> campos = new ArrayList<>();
+        int posicion = 0;
+        while (true) {
+            int inicio = fuente.indexOf(APERTURA, posicion);
+            if (inicio < 0) {
+                textos.add(fuente.substring(posicion));
+                break;
+            }
+            int fin = fuente.indexOf(CIERRE, inicio);
+            if (fin < 0) {
+                throw new IllegalArgumentException("Marcador sin cerrar en la plantilla " + nombre + " (posición " + inicio + ")");
+            }
+            String campo = fuente.substring(inicio + APERTURA.length(), fin).trim();
+            Function<FacturaEntity, Object> accesor = CAMPOS.get(campo);
+            if (accesor == null) {
+                throw new IllegalArgumentException("Campo desconocido en la plantilla " + nombre + ": " + campo);
+            }
+            textos.add(fuente.substring(posicion, inicio));
+            campos.add(accesor);
+            posicion = fin + CIERRE.length();
+        }
+        return new PlantillaCompilada(nombre, textos.toArray(String[]::new), List.copyOf(campos));
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public void renderizar(FacturaEntity factura, StringBuilder destino) {
+        for (int i = 0; i < campos.size(); i++) {
+            destino.append(textos[i]);
+            escaparHtml(Objects.toString(campos.get(i).apply(factura), ""), destino);
+        }
+        destino.append(textos[textos.length - 1]);
+    }
+
+    private static String formatearMonto(Double monto) {
+        return monto == null ? "" : BigDecimal.valueOf(monto).setScale(2, RoundingMode.HALF_UP).toPlainString();
+    }
+
+    private static void escaparHtml(String valor, StringBuilder destino) {
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            switch (c) {
+                case '<' -> destino.append("&lt;");
+                case '>' -> destino.append("&gt;");
+                case '&' -> destino.append("&amp;");
+                case '"' -> destino.append("&quot;");
+                default -> destino.append(c);
+            }
+        }
+    }
+}
@@ -0,0 +1,315 @@
+package com.energia.enrique.facturacionservice.documento;
+
+import com.energia.enrique.facturacionservice.model.FacturaEntity;
+import com.energia.enrique.facturacionservice.repository.FacturaRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Genera el documento imprimible de cada factura en un pool de hilos acotado.
+ *
+ * La plantilla se compila una vez (CachePlantillas) y cada hilo reutiliza su
+ * propio StringBuilder, codificador y buffer directo, así que renderizar una
+ * factura no reserva memoria proporcional al documento. El texto se codifica
+ * por tramos directamente sobre el canal del destino.
+ *
+ * Contrapresión: como mucho hay capacidad-cola documentos en vuelo; al
+ * llenarse, el hilo que recorre el periodo queda esperando en vez de seguir
+ * leyendo facturas de la base.
+ *
+ * Los periodos pedidos por HTTP se recorren de a uno en un hilo propio, como
+ * trabajos con id que se consultan después; la petición no espera al renderizado.
+ */
+@Service
+public class RenderizadorFacturas {
+
+    private static final int TAMANO_BUFFER = 64 * 1024;
+    // Mayor que los trabajos que pueden estar en cola: solo se olvidan trabajos terminados
+    private static final int TRABAJOS_RECORDADOS = 100;
+
+    private final Logger logger = LoggerFactory.getLogger(RenderizadorFacturas.class);
+
+    private final FacturaRepository facturaRepository;
+    private final CachePlantillas cachePlantillas;
+    private final DestinoDocumentos destinoDocumentos;
+    private final String nombrePlantilla;
+    private final int tamanoLote;
+
+    private final MeterRegistry registro;
+    private final ThreadPoolExecutor pool;
+    private final ThreadPoolExecutor periodos;
+    private final Semaphore enVuelo;
+    private final ThreadLocal<RecursosTrabajador> recursos = ThreadLocal.withInitial(this::crearRecursos);
+    private final Map<String, EstadoTrabajo> trabajos = Collections.synchronizedMap(new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, EstadoTrabajo> masViejo) {
+            return size() > TRABAJOS_RECORDADOS;
+        }
+    });
+
+    public RenderizadorFacturas(FacturaRepository facturaRepository, CachePlantillas cachePlantillas,
+                                DestinoDocumentos destinoDocumentos, MeterRegistry registro,
+                                @Value("${energia.facturacion.documentos.plantilla:factura.html}") String nombrePlantilla,
+                                @Value("${energia.facturacion.documentos.hilos:4}") int hilos,
+                                @Value("${energia.facturacion.documentos.capacidad-cola:256}") int capacidadCola,
+                                @Value("${energia.facturacion.documentos.tamano-lote:500}") int tamanoLote,
+                                @Value("${energia.facturacion.documentos.trabajos-en-cola:8}") int trabajosEnCola) {
+        this.facturaRepository = facturaRepository;
+        this.registro = registro;
+        this.cachePlantillas = cachePlantillas;
+        this.destinoDocumentos = destinoDocumentos;
+        this.nombrePlantilla = nombrePlantilla;
+        this.tamanoLote = tamanoLote;
+        this.enVuelo = new Semaphore(capacidadCola);
+
+        AtomicInteger contador = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(hilos, hilos, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                tarea -> {
+                    Thread hilo = new Thread(tarea, "factura-documento-" + contador.incrementAndGet());
+                    hilo.setDaemon(true);
+                    return hilo;
+                });
+        this.periodos = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(trabajosEnCola),
+                tarea -> {
+                    Thread hilo = new Thread(tarea, "factura-documentos-periodo");
+                    hilo.setDaemon(true);
+                    return hilo;
+                });
+    }
+
+    /**
+     * Encola la generación de los documentos del periodo y vuelve enseguida.
+     * @return El trabajo, en estado EN_COLA, para consultarlo con {@link #consultarTrabajo}
+     * @throws RejectedExecutionException si ya hay trabajos-en-cola periodos esperando
+     */
+    public EstadoTrabajo encolarPeriodo(LocalDate desde, LocalDate hasta) {
+        EstadoTrabajo trabajo = new EstadoTrabajo(UUID.randomUUID().toString(), desde, hasta, Estado.EN_COLA, null, null);
+        trabajos.put(trabajo.id(), trabajo);
+        try {
+            periodos.execute(() -> ejecutarTrabajo(trabajo));
+        } catch (RejectedExecutionException e) {
+            trabajos.remove(trabajo.id());
+            throw e;
+        }
+        return trabajo;
+    }
+
+    public Optional<EstadoTrabajo> consultarTrabajo(String id) {
+        return Optional.ofNullable(trabajos.get(id));
+    }
+
+    private void ejecutarTrabajo(EstadoTrabajo trabajo) {
+        trabajos.put(trabajo.id(), trabajo.con(Estado.EN_CURSO, null, null));
+        try {
+            ResumenRenderizado resumen = renderizarPeriodo(trabajo.desde(), trabajo.hasta());
+            trabajos.put(trabajo.id(), trabajo.con(Estado.TERMINADO, resumen, null));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            trabajos.put(trabajo.id(), trabajo.con(Estado.FALLIDO, null, "Interrumpido"));
+        } catch (RuntimeException e) {
+            logger.error("Falló la generación de documentos del trabajo {}: {}", trabajo.id(), e.getMessage(), e);
+            trabajos.put(trabajo.id(), trabajo.con(Estado.FALLIDO, null, e.getMessage()));
+        }
+    }
+
+    /**
+     * Genera los documentos de todas las facturas emitidas en el periodo y
+     * espera a que terminen. Las facturas se leen por lotes en orden de id.
+     */
+    public ResumenRenderizado renderizarPeriodo(LocalDate desde, LocalDate hasta) throws InterruptedException {
+        // Compila (o valida) la plantilla antes de empezar a leer facturas
+        cachePlantillas.obtener(nombrePlantilla);
+
+        long inicio = System.nanoTime();
+        Ejecucion ejecucion = new Ejecucion();
+        long ultimoId = 0L;
+        try {
+            List<FacturaEntity> lote;
+            do {
+                lote = facturaRepository.findByFechaEmisionBetweenAndIdGreaterThanOrderById(
+                        desde, hasta, ultimoId, PageRequest.ofSize(tamanoLote));
+                for (FacturaEntity factura : lote) {
+                    enviar(factura, ejecucion);
+                }
+                if (!lote.isEmpty()) {
+                    ultimoId = lote.get(lote.size() - 1).getId();
+                }
+            } while (lote.size() == tamanoLote);
+        } finally {
+            ejecucion.pendientes.arriveAndAwaitAdvance();
+        }
+
+        ResumenRenderizado resumen = new ResumenRenderizado(ejecucion.correctos.sum(), ejecucion.errores.sum(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio));
+        logger.info("Documentos de facturas emitidas entre {} y {}: {}", desde, hasta, resumen);
+        return resumen;
+    }
+
+    private void enviar(FacturaEntity factura, Ejecucion ejecucion) throws InterruptedException {
+        enVuelo.acquire();
+        ejecucion.pendientes.register();
+        try {
+            pool.execute(() -> {
+                try {
+                    renderizar(factura);
+                    ejecucion.correctos.increment();
+                } catch (Exception e) {
+                    ejecucion.errores.increment();
+                    recursos.get().metricas.registrarError();
+                    logger.warn("No se pudo generar el documento de la factura {}: {}", factura.getId(), e.getMessage());
+                } finally {
+                    enVuelo.release();
+                    ejecucion.pendientes.arriveAndDeregister();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            enVuelo.release();
+            ejecucion.pendientes.arriveAndDeregister();
+            throw e;
+        }
+    }
+
+    private void renderizar(FacturaEntity factura) throws IOException {
+        long inicio = System.nanoTime();
+        RecursosTrabajador recursosHilo = recursos.get();
+        StringBuilder texto = recursosHilo.texto;
+        texto.setLength(0);
+        cachePlantillas.obtener(nombrePlantilla).renderizar(factura, texto);
+
+        long bytes;
+        try (WritableByteChannel canal = destinoDocumentos.abrir(nombreDocumento(factura))) {
+            bytes = escribir(texto, recursosHilo, canal);
+        }
+        recursosHilo.metricas.registrarDocumento(bytes, System.nanoTime() - inicio);
+    }
+
+    // Codifica el texto en tramos del tamaño del buffer y los vuelca al canal
+    private long escribir(CharSequence texto, RecursosTrabajador recursosHilo, WritableByteChannel canal)
+            throws IOException {
+        CharBuffer entrada = CharBuffer.wrap(texto);
+        CharsetEncoder codificador = recursosHilo.codificador.reset();
+        ByteBuffer salida = recursosHilo.salida;
+        salida.clear();
+        long total = 0;
+
+        CoderResult resultado;
+        do {
+            resultado = codificador.encode(entrada, salida, true);
+            verificar(resultado);
+            total += vaciar(salida, canal);
+        } while (resultado.isOverflow());
+        do {
+            resultado = codificador.flush(salida);
+            verificar(resultado);
+            total += vaciar(salida, canal);
+        } while (resultado.isOverflow());
+        return total;
+    }
+
+    private static void verificar(CoderResult resultado) throws CharacterCodingException {
+        if (resultado.isError()) {
+            resultado.throwException();
+        }
+    }
+
+    private static int vaciar(ByteBuffer salida, WritableByteChannel canal) throws IOException {
+        salida.flip();
+        int cantidad = salida.remaining();
+        while (salida.hasRemaining()) {
+            canal.write(salida);
+        }
+        salida.clear();
+        return cantidad;
+    }
+
+    // Un directorio por periodo de emisión: aaaa/mm/<número>.html
+    private static String nombreDocumento(FacturaEntity factura) {
+        LocalDate emision = factura.getFechaEmision();
+        String numero = factura.getNumeroFactura() != null ? factura.getNumeroFactura() : "id-" + factura.getId();
+        int mes = emision.getMonthValue();
+        return emision.getYear() + "/" + (mes < 10 ? "0" : "") + mes + "/" + numero + ".html";
+    }
+
+    private RecursosTrabajador crearRecursos() {
+        return new RecursosTrabajador(new MetricasTrabajador(registro, Thread.currentThread().getName()));
+    }
+
+    @PreDestroy
+    public void detener() throws InterruptedException {
+        // Corta el recorrido en curso; sus documentos ya enviados al pool terminan abajo
+        periodos.shutdownNow();
+        pool.shutdown();
+        if (!pool.awaitTermination(30, TimeUnit.SECONDS)) {
+            pool.shutdownNow();
+        }
+    }
+
+    public record ResumenRenderizado(long documentos, long errores, long milisegundos) {
+    }
+
+    public enum Estado {
+        EN_COLA,
+        EN_CURSO,
+        TERMINADO,
+        FALLIDO
+    }
+
+    /** {@code resumen} solo en TERMINADO y {@code error} solo en FALLIDO. */
+    public record EstadoTrabajo(String id, LocalDate desde, LocalDate hasta, Estado estado,
+                                ResumenRenderizado resumen, String error) {
+
+        private EstadoTrabajo con(Estado nuevoEstado, ResumenRenderizado nuevoResumen, String nuevoError) {
+            return new EstadoTrabajo(id, desde, hasta, nuevoEstado, nuevoResumen, nuevoError);
+        }
+    }
+
+    private static final class RecursosTrabajador {
+
+        private final StringBuilder texto = new StringBuilder(8 * 1024);
+        private final CharsetEncoder codificador = StandardCharsets.UTF_8.newEncoder();
+        private final ByteBuffer salida = ByteBuffer.allocateDirect(TAMANO_BUFFER);
+        private final MetricasTrabajador metricas;
+
+        private RecursosTrabajador(MetricasTrabajador metricas) {
+            this.metricas = metricas;
+        }
+    }
+
+    private static final class Ejecucion {
+
+        // El hilo que recorre el periodo es la parte fija; cada documento en vuelo se registra y se da de baja
+        private final Phaser pendientes = new Phaser(1);
+        private final LongAdder correctos = new LongAdder();
+        private final LongAdder errores = new LongAdder();
+    }
+}
@@ -0,0 +1,75 @@
+package com.energia.enrique.facturacionservice.eventos;
+
+import com.energia.shared.infrastructure.outbox.MensajeOutbox;
+import com.energia.shared.infrastructure.outbox.TransporteEnMemoria;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Mantiene {@code contrato_facturable} con los eventos de contrato. La entrega
+ * es al menos una vez y puede llegar desordenada entre instancias del relay:
+ * cada fila recuerda el id del último mensaje aplicado y no acepta uno anterior.
+ */
+@Component
+public class ProyeccionContratos {
+
+    static final String CONTRATO_CREADO = "ContratoCreado";
+    static final String CONTRATO_ACTUALIZADO = "ContratoActualizado";
+    static final String CONTRATO_ELIMINADO = "ContratoEliminado";
+
+    private static final String GUARDAR = "INSERT INTO contrato_facturable " +
+            "(id_contrato, id_cliente, ciclo_facturacion, ultimo_evento) VALUES (?, ?, ?, ?) " +
+            "ON CONFLICT (id_contrato) DO UPDATE SET id_cliente = EXCLUDED.id_cliente, " +
+            "ciclo_facturacion = EXCLUDED.ciclo_facturacion, ultimo_evento = EXCLUDED.ultimo_evento, actualizado_en = now() " +
+            "WHERE contrato_facturable.ultimo_evento < EXCLUDED.ultimo_evento";
+
+    private static final String DAR_DE_BAJA = "INSERT INTO contrato_facturable (id_contrato, dado_de_baja, ultimo_evento) " +
+            "VALUES (?, TRUE, ?) " +
+            "ON CONFLICT (id_contrato) DO UPDATE SET dado_de_baja = TRUE, ultimo_evento = EXCLUDED.ultimo_evento, actualizado_en = now() " +
+            "WHERE contrato_facturable.ultimo_evento < EXCLUDED.ultimo_evento";
+
+    private static final String DADO_DE_BAJA = "SELECT dado_de_baja FROM contrato_facturable WHERE id_contrato = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public ProyeccionContratos(TransporteEnMemoria receptorEventos, JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        receptorEventos.suscribir(CONTRATO_CREADO, this::guardar);
+        receptorEventos.suscribir(CONTRATO_ACTUALIZADO, this::guardar);
+        receptorEventos.suscribir(CONTRATO_ELIMINADO, this::darDeBaja);
+    }
+
+    /**
+     * @return true solo si llegó la baja del contrato; uno desconocido todavía no se rechaza
+     */
+    public boolean dadoDeBaja(Long idContrato) {
+        List<Boolean> baja = jdbcTemplate.queryForList(DADO_DE_BAJA, Boolean.class, idContrato);
+        return !baja.isEmpty() && baja.get(0);
+    }
+
+    private void guardar(MensajeOutbox mensaje) {
+        JsonNode datos = leer(mensaje);
+        jdbcTemplate.update(GUARDAR, Long.parseLong(mensaje.getIdAgregado()),
+                datos.path("idCliente").isNumber() ? datos.get("idCliente").asLong() : null,
+                datos.path("cicloFacturacion").asText(null), mensaje.getId());
+    }
+
+    private void darDeBaja(MensajeOutbox mensaje) {
+        jdbcTemplate.update(DAR_DE_BAJA, Long.parseLong(mensaje.getIdAgregado()), mensaje.getId());
+    }
+
+    private JsonNode leer(MensajeOutbox mensaje) {
+        try {
+            return objectMapper.readTree(mensaje.getPayload());
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Payload inválido en el evento " + mensaje.getId(), e);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.energia.enrique.facturacionservice.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDate;
+
+/**
+ * Factura de un periodo cerrado, movida fuera de las particiones activas.
+ * La fila original se conserva completa en {@code datos} (JSONB comprimido).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "factura_archivo")
+public class FacturaArchivadaEntity {
+
+    @Id
+    private Long id;
+
+    @Column(name = "fecha_emision")
+    private LocalDate fechaEmision;
+
+    @Column(name = "id_contrato")
+    private Long idContrato;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "datos")
+    private String datos;
+}
@@ -11,6 +11,7 @@ import lombok.NoArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 @Data
 @NoArgsConstructor
@@ -23,11 +24,14 @@ public class FacturaEntity {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @NotBlank(message = "El número de factura no puede estar en blanco")
+    // Lo asigna NumeradorFacturas al crear la factura
     @Size(max = 50, message = "El número de factura debe tener como máximo 50 caracteres")
     @Column(name = "numero_factura")
     private String numeroFactura;
 
+    @Column(name = "numero_secuencia")
+    private Long numeroSecuencia;
+
     @NotBlank(message = "El número de timbrado no puede estar en blanco")
     @Size(max = 50, message = "El número de timbrado debe tener como máximo 50 caracteres")
     @Column(name = "numero_timbrado")
@@ -58,4 +62,25 @@ public class FacturaEntity {
     @NotNull(message = "El ID del contrato no puede ser nulo")
     @Column(name = "id_contrato")
     private Long idContrato;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "estado_pago", nullable = false, length = 20)
+    private EstadoPago estadoPago = EstadoPago.PENDIENTE;
+
+    @Column(name = "fecha_pago")
+    private LocalDateTime fechaPago;
+
+    @Size(max = 100, message = "La referencia de pago debe tener como máximo 100 caracteres")
+    @Column(name = "referencia_pago")
+    private String referenciaPago;
+
+    // Se expone como ETag; en PUT el cliente la devuelve en If-Match (o en el cuerpo)
+    @Version
+    private Long version;
+
+    public enum EstadoPago {
+        PENDIENTE,
+        PAGADA,
+        ANULADA
+    }
 }
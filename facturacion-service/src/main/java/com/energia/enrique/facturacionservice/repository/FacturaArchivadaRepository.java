@@ -0,0 +1,12 @@
+package com.energia.enrique.facturacionservice.repository;
+
+import com.energia.enrique.facturacionservice.model.FacturaArchivadaEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface FacturaArchivadaRepository extends JpaRepository<FacturaArchivadaEntity, Long> {
+
+    List<FacturaArchivadaEntity> findByFechaEmisionBetweenOrderByFechaEmision(LocalDate desde, LocalDate hasta);
+}
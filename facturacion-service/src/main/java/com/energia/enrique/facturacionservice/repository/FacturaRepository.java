@@ -1,7 +1,58 @@
 package com.energia.enrique.facturacionservice.repository;
 
 import com.energia.enrique.facturacionservice.model.FacturaEntity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 public interface FacturaRepository extends JpaRepository <FacturaEntity,Long> {
+
+    // El filtro por fecha_emision permite a PostgreSQL descartar particiones fuera del rango
+    List<FacturaEntity> findByFechaEmisionBetweenOrderByFechaEmision(LocalDate desde, LocalDate hasta);
+
+    // Recorrido por lotes para la generación de documentos: se continúa desde el último id leído
+    List<FacturaEntity> findByFechaEmisionBetweenAndIdGreaterThanOrderById(LocalDate desde, LocalDate hasta,
+                                                                           Long id, Pageable pageable);
+
+    // El estado va como literal para que el planificador pueda usar los índices parciales de pendientes
+    @Query(value = "SELECT * FROM factura WHERE estado_pago = 'PENDIENTE' " +
+            "AND fecha_vencimiento BETWEEN :desde AND :hasta ORDER BY fecha_vencimiento", nativeQuery = true)
+    List<FacturaEntity> buscarPendientesConVencimientoEntre(@Param("desde") LocalDate desde,
+                                                            @Param("hasta") LocalDate hasta);
+
+    @Query(value = "SELECT * FROM factura WHERE estado_pago = 'PENDIENTE' " +
+            "AND id_contrato = :idContrato AND fecha_vencimiento < :fecha ORDER BY fecha_vencimiento", nativeQuery = true)
+    List<FacturaEntity> buscarVencidasPorContrato(@Param("idContrato") Long idContrato,
+                                                  @Param("fecha") LocalDate fecha);
+
+    // Lote para la vista 360 de cliente: recorre idx_factura_pendiente_contrato una vez por contrato
+    @Query(value = "SELECT * FROM factura WHERE estado_pago = 'PENDIENTE' " +
+            "AND id_contrato IN (:idsContrato) ORDER BY id_contrato, fecha_vencimiento", nativeQuery = true)
+    List<FacturaEntity> buscarPendientesPorContratos(@Param("idsContrato") Collection<Long> idsContrato);
+
+    // Transición atómica PENDIENTE -> PAGADA: de dos callbacks concurrentes solo uno actualiza la fila
+    @Modifying
+    @Query(value = "UPDATE factura SET estado_pago = 'PAGADA', fecha_pago = :fechaPago, " +
+            "referencia_pago = :referencia, version = version + 1 " +
+            "WHERE id = :id AND estado_pago = 'PENDIENTE'", nativeQuery = true)
+    int marcarPagada(@Param("id") Long id, @Param("referencia") String referencia,
+                     @Param("fechaPago") LocalDateTime fechaPago);
+
+    // Un solo UPDATE, sin lectura previa. Con versión solo escribe si nadie actualizó la fila desde
+    // que el cliente la leyó; RETURNING devuelve la fila ya incrementada. Una factura ya numerada
+    // no cambia de timbrado: su número es correlativo dentro del timbrado con el que se emitió.
+    @Query(value = "UPDATE factura SET numero_timbrado = :numeroTimbrado, version = version + 1 " +
+            "WHERE id = :id AND (CAST(:version AS BIGINT) IS NULL OR version = :version) " +
+            "AND (numero_secuencia IS NULL OR numero_timbrado IS NOT DISTINCT FROM :numeroTimbrado) " +
+            "RETURNING *", nativeQuery = true)
+    Optional<FacturaEntity> actualizarSiVersion(@Param("id") Long id, @Param("version") Long version,
+                                                @Param("numeroTimbrado") String numeroTimbrado);
 }
@@ -0,0 +1,91 @@
+package com.energia.enrique.facturacionservice.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Contador durable de numeración por timbrado (numeracion_timbrado), bloques
+ * reservados (numeracion_bloque) y números anulados (numeracion_anulada).
+ */
+@Repository
+@RequiredArgsConstructor
+public class NumeracionRepository {
+
+    private static final String ABIERTO = "ABIERTO";
+    private static final String CERRADO = "CERRADO";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Reserva los siguientes {@code tamano} números del timbrado en una transacción
+     * propia, para que la fila del contador quede bloqueada lo mínimo.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public BloqueReservado reservarBloque(String numeroTimbrado, int tamano, String instancia) {
+        jdbcTemplate.update("INSERT INTO numeracion_timbrado (numero_timbrado) VALUES (?) ON CONFLICT DO NOTHING",
+                numeroTimbrado);
+        Long hasta = jdbcTemplate.queryForObject(
+                "UPDATE numeracion_timbrado SET ultimo_reservado = ultimo_reservado + ? " +
+                "WHERE numero_timbrado = ? RETURNING ultimo_reservado",
+                Long.class, tamano, numeroTimbrado);
+        long desde = hasta - tamano + 1;
+        Long id = jdbcTemplate.queryForObject(
+                "INSERT INTO numeracion_bloque (numero_timbrado, desde, hasta, instancia, estado, fecha_reserva) " +
+                "VALUES (?, ?, ?, ?, ?, now()) RETURNING id",
+                Long.class, numeroTimbrado, desde, hasta, instancia, ABIERTO);
+        return new BloqueReservado(id, desde, hasta);
+    }
+
+    public void cerrarBloque(long id) {
+        jdbcTemplate.update("UPDATE numeracion_bloque SET estado = ?, fecha_cierre = now() WHERE id = ? AND estado = ?",
+                CERRADO, id, ABIERTO);
+    }
+
+    /** @return Bloques cerrados */
+    public int cerrarBloquesDeInstancia(String instancia) {
+        return jdbcTemplate.update(
+                "UPDATE numeracion_bloque SET estado = ?, fecha_cierre = now() WHERE instancia = ? AND estado = ?",
+                CERRADO, instancia, ABIERTO);
+    }
+
+    public void cerrarBloquesReservadosAntesDe(LocalDateTime vencimiento) {
+        jdbcTemplate.update("UPDATE numeracion_bloque SET estado = ?, fecha_cierre = now() " +
+                "WHERE estado = ? AND fecha_reserva < ?", CERRADO, ABIERTO, Timestamp.valueOf(vencimiento));
+    }
+
+    /**
+     * Registra como anulados los números sin factura de hasta {@code lote} bloques
+     * cerrados antes del límite y los marca como conciliados.
+     * @return Números anulados
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public int conciliarCerradosAntesDe(LocalDateTime limite, int lote) {
+        int total = 0;
+        List<Map<String, Object>> pendientes = jdbcTemplate.queryForList(
+                "SELECT id, numero_timbrado, desde, hasta FROM numeracion_bloque " +
+                "WHERE estado = ? AND NOT conciliado AND fecha_cierre < ? " +
+                "ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED", CERRADO, Timestamp.valueOf(limite), lote);
+        for (Map<String, Object> bloque : pendientes) {
+            total += jdbcTemplate.update(
+                    "INSERT INTO numeracion_anulada (numero_timbrado, numero_secuencia, id_bloque, fecha_anulacion) " +
+                    "SELECT ?, n, ?, now() FROM generate_series(?::bigint, ?::bigint) AS n " +
+                    "WHERE NOT EXISTS (SELECT 1 FROM factura f WHERE f.numero_timbrado = ? AND f.numero_secuencia = n) " +
+                    "ON CONFLICT DO NOTHING",
+                    bloque.get("numero_timbrado"), bloque.get("id"), bloque.get("desde"), bloque.get("hasta"),
+                    bloque.get("numero_timbrado"));
+            jdbcTemplate.update("UPDATE numeracion_bloque SET conciliado = TRUE WHERE id = ?", bloque.get("id"));
+        }
+        return total;
+    }
+
+    public record BloqueReservado(long id, long desde, long hasta) {
+    }
+}
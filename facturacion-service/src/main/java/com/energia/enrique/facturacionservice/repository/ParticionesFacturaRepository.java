@@ -0,0 +1,113 @@
+package com.energia.enrique.facturacionservice.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Particiones mensuales de factura y su partición default. Los nombres de
+ * tabla se arman desde {@link YearMonth}, nunca desde entrada externa.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ParticionesFacturaRepository {
+
+    private static final Pattern NOMBRE_PARTICION = Pattern.compile("factura_p(\\d{4})(\\d{2})");
+    private static final String DEFAULT = "factura_default";
+
+    private static final String SQL_PARTICIONES =
+            "SELECT c.relname FROM pg_inherits i " +
+            "JOIN pg_class c ON c.oid = i.inhrelid " +
+            "JOIN pg_class p ON p.oid = i.inhparent " +
+            "JOIN pg_namespace n ON n.oid = p.relnamespace " +
+            "WHERE p.relname = 'factura' AND n.nspname = current_schema()";
+
+    private static final String SQL_MESES_EN_DEFAULT =
+            "SELECT DISTINCT date_trunc('month', fecha_emision)::date FROM " + DEFAULT + " ORDER BY 1";
+
+    private static final String SQL_ARCHIVAR =
+            "INSERT INTO factura_archivo (id, fecha_emision, id_contrato, datos) " +
+            "SELECT f.id, f.fecha_emision, f.id_contrato, to_jsonb(f) FROM %s f " +
+            "ON CONFLICT (id) DO NOTHING";
+
+    // Un solo recorrido: lo que se borra de default es lo que entra al archivo
+    private static final String SQL_ARCHIVAR_DE_DEFAULT =
+            "WITH movidas AS (DELETE FROM " + DEFAULT + " WHERE fecha_emision >= ? AND fecha_emision < ? RETURNING *) " +
+            "INSERT INTO factura_archivo (id, fecha_emision, id_contrato, datos) " +
+            "SELECT m.id, m.fecha_emision, m.id_contrato, to_jsonb(m) FROM movidas m " +
+            "ON CONFLICT (id) DO NOTHING";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /** Meses con partición propia, ordenados. */
+    public List<YearMonth> mesesConParticion() {
+        List<YearMonth> meses = new ArrayList<>();
+        for (String nombre : jdbcTemplate.queryForList(SQL_PARTICIONES, String.class)) {
+            Matcher matcher = NOMBRE_PARTICION.matcher(nombre);
+            if (matcher.matches()) {
+                meses.add(YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))));
+            }
+        }
+        meses.sort(null);
+        return meses;
+    }
+
+    /** Meses que tienen facturas en la partición default, ordenados. */
+    public List<YearMonth> mesesEnDefault() {
+        return jdbcTemplate.queryForList(SQL_MESES_EN_DEFAULT, Date.class).stream()
+                .map(fecha -> YearMonth.from(fecha.toLocalDate()))
+                .toList();
+    }
+
+    /**
+     * Crea la partición del mes si no existe, llevándole las facturas del mes que estaban en default.
+     */
+    @Transactional
+    public void crearParticion(YearMonth mes) {
+        jdbcTemplate.query("SELECT crear_particion_factura(?)", (RowCallbackHandler) rs -> { }, mes.atDay(1));
+    }
+
+    /**
+     * @param enDefault true para mirar las facturas del mes en la partición default
+     */
+    public boolean conPendientes(YearMonth mes, boolean enDefault) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM " + tabla(mes, enDefault) +
+                " WHERE estado_pago = 'PENDIENTE' AND fecha_emision >= ? AND fecha_emision < ?)", Boolean.class,
+                mes.atDay(1), mes.plusMonths(1).atDay(1)));
+    }
+
+    /**
+     * Copia la partición del mes al archivo y la elimina, en una transacción.
+     * @return Facturas archivadas
+     */
+    @Transactional
+    public int archivarParticion(YearMonth mes) {
+        String particion = tabla(mes, false);
+        int archivadas = jdbcTemplate.update(SQL_ARCHIVAR.formatted(particion));
+        jdbcTemplate.execute("ALTER TABLE factura DETACH PARTITION " + particion);
+        jdbcTemplate.execute("DROP TABLE " + particion);
+        return archivadas;
+    }
+
+    /**
+     * Mueve al archivo las facturas del mes que quedaron en la partición default.
+     * @return Facturas archivadas
+     */
+    @Transactional
+    public int archivarDeDefault(YearMonth mes) {
+        return jdbcTemplate.update(SQL_ARCHIVAR_DE_DEFAULT, mes.atDay(1), mes.plusMonths(1).atDay(1));
+    }
+
+    private static String tabla(YearMonth mes, boolean enDefault) {
+        return enDefault ? DEFAULT : String.format("factura_p%04d%02d", mes.getYear(), mes.getMonthValue());
+    }
+}
@@ -0,0 +1,63 @@
+package com.energia.enrique.facturacionservice.service;
+
+import com.energia.enrique.facturacionservice.model.FacturaArchivadaEntity;
+import com.energia.enrique.facturacionservice.model.FacturaEntity;
+import com.energia.enrique.facturacionservice.repository.FacturaArchivadaRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Lectura de facturas archivadas. Las filas se guardaron con to_jsonb(factura),
+ * por lo que las claves vienen con los nombres de columna (snake_case).
+ */
+@Service
+public class ArchivoFacturasService {
+
+    private final FacturaArchivadaRepository facturaArchivadaRepository;
+    private final ObjectMapper lectorFilas;
+    private final int mesesRetencion;
+
+    public ArchivoFacturasService(FacturaArchivadaRepository facturaArchivadaRepository, ObjectMapper objectMapper,
+                                  @Value("${energia.facturacion.particiones.meses-retencion:24}") int mesesRetencion) {
+        this.facturaArchivadaRepository = facturaArchivadaRepository;
+        this.lectorFilas = objectMapper.copy()
+                .setPropertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE)
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        this.mesesRetencion = mesesRetencion;
+    }
+
+    public Optional<FacturaEntity> buscarPorId(Long id) {
+        return facturaArchivadaRepository.findById(id).map(this::aFactura);
+    }
+
+    public List<FacturaEntity> buscarPorPeriodo(LocalDate desde, LocalDate hasta) {
+        return facturaArchivadaRepository.findByFechaEmisionBetweenOrderByFechaEmision(desde, hasta).stream()
+                .map(this::aFactura)
+                .toList();
+    }
+
+    /**
+     * Primer día que con seguridad sigue en las particiones activas. Un rango que
+     * empieza antes puede tener facturas en el archivo.
+     */
+    public LocalDate inicioPeriodoActivo() {
+        return YearMonth.now().minusMonths(mesesRetencion).atDay(1);
+    }
+
+    private FacturaEntity aFactura(FacturaArchivadaEntity archivada) {
+        try {
+            return lectorFilas.readValue(archivada.getDatos(), FacturaEntity.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Factura archivada ilegible, ID: " + archivada.getId(), e);
+        }
+    }
+}
@@ -2,7 +2,10 @@ package com.energia.enrique.facturacionservice.service;
 
 import com.energia.enrique.facturacionservice.model.FacturaEntity;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface FacturaService {
@@ -10,9 +13,37 @@ public interface FacturaService {
 
     Optional<FacturaEntity> obtenerFacturaPorId(Long id);
 
+    List<FacturaEntity> obtenerFacturasPorPeriodo(LocalDate desde, LocalDate hasta);
+
+    /**
+     * @throws IllegalStateException si el contrato ya está dado de baja
+     */
     FacturaEntity crearFactura(FacturaEntity nuevaFactura);
 
-    Optional<FacturaEntity> actualizarFactura(Long id, FacturaEntity facturaActualizada);
+    /**
+     * @param versionEsperada Versión leída por el cliente; null actualiza sin condición
+     * @throws org.springframework.dao.OptimisticLockingFailureException si la versión ya no es la vigente
+     * @throws IllegalStateException si la factura ya está numerada y se pide otro timbrado
+     */
+    Optional<FacturaEntity> actualizarFactura(Long id, Long versionEsperada, FacturaEntity facturaActualizada);
 
     void eliminarFactura(Long id);
+
+    List<FacturaEntity> obtenerFacturasPorVencer(int dias);
+
+    List<FacturaEntity> obtenerFacturasVencidasPorContrato(Long idContrato);
+
+    /**
+     * @return Facturas pendientes agrupadas por contrato, por vencimiento; cada id pedido figura aunque no tenga
+     */
+    Map<Long, List<FacturaEntity>> obtenerPendientesPorContratos(Collection<Long> idsContrato);
+
+    ResultadoPago pagarFactura(Long id, String referenciaPago);
+
+    enum ResultadoPago {
+        PAGADA,
+        YA_PAGADA,
+        CONFLICTO,
+        NO_ENCONTRADA
+    }
 }
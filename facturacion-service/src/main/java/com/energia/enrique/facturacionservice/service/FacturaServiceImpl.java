@@ -1,18 +1,33 @@
 package com.energia.enrique.facturacionservice.service;
 
+import com.energia.enrique.facturacionservice.eventos.ProyeccionContratos;
 import com.energia.enrique.facturacionservice.model.FacturaEntity;
 import com.energia.enrique.facturacionservice.repository.FacturaRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
+@Timed(value = "energia.servicio", histogram = true)
 @RequiredArgsConstructor
 public class FacturaServiceImpl implements FacturaService {
 
     private final FacturaRepository facturaRepository;
+    private final ArchivoFacturasService archivoFacturasService;
+    private final NumeradorFacturas numeradorFacturas;
+    private final ProyeccionContratos proyeccionContratos;
 
     @Override
     public List<FacturaEntity> obtenerTodasLasFacturas() {
@@ -21,31 +36,110 @@ public class FacturaServiceImpl implements FacturaService {
 
     @Override
     public Optional<FacturaEntity> obtenerFacturaPorId(Long id) {
-        return facturaRepository.findById(id);
+        Optional<FacturaEntity> factura = facturaRepository.findById(id);
+        // Lectura transparente: si ya no está en las particiones activas se busca en el archivo
+        return factura.isPresent() ? factura : archivoFacturasService.buscarPorId(id);
+    }
+
+    @Override
+    public List<FacturaEntity> obtenerFacturasPorPeriodo(LocalDate desde, LocalDate hasta) {
+        List<FacturaEntity> facturas = new ArrayList<>();
+        if (desde.isBefore(archivoFacturasService.inicioPeriodoActivo())) {
+            facturas.addAll(archivoFacturasService.buscarPorPeriodo(desde, hasta));
+        }
+        facturas.addAll(facturaRepository.findByFechaEmisionBetweenOrderByFechaEmision(desde, hasta));
+        return facturas;
     }
 
     @Override
     public FacturaEntity crearFactura(FacturaEntity nuevaFactura) {
+        // Antes de numerar, para no gastar un número fiscal
+        if (nuevaFactura.getIdContrato() != null && proyeccionContratos.dadoDeBaja(nuevaFactura.getIdContrato())) {
+            throw new IllegalStateException("El contrato " + nuevaFactura.getIdContrato() + " está dado de baja");
+        }
+        // El estado de pago solo cambia por pagarFactura
+        nuevaFactura.setEstadoPago(FacturaEntity.EstadoPago.PENDIENTE);
+        nuevaFactura.setFechaPago(null);
+        nuevaFactura.setReferenciaPago(null);
+        // Con versión informada Spring Data la trataría como existente
+        nuevaFactura.setVersion(null);
+
+        // La numeración fiscal la asigna el servidor, correlativa por timbrado
+        NumeradorFacturas.NumeroFactura numero = numeradorFacturas.siguiente(nuevaFactura.getNumeroTimbrado());
+        nuevaFactura.setNumeroSecuencia(numero.secuencia());
+        nuevaFactura.setNumeroFactura(numero.numero());
         return facturaRepository.save(nuevaFactura);
     }
 
     @Override
-    public Optional<FacturaEntity> actualizarFactura(Long id, FacturaEntity facturaActualizada) {
-        return facturaRepository.findById(id)
-                .map(factura -> {
-                    // Realizar las actualizaciones necesarias en los atributos
-                    // de la factura existente con los valores de la factura actualizada
-                    factura.setNumeroFactura(facturaActualizada.getNumeroFactura());
-                    factura.setNumeroTimbrado(facturaActualizada.getNumeroTimbrado());
-                    // Actualizar otros atributos según sea necesario
+    @Transactional
+    public Optional<FacturaEntity> actualizarFactura(Long id, Long versionEsperada, FacturaEntity facturaActualizada) {
+        // El número de factura es fiscal y no se modifica
+        Optional<FacturaEntity> factura = facturaRepository.actualizarSiVersion(id, versionEsperada,
+                facturaActualizada.getNumeroTimbrado());
+        if (factura.isPresent()) {
+            return factura;
+        }
 
-                    // Guardar y devolver la factura actualizada
-                    return facturaRepository.save(factura);
-                });
+        // Solo en el camino de error se lee la fila, para saber por qué no se escribió
+        Optional<FacturaEntity> vigente = facturaRepository.findById(id);
+        if (vigente.isEmpty()) {
+            return vigente;
+        }
+        FacturaEntity actual = vigente.get();
+        if (versionEsperada == null || versionEsperada.equals(actual.getVersion())) {
+            if (actual.getNumeroSecuencia() != null
+                    && !Objects.equals(actual.getNumeroTimbrado(), facturaActualizada.getNumeroTimbrado())) {
+                throw new IllegalStateException("La factura " + id + " ya tiene número en el timbrado "
+                        + actual.getNumeroTimbrado() + " y no puede cambiar de timbrado");
+            }
+        }
+        throw new OptimisticLockingFailureException("La factura " + id
+                + " fue modificada por otra operación (versión esperada " + versionEsperada + ")");
     }
 
     @Override
     public void eliminarFactura(Long id) {
         facturaRepository.deleteById(id);
     }
+
+    @Override
+    public List<FacturaEntity> obtenerFacturasPorVencer(int dias) {
+        LocalDate hoy = LocalDate.now();
+        return facturaRepository.buscarPendientesConVencimientoEntre(hoy, hoy.plusDays(dias));
+    }
+
+    @Override
+    public List<FacturaEntity> obtenerFacturasVencidasPorContrato(Long idContrato) {
+        return facturaRepository.buscarVencidasPorContrato(idContrato, LocalDate.now());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Long, List<FacturaEntity>> obtenerPendientesPorContratos(Collection<Long> idsContrato) {
+        Map<Long, List<FacturaEntity>> porContrato = new LinkedHashMap<>();
+        for (Long idContrato : idsContrato) {
+            porContrato.put(idContrato, new ArrayList<>());
+        }
+        for (FacturaEntity factura : facturaRepository.buscarPendientesPorContratos(porContrato.keySet())) {
+            porContrato.get(factura.getIdContrato()).add(factura);
+        }
+        return porContrato;
+    }
+
+    @Override
+    @Transactional
+    public ResultadoPago pagarFactura(Long id, String referenciaPago) {
+        if (facturaRepository.marcarPagada(id, referenciaPago, LocalDateTime.now()) == 1) {
+            return ResultadoPago.PAGADA;
+        }
+
+        // No estaba pendiente: se distingue un reintento del mismo pago de un conflicto
+        return facturaRepository.findById(id)
+                .map(factura -> factura.getEstadoPago() == FacturaEntity.EstadoPago.PAGADA
+                        && Objects.equals(factura.getReferenciaPago(), referenciaPago)
+                        ? ResultadoPago.YA_PAGADA
+                        : ResultadoPago.CONFLICTO)
+                .orElse(ResultadoPago.NO_ENCONTRADA);
+    }
 }
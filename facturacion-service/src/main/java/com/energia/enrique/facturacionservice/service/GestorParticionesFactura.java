@@ -0,0 +1,98 @@
+package com.energia.enrique.facturacionservice.service;
+
+import com.energia.enrique.facturacionservice.repository.ParticionesFacturaRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.YearMonth;
+
+/**
+ * Mantiene las particiones mensuales de factura: crea los meses próximos por
+ * adelantado y mueve al archivo los periodos más viejos que la retención.
+ * <p>
+ * Una factura de un mes sin partición (emitida con fecha vieja o muy adelantada)
+ * cae en {@code factura_default}. Si el mes sigue dentro de la retención se le
+ * crea su partición, que se lleva esas filas; si no, se archivan desde default.
+ */
+@Service
+public class GestorParticionesFactura {
+
+    private final Logger logger = LoggerFactory.getLogger(GestorParticionesFactura.class);
+
+    private final ParticionesFacturaRepository particiones;
+    private final int mesesAdelante;
+    private final int mesesRetencion;
+
+    public GestorParticionesFactura(ParticionesFacturaRepository particiones,
+                                    @Value("${energia.facturacion.particiones.meses-adelante:3}") int mesesAdelante,
+                                    @Value("${energia.facturacion.particiones.meses-retencion:24}") int mesesRetencion) {
+        this.particiones = particiones;
+        this.mesesAdelante = mesesAdelante;
+        this.mesesRetencion = mesesRetencion;
+    }
+
+    @Scheduled(cron = "${energia.facturacion.particiones.cron:0 30 2 * * *}")
+    public void mantenerParticiones() {
+        crearParticionesFuturas();
+        archivarPeriodosCerrados();
+    }
+
+    /**
+     * Crea las particiones del mes actual y los siguientes, y las de los meses
+     * retenidos que tienen facturas en default.
+     */
+    public void crearParticionesFuturas() {
+        YearMonth actual = YearMonth.now();
+        for (int i = 0; i <= mesesAdelante; i++) {
+            particiones.crearParticion(actual.plusMonths(i));
+        }
+        YearMonth limite = limiteRetencion();
+        for (YearMonth mes : particiones.mesesEnDefault()) {
+            if (!mes.isBefore(limite)) {
+                particiones.crearParticion(mes);
+                logger.info("Partición {} creada para facturas que estaban en default", mes);
+            }
+        }
+    }
+
+    /**
+     * Archiva cada mes anterior al límite de retención, de su partición o de
+     * default, en su propia transacción. Un mes con facturas por cobrar no se archiva.
+     * @return Cantidad de facturas movidas al archivo
+     */
+    public int archivarPeriodosCerrados() {
+        YearMonth limite = limiteRetencion();
+        int total = 0;
+        for (YearMonth mes : particiones.mesesConParticion()) {
+            if (mes.isBefore(limite) && cerrado(mes, false)) {
+                int archivadas = particiones.archivarParticion(mes);
+                logger.info("Partición {} archivada. Facturas movidas: {}", mes, archivadas);
+                total += archivadas;
+            }
+        }
+        for (YearMonth mes : particiones.mesesEnDefault()) {
+            if (mes.isBefore(limite) && cerrado(mes, true)) {
+                int archivadas = particiones.archivarDeDefault(mes);
+                logger.info("Facturas de {} archivadas desde default: {}", mes, archivadas);
+                total += archivadas;
+            }
+        }
+        return total;
+    }
+
+    // Un periodo solo está cerrado cuando no le quedan facturas por cobrar
+    private boolean cerrado(YearMonth mes, boolean enDefault) {
+        if (particiones.conPendientes(mes, enDefault)) {
+            logger.warn("Facturas de {} con pagos pendientes{}, no se archivan", mes, enDefault ? " en default" : "");
+            return false;
+        }
+        return true;
+    }
+
+    private YearMonth limiteRetencion() {
+        return YearMonth.now().minusMonths(mesesRetencion);
+    }
+}
@@ -0,0 +1,166 @@
+package com.energia.enrique.facturacionservice.service;
+
+import com.energia.enrique.facturacionservice.repository.NumeracionRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Asigna números de factura correlativos por timbrado.
+ *
+ * Cada hilo reserva un bloque de números contra el contador durable
+ * (numeracion_timbrado) en una transacción propia y corta, y luego los entrega
+ * sin locks ni accesos a la base. Así la fila del contador se bloquea una vez
+ * por bloque y no una vez por factura.
+ *
+ * Los números de un bloque que no llegan a una factura (rollback, caída de la
+ * instancia, bloque vencido) se registran en numeracion_anulada al conciliar
+ * el bloque, de modo que toda la secuencia queda justificada.
+ */
+@Service
+public class NumeradorFacturas {
+
+    private static final int LOTE_CONCILIACION = 50;
+
+    private final Logger logger = LoggerFactory.getLogger(NumeradorFacturas.class);
+
+    private final NumeracionRepository numeracionRepository;
+    private final String prefijo;
+    private final int tamanoBloque;
+    private final long vidaBloqueMillis;
+    private final int margenConciliacionMinutos;
+    private final String instancia;
+
+    // Bloques en uso por cada hilo: solo los toca su dueño, por eso no necesitan sincronización
+    private final ThreadLocal<Map<String, BloqueNumeracion>> bloquesDelHilo = ThreadLocal.withInitial(HashMap::new);
+    // Todos los bloques abiertos de la instancia, para poder cerrarlos al apagar
+    private final Map<Long, BloqueNumeracion> bloquesAbiertos = new ConcurrentHashMap<>();
+
+    public NumeradorFacturas(NumeracionRepository numeracionRepository,
+                             @Value("${energia.facturacion.numeracion.prefijo:001-001}") String prefijo,
+                             @Value("${energia.facturacion.numeracion.tamano-bloque:100}") int tamanoBloque,
+                             @Value("${energia.facturacion.numeracion.vida-bloque-minutos:15}") int vidaBloqueMinutos,
+                             @Value("${energia.facturacion.numeracion.margen-conciliacion-minutos:10}") int margenConciliacionMinutos,
+                             @Value("${energia.facturacion.numeracion.instancia:local}") String instancia) {
+        this.numeracionRepository = numeracionRepository;
+        this.prefijo = prefijo;
+        this.tamanoBloque = tamanoBloque;
+        this.vidaBloqueMillis = vidaBloqueMinutos * 60_000L;
+        this.margenConciliacionMinutos = margenConciliacionMinutos;
+        this.instancia = instancia;
+    }
+
+    /**
+     * Entrega el siguiente número del bloque del hilo actual, reservando uno
+     * nuevo si el bloque se agotó, venció o fue cerrado.
+     * @param numeroTimbrado Timbrado al que pertenece la factura
+     * @return Número secuencial y su representación fiscal
+     */
+    public NumeroFactura siguiente(String numeroTimbrado) {
+        Map<String, BloqueNumeracion> bloques = bloquesDelHilo.get();
+        BloqueNumeracion bloque = bloques.get(numeroTimbrado);
+
+        if (bloque == null || !bloque.utilizable(vidaBloqueMillis)) {
+            if (bloque != null) {
+                cerrarBloque(bloque);
+            }
+            bloque = reservarBloque(numeroTimbrado);
+            bloques.put(numeroTimbrado, bloque);
+        }
+
+        long secuencia = bloque.siguiente++;
+        return new NumeroFactura(secuencia, String.format("%s-%07d", prefijo, secuencia));
+    }
+
+    private BloqueNumeracion reservarBloque(String numeroTimbrado) {
+        NumeracionRepository.BloqueReservado reservado =
+                numeracionRepository.reservarBloque(numeroTimbrado, tamanoBloque, instancia);
+        BloqueNumeracion bloque = new BloqueNumeracion(reservado.id(), reservado.desde(), reservado.hasta());
+        bloquesAbiertos.put(bloque.id, bloque);
+        logger.debug("Bloque {} reservado para timbrado {}: {}-{}", bloque.id, numeroTimbrado, bloque.desde, bloque.hasta);
+        return bloque;
+    }
+
+    private void cerrarBloque(BloqueNumeracion bloque) {
+        bloque.cerrado = true;
+        bloquesAbiertos.remove(bloque.id);
+        numeracionRepository.cerrarBloque(bloque.id);
+    }
+
+    /**
+     * Bloques que quedaron abiertos en una ejecución anterior de esta instancia
+     * (caída sin apagado ordenado): se cierran para que la conciliación los procese.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void cerrarBloquesHuerfanos() {
+        int cerrados = numeracionRepository.cerrarBloquesDeInstancia(instancia);
+        if (cerrados > 0) {
+            logger.warn("Bloques de numeración huérfanos cerrados en la instancia {}: {}", instancia, cerrados);
+        }
+    }
+
+    @PreDestroy
+    public void liberarBloques() {
+        for (BloqueNumeracion bloque : List.copyOf(bloquesAbiertos.values())) {
+            cerrarBloque(bloque);
+        }
+    }
+
+    /**
+     * Cierra los bloques vencidos (hilos que ya no existen, instancias caídas) y
+     * registra como anulados los números de los bloques cerrados que no tienen
+     * factura. Se espera un margen tras el cierre para que terminen las
+     * transacciones que todavía usaban el bloque.
+     */
+    @Scheduled(fixedDelayString = "${energia.facturacion.numeracion.intervalo-conciliacion-ms:60000}")
+    public void conciliarBloques() {
+        LocalDateTime vencimiento = LocalDateTime.now().minusNanos(vidaBloqueMillis * 2 * 1_000_000);
+        for (BloqueNumeracion bloque : List.copyOf(bloquesAbiertos.values())) {
+            if (!bloque.utilizable(vidaBloqueMillis * 2)) {
+                cerrarBloque(bloque);
+            }
+        }
+        numeracionRepository.cerrarBloquesReservadosAntesDe(vencimiento);
+
+        int anulados = numeracionRepository.conciliarCerradosAntesDe(
+                LocalDateTime.now().minusMinutes(margenConciliacionMinutos), LOTE_CONCILIACION);
+        if (anulados > 0) {
+            logger.info("Números de factura anulados por conciliación: {}", anulados);
+        }
+    }
+
+    public record NumeroFactura(long secuencia, String numero) {
+    }
+
+    private static final class BloqueNumeracion {
+
+        private final long id;
+        private final long desde;
+        private final long hasta;
+        private final long reservadoEn = System.currentTimeMillis();
+        private long siguiente;
+        private volatile boolean cerrado;
+
+        private BloqueNumeracion(long id, long desde, long hasta) {
+            this.id = id;
+            this.desde = desde;
+            this.hasta = hasta;
+            this.siguiente = desde;
+        }
+
+        private boolean utilizable(long vidaMillis) {
+            return !cerrado && siguiente <= hasta && System.currentTimeMillis() - reservadoEn < vidaMillis;
+        }
+    }
+}
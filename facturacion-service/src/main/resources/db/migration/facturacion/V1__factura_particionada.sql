@@ -0,0 +1,77 @@
+-- Facturas particionadas por mes de fecha_emision.
+-- Las consultas con rango de fechas solo recorren las particiones del rango (partition pruning).
+
+CREATE SEQUENCE IF NOT EXISTS factura_id_seq;
+
+CREATE TABLE factura (
+    id                BIGINT       NOT NULL DEFAULT nextval('factura_id_seq'),
+    numero_factura    VARCHAR(50),
+    numero_timbrado   VARCHAR(50),
+    fecha_emision     DATE         NOT NULL,
+    fecha_vencimiento DATE,
+    monto_total       DOUBLE PRECISION,
+    categoria         VARCHAR(50),
+    actividad         VARCHAR(50),
+    id_contrato       BIGINT,
+    PRIMARY KEY (id, fecha_emision)
+) PARTITION BY RANGE (fecha_emision);
+
+ALTER SEQUENCE factura_id_seq OWNED BY factura.id;
+
+-- Se propagan a cada partición
+CREATE INDEX idx_factura_id ON factura (id);
+CREATE INDEX idx_factura_contrato ON factura (id_contrato, fecha_emision);
+
+-- Red de seguridad: filas fuera de las particiones creadas. El gestor crea los meses
+-- por adelantado para que esta partición quede vacía.
+CREATE TABLE factura_default PARTITION OF factura DEFAULT;
+
+CREATE OR REPLACE FUNCTION crear_particion_factura(mes DATE) RETURNS VOID AS $$
+DECLARE
+    inicio DATE := date_trunc('month', mes)::date;
+    fin    DATE := (date_trunc('month', mes) + INTERVAL '1 month')::date;
+    nombre TEXT := 'factura_p' || to_char(inicio, 'YYYYMM');
+BEGIN
+    EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF factura FOR VALUES FROM (%L) TO (%L)',
+                   nombre, inicio, fin);
+END;
+$$ LANGUAGE plpgsql;
+
+-- Archivo de periodos cerrados: una fila JSONB comprimida por factura
+CREATE TABLE factura_archivo (
+    id            BIGINT PRIMARY KEY,
+    fecha_emision DATE   NOT NULL,
+    id_contrato   BIGINT,
+    datos         JSONB  NOT NULL
+);
+ALTER TABLE factura_archivo ALTER COLUMN datos SET COMPRESSION lz4;
+CREATE INDEX idx_factura_archivo_fecha ON factura_archivo (fecha_emision);
+CREATE INDEX idx_factura_archivo_contrato ON factura_archivo (id_contrato, fecha_emision);
+
+-- Migración de la tabla sin particionar creada por generate-ddl en public
+DO $$
+DECLARE
+    mes DATE;
+BEGIN
+    IF to_regclass('public.factura') IS NOT NULL THEN
+        FOR mes IN SELECT DISTINCT date_trunc('month', fecha_emision)::date FROM public.factura
+                   WHERE fecha_emision IS NOT NULL
+        LOOP
+            PERFORM crear_particion_factura(mes);
+        END LOOP;
+
+        INSERT INTO factura (id, numero_factura, numero_timbrado, fecha_emision, fecha_vencimiento,
+                             monto_total, categoria, actividad, id_contrato)
+        SELECT id, numero_factura, numero_timbrado, fecha_emision, fecha_vencimiento,
+               monto_total, categoria, actividad, id_contrato
+        FROM public.factura
+        WHERE fecha_emision IS NOT NULL;
+
+        PERFORM setval('factura_id_seq', COALESCE((SELECT max(id) FROM factura), 0) + 1, false);
+        ALTER TABLE public.factura RENAME TO factura_sin_particionar;
+    END IF;
+END $$;
+
+-- Mes actual y siguientes
+SELECT crear_particion_factura((date_trunc('month', current_date) + make_interval(months => n))::date)
+FROM generate_series(0, 3) AS n;
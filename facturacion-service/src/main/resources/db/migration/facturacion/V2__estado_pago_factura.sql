@@ -0,0 +1,11 @@
+-- Estado de pago de la factura
+ALTER TABLE factura ADD COLUMN estado_pago VARCHAR(20) NOT NULL DEFAULT 'PENDIENTE';
+ALTER TABLE factura ADD COLUMN fecha_pago TIMESTAMP;
+ALTER TABLE factura ADD COLUMN referencia_pago VARCHAR(100);
+
+-- Índices parciales: solo contienen las facturas pendientes, así que se mantienen
+-- chicos aunque la tabla acumule años de facturas pagadas.
+CREATE INDEX idx_factura_pendiente_vencimiento
+    ON factura (fecha_vencimiento) WHERE estado_pago = 'PENDIENTE';
+CREATE INDEX idx_factura_pendiente_contrato
+    ON factura (id_contrato, fecha_vencimiento) WHERE estado_pago = 'PENDIENTE';
@@ -0,0 +1,42 @@
+-- Numeración fiscal correlativa por timbrado, reservada por bloques
+
+ALTER TABLE factura ADD COLUMN numero_secuencia BIGINT;
+CREATE INDEX idx_factura_timbrado_secuencia ON factura (numero_timbrado, numero_secuencia);
+
+-- Contador durable: se toca una vez por bloque, no por factura
+CREATE TABLE numeracion_timbrado (
+    numero_timbrado  VARCHAR(50) PRIMARY KEY,
+    ultimo_reservado BIGINT      NOT NULL DEFAULT 0
+);
+
+-- Bloques entregados a cada hilo de cada instancia
+CREATE TABLE numeracion_bloque (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    numero_timbrado VARCHAR(50)  NOT NULL REFERENCES numeracion_timbrado (numero_timbrado),
+    desde           BIGINT       NOT NULL,
+    hasta           BIGINT       NOT NULL,
+    instancia       VARCHAR(100) NOT NULL,
+    estado          VARCHAR(20)  NOT NULL,
+    fecha_reserva   TIMESTAMP    NOT NULL,
+    fecha_cierre    TIMESTAMP,
+    conciliado      BOOLEAN      NOT NULL DEFAULT FALSE
+);
+CREATE INDEX idx_numeracion_bloque_abierto ON numeracion_bloque (instancia) WHERE estado = 'ABIERTO';
+CREATE INDEX idx_numeracion_bloque_por_conciliar ON numeracion_bloque (fecha_cierre)
+    WHERE estado = 'CERRADO' AND NOT conciliado;
+
+-- Números reservados que no llegaron a una factura (caída, rollback o bloque liberado)
+CREATE TABLE numeracion_anulada (
+    numero_timbrado  VARCHAR(50) NOT NULL,
+    numero_secuencia BIGINT      NOT NULL,
+    id_bloque        BIGINT      NOT NULL REFERENCES numeracion_bloque (id),
+    fecha_anulacion  TIMESTAMP   NOT NULL,
+    PRIMARY KEY (numero_timbrado, numero_secuencia)
+);
+
+-- Los timbrados existentes continúan desde el mayor número ya emitido
+INSERT INTO numeracion_timbrado (numero_timbrado, ultimo_reservado)
+SELECT numero_timbrado, COALESCE(max(substring(numero_factura FROM '(\d+)$')::BIGINT), 0)
+FROM factura
+WHERE numero_timbrado IS NOT NULL
+GROUP BY numero_timbrado;
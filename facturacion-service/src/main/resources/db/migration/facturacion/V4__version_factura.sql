@@ -0,0 +1,2 @@
+-- Versión para concurrencia optimista. En la tabla particionada se propaga a todas las particiones.
+ALTER TABLE factura ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,12 @@
+-- Proyección local de los contratos, alimentada por los eventos del outbox de contrato
+-- (POST /eventos). Facturación la consulta en vez de leer las tablas de contrato.
+-- ultimo_evento es el id del mensaje en el outbox de contrato: un evento repetido o
+-- que llega después de uno más nuevo no pisa lo ya aplicado.
+CREATE TABLE IF NOT EXISTS contrato_facturable (
+    id_contrato       BIGINT      PRIMARY KEY,
+    id_cliente        BIGINT,
+    ciclo_facturacion VARCHAR(50),
+    dado_de_baja      BOOLEAN     NOT NULL DEFAULT FALSE,
+    ultimo_evento     BIGINT      NOT NULL,
+    actualizado_en    TIMESTAMPTZ NOT NULL DEFAULT now()
+);
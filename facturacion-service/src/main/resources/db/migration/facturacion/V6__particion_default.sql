@@ -0,0 +1,58 @@
+-- Una factura de un mes sin partición cae en factura_default. Mientras esté ahí,
+-- CREATE TABLE ... PARTITION OF para ese mes falla. Ahora la partición se crea
+-- suelta, recibe las filas del mes que estaban en default y recién después se adjunta.
+CREATE OR REPLACE FUNCTION crear_particion_factura(mes DATE) RETURNS VOID AS $$
+DECLARE
+    inicio DATE := date_trunc('month', mes)::date;
+    fin    DATE := (date_trunc('month', mes) + INTERVAL '1 month')::date;
+    nombre TEXT := 'factura_p' || to_char(inicio, 'YYYYMM');
+BEGIN
+    IF to_regclass(nombre) IS NOT NULL THEN
+        RETURN;
+    END IF;
+    EXECUTE format('CREATE TABLE %I (LIKE factura INCLUDING DEFAULTS INCLUDING CONSTRAINTS)', nombre);
+    EXECUTE format('WITH movidas AS (DELETE FROM factura_default WHERE fecha_emision >= %L AND fecha_emision < %L '
+                   'RETURNING *) INSERT INTO %I SELECT * FROM movidas', inicio, fin, nombre);
+    EXECUTE format('ALTER TABLE factura ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)', nombre, inicio, fin);
+END;
+$$ LANGUAGE plpgsql;
+
+-- V1 migraba solo las filas con fecha_emision. Las demás quedaban en factura_sin_particionar,
+-- fuera de toda lectura. Si quedan, la migración falla hasta que se complete la fecha.
+-- Las que se completaron después de V1 se migran acá.
+DO $$
+DECLARE
+    sin_fecha BIGINT;
+    mes       DATE;
+BEGIN
+    IF to_regclass('public.factura_sin_particionar') IS NOT NULL THEN
+        SELECT count(*) INTO sin_fecha FROM public.factura_sin_particionar WHERE fecha_emision IS NULL;
+        IF sin_fecha > 0 THEN
+            RAISE EXCEPTION 'Hay % facturas sin fecha_emision en public.factura_sin_particionar. '
+                            'Completar la fecha y volver a migrar', sin_fecha;
+        END IF;
+
+        FOR mes IN SELECT DISTINCT date_trunc('month', s.fecha_emision)::date
+                   FROM public.factura_sin_particionar s
+                   WHERE NOT EXISTS (SELECT 1 FROM factura f WHERE f.id = s.id)
+                     AND NOT EXISTS (SELECT 1 FROM factura_archivo a WHERE a.id = s.id)
+        LOOP
+            PERFORM crear_particion_factura(mes);
+        END LOOP;
+
+        INSERT INTO factura (id, numero_factura, numero_timbrado, fecha_emision, fecha_vencimiento,
+                             monto_total, categoria, actividad, id_contrato)
+        SELECT s.id, s.numero_factura, s.numero_timbrado, s.fecha_emision, s.fecha_vencimiento,
+               s.monto_total, s.categoria, s.actividad, s.id_contrato
+        FROM public.factura_sin_particionar s
+        WHERE NOT EXISTS (SELECT 1 FROM factura f WHERE f.id = s.id)
+          AND NOT EXISTS (SELECT 1 FROM factura_archivo a WHERE a.id = s.id);
+
+        PERFORM setval('factura_id_seq', GREATEST((SELECT COALESCE(max(id), 0) FROM factura),
+                                                  (SELECT COALESCE(max(id), 0) FROM factura_archivo)) + 1, false);
+    END IF;
+END $$;
+
+-- Meses que ya habían caído en default antes de este cambio
+SELECT crear_particion_factura(mes)
+FROM (SELECT DISTINCT date_trunc('month', fecha_emision)::date AS mes FROM factura_default) meses;
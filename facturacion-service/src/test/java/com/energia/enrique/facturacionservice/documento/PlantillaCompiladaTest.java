@@ -0,0 +1,52 @@
+package com.energia.enrique.facturacionservice.documento;
+
+import com.energia.enrique.facturacionservice.model.FacturaEntity;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PlantillaCompiladaTest {
+
+    @Test
+    void reemplazaLosCamposYFormateaElMonto() {
+        PlantillaCompilada plantilla = PlantillaCompilada.compilar("prueba",
+                "<p>{{numeroFactura}} del {{ fechaEmision }}: {{montoTotal}} ({{estadoPago}})</p>");
+        FacturaEntity factura = new FacturaEntity();
+        factura.setNumeroFactura("001-001-0000007");
+        factura.setFechaEmision(LocalDate.of(2024, 5, 31));
+        factura.setMontoTotal(1234.5);
+
+        assertEquals("<p>001-001-0000007 del 2024-05-31: 1234.50 (PENDIENTE)</p>", renderizar(plantilla, factura));
+    }
+
+    @Test
+    void escapaElHtmlDeLosValoresYDejaVacioLoNulo() {
+        PlantillaCompilada plantilla = PlantillaCompilada.compilar("prueba", "<b>{{actividad}}</b>[{{categoria}}]");
+        FacturaEntity factura = new FacturaEntity();
+        factura.setActividad("<script>\"a\" & b</script>");
+
+        assertEquals("<b>&lt;script&gt;&quot;a&quot; &amp; b&lt;/script&gt;</b>[]", renderizar(plantilla, factura));
+    }
+
+    @Test
+    void sinMarcadoresDevuelveElTextoTalCual() {
+        PlantillaCompilada plantilla = PlantillaCompilada.compilar("prueba", "solo texto {");
+
+        assertEquals("solo texto {", renderizar(plantilla, new FacturaEntity()));
+    }
+
+    @Test
+    void rechazaAlCompilarCamposDesconocidosYMarcadoresSinCerrar() {
+        assertThrows(IllegalArgumentException.class, () -> PlantillaCompilada.compilar("prueba", "{{clave}}"));
+        assertThrows(IllegalArgumentException.class, () -> PlantillaCompilada.compilar("prueba", "{{numeroFactura"));
+    }
+
+    private static String renderizar(PlantillaCompilada plantilla, FacturaEntity factura) {
+        StringBuilder texto = new StringBuilder();
+        plantilla.renderizar(factura, texto);
+        return texto.toString();
+    }
+}
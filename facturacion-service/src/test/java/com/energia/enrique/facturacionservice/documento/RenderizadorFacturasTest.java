@@ -0,0 +1,183 @@
+package com.energia.enrique.facturacionservice.documento;
+
+import com.energia.enrique.facturacionservice.model.FacturaEntity;
+import com.energia.enrique.facturacionservice.repository.FacturaRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RenderizadorFacturasTest {
+
+    private static final LocalDate EMISION = LocalDate.of(2024, 5, 10);
+
+    private final List<FacturaEntity> facturas = new ArrayList<>();
+    private final SimpleMeterRegistry registro = new SimpleMeterRegistry();
+    private final DestinoObjetosEnMemoria objetos = new DestinoObjetosEnMemoria();
+    private final CountDownLatch liberarDestino = new CountDownLatch(1);
+    private RenderizadorFacturas renderizador;
+
+    @AfterEach
+    void detener() throws InterruptedException {
+        liberarDestino.countDown();
+        if (renderizador != null) {
+            renderizador.detener();
+        }
+    }
+
+    @Test
+    void generaUnDocumentoPorFacturaRecorriendoElPeriodoPorLotes() throws Exception {
+        for (long id = 1; id <= 5; id++) {
+            facturas.add(factura(id, "001-001-000000" + id));
+        }
+        renderizador = renderizador(objetos, 2, 8);
+
+        RenderizadorFacturas.ResumenRenderizado resumen = renderizador.renderizarPeriodo(EMISION, EMISION);
+
+        assertEquals(5, resumen.documentos());
+        assertEquals(0, resumen.errores());
+        assertEquals(5, objetos.cantidad());
+        String documento = new String(objetos.obtener("2024/05/001-001-0000003.html").orElseThrow(), StandardCharsets.UTF_8);
+        assertTrue(documento.contains("<h1>Factura 001-001-0000003</h1>"));
+        assertEquals(5, registro.find("energia.facturacion.documentos").timers().stream().mapToLong(Timer::count).sum());
+    }
+
+    @Test
+    void unDocumentoMasGrandeQueElBufferSeEscribeCompleto() throws Exception {
+        FacturaEntity factura = factura(1L, "001-001-0000001");
+        // Caracteres de dos bytes en UTF-8: los tramos del codificador no caen en límites de carácter
+        factura.setActividad("ñ".repeat(100_000));
+        facturas.add(factura);
+        renderizador = renderizador(objetos, 10, 8);
+
+        renderizador.renderizarPeriodo(EMISION, EMISION);
+
+        String documento = new String(objetos.obtener("2024/05/001-001-0000001.html").orElseThrow(), StandardCharsets.UTF_8);
+        assertTrue(documento.contains("<td>" + "ñ".repeat(100_000) + "</td>"));
+        double bytes = registro.find("energia.facturacion.documentos.bytes").counters().stream()
+                .mapToDouble(Counter::count).sum();
+        assertEquals(documento.getBytes(StandardCharsets.UTF_8).length, (long) bytes);
+    }
+
+    @Test
+    void unDocumentoQueFallaNoCortaElPeriodo() throws Exception {
+        facturas.add(factura(1L, "001-001-0000001"));
+        facturas.add(factura(2L, "ROTA"));
+        facturas.add(factura(3L, "001-001-0000003"));
+        DestinoDocumentos conFallo = nombre -> {
+            if (nombre.contains("ROTA")) {
+                throw new IOException("Sin espacio");
+            }
+            return objetos.abrir(nombre);
+        };
+        renderizador = renderizador(conFallo, 10, 8);
+
+        RenderizadorFacturas.ResumenRenderizado resumen = renderizador.renderizarPeriodo(EMISION, EMISION);
+
+        assertEquals(2, resumen.documentos());
+        assertEquals(1, resumen.errores());
+        assertEquals(1.0, registro.find("energia.facturacion.documentos.errores").counters().stream()
+                .mapToDouble(Counter::count).sum(), 0.0);
+    }
+
+    @Test
+    void elPeriodoSeEncolaYSeConsultaHastaTerminar() throws Exception {
+        facturas.add(factura(1L, "001-001-0000001"));
+        renderizador = renderizador(objetos, 10, 8);
+
+        RenderizadorFacturas.EstadoTrabajo trabajo = renderizador.encolarPeriodo(EMISION, EMISION);
+
+        assertEquals(RenderizadorFacturas.Estado.EN_COLA, trabajo.estado());
+        RenderizadorFacturas.EstadoTrabajo terminado = esperarFin(trabajo.id());
+        assertEquals(RenderizadorFacturas.Estado.TERMINADO, terminado.estado());
+        assertEquals(1, terminado.resumen().documentos());
+        assertTrue(renderizador.consultarTrabajo("otro").isEmpty());
+    }
+
+    @Test
+    void conLaColaDeTrabajosLlenaRechazaElPeriodo() throws Exception {
+        facturas.add(factura(1L, "001-001-0000001"));
+        DestinoDocumentos lento = nombre -> {
+            esperar(liberarDestino);
+            return objetos.abrir(nombre);
+        };
+        renderizador = renderizador(lento, 10, 1);
+
+        RenderizadorFacturas.EstadoTrabajo enCurso = renderizador.encolarPeriodo(EMISION, EMISION);
+        while (renderizador.consultarTrabajo(enCurso.id()).orElseThrow().estado() == RenderizadorFacturas.Estado.EN_COLA) {
+            Thread.sleep(5);
+        }
+        RenderizadorFacturas.EstadoTrabajo enCola = renderizador.encolarPeriodo(EMISION, EMISION);
+
+        assertThrows(RejectedExecutionException.class, () -> renderizador.encolarPeriodo(EMISION, EMISION));
+        liberarDestino.countDown();
+        assertEquals(RenderizadorFacturas.Estado.TERMINADO, esperarFin(enCurso.id()).estado());
+        assertEquals(RenderizadorFacturas.Estado.TERMINADO, esperarFin(enCola.id()).estado());
+    }
+
+    private RenderizadorFacturas renderizador(DestinoDocumentos destino, int tamanoLote, int trabajosEnCola) {
+        return new RenderizadorFacturas(repositorio(), new CachePlantillas(), destino, registro, "factura.html",
+                2, 4, tamanoLote, trabajosEnCola);
+    }
+
+    private RenderizadorFacturas.EstadoTrabajo esperarFin(String id) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (System.nanoTime() < limite) {
+            RenderizadorFacturas.EstadoTrabajo trabajo = renderizador.consultarTrabajo(id).orElseThrow();
+            if (trabajo.estado() == RenderizadorFacturas.Estado.TERMINADO
+                    || trabajo.estado() == RenderizadorFacturas.Estado.FALLIDO) {
+                return trabajo;
+            }
+            Thread.sleep(5);
+        }
+        throw new AssertionError("El trabajo " + id + " no terminó");
+    }
+
+    private static void esperar(CountDownLatch latch) throws IOException {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+    }
+
+    // Solo la consulta por lotes que usa el renderizador: facturas con id mayor al último leído
+    private FacturaRepository repositorio() {
+        FacturaRepository repositorio = mock(FacturaRepository.class);
+        when(repositorio.findByFechaEmisionBetweenAndIdGreaterThanOrderById(any(), any(), anyLong(), any()))
+                .thenAnswer(invocacion -> {
+                    long ultimoId = invocacion.getArgument(2);
+                    int tamano = invocacion.<Pageable>getArgument(3).getPageSize();
+                    return facturas.stream().filter(f -> f.getId() > ultimoId).limit(tamano).toList();
+                });
+        return repositorio;
+    }
+
+    private static FacturaEntity factura(Long id, String numero) {
+        FacturaEntity factura = new FacturaEntity();
+        factura.setId(id);
+        factura.setNumeroFactura(numero);
+        factura.setFechaEmision(EMISION);
+        return factura;
+    }
+}
@@ -0,0 +1,194 @@
+package com.energia.enrique.facturacionservice.repository;
+
+import com.energia.enrique.facturacionservice.model.FacturaEntity;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Las consultas nativas y los UPDATE condicionales contra PostgreSQL, sobre la
+ * tabla particionada que crean las migraciones de Flyway.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers
+class FacturaRepositoryTest {
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withUrlParam("currentSchema", "facturacion");
+
+    @DynamicPropertySource
+    static void baseDeDatos(DynamicPropertyRegistry registro) {
+        registro.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registro.add("spring.datasource.username", POSTGRES::getUsername);
+        registro.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+
+    // Solo JPA y Flyway: la aplicación importa configuraciones de métricas y web que este corte no levanta
+    @SpringBootConfiguration
+    @EntityScan(basePackageClasses = FacturaEntity.class)
+    @EnableJpaRepositories(basePackageClasses = FacturaRepository.class)
+    static class Configuracion {
+    }
+
+    @Autowired
+    private FacturaRepository repositorio;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transacciones;
+
+    @Test
+    void lasConsultasDeCobranzaSoloDevuelvenPendientes() {
+        LocalDate hoy = LocalDate.now();
+        FacturaEntity porVencer = guardar(pendiente(10L, hoy.plusDays(3)));
+        guardar(pendiente(10L, hoy.plusDays(30)));
+        FacturaEntity vencida = guardar(pendiente(10L, hoy.minusDays(5)));
+        guardar(pendiente(20L, hoy.minusDays(5)));
+        FacturaEntity pagada = pendiente(10L, hoy.plusDays(1));
+        pagada.setEstadoPago(FacturaEntity.EstadoPago.PAGADA);
+        guardar(pagada);
+
+        assertEquals(List.of(porVencer.getId()), ids(repositorio.buscarPendientesConVencimientoEntre(hoy, hoy.plusDays(7))));
+        assertEquals(List.of(vencida.getId()), ids(repositorio.buscarVencidasPorContrato(10L, hoy)));
+    }
+
+    @Test
+    void pendientesPorContratosVieneOrdenadoPorContratoYVencimiento() {
+        LocalDate hoy = LocalDate.now();
+        FacturaEntity segunda = guardar(pendiente(10L, hoy.plusDays(10)));
+        FacturaEntity otroContrato = guardar(pendiente(5L, hoy.plusDays(20)));
+        FacturaEntity primera = guardar(pendiente(10L, hoy.plusDays(1)));
+        guardar(pendiente(99L, hoy));
+
+        assertEquals(List.of(otroContrato.getId(), primera.getId(), segunda.getId()),
+                ids(repositorio.buscarPendientesPorContratos(List.of(5L, 10L, 30L))));
+    }
+
+    @Test
+    void marcarPagadaSoloEscribeUnaFacturaPendiente() {
+        FacturaEntity factura = guardar(pendiente(10L, LocalDate.now()));
+
+        assertEquals(1, repositorio.marcarPagada(factura.getId(), "TX-1", LocalDateTime.now()));
+        assertEquals(0, repositorio.marcarPagada(factura.getId(), "TX-2", LocalDateTime.now()));
+        entityManager.clear();
+
+        FacturaEntity pagada = repositorio.findById(factura.getId()).orElseThrow();
+        assertEquals(FacturaEntity.EstadoPago.PAGADA, pagada.getEstadoPago());
+        assertEquals("TX-1", pagada.getReferenciaPago());
+        assertEquals(1L, pagada.getVersion());
+    }
+
+    // Cada callback en su transacción, como en producción: la segunda espera el bloqueo
+    // de la fila y, al reevaluar el WHERE con la fila ya pagada, no actualiza nada
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void deDosPagosConcurrentesSoloUnoActualizaLaFila() throws Exception {
+        TransactionTemplate transaccion = new TransactionTemplate(transacciones);
+        List<Long> ids = new ArrayList<>();
+        ExecutorService hilos = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 0; i < 50; i++) {
+                Long id = transaccion.execute(estado -> repositorio.save(pendiente(900L, LocalDate.now())).getId());
+                ids.add(id);
+                CountDownLatch largada = new CountDownLatch(1);
+                Future<Integer> primero = hilos.submit(() -> {
+                    largada.await();
+                    return transaccion.execute(estado -> repositorio.marcarPagada(id, "A", LocalDateTime.now()));
+                });
+                Future<Integer> segundo = hilos.submit(() -> {
+                    largada.await();
+                    return transaccion.execute(estado -> repositorio.marcarPagada(id, "B", LocalDateTime.now()));
+                });
+                largada.countDown();
+
+                assertEquals(1, primero.get() + segundo.get());
+            }
+        } finally {
+            hilos.shutdownNow();
+            transaccion.executeWithoutResult(estado -> repositorio.deleteAllById(ids));
+        }
+    }
+
+    @Test
+    void actualizarSiVersionEscribeSoloConLaVersionVigente() {
+        FacturaEntity factura = guardar(numerada(null));
+
+        FacturaEntity actualizada = repositorio.actualizarSiVersion(factura.getId(), 0L, "T2").orElseThrow();
+        assertEquals("T2", actualizada.getNumeroTimbrado());
+        assertEquals(1L, actualizada.getVersion());
+        entityManager.clear();
+
+        assertTrue(repositorio.actualizarSiVersion(factura.getId(), 0L, "T3").isEmpty());
+        // Sin versión esperada escribe sobre la vigente
+        assertEquals(2L, repositorio.actualizarSiVersion(factura.getId(), null, "T3").orElseThrow().getVersion());
+    }
+
+    @Test
+    void actualizarSiVersionNoCambiaElTimbradoDeUnaFacturaNumerada() {
+        FacturaEntity factura = guardar(numerada(25L));
+
+        assertTrue(repositorio.actualizarSiVersion(factura.getId(), 0L, "T2").isEmpty());
+        // Repetir el timbrado vigente sí es válido
+        assertEquals(1L, repositorio.actualizarSiVersion(factura.getId(), 0L, "T1").orElseThrow().getVersion());
+    }
+
+    // Se vacía el contexto de persistencia: si no, la fila que devuelve un UPDATE ... RETURNING
+    // se resolvería a la entidad ya cargada, con los valores de antes
+    private FacturaEntity guardar(FacturaEntity factura) {
+        FacturaEntity guardada = repositorio.saveAndFlush(factura);
+        entityManager.clear();
+        return guardada;
+    }
+
+    private static FacturaEntity pendiente(Long idContrato, LocalDate fechaVencimiento) {
+        FacturaEntity factura = new FacturaEntity();
+        factura.setNumeroTimbrado("T1");
+        factura.setFechaEmision(LocalDate.now());
+        factura.setFechaVencimiento(fechaVencimiento);
+        factura.setMontoTotal(100.0);
+        factura.setCategoria("RESIDENCIAL");
+        factura.setActividad("CONSUMO");
+        factura.setIdContrato(idContrato);
+        return factura;
+    }
+
+    private static FacturaEntity numerada(Long numeroSecuencia) {
+        FacturaEntity factura = pendiente(10L, LocalDate.now().plusDays(30));
+        factura.setNumeroSecuencia(numeroSecuencia);
+        return factura;
+    }
+
+    private static List<Long> ids(List<FacturaEntity> facturas) {
+        return facturas.stream().map(FacturaEntity::getId).toList();
+    }
+}
@@ -0,0 +1,199 @@
+package com.energia.enrique.facturacionservice.service;
+
+import com.energia.enrique.facturacionservice.model.FacturaArchivadaEntity;
+import com.energia.enrique.facturacionservice.model.FacturaEntity;
+import com.energia.enrique.facturacionservice.repository.FacturaArchivadaRepository;
+import com.energia.enrique.facturacionservice.repository.FacturaRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Lógica del servicio sobre el repositorio: lectura transparente del archivo,
+ * agrupación por contrato y cómo se interpreta lo que devuelven los UPDATE
+ * condicionales. Las consultas y los UPDATE en sí, incluida la concurrencia,
+ * se prueban contra PostgreSQL en FacturaRepositoryTest.
+ */
+class FacturaServiceImplTest {
+
+    private static final int MESES_RETENCION = 24;
+
+    private final FacturaRepository facturaRepository = mock(FacturaRepository.class);
+    private final FacturaArchivadaRepository facturaArchivadaRepository = mock(FacturaArchivadaRepository.class);
+
+    private final FacturaServiceImpl servicio = new FacturaServiceImpl(facturaRepository,
+            new ArchivoFacturasService(facturaArchivadaRepository, new ObjectMapper().findAndRegisterModules(),
+                    MESES_RETENCION),
+            null, null);
+
+    @Test
+    void porIdBuscaEnElArchivoSoloSiNoEstaActiva() {
+        when(facturaRepository.findById(1L)).thenReturn(Optional.of(activa(1L, LocalDate.now())));
+
+        assertEquals(1L, servicio.obtenerFacturaPorId(1L).orElseThrow().getId());
+        verifyNoInteractions(facturaArchivadaRepository);
+
+        when(facturaArchivadaRepository.findById(2L))
+                .thenReturn(Optional.of(archivada(2L, LocalDate.now().minusYears(3), "PAGADA")));
+        FacturaEntity vieja = servicio.obtenerFacturaPorId(2L).orElseThrow();
+        assertEquals(FacturaEntity.EstadoPago.PAGADA, vieja.getEstadoPago());
+        assertEquals("001-001-0000002", vieja.getNumeroFactura());
+        assertEquals(LocalDate.now().minusYears(3), vieja.getFechaEmision());
+
+        assertEquals(Optional.empty(), servicio.obtenerFacturaPorId(3L));
+    }
+
+    @Test
+    void unPeriodoQueEmpiezaAntesDeLaRetencionJuntaArchivoYActivas() {
+        LocalDate inicioActivo = LocalDate.now().withDayOfMonth(1).minusMonths(MESES_RETENCION);
+        LocalDate desde = inicioActivo.minusMonths(1);
+        when(facturaArchivadaRepository.findByFechaEmisionBetweenOrderByFechaEmision(desde, LocalDate.now()))
+                .thenReturn(List.of(archivada(1L, inicioActivo.minusDays(10), "PAGADA")));
+        when(facturaRepository.findByFechaEmisionBetweenOrderByFechaEmision(desde, LocalDate.now()))
+                .thenReturn(List.of(activa(2L, inicioActivo.plusDays(3))));
+
+        List<FacturaEntity> facturas = servicio.obtenerFacturasPorPeriodo(desde, LocalDate.now());
+
+        assertEquals(List.of(1L, 2L), ids(facturas));
+    }
+
+    @Test
+    void unPeriodoDentroDeLaRetencionNoConsultaElArchivo() {
+        LocalDate desde = LocalDate.now().minusMonths(1);
+        when(facturaRepository.findByFechaEmisionBetweenOrderByFechaEmision(desde, LocalDate.now()))
+                .thenReturn(List.of(activa(1L, LocalDate.now())));
+
+        assertEquals(1, servicio.obtenerFacturasPorPeriodo(desde, LocalDate.now()).size());
+        verifyNoInteractions(facturaArchivadaRepository);
+    }
+
+    @Test
+    void porVencerConsultaDesdeHoyHastaLosDiasPedidos() {
+        LocalDate hoy = LocalDate.now();
+        List<FacturaEntity> pendientes = List.of(pendiente(1L, 10L, hoy.plusDays(3)));
+        when(facturaRepository.buscarPendientesConVencimientoEntre(hoy, hoy.plusDays(7))).thenReturn(pendientes);
+
+        assertSame(pendientes, servicio.obtenerFacturasPorVencer(7));
+    }
+
+    @Test
+    void pendientesPorContratosDevuelveTodosLosPedidosAunqueNoTenganFacturas() {
+        when(facturaRepository.buscarPendientesPorContratos(any())).thenReturn(List.of(
+                pendiente(1L, 10L, LocalDate.now()), pendiente(3L, 10L, LocalDate.now())));
+
+        Map<Long, List<FacturaEntity>> porContrato = servicio.obtenerPendientesPorContratos(List.of(10L, 30L));
+
+        assertEquals(List.of(10L, 30L), List.copyOf(porContrato.keySet()));
+        assertEquals(List.of(1L, 3L), ids(porContrato.get(10L)));
+        assertTrue(porContrato.get(30L).isEmpty());
+    }
+
+    @Test
+    void siElUpdateCondicionalEscribeLaFacturaQuedaPagadaSinReleerla() {
+        when(facturaRepository.marcarPagada(eq(1L), eq("TX-1"), any())).thenReturn(1);
+
+        assertEquals(FacturaService.ResultadoPago.PAGADA, servicio.pagarFactura(1L, "TX-1"));
+        verify(facturaRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void siNoEstabaPendienteSeDistingueElReintentoDelConflicto() {
+        FacturaEntity pagada = pendiente(1L, 10L, LocalDate.now());
+        pagada.setEstadoPago(FacturaEntity.EstadoPago.PAGADA);
+        pagada.setReferenciaPago("TX-1");
+        when(facturaRepository.findById(1L)).thenReturn(Optional.of(pagada));
+
+        assertEquals(FacturaService.ResultadoPago.YA_PAGADA, servicio.pagarFactura(1L, "TX-1"));
+        assertEquals(FacturaService.ResultadoPago.CONFLICTO, servicio.pagarFactura(1L, "TX-2"));
+        assertEquals(FacturaService.ResultadoPago.NO_ENCONTRADA, servicio.pagarFactura(2L, "TX-1"));
+    }
+
+    @Test
+    void conLaVersionVigenteDevuelveLaFilaQueDevolvioElUpdate() {
+        FacturaEntity actualizada = numerada(1L, null, 4L);
+        actualizada.setNumeroTimbrado("T2");
+        when(facturaRepository.actualizarSiVersion(1L, 3L, "T2")).thenReturn(Optional.of(actualizada));
+
+        assertSame(actualizada, servicio.actualizarFactura(1L, 3L, timbrado("T2")).orElseThrow());
+        verify(facturaRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void conUnaVersionViejaEsConflictoOptimista() {
+        when(facturaRepository.findById(1L)).thenReturn(Optional.of(numerada(1L, null, 3L)));
+
+        assertThrows(OptimisticLockingFailureException.class, () -> servicio.actualizarFactura(1L, 2L, timbrado("T2")));
+    }
+
+    @Test
+    void unaFacturaNumeradaNoCambiaDeTimbrado() {
+        when(facturaRepository.findById(1L)).thenReturn(Optional.of(numerada(1L, 25L, 3L)));
+
+        assertThrows(IllegalStateException.class, () -> servicio.actualizarFactura(1L, 3L, timbrado("T2")));
+        // Con el mismo timbrado el UPDATE no escribió porque alguien la cambió en el medio
+        assertThrows(OptimisticLockingFailureException.class, () -> servicio.actualizarFactura(1L, 3L, timbrado("T1")));
+    }
+
+    @Test
+    void unaFacturaInexistenteNoSeActualiza() {
+        assertEquals(Optional.empty(), servicio.actualizarFactura(1L, 3L, timbrado("T2")));
+    }
+
+    private static FacturaEntity pendiente(Long id, Long idContrato, LocalDate fechaVencimiento) {
+        FacturaEntity factura = activa(id, LocalDate.now());
+        factura.setIdContrato(idContrato);
+        factura.setFechaVencimiento(fechaVencimiento);
+        return factura;
+    }
+
+    private static FacturaEntity numerada(Long id, Long numeroSecuencia, Long version) {
+        FacturaEntity factura = activa(id, LocalDate.now());
+        factura.setNumeroTimbrado("T1");
+        factura.setNumeroSecuencia(numeroSecuencia);
+        factura.setVersion(version);
+        return factura;
+    }
+
+    private static FacturaEntity timbrado(String numeroTimbrado) {
+        FacturaEntity factura = new FacturaEntity();
+        factura.setNumeroTimbrado(numeroTimbrado);
+        return factura;
+    }
+
+    private static List<Long> ids(List<FacturaEntity> facturas) {
+        return facturas.stream().map(FacturaEntity::getId).toList();
+    }
+
+    private static FacturaEntity activa(Long id, LocalDate fechaEmision) {
+        FacturaEntity factura = new FacturaEntity();
+        factura.setId(id);
+        factura.setFechaEmision(fechaEmision);
+        return factura;
+    }
+
+    // Como la deja to_jsonb(factura): claves con los nombres de columna
+    private static FacturaArchivadaEntity archivada(Long id, LocalDate fechaEmision, String estado) {
+        String datos = String.format("{\"id\": %d, \"numero_factura\": \"001-001-%07d\", \"numero_timbrado\": \"T1\", " +
+                "\"fecha_emision\": \"%s\", \"estado_pago\": \"%s\", \"version\": 0, \"columna_nueva\": 1}",
+                id, id, fechaEmision, estado);
+        return new FacturaArchivadaEntity(id, fechaEmision, null, datos);
+    }
+}
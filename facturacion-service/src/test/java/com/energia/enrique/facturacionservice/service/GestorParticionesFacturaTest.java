@@ -0,0 +1,147 @@
+package com.energia.enrique.facturacionservice.service;
+
+import com.energia.enrique.facturacionservice.repository.ParticionesFacturaRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GestorParticionesFacturaTest {
+
+    private static final YearMonth ACTUAL = YearMonth.now();
+
+    private final ParticionesEnMemoria particiones = new ParticionesEnMemoria();
+    private final GestorParticionesFactura gestor = new GestorParticionesFactura(particiones, 2, 12);
+
+    @Test
+    void creaLosMesesProximosYLaParticionDeUnMesRetenidoQueCayoEnDefault() {
+        particiones.insertar(ACTUAL.minusMonths(3).atDay(10), false);
+        particiones.insertar(ACTUAL.minusMonths(3).atDay(20), true);
+
+        gestor.crearParticionesFuturas();
+
+        assertEquals(List.of(ACTUAL.minusMonths(3), ACTUAL, ACTUAL.plusMonths(1), ACTUAL.plusMonths(2)),
+                particiones.mesesConParticion());
+        assertEquals(2, particiones.particiones.get(ACTUAL.minusMonths(3)).size());
+        assertTrue(particiones.enDefault.isEmpty());
+    }
+
+    @Test
+    void unaFacturaQueCaeEnDefaultPasaASuParticionEnLaSiguientePasada() {
+        gestor.crearParticionesFuturas();
+        // Emitida con fecha de un mes que todavía no tenía partición
+        particiones.insertar(ACTUAL.plusMonths(5).atDay(1), true);
+        assertEquals(1, particiones.enDefault.size());
+
+        gestor.mantenerParticiones();
+
+        assertTrue(particiones.enDefault.isEmpty());
+        assertEquals(1, particiones.particiones.get(ACTUAL.plusMonths(5)).size());
+        assertTrue(particiones.archivadas.isEmpty());
+    }
+
+    @Test
+    void archivaLasParticionesViejasSalvoLasQueTienenPendientes() {
+        YearMonth vieja = ACTUAL.minusMonths(14);
+        YearMonth conPendientes = ACTUAL.minusMonths(13);
+        YearMonth retenida = ACTUAL.minusMonths(11);
+        for (YearMonth mes : List.of(vieja, conPendientes, retenida)) {
+            particiones.crearParticion(mes);
+            particiones.insertar(mes.atDay(5), false);
+        }
+        particiones.insertar(conPendientes.atDay(6), true);
+
+        assertEquals(1, gestor.archivarPeriodosCerrados());
+
+        assertEquals(List.of(conPendientes, retenida), particiones.mesesConParticion());
+        assertEquals(List.of(vieja.atDay(5)), particiones.archivadas);
+    }
+
+    @Test
+    void archivaLoQueQuedoEnDefaultDeMesesFueraDeLaRetencion() {
+        YearMonth viejo = ACTUAL.minusMonths(20);
+        YearMonth conPendientes = ACTUAL.minusMonths(19);
+        particiones.insertar(viejo.atDay(3), false);
+        particiones.insertar(viejo.atDay(4), false);
+        particiones.insertar(conPendientes.atDay(3), true);
+
+        gestor.mantenerParticiones();
+
+        assertEquals(List.of(viejo.atDay(3), viejo.atDay(4)), particiones.archivadas);
+        assertEquals(List.of(conPendientes), particiones.mesesEnDefault());
+        // Un mes fuera de la retención no recibe partición nueva
+        assertTrue(particiones.mesesConParticion().stream().noneMatch(mes -> mes.isBefore(ACTUAL)));
+    }
+
+    /** Particiones por mes, la default y el archivo; como en la base, cada fila va donde haya partición. */
+    private static class ParticionesEnMemoria extends ParticionesFacturaRepository {
+
+        private final Map<YearMonth, List<Fila>> particiones = new TreeMap<>();
+        private final List<Fila> enDefault = new ArrayList<>();
+        private final List<LocalDate> archivadas = new ArrayList<>();
+
+        ParticionesEnMemoria() {
+            super(null);
+        }
+
+        void insertar(LocalDate fechaEmision, boolean pendiente) {
+            Fila fila = new Fila(fechaEmision, pendiente);
+            particiones.getOrDefault(YearMonth.from(fechaEmision), enDefault).add(fila);
+        }
+
+        @Override
+        public List<YearMonth> mesesConParticion() {
+            return new ArrayList<>(particiones.keySet());
+        }
+
+        @Override
+        public List<YearMonth> mesesEnDefault() {
+            return enDefault.stream().map(fila -> YearMonth.from(fila.fechaEmision())).distinct().sorted().toList();
+        }
+
+        @Override
+        public void crearParticion(YearMonth mes) {
+            if (particiones.containsKey(mes)) {
+                return;
+            }
+            List<Fila> delMes = new ArrayList<>(enDefault.stream().filter(fila -> fila.es(mes)).toList());
+            enDefault.removeAll(delMes);
+            particiones.put(mes, delMes);
+        }
+
+        @Override
+        public boolean conPendientes(YearMonth mes, boolean enDefault) {
+            List<Fila> filas = enDefault ? this.enDefault : particiones.get(mes);
+            return filas.stream().anyMatch(fila -> fila.es(mes) && fila.pendiente());
+        }
+
+        @Override
+        public int archivarParticion(YearMonth mes) {
+            List<Fila> filas = particiones.remove(mes);
+            filas.forEach(fila -> archivadas.add(fila.fechaEmision()));
+            return filas.size();
+        }
+
+        @Override
+        public int archivarDeDefault(YearMonth mes) {
+            List<Fila> delMes = enDefault.stream().filter(fila -> fila.es(mes)).toList();
+            enDefault.removeAll(delMes);
+            delMes.forEach(fila -> archivadas.add(fila.fechaEmision()));
+            return delMes.size();
+        }
+    }
+
+    private record Fila(LocalDate fechaEmision, boolean pendiente) {
+
+        boolean es(YearMonth mes) {
+            return YearMonth.from(fechaEmision).equals(mes);
+        }
+    }
+}
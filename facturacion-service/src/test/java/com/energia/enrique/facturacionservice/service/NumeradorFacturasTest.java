@@ -0,0 +1,193 @@
+package com.energia.enrique.facturacionservice.service;
+
+import com.energia.enrique.facturacionservice.repository.NumeracionRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NumeradorFacturasTest {
+
+    private static final String TIMBRADO = "12345678";
+
+    private final NumeracionEnMemoria numeracion = new NumeracionEnMemoria();
+
+    @Test
+    void dosHilosConcurrentesRecibenRangosDisjuntos() throws Exception {
+        NumeradorFacturas numerador = numerador(10, 15);
+        int porHilo = 1_000;
+        ExecutorService hilos = Executors.newFixedThreadPool(2);
+        try {
+            CountDownLatch largada = new CountDownLatch(1);
+            List<Future<List<Long>>> resultados = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                resultados.add(hilos.submit(() -> {
+                    largada.await();
+                    List<Long> secuencias = new ArrayList<>();
+                    for (int j = 0; j < porHilo; j++) {
+                        secuencias.add(numerador.siguiente(TIMBRADO).secuencia());
+                    }
+                    return secuencias;
+                }));
+            }
+            largada.countDown();
+
+            List<Long> primero = resultados.get(0).get();
+            List<Long> segundo = resultados.get(1).get();
+            Set<Long> todas = new HashSet<>(primero);
+            todas.addAll(segundo);
+            assertEquals(2 * porHilo, todas.size());
+            // Cada hilo numera de su propio bloque: dentro de un hilo la secuencia es creciente
+            assertTrue(creciente(primero) && creciente(segundo));
+        } finally {
+            hilos.shutdownNow();
+        }
+        assertEquals(2 * 1_000 / 10, numeracion.bloques.size());
+    }
+
+    @Test
+    void elFormatoLlevaPrefijoYSecuenciaConCeros() {
+        NumeradorFacturas.NumeroFactura numero = numerador(10, 15).siguiente(TIMBRADO);
+
+        assertEquals(1, numero.secuencia());
+        assertEquals("001-001-0000001", numero.numero());
+    }
+
+    @Test
+    void unBloqueVencidoQuedaJustificadoCompletoTrasConciliar() {
+        // Vida cero: cada número sale de un bloque nuevo y el anterior queda vencido
+        NumeradorFacturas numerador = numerador(10, 0);
+        for (int i = 0; i < 3; i++) {
+            numeracion.conFactura.add(numerador.siguiente(TIMBRADO).secuencia());
+        }
+        // Reservado y nunca usado: el hilo murió antes de facturar
+        numeracion.reservarBloque(TIMBRADO, 10, "otra");
+
+        numerador.conciliarBloques();
+
+        assertTrue(numeracion.bloques.values().stream().allMatch(b -> b.conciliado));
+        Set<Long> justificados = new HashSet<>(numeracion.conFactura);
+        for (long anulado : numeracion.anulados) {
+            assertTrue(justificados.add(anulado), "Anulado con factura: " + anulado);
+        }
+        assertEquals(LongStream.rangeClosed(1, 40).boxed().toList(), justificados.stream().sorted().toList());
+    }
+
+    @Test
+    void alArrancarCierraLosBloquesQueLaInstanciaDejoAbiertos() {
+        numeracion.reservarBloque(TIMBRADO, 10, "local");
+        numeracion.reservarBloque(TIMBRADO, 10, "otra");
+
+        numerador(10, 15).cerrarBloquesHuerfanos();
+
+        assertTrue(numeracion.bloques.get(1L).cerrado);
+        assertFalse(numeracion.bloques.get(2L).cerrado);
+    }
+
+    private NumeradorFacturas numerador(int tamanoBloque, int vidaBloqueMinutos) {
+        return new NumeradorFacturas(numeracion, "001-001", tamanoBloque, vidaBloqueMinutos, 0, "local");
+    }
+
+    private static boolean creciente(List<Long> secuencias) {
+        for (int i = 1; i < secuencias.size(); i++) {
+            if (secuencias.get(i) <= secuencias.get(i - 1)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Las facturas emitidas se anotan en conFactura; la conciliación ignora el margen de tiempo
+    private static class NumeracionEnMemoria extends NumeracionRepository {
+
+        private final Map<Long, Bloque> bloques = new ConcurrentHashMap<>();
+        private final Set<Long> conFactura = new HashSet<>();
+        private final List<Long> anulados = new ArrayList<>();
+        private long ultimoReservado;
+        private long ultimoId;
+
+        NumeracionEnMemoria() {
+            super(null);
+        }
+
+        @Override
+        public synchronized BloqueReservado reservarBloque(String numeroTimbrado, int tamano, String instancia) {
+            long desde = ultimoReservado + 1;
+            ultimoReservado += tamano;
+            Bloque bloque = new Bloque(++ultimoId, desde, ultimoReservado, instancia);
+            bloques.put(bloque.id, bloque);
+            return new BloqueReservado(bloque.id, desde, ultimoReservado);
+        }
+
+        @Override
+        public void cerrarBloque(long id) {
+            bloques.get(id).cerrado = true;
+        }
+
+        @Override
+        public int cerrarBloquesDeInstancia(String instancia) {
+            int cerrados = 0;
+            for (Bloque bloque : bloques.values()) {
+                if (bloque.instancia.equals(instancia) && !bloque.cerrado) {
+                    bloque.cerrado = true;
+                    cerrados++;
+                }
+            }
+            return cerrados;
+        }
+
+        @Override
+        public void cerrarBloquesReservadosAntesDe(LocalDateTime vencimiento) {
+            // Los bloques de otras instancias se dan por vencidos
+            bloques.values().stream().filter(b -> !b.instancia.equals("local")).forEach(b -> b.cerrado = true);
+        }
+
+        @Override
+        public int conciliarCerradosAntesDe(LocalDateTime limite, int lote) {
+            int total = 0;
+            for (Bloque bloque : bloques.values()) {
+                if (bloque.cerrado && !bloque.conciliado) {
+                    for (long n = bloque.desde; n <= bloque.hasta; n++) {
+                        if (!conFactura.contains(n)) {
+                            anulados.add(n);
+                            total++;
+                        }
+                    }
+                    bloque.conciliado = true;
+                }
+            }
+            return total;
+        }
+    }
+
+    private static class Bloque {
+
+        private final long id;
+        private final long desde;
+        private final long hasta;
+        private final String instancia;
+        private volatile boolean cerrado;
+        private volatile boolean conciliado;
+
+        private Bloque(long id, long desde, long hasta, String instancia) {
+            this.id = id;
+            this.desde = desde;
+            this.hasta = hasta;
+            this.instancia = instancia;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.energia.enrique.medidorservice.config;
+
+import com.energia.enrique.medidorservice.model.MedidorEntity;
+import com.energia.enrique.medidorservice.model.MedidorResumen;
+import com.energia.enrique.medidorservice.repository.MedidorRepository;
+import com.energia.enrique.medidorservice.service.LoteMedidoresService;
+import com.energia.shared.infrastructure.trazas.MuestreoDebugFilter;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.data.projection.TargetAware;
+
+/**
+ * Pistas para la imagen nativa (perfil Maven "nativo"): lo que Spring AOT no
+ * deduce solo porque se usa por reflexión fuera de las firmas que analiza.
+ * En la JVM no tiene efecto.
+ */
+@Configuration
+@ImportRuntimeHints(NativoConfig.HintsMedidor.class)
+public class NativoConfig {
+
+    static class HintsMedidor implements RuntimeHintsRegistrar {
+
+        private final BindingReflectionHintsRegistrar jackson = new BindingReflectionHintsRegistrar();
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            // Cuerpos JSON de endpoints que devuelven ResponseEntity<?>: AOT no ve el tipo real
+            jackson.registerReflectionHints(hints.reflection(), MedidorEntity.class,
+                    LoteMedidoresService.ResultadoLote.class, LoteMedidoresService.Reasignacion.class);
+
+            // BeanPropertyRowMapper arma el medidor con el constructor vacío y los setters
+            hints.reflection().registerType(MedidorEntity.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS,
+                    MemberCategory.INVOKE_PUBLIC_METHODS);
+
+            // Proyecciones por interfaz de Spring Data: son proxies JDK
+            hints.proxies().registerJdkProxy(AopProxyUtils.completeJdkProxyInterfaces(
+                    MedidorResumen.class, TargetAware.class));
+            hints.proxies().registerJdkProxy(AopProxyUtils.completeJdkProxyInterfaces(
+                    MedidorRepository.MedidorActualizado.class, TargetAware.class));
+
+            // logback-spring.xml instancia estas clases por nombre
+            hints.reflection().registerType(MuestreoDebugFilter.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS,
+                    MemberCategory.INVOKE_PUBLIC_METHODS);
+            hints.reflection().registerType(TypeReference.of("ch.qos.logback.classic.AsyncAppender"),
+                    MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+            hints.reflection().registerType(TypeReference.of("ch.qos.logback.classic.encoder.JsonEncoder"),
+                    MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+
+            // Spring Boot solo registra db/migration/*; las migraciones viven en una subcarpeta
+            hints.resources().registerPattern("db/migration/medidor/*");
+        }
+    }
+}
@@ -1,17 +1,25 @@
 package com.energia.enrique.medidorservice.controller;
 
 import com.energia.enrique.medidorservice.model.MedidorEntity;
+import com.energia.enrique.medidorservice.model.MedidorResumen;
+import com.energia.enrique.medidorservice.service.LoteMedidoresService;
 import com.energia.enrique.medidorservice.service.MedidorService;
+import com.energia.shared.infrastructure.web.VersionEtag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/medidores")
@@ -19,45 +27,137 @@ import java.util.List;
 @RequiredArgsConstructor
 public class MedidorController {
 
+    private static final int MAXIMO_IDS_POR_CONSULTA = 1000;
+
     private final MedidorService medidorService;
+    private final LoteMedidoresService loteMedidoresService;
     private final Logger logger = LoggerFactory.getLogger(MedidorController.class);
 
     @GetMapping
     public ResponseEntity<List<MedidorEntity>> obtenerTodosMedidores() {
         List<MedidorEntity> medidores = medidorService.obtenerTodosMedidores();
-        logger.info("Obteniendo todos los medidores. Cantidad: {}", medidores.size());
+        logger.debug("Obteniendo todos los medidores. Cantidad: {}", medidores.size());
         return ResponseEntity.ok(medidores);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<MedidorEntity> obtenerMedidorPorId(@PathVariable Long id) {
+    public ResponseEntity<MedidorEntity> obtenerMedidorPorId(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         return medidorService.obtenerMedidorPorId(id)
                 .map(medidor -> {
-                    logger.info("Obteniendo medidor con ID: {}", id);
-                    return ResponseEntity.ok(medidor);
+                    logger.debug("Obteniendo medidor con ID: {}", id);
+                    String etag = VersionEtag.etag(medidor.getVersion());
+                    if (VersionEtag.coincide(ifNoneMatch, medidor.getVersion())) {
+                        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).<MedidorEntity>build();
+                    }
+                    return ResponseEntity.ok().eTag(etag).body(medidor);
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @GetMapping("/contrato/{idContrato}")
+    public ResponseEntity<List<MedidorResumen>> obtenerMedidoresPorContrato(@PathVariable Long idContrato) {
+        List<MedidorResumen> medidores = medidorService.obtenerMedidoresPorContrato(idContrato);
+        logger.debug("Medidores del contrato {}. Cantidad: {}", idContrato, medidores.size());
+        return ResponseEntity.ok(medidores);
+    }
+
+    // Variante por lote: GET /medidores/contratos?ids=1,2,3 resuelve todos los contratos en una consulta
+    @GetMapping("/contratos")
+    public ResponseEntity<Map<Long, List<MedidorResumen>>> obtenerMedidoresPorContratos(@RequestParam Set<Long> ids) {
+        if (ids.isEmpty() || ids.size() > MAXIMO_IDS_POR_CONSULTA) {
+            return ResponseEntity.badRequest().build();
+        }
+        Map<Long, List<MedidorResumen>> medidores = medidorService.obtenerMedidoresPorContratos(ids);
+        logger.debug("Medidores de {} contratos", ids.size());
+        return ResponseEntity.ok(medidores);
+    }
+
     @PostMapping
     public ResponseEntity<MedidorEntity> crearMedidor(@RequestBody @Valid MedidorEntity medidor) {
         MedidorEntity nuevoMedidor = medidorService.crearMedidor(medidor);
         logger.info("Creando nuevo medidor. ID: {}", nuevoMedidor.getId());
-        return ResponseEntity.status(HttpStatus.CREATED).body(nuevoMedidor);
+        return ResponseEntity.status(HttpStatus.CREATED).eTag(VersionEtag.etag(nuevoMedidor.getVersion())).body(nuevoMedidor);
+    }
+
+    // Alta masiva: crea los nuevos y actualiza los existentes por número; un resultado por ítem
+    @PostMapping("/lote")
+    public ResponseEntity<?> crearMedidoresEnLote(@RequestBody List<MedidorEntity> medidores) {
+        try {
+            LoteMedidoresService.ResultadoLote resultado = loteMedidoresService.crearOActualizar(medidores);
+            logger.info("Lote de medidores procesado. Ítems: {}. Totales: {}", medidores.size(), resultado.totales());
+            return ResponseEntity.ok(resultado);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @PostMapping("/lote/reasignacion")
+    public ResponseEntity<?> reasignarMedidoresEnLote(@RequestBody List<LoteMedidoresService.Reasignacion> reasignaciones) {
+        try {
+            LoteMedidoresService.ResultadoLote resultado = loteMedidoresService.reasignar(reasignaciones);
+            logger.info("Reasignación por lote procesada. Ítems: {}. Totales: {}", reasignaciones.size(), resultado.totales());
+            return ResponseEntity.ok(resultado);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<MedidorEntity> actualizarMedidor(@PathVariable Long id, @RequestBody @Valid MedidorEntity nuevoMedidor) {
-        MedidorEntity medidorActualizado = medidorService.actualizarMedidor(id, nuevoMedidor);
+    public ResponseEntity<MedidorEntity> actualizarMedidor(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody @Valid MedidorEntity nuevoMedidor) {
+        if (VersionEtag.sinPrecondicion(ifMatch, nuevoMedidor.getVersion())) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_REQUIRED).build();
+        }
+        MedidorEntity medidorActualizado;
+        try {
+            medidorActualizado = medidorService.actualizarMedidor(id,
+                    VersionEtag.versionEsperada(ifMatch, nuevoMedidor.getVersion()), nuevoMedidor);
+        } catch (OptimisticLockingFailureException e) {
+            logger.info("Actualización rechazada por versión obsoleta. Medidor ID: {}", id);
+            return precondicionFallida(id);
+        }
 
         if (medidorActualizado != null) {
             logger.info("Actualizando medidor con ID: {}", id);
-            return ResponseEntity.ok(medidorActualizado);
+            return ResponseEntity.ok().eTag(VersionEtag.etag(medidorActualizado.getVersion())).body(medidorActualizado);
         } else {
             return ResponseEntity.notFound().build();
         }
     }
 
+    @PatchMapping("/{id}")
+    public ResponseEntity<?> actualizarMedidorParcial(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody Map<String, Object> cambios) {
+        MedidorEntity medidorActualizado;
+        try {
+            medidorActualizado = medidorService.actualizarMedidorParcial(id,
+                    VersionEtag.versionEsperada(ifMatch, null), cambios);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (OptimisticLockingFailureException e) {
+            logger.info("Actualización parcial rechazada por versión obsoleta. Medidor ID: {}", id);
+            return precondicionFallida(id);
+        } catch (DuplicateKeyException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("El número de medidor ya existe");
+        }
+
+        if (medidorActualizado == null) {
+            return ResponseEntity.notFound().build();
+        }
+        logger.info("Actualización parcial de medidor con ID: {}. Campos: {}", id, cambios.keySet());
+        return ResponseEntity.ok().eTag(VersionEtag.etag(medidorActualizado.getVersion())).body(medidorActualizado);
+    }
+
+    // 412 con el ETag vigente: el cliente sabe qué versión releer sin otro GET
+    private <T> ResponseEntity<T> precondicionFallida(Long id) {
+        String etag = medidorService.obtenerMedidorPorId(id)
+                .map(medidor -> VersionEtag.etag(medidor.getVersion()))
+                .orElse(null);
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).eTag(etag).build();
+    }
 
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> eliminarMedidor(@PathVariable Long id) {
@@ -26,4 +26,8 @@ public class MedidorEntity {
     @NotNull(message = "El ID del contrato no puede ser nulo")
     @Column(name = "id_contrato")
     private Long idContrato;
+
+    // Se expone como ETag; en PUT el cliente la devuelve en If-Match (o en el cuerpo)
+    @Version
+    private Long version;
 }
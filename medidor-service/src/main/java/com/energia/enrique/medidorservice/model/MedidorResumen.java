@@ -0,0 +1,16 @@
+package com.energia.enrique.medidorservice.model;
+
+/**
+ * Proyección para recorrer contrato → medidores. Solo lee columnas cubiertas
+ * por idx_medidores_contrato.
+ */
+public interface MedidorResumen {
+
+    Long getId();
+
+    String getNumeroMedidor();
+
+    String getTipoMedidor();
+
+    Long getIdContrato();
+}
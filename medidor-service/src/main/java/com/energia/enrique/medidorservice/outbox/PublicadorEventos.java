@@ -0,0 +1,76 @@
+package com.energia.enrique.medidorservice.outbox;
+
+import com.energia.enrique.medidorservice.model.MedidorEntity;
+import com.energia.shared.infrastructure.outbox.AlmacenOutboxJdbc;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Registra eventos de dominio en la tabla outbox dentro de la transacción
+ * del cambio que los origina. El relay se encarga luego de publicarlos.
+ */
+@Component
+@RequiredArgsConstructor
+public class PublicadorEventos {
+
+    public static final String MEDIDOR_CREADO = "MedidorCreado";
+    public static final String MEDIDOR_REASIGNADO = "MedidorReasignado";
+    public static final String MEDIDOR_ELIMINADO = "MedidorEliminado";
+
+    private static final String AGREGADO_MEDIDOR = "Medidor";
+
+    private final AlmacenOutboxJdbc almacenOutbox;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarEventoMedidor(String tipoEvento, Long idMedidor, Map<String, Object> datos) {
+        almacenOutbox.registrar(new AlmacenOutboxJdbc.EventoNuevo(tipoEvento, AGREGADO_MEDIDOR,
+                String.valueOf(idMedidor), serializar(datos)));
+    }
+
+    /**
+     * Registro masivo para operaciones por lote, en un solo batch JDBC.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarEventosMedidor(List<EventoMedidor> eventos) {
+        List<AlmacenOutboxJdbc.EventoNuevo> nuevos = new ArrayList<>(eventos.size());
+        for (EventoMedidor evento : eventos) {
+            nuevos.add(new AlmacenOutboxJdbc.EventoNuevo(evento.tipoEvento(), AGREGADO_MEDIDOR,
+                    String.valueOf(evento.idMedidor()), serializar(evento.datos())));
+        }
+        almacenOutbox.registrarTodos(nuevos);
+    }
+
+    public static Map<String, Object> datosEvento(MedidorEntity medidor, Long contratoAnterior) {
+        // HashMap: idContratoAnterior puede ser nulo
+        Map<String, Object> datos = new HashMap<>();
+        datos.put("id", medidor.getId());
+        datos.put("numeroMedidor", medidor.getNumeroMedidor());
+        datos.put("tipoMedidor", medidor.getTipoMedidor());
+        datos.put("idContrato", medidor.getIdContrato());
+        if (contratoAnterior != null) {
+            datos.put("idContratoAnterior", contratoAnterior);
+        }
+        return datos;
+    }
+
+    public record EventoMedidor(String tipoEvento, Long idMedidor, Map<String, Object> datos) {
+    }
+
+    private String serializar(Map<String, Object> datos) {
+        try {
+            return objectMapper.writeValueAsString(datos);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el evento de dominio", e);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.energia.enrique.medidorservice.repository;
+
+import com.energia.enrique.medidorservice.model.MedidorEntity;
+
+import java.util.Map;
+import java.util.Optional;
+
+// Fragmento de MedidorRepository: PATCH como un único UPDATE con las columnas recibidas
+public interface ActualizacionParcialMedidor {
+
+    /**
+     * @param cambios Campo → valor; solo esas columnas se escriben
+     * @param versionEsperada null actualiza sin condición
+     * @return Vacío si no hay fila con ese id (y esa versión)
+     * @throws IllegalArgumentException si un campo no es actualizable o su valor es inválido
+     */
+    Optional<MedidorParcial> actualizarCampos(Long id, Long versionEsperada, Map<String, ?> cambios);
+
+    record MedidorParcial(MedidorEntity medidor, Long idContratoAnterior) {
+    }
+}
@@ -0,0 +1,38 @@
+package com.energia.enrique.medidorservice.repository;
+
+import com.energia.enrique.medidorservice.model.MedidorEntity;
+import com.energia.shared.infrastructure.persistencia.ActualizacionParcial;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@RequiredArgsConstructor
+public class ActualizacionParcialMedidorImpl implements ActualizacionParcialMedidor {
+
+    // El contrato anterior sale de la fila bloqueada antes del UPDATE, no de la foto del inicio de la sentencia
+    private static final ActualizacionParcial ACTUALIZACION = ActualizacionParcial.tabla("medidores")
+            .columnaVersion("version")
+            .filaPrevia("id_contrato")
+            .retornando("medidores.*, previa.id_contrato AS id_contrato_anterior")
+            .campo("numeroMedidor", "numero_medidor", ActualizacionParcial.textoObligatorio())
+            .campo("tipoMedidor", "tipo_medidor", ActualizacionParcial.textoObligatorio())
+            .campo("idContrato", "id_contrato", ActualizacionParcial.enteroObligatorio())
+            .build();
+
+    private static final BeanPropertyRowMapper<MedidorEntity> MAPEADOR = new BeanPropertyRowMapper<>(MedidorEntity.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public Optional<MedidorParcial> actualizarCampos(Long id, Long versionEsperada, Map<String, ?> cambios) {
+        ActualizacionParcial.Sentencia sentencia = ACTUALIZACION.construir(id, cambios, versionEsperada);
+        List<MedidorParcial> filas = jdbcTemplate.query(sentencia.sql(),
+                (rs, fila) -> new MedidorParcial(MAPEADOR.mapRow(rs, fila), rs.getObject("id_contrato_anterior", Long.class)),
+                sentencia.parametros());
+        return filas.stream().findFirst();
+    }
+}
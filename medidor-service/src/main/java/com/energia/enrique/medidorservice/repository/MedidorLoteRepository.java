@@ -0,0 +1,107 @@
+package com.energia.enrique.medidorservice.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Altas y reasignaciones masivas de medidores. Cada tramo viaja como arrays
+ * en una sola sentencia (unnest), y RETURNING informa qué filas cambiaron,
+ * de modo que el resultado por medidor sale sin más consultas que la que
+ * bloquea las filas existentes para conocer su contrato anterior.
+ */
+@Repository
+@RequiredArgsConstructor
+public class MedidorLoteRepository {
+
+    // El contrato anterior se lee con las filas ya bloqueadas: un subselect en el RETURNING lee la foto
+    // del inicio de la sentencia, que no es la fila actualizada si otra transacción ganó el bloqueo antes.
+    // Por id, para que dos lotes concurrentes bloqueen en el mismo orden
+    private static final String BLOQUEAR = "SELECT id, id_contrato FROM medidores " +
+            "WHERE numero_medidor = ANY (?::varchar[]) ORDER BY id FOR UPDATE";
+
+    // Existentes sin cambios no se tocan (no vuelven en RETURNING); xmax = 0 distingue alta de actualización
+    private static final String UPSERT = "INSERT INTO medidores (numero_medidor, tipo_medidor, id_contrato) " +
+            "SELECT * FROM unnest(?::varchar[], ?::varchar[], ?::bigint[]) " +
+            "ON CONFLICT (numero_medidor) DO UPDATE SET tipo_medidor = EXCLUDED.tipo_medidor, " +
+            "id_contrato = EXCLUDED.id_contrato, version = medidores.version + 1 " +
+            "WHERE medidores.tipo_medidor IS DISTINCT FROM EXCLUDED.tipo_medidor " +
+            "OR medidores.id_contrato IS DISTINCT FROM EXCLUDED.id_contrato " +
+            "RETURNING id, numero_medidor, tipo_medidor, id_contrato, version, (xmax = 0) AS insertado";
+
+    private static final String REASIGNAR = "UPDATE medidores m SET id_contrato = e.id_contrato, version = m.version + 1 " +
+            "FROM unnest(?::varchar[], ?::bigint[]) AS e(numero_medidor, id_contrato) " +
+            "WHERE m.numero_medidor = e.numero_medidor AND m.id_contrato IS DISTINCT FROM e.id_contrato " +
+            "RETURNING m.id, m.numero_medidor, m.tipo_medidor, m.id_contrato, m.version, false AS insertado";
+
+    private static final String EXISTENTES = "SELECT numero_medidor FROM medidores WHERE numero_medidor = ANY (?::varchar[])";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /** Inserta o actualiza por número de medidor. Los números no deben repetirse dentro del tramo. */
+    @Transactional
+    public List<FilaMedidor> upsert(List<String> numeros, List<String> tipos, List<Long> contratos) {
+        Map<Long, Long> anteriores = bloquear(numeros);
+        return jdbcTemplate.query(con -> preparar(con, UPSERT,
+                        crearArray(con, "varchar", numeros), crearArray(con, "varchar", tipos),
+                        crearArray(con, "bigint", contratos)),
+                (rs, fila) -> aFila(rs, anteriores));
+    }
+
+    /** Cambia el contrato de los medidores indicados; solo devuelve los que efectivamente cambiaron. */
+    @Transactional
+    public List<FilaMedidor> reasignar(List<String> numeros, List<Long> contratos) {
+        Map<Long, Long> anteriores = bloquear(numeros);
+        return jdbcTemplate.query(con -> preparar(con, REASIGNAR,
+                        crearArray(con, "varchar", numeros), crearArray(con, "bigint", contratos)),
+                (rs, fila) -> aFila(rs, anteriores));
+    }
+
+    public List<String> existentes(List<String> numeros) {
+        return jdbcTemplate.query(con -> preparar(con, EXISTENTES, crearArray(con, "varchar", numeros)),
+                (rs, fila) -> rs.getString(1));
+    }
+
+    // Id → contrato de las filas existentes, bloqueadas hasta el fin de la transacción
+    private Map<Long, Long> bloquear(List<String> numeros) {
+        Map<Long, Long> anteriores = new HashMap<>();
+        // Bloque y no expresión: así el lambda solo encaja como RowCallbackHandler
+        jdbcTemplate.query(con -> preparar(con, BLOQUEAR, crearArray(con, "varchar", numeros)),
+                rs -> { anteriores.put(rs.getLong("id"), rs.getObject("id_contrato", Long.class)); });
+        return anteriores;
+    }
+
+    private static PreparedStatement preparar(Connection con, String sql, Array... arrays) throws SQLException {
+        PreparedStatement ps = con.prepareStatement(sql);
+        for (int i = 0; i < arrays.length; i++) {
+            ps.setArray(i + 1, arrays[i]);
+        }
+        return ps;
+    }
+
+    private static Array crearArray(Connection con, String tipo, List<?> valores) throws SQLException {
+        return con.createArrayOf(tipo, valores.toArray());
+    }
+
+    // Las altas no están entre las filas bloqueadas: su contrato anterior queda en null
+    private static FilaMedidor aFila(ResultSet rs, Map<Long, Long> anteriores) throws SQLException {
+        long id = rs.getLong("id");
+        return new FilaMedidor(id, rs.getString("numero_medidor"), rs.getString("tipo_medidor"),
+                rs.getObject("id_contrato", Long.class), rs.getLong("version"), rs.getBoolean("insertado"),
+                anteriores.get(id));
+    }
+
+    public record FilaMedidor(long id, String numeroMedidor, String tipoMedidor, Long idContrato, long version,
+                              boolean insertado, Long idContratoAnterior) {
+    }
+}
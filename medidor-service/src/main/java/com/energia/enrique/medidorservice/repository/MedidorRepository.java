@@ -1,7 +1,37 @@
 package com.energia.enrique.medidorservice.repository;
 
 import com.energia.enrique.medidorservice.model.MedidorEntity;
+import com.energia.enrique.medidorservice.model.MedidorResumen;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface MedidorRepository extends JpaRepository<MedidorEntity,Long> {
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface MedidorRepository extends JpaRepository<MedidorEntity,Long>, ActualizacionParcialMedidor {
+
+    // Proyecciones: el SELECT solo trae las columnas de MedidorResumen (cubiertas por idx_medidores_contrato)
+    List<MedidorResumen> findByIdContratoOrderById(Long idContrato);
+
+    List<MedidorResumen> findByIdContratoInOrderByIdContratoAscIdAsc(Collection<Long> idsContrato);
+
+    // Un solo UPDATE, sin lectura previa. Con versión solo escribe si nadie actualizó la fila desde
+    // que el cliente la leyó; el join con la misma tabla devuelve el contrato anterior para el evento.
+    @Query(value = "UPDATE medidores m SET numero_medidor = :numeroMedidor, tipo_medidor = :tipoMedidor, " +
+            "id_contrato = :idContrato, version = m.version + 1 " +
+            "FROM medidores anterior WHERE anterior.id = m.id AND m.id = :id " +
+            "AND (CAST(:version AS BIGINT) IS NULL OR m.version = :version) " +
+            "RETURNING m.version AS \"version\", anterior.id_contrato AS \"idContratoAnterior\"", nativeQuery = true)
+    Optional<MedidorActualizado> actualizarSiVersion(@Param("id") Long id, @Param("version") Long version,
+                                                     @Param("numeroMedidor") String numeroMedidor,
+                                                     @Param("tipoMedidor") String tipoMedidor,
+                                                     @Param("idContrato") Long idContrato);
+
+    interface MedidorActualizado {
+        Long getVersion();
+
+        Long getIdContratoAnterior();
+    }
 }
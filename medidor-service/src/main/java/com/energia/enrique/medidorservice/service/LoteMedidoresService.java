@@ -0,0 +1,252 @@
+package com.energia.enrique.medidorservice.service;
+
+import com.energia.enrique.medidorservice.model.MedidorEntity;
+import com.energia.enrique.medidorservice.outbox.PublicadorEventos;
+import com.energia.enrique.medidorservice.repository.MedidorLoteRepository;
+import com.energia.enrique.medidorservice.repository.MedidorLoteRepository.FilaMedidor;
+import io.micrometer.core.annotation.Timed;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Alta y reasignación de medidores por lotes (instalaciones de cuadrillas).
+ * Los ítems inválidos o repetidos se informan sin frenar al resto; los válidos
+ * se escriben por tramos de una sentencia cada uno, y sus eventos en un batch.
+ */
+@Service
+@Timed(value = "energia.servicio", histogram = true)
+public class LoteMedidoresService {
+
+    private final MedidorLoteRepository medidorLoteRepository;
+    private final PublicadorEventos publicadorEventos;
+    private final Validator validator;
+    private final int maximoItems;
+    private final int tamanoTramo;
+
+    public LoteMedidoresService(MedidorLoteRepository medidorLoteRepository, PublicadorEventos publicadorEventos,
+                                Validator validator,
+                                @Value("${energia.medidor.lote.maximo-items:5000}") int maximoItems,
+                                @Value("${energia.medidor.lote.tamano-tramo:1000}") int tamanoTramo) {
+        if (maximoItems <= 0 || tamanoTramo <= 0) {
+            throw new IllegalArgumentException("El máximo de ítems y el tamaño de tramo deben ser mayores que 0");
+        }
+        this.medidorLoteRepository = medidorLoteRepository;
+        this.publicadorEventos = publicadorEventos;
+        this.validator = validator;
+        this.maximoItems = maximoItems;
+        this.tamanoTramo = tamanoTramo;
+    }
+
+    /**
+     * Crea los medidores nuevos y actualiza tipo/contrato de los que ya existen (por número).
+     * @throws IllegalArgumentException si el lote está vacío o supera el máximo
+     */
+    @Transactional
+    public ResultadoLote crearOActualizar(List<MedidorEntity> medidores) {
+        validarTamano(medidores);
+        ResultadoItem[] resultados = new ResultadoItem[medidores.size()];
+        List<Integer> validos = new ArrayList<>(medidores.size());
+        Set<String> vistos = new HashSet<>();
+
+        for (int i = 0; i < medidores.size(); i++) {
+            MedidorEntity medidor = medidores.get(i);
+            String error = medidor == null ? "El medidor no puede ser nulo" : primerError(validator.validate(medidor));
+            if (error != null) {
+                resultados[i] = ResultadoItem.sinFila(i, medidor == null ? null : medidor.getNumeroMedidor(),
+                        EstadoItem.INVALIDO, error);
+            } else if (!vistos.add(medidor.getNumeroMedidor())) {
+                // Un mismo número dos veces en un INSERT ... ON CONFLICT DO UPDATE es un error de PostgreSQL
+                resultados[i] = ResultadoItem.sinFila(i, medidor.getNumeroMedidor(), EstadoItem.DUPLICADO_EN_LOTE,
+                        "El número de medidor ya figura antes en el lote");
+            } else {
+                validos.add(i);
+            }
+        }
+
+        List<PublicadorEventos.EventoMedidor> eventos = new ArrayList<>();
+        for (List<Integer> tramo : tramos(validos)) {
+            List<String> numeros = new ArrayList<>(tramo.size());
+            List<String> tipos = new ArrayList<>(tramo.size());
+            List<Long> contratos = new ArrayList<>(tramo.size());
+            for (int indice : tramo) {
+                MedidorEntity medidor = medidores.get(indice);
+                numeros.add(medidor.getNumeroMedidor());
+                tipos.add(medidor.getTipoMedidor());
+                contratos.add(medidor.getIdContrato());
+            }
+
+            Map<String, FilaMedidor> escritas = porNumero(medidorLoteRepository.upsert(numeros, tipos, contratos));
+            for (int indice : tramo) {
+                String numero = medidores.get(indice).getNumeroMedidor();
+                FilaMedidor fila = escritas.get(numero);
+                if (fila == null) {
+                    resultados[indice] = ResultadoItem.sinFila(indice, numero, EstadoItem.SIN_CAMBIOS, null);
+                } else if (fila.insertado()) {
+                    resultados[indice] = ResultadoItem.conFila(indice, EstadoItem.CREADO, fila);
+                    eventos.add(evento(PublicadorEventos.MEDIDOR_CREADO, fila, null));
+                } else {
+                    resultados[indice] = ResultadoItem.conFila(indice, EstadoItem.ACTUALIZADO, fila);
+                    if (!Objects.equals(fila.idContratoAnterior(), fila.idContrato())) {
+                        eventos.add(evento(PublicadorEventos.MEDIDOR_REASIGNADO, fila, fila.idContratoAnterior()));
+                    }
+                }
+            }
+        }
+
+        publicadorEventos.registrarEventosMedidor(eventos);
+        return ResultadoLote.de(resultados);
+    }
+
+    /**
+     * Pasa cada medidor (por número) al contrato indicado.
+     * @throws IllegalArgumentException si el lote está vacío o supera el máximo
+     */
+    @Transactional
+    public ResultadoLote reasignar(List<Reasignacion> reasignaciones) {
+        validarTamano(reasignaciones);
+        ResultadoItem[] resultados = new ResultadoItem[reasignaciones.size()];
+        List<Integer> validos = new ArrayList<>(reasignaciones.size());
+        Set<String> vistos = new HashSet<>();
+
+        for (int i = 0; i < reasignaciones.size(); i++) {
+            Reasignacion reasignacion = reasignaciones.get(i);
+            String numero = reasignacion == null ? null : reasignacion.numeroMedidor();
+            if (numero == null || numero.isBlank()) {
+                resultados[i] = ResultadoItem.sinFila(i, numero, EstadoItem.INVALIDO,
+                        "El número de medidor no puede estar en blanco");
+            } else if (reasignacion.idContrato() == null) {
+                resultados[i] = ResultadoItem.sinFila(i, numero, EstadoItem.INVALIDO,
+                        "El ID del contrato no puede ser nulo");
+            } else if (!vistos.add(numero)) {
+                resultados[i] = ResultadoItem.sinFila(i, numero, EstadoItem.DUPLICADO_EN_LOTE,
+                        "El número de medidor ya figura antes en el lote");
+            } else {
+                validos.add(i);
+            }
+        }
+
+        List<PublicadorEventos.EventoMedidor> eventos = new ArrayList<>();
+        for (List<Integer> tramo : tramos(validos)) {
+            List<String> numeros = new ArrayList<>(tramo.size());
+            List<Long> contratos = new ArrayList<>(tramo.size());
+            for (int indice : tramo) {
+                numeros.add(reasignaciones.get(indice).numeroMedidor());
+                contratos.add(reasignaciones.get(indice).idContrato());
+            }
+
+            Map<String, FilaMedidor> escritas = porNumero(medidorLoteRepository.reasignar(numeros, contratos));
+            // Solo si algo no cambió hace falta distinguir "ya estaba en ese contrato" de "no existe"
+            List<String> sinEscribir = numeros.stream().filter(numero -> !escritas.containsKey(numero)).toList();
+            Set<String> existentes = sinEscribir.isEmpty()
+                    ? Set.of() : new HashSet<>(medidorLoteRepository.existentes(sinEscribir));
+
+            for (int indice : tramo) {
+                String numero = reasignaciones.get(indice).numeroMedidor();
+                FilaMedidor fila = escritas.get(numero);
+                if (fila != null) {
+                    resultados[indice] = ResultadoItem.conFila(indice, EstadoItem.REASIGNADO, fila);
+                    eventos.add(evento(PublicadorEventos.MEDIDOR_REASIGNADO, fila, fila.idContratoAnterior()));
+                } else if (existentes.contains(numero)) {
+                    resultados[indice] = ResultadoItem.sinFila(indice, numero, EstadoItem.SIN_CAMBIOS, null);
+                } else {
+                    resultados[indice] = ResultadoItem.sinFila(indice, numero, EstadoItem.NO_ENCONTRADO,
+                            "No existe un medidor con ese número");
+                }
+            }
+        }
+
+        publicadorEventos.registrarEventosMedidor(eventos);
+        return ResultadoLote.de(resultados);
+    }
+
+    private void validarTamano(List<?> items) {
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("El lote no puede estar vacío");
+        }
+        if (items.size() > maximoItems) {
+            throw new IllegalArgumentException("El lote admite como máximo " + maximoItems + " ítems");
+        }
+    }
+
+    private List<List<Integer>> tramos(List<Integer> indices) {
+        List<List<Integer>> tramos = new ArrayList<>();
+        for (int desde = 0; desde < indices.size(); desde += tamanoTramo) {
+            tramos.add(indices.subList(desde, Math.min(desde + tamanoTramo, indices.size())));
+        }
+        return tramos;
+    }
+
+    private static Map<String, FilaMedidor> porNumero(List<FilaMedidor> filas) {
+        Map<String, FilaMedidor> porNumero = new HashMap<>(filas.size() * 2);
+        for (FilaMedidor fila : filas) {
+            porNumero.put(fila.numeroMedidor(), fila);
+        }
+        return porNumero;
+    }
+
+    private static String primerError(Set<ConstraintViolation<MedidorEntity>> violaciones) {
+        if (violaciones.isEmpty()) {
+            return null;
+        }
+        return violaciones.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining("; "));
+    }
+
+    private static PublicadorEventos.EventoMedidor evento(String tipo, FilaMedidor fila, Long contratoAnterior) {
+        MedidorEntity medidor = new MedidorEntity();
+        medidor.setId(fila.id());
+        medidor.setNumeroMedidor(fila.numeroMedidor());
+        medidor.setTipoMedidor(fila.tipoMedidor());
+        medidor.setIdContrato(fila.idContrato());
+        return new PublicadorEventos.EventoMedidor(tipo, fila.id(), PublicadorEventos.datosEvento(medidor, contratoAnterior));
+    }
+
+    public record Reasignacion(String numeroMedidor, Long idContrato) {
+    }
+
+    public enum EstadoItem {
+        CREADO,
+        ACTUALIZADO,
+        REASIGNADO,
+        SIN_CAMBIOS,
+        NO_ENCONTRADO,
+        DUPLICADO_EN_LOTE,
+        INVALIDO
+    }
+
+    /** Resultado de un ítem; {@code indice} es su posición en el lote recibido. */
+    public record ResultadoItem(int indice, String numeroMedidor, EstadoItem estado, Long id, Long version,
+                                String mensaje) {
+
+        static ResultadoItem conFila(int indice, EstadoItem estado, FilaMedidor fila) {
+            return new ResultadoItem(indice, fila.numeroMedidor(), estado, fila.id(), fila.version(), null);
+        }
+
+        static ResultadoItem sinFila(int indice, String numeroMedidor, EstadoItem estado, String mensaje) {
+            return new ResultadoItem(indice, numeroMedidor, estado, null, null, mensaje);
+        }
+    }
+
+    public record ResultadoLote(Map<EstadoItem, Integer> totales, List<ResultadoItem> resultados) {
+
+        static ResultadoLote de(ResultadoItem[] resultados) {
+            Map<EstadoItem, Integer> totales = new EnumMap<>(EstadoItem.class);
+            for (ResultadoItem resultado : resultados) {
+                totales.merge(resultado.estado(), 1, Integer::sum);
+            }
+            return new ResultadoLote(totales, List.of(resultados));
+        }
+    }
+}
@@ -1,8 +1,11 @@
 package com.energia.enrique.medidorservice.service;
 
 import com.energia.enrique.medidorservice.model.MedidorEntity;
+import com.energia.enrique.medidorservice.model.MedidorResumen;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface MedidorService {
@@ -10,9 +13,30 @@ public interface MedidorService {
 
     Optional<MedidorEntity> obtenerMedidorPorId(Long id);
 
+    List<MedidorResumen> obtenerMedidoresPorContrato(Long idContrato);
+
+    /**
+     * Resuelve varios contratos en una sola consulta.
+     * @return Medidores agrupados por contrato; cada id pedido figura aunque no tenga medidores
+     */
+    Map<Long, List<MedidorResumen>> obtenerMedidoresPorContratos(Collection<Long> idsContrato);
+
     MedidorEntity crearMedidor(MedidorEntity medidor);
 
-    MedidorEntity actualizarMedidor(Long id, MedidorEntity nuevoMedidor);
+    /**
+     * @param versionEsperada Versión leída por el cliente; null actualiza sin condición
+     * @return El medidor actualizado, o null si no existe
+     * @throws org.springframework.dao.OptimisticLockingFailureException si la versión ya no es la vigente
+     */
+    MedidorEntity actualizarMedidor(Long id, Long versionEsperada, MedidorEntity nuevoMedidor);
+
+    /**
+     * Actualización parcial: solo se escriben los campos presentes en {@code cambios}.
+     * @return El medidor actualizado, o null si no existe
+     * @throws IllegalArgumentException si un campo no es actualizable o su valor es inválido
+     * @throws org.springframework.dao.OptimisticLockingFailureException si la versión ya no es la vigente
+     */
+    MedidorEntity actualizarMedidorParcial(Long id, Long versionEsperada, Map<String, Object> cambios);
 
     void eliminarMedidor(Long id);
 }
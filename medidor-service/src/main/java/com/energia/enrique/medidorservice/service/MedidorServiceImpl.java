@@ -1,20 +1,33 @@
 package com.energia.enrique.medidorservice.service;
 
 import com.energia.enrique.medidorservice.model.MedidorEntity;
+import com.energia.enrique.medidorservice.model.MedidorResumen;
+import com.energia.enrique.medidorservice.outbox.PublicadorEventos;
 import com.energia.enrique.medidorservice.repository.MedidorRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
+@Timed(value = "energia.servicio", histogram = true)
 @RequiredArgsConstructor
 public class MedidorServiceImpl implements MedidorService {
 
     private final MedidorRepository medidorRepository;
+    private final PublicadorEventos publicadorEventos;
 
     @Override
+    @Transactional(readOnly = true)
     public List<MedidorEntity> obtenerTodosMedidores() {
         return medidorRepository.findAll();
     }
@@ -25,25 +38,93 @@ public class MedidorServiceImpl implements MedidorService {
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public List<MedidorResumen> obtenerMedidoresPorContrato(Long idContrato) {
+        return medidorRepository.findByIdContratoOrderById(idContrato);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Long, List<MedidorResumen>> obtenerMedidoresPorContratos(Collection<Long> idsContrato) {
+        Map<Long, List<MedidorResumen>> porContrato = new LinkedHashMap<>();
+        for (Long idContrato : idsContrato) {
+            porContrato.put(idContrato, new ArrayList<>());
+        }
+        for (MedidorResumen medidor : medidorRepository.findByIdContratoInOrderByIdContratoAscIdAsc(porContrato.keySet())) {
+            porContrato.get(medidor.getIdContrato()).add(medidor);
+        }
+        return porContrato;
+    }
+
+    @Override
+    @Transactional
     public MedidorEntity crearMedidor(MedidorEntity medidor) {
-        return medidorRepository.save(medidor);
+        // Con versión informada Spring Data lo trataría como existente
+        medidor.setVersion(null);
+        MedidorEntity medidorGuardado = medidorRepository.save(medidor);
+        publicadorEventos.registrarEventoMedidor(PublicadorEventos.MEDIDOR_CREADO,
+                medidorGuardado.getId(), PublicadorEventos.datosEvento(medidorGuardado, null));
+        return medidorGuardado;
     }
 
     @Override
-    public MedidorEntity actualizarMedidor(Long id, MedidorEntity nuevoMedidor) {
-        return medidorRepository.findById(id)
-                .map(medidorExistente -> {
-                    medidorExistente.setNumeroMedidor(nuevoMedidor.getNumeroMedidor());
-                    medidorExistente.setTipoMedidor(nuevoMedidor.getTipoMedidor());
-                    medidorExistente.setIdContrato(nuevoMedidor.getIdContrato());
+    @Transactional
+    public MedidorEntity actualizarMedidor(Long id, Long versionEsperada, MedidorEntity nuevoMedidor) {
+        Optional<MedidorRepository.MedidorActualizado> actualizado = medidorRepository.actualizarSiVersion(id,
+                versionEsperada, nuevoMedidor.getNumeroMedidor(), nuevoMedidor.getTipoMedidor(),
+                nuevoMedidor.getIdContrato());
+
+        if (actualizado.isEmpty()) {
+            // Solo en el camino de error se consulta si la fila existe
+            if (versionEsperada != null && medidorRepository.existsById(id)) {
+                throw new OptimisticLockingFailureException(
+                        "El medidor " + id + " fue modificado por otra operación (versión esperada " + versionEsperada + ")");
+            }
+            return null;
+        }
+
+        // Todas las columnas vienen de la petición: la respuesta se arma sin releer la fila
+        MedidorEntity medidorGuardado = new MedidorEntity();
+        medidorGuardado.setId(id);
+        medidorGuardado.setNumeroMedidor(nuevoMedidor.getNumeroMedidor());
+        medidorGuardado.setTipoMedidor(nuevoMedidor.getTipoMedidor());
+        medidorGuardado.setIdContrato(nuevoMedidor.getIdContrato());
+        medidorGuardado.setVersion(actualizado.get().getVersion());
+
+        Long contratoAnterior = actualizado.get().getIdContratoAnterior();
+        if (!Objects.equals(contratoAnterior, medidorGuardado.getIdContrato())) {
+            publicadorEventos.registrarEventoMedidor(PublicadorEventos.MEDIDOR_REASIGNADO,
+                    medidorGuardado.getId(), PublicadorEventos.datosEvento(medidorGuardado, contratoAnterior));
+        }
+        return medidorGuardado;
+    }
+
+    @Override
+    @Transactional
+    public MedidorEntity actualizarMedidorParcial(Long id, Long versionEsperada, Map<String, Object> cambios) {
+        Optional<MedidorRepository.MedidorParcial> actualizado = medidorRepository.actualizarCampos(id, versionEsperada, cambios);
+
+        if (actualizado.isEmpty()) {
+            if (versionEsperada != null && medidorRepository.existsById(id)) {
+                throw new OptimisticLockingFailureException(
+                        "El medidor " + id + " fue modificado por otra operación (versión esperada " + versionEsperada + ")");
+            }
+            return null;
+        }
 
-                    return medidorRepository.save(medidorExistente);
-                })
-                .orElse(null);
+        MedidorEntity medidorGuardado = actualizado.get().medidor();
+        Long contratoAnterior = actualizado.get().idContratoAnterior();
+        if (!Objects.equals(contratoAnterior, medidorGuardado.getIdContrato())) {
+            publicadorEventos.registrarEventoMedidor(PublicadorEventos.MEDIDOR_REASIGNADO,
+                    medidorGuardado.getId(), PublicadorEventos.datosEvento(medidorGuardado, contratoAnterior));
+        }
+        return medidorGuardado;
     }
 
     @Override
+    @Transactional
     public void eliminarMedidor(Long id) {
         medidorRepository.deleteById(id);
+        publicadorEventos.registrarEventoMedidor(PublicadorEventos.MEDIDOR_ELIMINADO, id, Map.of("id", id));
     }
 }
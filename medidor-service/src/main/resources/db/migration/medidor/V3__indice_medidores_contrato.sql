@@ -0,0 +1,4 @@
+-- Medidores de un contrato: la clave (id_contrato, id) resuelve el filtro y el orden,
+-- e INCLUDE cubre la proyección MedidorResumen para que alcance con un index-only scan.
+CREATE INDEX IF NOT EXISTS idx_medidores_contrato
+    ON medidores (id_contrato, id) INCLUDE (numero_medidor, tipo_medidor);
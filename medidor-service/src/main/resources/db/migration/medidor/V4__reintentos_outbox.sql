@@ -0,0 +1,13 @@
+-- Reintentos del relay: un evento que falla se posterga con espera exponencial
+-- (proximo_intento) y al agotar energia.outbox.maximo-intentos se aparta
+-- (descartado_en), para que no frene a los que vienen detrás.
+-- Para reencolar uno descartado: UPDATE outbox_eventos SET descartado_en = NULL, intentos = 0 WHERE id = ...
+ALTER TABLE outbox_eventos ADD COLUMN IF NOT EXISTS proximo_intento TIMESTAMP;
+ALTER TABLE outbox_eventos ADD COLUMN IF NOT EXISTS descartado_en TIMESTAMP;
+
+DROP INDEX IF EXISTS idx_outbox_eventos_pendientes;
+CREATE INDEX IF NOT EXISTS idx_outbox_eventos_pendientes
+    ON outbox_eventos (id) WHERE fecha_publicacion IS NULL AND descartado_en IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_outbox_eventos_descartados
+    ON outbox_eventos (descartado_en) WHERE descartado_en IS NOT NULL;
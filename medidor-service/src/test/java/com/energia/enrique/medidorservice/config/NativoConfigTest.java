@@ -0,0 +1,49 @@
+package com.energia.enrique.medidorservice.config;
+
+import com.energia.enrique.medidorservice.model.MedidorEntity;
+import com.energia.enrique.medidorservice.model.MedidorResumen;
+import com.energia.enrique.medidorservice.service.LoteMedidoresService;
+import com.energia.shared.infrastructure.trazas.MuestreoDebugFilter;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.SpringProxy;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import org.springframework.core.DecoratingProxy;
+import org.springframework.data.projection.TargetAware;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Corre en la JVM y también dentro de la imagen nativa (mvn -Pnativo test)
+class NativoConfigTest {
+
+    private final RuntimeHints hints = new RuntimeHints();
+
+    NativoConfigTest() {
+        new NativoConfig.HintsMedidor().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    void registraLosTiposQueJacksonSerializaSinFirmaVisible() {
+        assertTrue(RuntimeHintsPredicates.reflection().onType(LoteMedidoresService.ResultadoLote.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(LoteMedidoresService.ResultadoItem.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(LoteMedidoresService.Reasignacion.class).test(hints));
+    }
+
+    @Test
+    void registraElMapeoPorSettersDelMedidor() throws NoSuchMethodException {
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onMethod(MedidorEntity.class.getMethod("setNumeroMedidor", String.class)).test(hints));
+    }
+
+    @Test
+    void registraLosProxiesDeProyeccion() {
+        assertTrue(RuntimeHintsPredicates.proxies().forInterfaces(MedidorResumen.class, TargetAware.class,
+                SpringProxy.class, Advised.class, DecoratingProxy.class).test(hints));
+    }
+
+    @Test
+    void registraLasClasesQueInstanciaLogback() {
+        assertTrue(RuntimeHintsPredicates.reflection().onType(MuestreoDebugFilter.class).test(hints));
+    }
+}
@@ -0,0 +1,158 @@
+package com.energia.enrique.medidorservice.service;
+
+import com.energia.enrique.medidorservice.model.MedidorEntity;
+import com.energia.enrique.medidorservice.outbox.PublicadorEventos;
+import com.energia.enrique.medidorservice.repository.MedidorLoteRepository;
+import com.energia.enrique.medidorservice.repository.MedidorLoteRepository.FilaMedidor;
+import com.energia.enrique.medidorservice.service.LoteMedidoresService.EstadoItem;
+import com.energia.enrique.medidorservice.service.LoteMedidoresService.ResultadoLote;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LoteMedidoresServiceTest {
+
+    private final TablaEnMemoria tabla = new TablaEnMemoria();
+    private final EventosEnMemoria eventos = new EventosEnMemoria();
+    private final LoteMedidoresService servicio = new LoteMedidoresService(tabla, eventos,
+            Validation.buildDefaultValidatorFactory().getValidator(), 10, 2);
+
+    @Test
+    void informaUnResultadoPorItemEnElOrdenRecibido() {
+        tabla.agregar("M-2", "MONOFASICO", 7L);
+        tabla.agregar("M-3", "MONOFASICO", 7L);
+
+        ResultadoLote resultado = servicio.crearOActualizar(List.of(
+                medidor("M-1", "MONOFASICO", 7L),
+                medidor("M-2", "MONOFASICO", 7L),
+                medidor("M-3", "MONOFASICO", 8L),
+                medidor("M-1", "TRIFASICO", 7L),
+                medidor(" ", "MONOFASICO", 7L)));
+
+        assertEquals(List.of(EstadoItem.CREADO, EstadoItem.SIN_CAMBIOS, EstadoItem.ACTUALIZADO,
+                EstadoItem.DUPLICADO_EN_LOTE, EstadoItem.INVALIDO), estados(resultado));
+        assertEquals(List.of(0, 1, 2, 3, 4), resultado.resultados().stream().map(r -> r.indice()).toList());
+        assertNull(resultado.resultados().get(1).id());
+        // Tres válidos distintos en tramos de 2: dos sentencias
+        assertEquals(2, tabla.sentencias);
+        assertEquals(List.of(PublicadorEventos.MEDIDOR_CREADO, PublicadorEventos.MEDIDOR_REASIGNADO), eventos.tipos);
+    }
+
+    @Test
+    void reasignacionDistingueInexistentesDeSinCambios() {
+        tabla.agregar("M-1", "MONOFASICO", 7L);
+        tabla.agregar("M-2", "MONOFASICO", 9L);
+
+        ResultadoLote resultado = servicio.reasignar(List.of(
+                new LoteMedidoresService.Reasignacion("M-1", 9L),
+                new LoteMedidoresService.Reasignacion("M-2", 9L),
+                new LoteMedidoresService.Reasignacion("M-9", 9L),
+                new LoteMedidoresService.Reasignacion("M-1", 5L),
+                new LoteMedidoresService.Reasignacion("M-4", null)));
+
+        assertEquals(List.of(EstadoItem.REASIGNADO, EstadoItem.SIN_CAMBIOS, EstadoItem.NO_ENCONTRADO,
+                EstadoItem.DUPLICADO_EN_LOTE, EstadoItem.INVALIDO), estados(resultado));
+        assertEquals(1, resultado.totales().get(EstadoItem.REASIGNADO));
+        assertEquals(List.of(PublicadorEventos.MEDIDOR_REASIGNADO), eventos.tipos);
+    }
+
+    @Test
+    void rechazaLotesVaciosOExcedidos() {
+        assertThrows(IllegalArgumentException.class, () -> servicio.crearOActualizar(List.of()));
+        List<MedidorEntity> grande = new ArrayList<>();
+        for (int i = 0; i < 11; i++) {
+            grande.add(medidor("M-" + i, "MONOFASICO", 1L));
+        }
+        assertThrows(IllegalArgumentException.class, () -> servicio.crearOActualizar(grande));
+    }
+
+    private static List<EstadoItem> estados(ResultadoLote resultado) {
+        return resultado.resultados().stream().map(LoteMedidoresService.ResultadoItem::estado).toList();
+    }
+
+    private static MedidorEntity medidor(String numero, String tipo, Long idContrato) {
+        MedidorEntity medidor = new MedidorEntity();
+        medidor.setNumeroMedidor(numero);
+        medidor.setTipoMedidor(tipo);
+        medidor.setIdContrato(idContrato);
+        return medidor;
+    }
+
+    // Reproduce la semántica de las sentencias: solo devuelve las filas que cambiaron
+    private static class TablaEnMemoria extends MedidorLoteRepository {
+        private final Map<String, FilaMedidor> filas = new HashMap<>();
+        private long secuencia;
+        private int sentencias;
+
+        TablaEnMemoria() {
+            super(null);
+        }
+
+        void agregar(String numero, String tipo, Long idContrato) {
+            filas.put(numero, new FilaMedidor(++secuencia, numero, tipo, idContrato, 0, true, null));
+        }
+
+        @Override
+        public List<FilaMedidor> upsert(List<String> numeros, List<String> tipos, List<Long> contratos) {
+            sentencias++;
+            List<FilaMedidor> escritas = new ArrayList<>();
+            for (int i = 0; i < numeros.size(); i++) {
+                FilaMedidor actual = filas.get(numeros.get(i));
+                FilaMedidor nueva;
+                if (actual == null) {
+                    nueva = new FilaMedidor(++secuencia, numeros.get(i), tipos.get(i), contratos.get(i), 0, true, null);
+                } else if (!actual.tipoMedidor().equals(tipos.get(i)) || !actual.idContrato().equals(contratos.get(i))) {
+                    nueva = new FilaMedidor(actual.id(), numeros.get(i), tipos.get(i), contratos.get(i),
+                            actual.version() + 1, false, actual.idContrato());
+                } else {
+                    continue;
+                }
+                filas.put(numeros.get(i), nueva);
+                escritas.add(nueva);
+            }
+            return escritas;
+        }
+
+        @Override
+        public List<FilaMedidor> reasignar(List<String> numeros, List<Long> contratos) {
+            sentencias++;
+            List<FilaMedidor> escritas = new ArrayList<>();
+            for (int i = 0; i < numeros.size(); i++) {
+                FilaMedidor actual = filas.get(numeros.get(i));
+                if (actual != null && !actual.idContrato().equals(contratos.get(i))) {
+                    FilaMedidor nueva = new FilaMedidor(actual.id(), actual.numeroMedidor(), actual.tipoMedidor(),
+                            contratos.get(i), actual.version() + 1, false, actual.idContrato());
+                    filas.put(numeros.get(i), nueva);
+                    escritas.add(nueva);
+                }
+            }
+            return escritas;
+        }
+
+        @Override
+        public List<String> existentes(List<String> numeros) {
+            return numeros.stream().filter(filas::containsKey).toList();
+        }
+    }
+
+    private static class EventosEnMemoria extends PublicadorEventos {
+        private final List<String> tipos = new ArrayList<>();
+
+        EventosEnMemoria() {
+            super(null, null);
+        }
+
+        @Override
+        public void registrarEventosMedidor(List<EventoMedidor> eventos) {
+            eventos.forEach(evento -> tipos.add(evento.tipoEvento()));
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.energia.enrique.monolito;
+
+import com.energia.enrique.clienteservice.application.dto.vista360.ContratoResumen;
+import com.energia.enrique.clienteservice.application.dto.vista360.FacturaPendiente;
+import com.energia.enrique.clienteservice.application.dto.vista360.LecturaReciente;
+import com.energia.enrique.clienteservice.application.dto.vista360.MedidorResumen;
+import com.energia.enrique.clienteservice.application.ports.ConsultaContratos;
+import com.energia.enrique.clienteservice.application.ports.ConsultaFacturas;
+import com.energia.enrique.clienteservice.application.ports.ConsultaLecturas;
+import com.energia.enrique.clienteservice.application.ports.ConsultaMedidores;
+import com.energia.enrique.consumoservice.service.LecturaService;
+import com.energia.enrique.contratoservice.service.ContratoService;
+import com.energia.enrique.facturacionservice.model.FacturaEntity;
+import com.energia.enrique.facturacionservice.service.FacturaService;
+import com.energia.enrique.medidorservice.service.MedidorService;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Se agrega al contexto de cliente. Los puertos de la vista 360 llaman al
+ * servicio del otro módulo dentro del mismo proceso, sin HTTP ni JSON; los
+ * adaptadores REST del servicio siguen definidos pero quedan sin uso.
+ * Si el otro módulo no está levantado, la rama falla y la vista sale parcial.
+ */
+@Configuration
+public class ConsultasEnProcesoConfig {
+
+    @Bean
+    @Primary
+    public ConsultaContratos consultaContratosEnProceso(DirectorioModulos directorio) {
+        return idCliente -> directorio.bean(Modulo.CONTRATO, ContratoService.class)
+                .obtenerContratosPorCliente(idCliente).stream()
+                .map(contrato -> new ContratoResumen(contrato.getId(), contrato.getNumeroContrato(),
+                        contrato.getCicloFacturacion(), contrato.getIdCliente()))
+                .toList();
+    }
+
+    @Bean
+    @Primary
+    public ConsultaMedidores consultaMedidoresEnProceso(DirectorioModulos directorio) {
+        return idsContrato -> convertir(directorio.bean(Modulo.MEDIDOR, MedidorService.class)
+                .obtenerMedidoresPorContratos(idsContrato),
+                medidor -> new MedidorResumen(medidor.getId(), medidor.getNumeroMedidor(),
+                        medidor.getTipoMedidor(), medidor.getIdContrato()));
+    }
+
+    @Bean
+    @Primary
+    public ConsultaFacturas consultaFacturasEnProceso(DirectorioModulos directorio) {
+        return idsContrato -> convertir(directorio.bean(Modulo.FACTURACION, FacturaService.class)
+                .obtenerPendientesPorContratos(idsContrato),
+                ConsultasEnProcesoConfig::pendiente);
+    }
+
+    @Bean
+    @Primary
+    public ConsultaLecturas consultaLecturasEnProceso(DirectorioModulos directorio) {
+        return (idsMedidor, cantidad) -> convertir(directorio.bean(Modulo.CONSUMO, LecturaService.class)
+                .obtenerUltimasPorMedidores(idsMedidor, cantidad),
+                lectura -> new LecturaReciente(lectura.idMedidor(), lectura.instante(), lectura.valor()));
+    }
+
+    private static FacturaPendiente pendiente(FacturaEntity factura) {
+        return new FacturaPendiente(factura.getId(), factura.getNumeroFactura(), factura.getFechaEmision(),
+                factura.getFechaVencimiento(), factura.getMontoTotal(), factura.getIdContrato());
+    }
+
+    private static <O, D> Map<Long, List<D>> convertir(Map<Long, ? extends List<? extends O>> origen,
+                                                      Function<O, D> conversion) {
+        Map<Long, List<D>> destino = new LinkedHashMap<>(origen.size() * 2);
+        origen.forEach((id, lista) -> destino.put(id, lista.stream().map(conversion).toList()));
+        return destino;
+    }
+}
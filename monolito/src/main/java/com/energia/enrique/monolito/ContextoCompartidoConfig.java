@@ -0,0 +1,34 @@
+package com.energia.enrique.monolito;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Contexto padre del monolito. Sin autoconfiguración: solo lo que comparten
+ * los módulos. El pool no se publica como DataSource para que ningún hijo lo
+ * inyecte por tipo sin pasar por su esquema (ver {@link ModuloConfig}).
+ */
+@Configuration
+@EnableConfigurationProperties
+public class ContextoCompartidoConfig {
+
+    @Bean
+    @ConfigurationProperties("energia.monolito.pool")
+    public HikariConfig configuracionPool() {
+        return new HikariConfig();
+    }
+
+    @Bean
+    public PoolCompartido poolCompartido(HikariConfig configuracionPool) {
+        return new PoolCompartido(new HikariDataSource(configuracionPool));
+    }
+
+    @Bean
+    public DirectorioModulos directorioModulos() {
+        return new DirectorioModulos();
+    }
+}
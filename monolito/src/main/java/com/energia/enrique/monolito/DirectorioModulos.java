@@ -0,0 +1,37 @@
+package com.energia.enrique.monolito;
+
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Contextos de los módulos levantados. Es la vía para que una llamada entre
+ * servicios sea una llamada a método: un adaptador del monolito que implementa
+ * el puerto de un módulo pide aquí el bean del otro, en vez de ir por HTTP.
+ * Se resuelve en cada llamada porque los módulos arrancan uno tras otro.
+ */
+public class DirectorioModulos {
+
+    private final Map<Modulo, ConfigurableApplicationContext> contextos = new ConcurrentHashMap<>();
+
+    void registrar(Modulo modulo, ConfigurableApplicationContext contexto) {
+        contextos.put(modulo, contexto);
+    }
+
+    public boolean levantado(Modulo modulo) {
+        ConfigurableApplicationContext contexto = contextos.get(modulo);
+        return contexto != null && contexto.isActive();
+    }
+
+    /**
+     * @throws IllegalStateException si el módulo no está levantado en este proceso
+     */
+    public <T> T bean(Modulo modulo, Class<T> tipo) {
+        ConfigurableApplicationContext contexto = contextos.get(modulo);
+        if (contexto == null || !contexto.isActive()) {
+            throw new IllegalStateException("El módulo " + modulo.getNombre() + " no está levantado");
+        }
+        return contexto.getBean(tipo);
+    }
+}
@@ -0,0 +1,107 @@
+package com.energia.enrique.monolito;
+
+import com.energia.enrique.clienteservice.ClienteServiceApplication;
+import com.energia.enrique.consumoservice.ConsumoServiceApplication;
+import com.energia.enrique.contratoservice.ContratoServiceApplication;
+import com.energia.enrique.facturacionservice.FacturacionServiceApplication;
+import com.energia.enrique.medidorservice.MedidorServiceApplication;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Servicios que el monolito sabe levantar. El nombre es también el esquema de
+ * PostgreSQL del servicio y el de su archivo de ajustes en {@code monolito/}.
+ */
+public enum Modulo {
+    CLIENTE("cliente", ClienteServiceApplication.class),
+    CONTRATO("contrato", ContratoServiceApplication.class),
+    MEDIDOR("medidor", MedidorServiceApplication.class),
+    FACTURACION("facturacion", FacturacionServiceApplication.class),
+    CONSUMO("consumo", ConsumoServiceApplication.class);
+
+    private static final String PROPIEDADES = "application.properties";
+
+    private final String nombre;
+    private final Class<?> aplicacion;
+
+    Modulo(String nombre, Class<?> aplicacion) {
+        this.nombre = nombre;
+        this.aplicacion = aplicacion;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public String getEsquema() {
+        return nombre;
+    }
+
+    public Class<?> getAplicacion() {
+        return aplicacion;
+    }
+
+    public static Modulo porNombre(String nombre) {
+        for (Modulo modulo : values()) {
+            if (modulo.nombre.equals(nombre)) {
+                return modulo;
+            }
+        }
+        throw new IllegalArgumentException("Módulo desconocido: " + nombre);
+    }
+
+    /**
+     * Valor de spring.config.location para el contexto del módulo: el
+     * application.properties del propio servicio y, por encima, los ajustes
+     * comunes del monolito y los del módulo. Los cinco jars traen un
+     * application.properties en la raíz, así que el del servicio se busca por
+     * el jar de su clase principal y no por nombre.
+     */
+    String ubicacionesConfiguracion() {
+        return propiedadesDelServicio() + ",optional:classpath:/monolito/modulos.properties"
+                + ",optional:classpath:/monolito/" + nombre + ".properties";
+    }
+
+    private URL propiedadesDelServicio() {
+        URL codigo = aplicacion.getProtectionDomain().getCodeSource().getLocation();
+        try {
+            List<URL> candidatos = Collections.list(aplicacion.getClassLoader().getResources(PROPIEDADES));
+            return delOrigen(codigo, candidatos).orElseThrow(() -> new IllegalStateException(
+                    "No se encontró " + PROPIEDADES + " junto a " + aplicacion.getName() + " en " + codigo));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Elige el recurso que está en la raíz del origen indicado (carpeta de
+     * clases, jar, o jar anidado dentro del jar del monolito).
+     */
+    static Optional<URL> delOrigen(URL origen, List<URL> candidatos) {
+        String raiz = sinEnvoltorio(origen.toString());
+        for (URL candidato : candidatos) {
+            String ubicacion = sinEnvoltorio(candidato.toString());
+            if (ubicacion.startsWith(raiz)) {
+                String resto = ubicacion.substring(raiz.length());
+                if (resto.equals("/" + PROPIEDADES) || resto.equals("!/" + PROPIEDADES)) {
+                    return Optional.of(candidato);
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    // jar:file:/x.jar!/ y file:/x.jar nombran el mismo origen
+    private static String sinEnvoltorio(String url) {
+        String sinPrefijo = url.startsWith("jar:") ? url.substring(4) : url;
+        if (sinPrefijo.endsWith("!/")) {
+            return sinPrefijo.substring(0, sinPrefijo.length() - 2);
+        }
+        return sinPrefijo.endsWith("/") ? sinPrefijo.substring(0, sinPrefijo.length() - 1) : sinPrefijo;
+    }
+}
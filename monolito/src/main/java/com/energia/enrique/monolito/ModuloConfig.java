@@ -0,0 +1,23 @@
+package com.energia.enrique.monolito;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Se agrega a cada contexto hijo. Al definir el DataSource, Spring Boot no
+ * arma el pool propio del servicio; el DataSourceConfig de réplica tampoco se
+ * activa porque el monolito no define energia.datasource.lectura.url.
+ */
+@Configuration
+public class ModuloConfig {
+
+    static final String PROPIEDAD_ESQUEMA = "energia.monolito.esquema";
+
+    @Bean
+    public DataSource dataSource(PoolCompartido poolCompartido, @Value("${" + PROPIEDAD_ESQUEMA + "}") String esquema) {
+        return poolCompartido.paraEsquema(esquema);
+    }
+}
@@ -0,0 +1,81 @@
+package com.energia.enrique.monolito;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Levanta cliente, contrato, medidor, facturación y consumo en una sola JVM.
+ * <p>
+ * Un contexto padre sin web aloja el pool de conexiones compartido y el
+ * {@link DirectorioModulos}. Cada servicio corre en un contexto hijo propio,
+ * con su configuración, sus beans y su Tomcat en el puerto de siempre: los
+ * clientes HTTP no notan la diferencia. Los hijos no se ven entre sí; lo único
+ * que comparten es lo que está en el padre.
+ */
+public class MonolitoApplication {
+
+    private static final Logger logger = LoggerFactory.getLogger(MonolitoApplication.class);
+
+    public static void main(String[] args) {
+        ConfigurableApplicationContext compartido = new SpringApplicationBuilder(ContextoCompartidoConfig.class)
+                .web(WebApplicationType.NONE)
+                .run(args);
+        DirectorioModulos directorio = compartido.getBean(DirectorioModulos.class);
+
+        try {
+            for (Modulo modulo : modulosActivos(compartido.getEnvironment())) {
+                long inicio = System.nanoTime();
+                directorio.registrar(modulo, levantar(modulo, compartido));
+                logger.info("Módulo {} levantado en {} ms", modulo.getNombre(), (System.nanoTime() - inicio) / 1_000_000);
+            }
+        } catch (RuntimeException e) {
+            // Un monolito a medias confunde más que uno caído: cerrar el padre cierra los hijos ya levantados
+            logger.error("No se pudo levantar el monolito", e);
+            compartido.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Los hijos no registran hook de apagado propio: se cierran cuando se
+     * cierra el padre, antes de que se cierre el pool.
+     */
+    static ConfigurableApplicationContext levantar(Modulo modulo, ConfigurableApplicationContext compartido) {
+        return new SpringApplicationBuilder(fuentes(modulo))
+                .parent(compartido)
+                .bannerMode(Banner.Mode.OFF)
+                .properties(Map.of(
+                        "spring.config.location", modulo.ubicacionesConfiguracion(),
+                        ModuloConfig.PROPIEDAD_ESQUEMA, modulo.getEsquema()))
+                .run();
+    }
+
+    // Cliente consulta a los demás módulos por método en vez de HTTP (vista 360)
+    private static Class<?>[] fuentes(Modulo modulo) {
+        if (modulo == Modulo.CLIENTE) {
+            return new Class<?>[]{modulo.getAplicacion(), ModuloConfig.class, ConsultasEnProcesoConfig.class};
+        }
+        return new Class<?>[]{modulo.getAplicacion(), ModuloConfig.class};
+    }
+
+    private static List<Modulo> modulosActivos(Environment entorno) {
+        String[] nombres = entorno.getProperty("energia.monolito.modulos", String[].class);
+        if (nombres == null || nombres.length == 0) {
+            return List.of(Modulo.values());
+        }
+        List<Modulo> modulos = new ArrayList<>(nombres.length);
+        for (String nombre : nombres) {
+            modulos.add(Modulo.porNombre(nombre.trim()));
+        }
+        return modulos;
+    }
+}
@@ -0,0 +1,80 @@
+package com.energia.enrique.monolito;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Un único pool de Hikari contra proelectris para todos los módulos.
+ * <p>
+ * Cada servicio vive en su propio esquema y sus consultas nativas no lo
+ * califican, así que cada módulo recibe una vista del pool que fija el
+ * search_path al entregar la conexión. El esquema vigente de cada conexión
+ * física se recuerda para emitir el SET solo cuando la conexión pasa de un
+ * módulo a otro, no en cada préstamo.
+ */
+public class PoolCompartido implements AutoCloseable {
+
+    private final HikariDataSource pool;
+    // Conexión física → esquema fijado; las que Hikari descarta se liberan solas
+    private final Map<Connection, String> esquemaPorConexion = Collections.synchronizedMap(new WeakHashMap<>());
+
+    public PoolCompartido(HikariDataSource pool) {
+        this.pool = pool;
+    }
+
+    /** DataSource del módulo: toda conexión que entrega ya apunta a su esquema. */
+    public DataSource paraEsquema(String esquema) {
+        return new DataSourceEsquema(pool, esquema);
+    }
+
+    private void fijarEsquema(Connection conexion, String esquema) throws SQLException {
+        // Sobre la conexión física: Hikari no la marca como modificada ni la restaura al devolverla
+        Connection fisica = conexion.unwrap(Connection.class);
+        if (!esquema.equals(esquemaPorConexion.get(fisica))) {
+            fisica.setSchema(esquema);
+            esquemaPorConexion.put(fisica, esquema);
+        }
+    }
+
+    @Override
+    public void close() {
+        pool.close();
+    }
+
+    private final class DataSourceEsquema extends DelegatingDataSource {
+
+        private final String esquema;
+
+        private DataSourceEsquema(DataSource pool, String esquema) {
+            super(pool);
+            this.esquema = esquema;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return conEsquema(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return conEsquema(super.getConnection(username, password));
+        }
+
+        private Connection conEsquema(Connection conexion) throws SQLException {
+            try {
+                fijarEsquema(conexion, esquema);
+                return conexion;
+            } catch (SQLException e) {
+                conexion.close();
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.energia.enrique.monolito;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ModuloTest {
+
+    @Test
+    void eligeElArchivoDeLaCarpetaDeClasesDelServicio() throws MalformedURLException {
+        URL esperado = new URL("file:/repo/medidor-service/target/classes/application.properties");
+        List<URL> candidatos = List.of(
+                new URL("file:/repo/monolito/target/classes/application.properties"),
+                new URL("file:/repo/cliente-service/target/classes/application.properties"),
+                esperado);
+
+        assertEquals(Optional.of(esperado),
+                Modulo.delOrigen(new URL("file:/repo/medidor-service/target/classes/"), candidatos));
+    }
+
+    @Test
+    void eligeElArchivoDelJarDelServicio() throws MalformedURLException {
+        URL esperado = new URL("jar:file:/m2/medidor-service.jar!/application.properties");
+        List<URL> candidatos = List.of(
+                new URL("jar:file:/m2/medidor-service-plantillas.jar!/application.properties"),
+                esperado);
+
+        assertEquals(Optional.of(esperado), Modulo.delOrigen(new URL("file:/m2/medidor-service.jar"), candidatos));
+    }
+
+    @Test
+    void eligeElArchivoDelJarAnidadoEnElDelMonolito() throws MalformedURLException {
+        // Con jar:nested: la URL necesita el manejador del lanzador de Spring Boot; se compara como texto
+        String base = "jar:file:/opt/monolito.jar!/BOOT-INF/lib/";
+        URL esperado = new URL(base + "contrato-service.jar!/application.properties");
+        List<URL> candidatos = List.of(
+                new URL("jar:file:/opt/monolito.jar!/BOOT-INF/classes/application.properties"),
+                new URL(base + "cliente-service.jar!/application.properties"),
+                esperado);
+
+        assertEquals(Optional.of(esperado),
+                Modulo.delOrigen(new URL(base + "contrato-service.jar!/"), candidatos));
+    }
+
+    @Test
+    void noEligeArchivosEnSubcarpetas() throws MalformedURLException {
+        List<URL> candidatos = List.of(
+                new URL("file:/repo/medidor-service/target/classes/monolito/application.properties"));
+
+        assertTrue(Modulo.delOrigen(new URL("file:/repo/medidor-service/target/classes/"), candidatos).isEmpty());
+    }
+
+    @Test
+    void rechazaModulosDesconocidos() {
+        assertEquals(Modulo.CONSUMO, Modulo.porNombre("consumo"));
+        assertThrows(IllegalArgumentException.class, () -> Modulo.porNombre("region"));
+    }
+}
@@ -0,0 +1,78 @@
+#!/usr/bin/env bash
+# Mide el tiempo hasta la primera respuesta HTTP de cada servicio, con la JVM
+# estándar y con AppCDS + Spring AOT. Requiere haber construido con
+#
+#   mvn -Parranque-rapido -DskipTests package
+#
+# y la base levantada (docker-compose.db.yml). Cuenta cualquier respuesta HTTP,
+# incluso 404: lo que se mide es cuándo el servidor empieza a atender.
+#
+#   ./scripts/bench-arranque.sh [repeticiones] [servicio...]
+set -euo pipefail
+
+REPETICIONES=${1:-3}
+shift || true
+SERVICIOS=("$@")
+if [ ${#SERVICIOS[@]} -eq 0 ]; then
+  SERVICIOS=(cliente consumo contrato detalle-facturacion facturacion medidor potencia region)
+fi
+RAIZ=$(cd "$(dirname "$0")/.." && pwd)
+PUERTO_BENCH=${PUERTO_BENCH:-18080}
+LIMITE_MS=${LIMITE_MS:-60000}
+
+ahora_ms() {
+  echo $(( $(date +%s%N) / 1000000 ))
+}
+
+# Arranca el comando recibido y devuelve los ms hasta la primera respuesta
+medir() {
+  local inicio fin pid codigo
+  inicio=$(ahora_ms)
+  "$@" --server.port="$PUERTO_BENCH" >/dev/null 2>&1 &
+  pid=$!
+  while true; do
+    codigo=$(curl -s -o /dev/null -w '%{http_code}' "http://localhost:$PUERTO_BENCH/" || true)
+    if [ "$codigo" != "000" ]; then
+      fin=$(ahora_ms)
+      break
+    fi
+    if ! kill -0 "$pid" 2>/dev/null || [ $(( $(ahora_ms) - inicio )) -gt "$LIMITE_MS" ]; then
+      fin=""
+      break
+    fi
+    sleep 0.02
+  done
+  kill "$pid" 2>/dev/null || true
+  wait "$pid" 2>/dev/null || true
+  if [ -z "$fin" ]; then
+    echo "error"
+  else
+    echo $(( fin - inicio ))
+  fi
+}
+
+printf "%-22s %12s %12s\n" "servicio" "jvm (ms)" "cds+aot (ms)"
+for servicio in "${SERVICIOS[@]}"; do
+  modulo="$RAIZ/$servicio-service"
+  if [ ! -f "$modulo/pom.xml" ]; then
+    printf "%-22s %s\n" "$servicio" "sin pom.xml, se omite"
+    continue
+  fi
+  # Los servicios que forman el monolito publican el ejecutable con clasificador -exec
+  jar=$(ls "$modulo"/target/*-exec.jar 2>/dev/null | head -n1 || true)
+  if [ -z "$jar" ]; then
+    jar=$(ls "$modulo"/target/*.jar 2>/dev/null | grep -v -- '-plain' | head -n1 || true)
+  fi
+  extraido="$modulo/target/cds/$(basename "${jar:-ninguno}")"
+  if [ -z "$jar" ] || [ ! -f "$extraido" ] || [ ! -f "$modulo/target/cds/aplicacion.jsa" ]; then
+    printf "%-22s %s\n" "$servicio" "sin artefactos de -Parranque-rapido, se omite"
+    continue
+  fi
+
+  for i in $(seq "$REPETICIONES"); do
+    estandar=$(medir java -jar "$jar")
+    rapido=$(medir java -XX:SharedArchiveFile="$modulo/target/cds/aplicacion.jsa" \
+      -Dspring.aot.enabled=true -jar "$extraido")
+    printf "%-22s %12s %12s\n" "$servicio#$i" "$estandar" "$rapido"
+  done
+done
@@ -0,0 +1,45 @@
+#!/usr/bin/env bash
+# Mide el throughput de los endpoints de listado con los servicios ya levantados.
+# Para comparar antes/después: correr contra el commit anterior y contra el actual
+# con los mismos datos y anotar las "Requests/sec" de cada endpoint.
+#
+#   ./scripts/bench-listados.sh [duración] [conexiones]
+#
+# Usa wrk si está instalado; si no, ab (apache2-utils).
+set -euo pipefail
+
+DURACION=${1:-30s}
+CONEXIONES=${2:-32}
+HOST=${HOST:-localhost}
+
+ENDPOINTS=(
+  "contrato http://$HOST:8003/contratos"
+  "medidor http://$HOST:8004/medidores"
+  "cliente http://$HOST:8002/api/v1/clientes?page=0&size=50"
+  "facturacion http://$HOST:8006/facturas/pendientes?dias=7"
+)
+
+segundos() {
+  local d=$1
+  case $d in
+    *m) echo $(( ${d%m} * 60 )) ;;
+    *s) echo "${d%s}" ;;
+    *) echo "$d" ;;
+  esac
+}
+
+for entrada in "${ENDPOINTS[@]}"; do
+  nombre=${entrada%% *}
+  url=${entrada#* }
+  if ! curl -fs -o /dev/null "$url"; then
+    echo "== $nombre: $url no responde, se omite"
+    continue
+  fi
+  echo "== $nombre: $url"
+  if command -v wrk >/dev/null; then
+    wrk -t4 -c"$CONEXIONES" -d"$DURACION" --latency "$url" | grep -E "Requests/sec|Latency|99%"
+  else
+    ab -q -k -c "$CONEXIONES" -t "$(segundos "$DURACION")" -n 10000000 "$url" \
+      | grep -E "Requests per second|Time per request|99%"
+  fi
+done
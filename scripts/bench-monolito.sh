@@ -0,0 +1,120 @@
+#!/usr/bin/env bash
+# Compara memoria, conexiones y latencia entre los servicios en JVMs separadas
+# y el monolito (módulo monolito) con el mismo código. Requiere haber construido con
+#
+#   mvn -DskipTests package
+#
+# y la base levantada (docker-compose.db.yml). Usa psql, si está instalado,
+# para contar las conexiones abiertas contra proelectris.
+#
+#   ./scripts/bench-monolito.sh [consultas-por-endpoint]
+set -euo pipefail
+
+CONSULTAS=${1:-500}
+RAIZ=$(cd "$(dirname "$0")/.." && pwd)
+LIMITE_MS=${LIMITE_MS:-120000}
+export PGPASSWORD=${PGPASSWORD:-1346}
+
+SERVICIOS=(cliente contrato medidor facturacion consumo)
+ENDPOINTS=(
+  "http://localhost:8002/api/v1/clientes/1"
+  "http://localhost:8003/contratos/1"
+  "http://localhost:8004/medidores/1"
+  "http://localhost:8006/facturas/1"
+)
+PUERTOS=(8002 8003 8004 8006 8005)
+PIDS=()
+
+ahora_ms() {
+  echo $(( $(date +%s%N) / 1000000 ))
+}
+
+detener() {
+  for pid in "${PIDS[@]}"; do
+    kill "$pid" 2>/dev/null || true
+  done
+  for pid in "${PIDS[@]}"; do
+    wait "$pid" 2>/dev/null || true
+  done
+  PIDS=()
+}
+trap detener EXIT
+
+# Espera a que todos los puertos respondan algo (incluso 404)
+esperar_puertos() {
+  local inicio puerto codigo
+  inicio=$(ahora_ms)
+  for puerto in "${PUERTOS[@]}"; do
+    while true; do
+      codigo=$(curl -s -o /dev/null -w '%{http_code}' "http://localhost:$puerto/actuator/health" || true)
+      [ "$codigo" != "000" ] && break
+      if [ $(( $(ahora_ms) - inicio )) -gt "$LIMITE_MS" ]; then
+        echo "El puerto $puerto no respondió en ${LIMITE_MS} ms" >&2
+        exit 1
+      fi
+      sleep 0.1
+    done
+  done
+  echo $(( $(ahora_ms) - inicio ))
+}
+
+rss_total_mb() {
+  local total=0 pid rss
+  for pid in "${PIDS[@]}"; do
+    rss=$(awk '/VmRSS/ {print $2}' "/proc/$pid/status")
+    total=$(( total + rss ))
+  done
+  echo $(( total / 1024 ))
+}
+
+conexiones() {
+  if command -v psql >/dev/null; then
+    psql -h localhost -U postgres -d proelectris -Atc \
+      "select count(*) from pg_stat_activity where datname = 'proelectris' and pid <> pg_backend_pid()"
+  else
+    echo "-"
+  fi
+}
+
+# p50 y p99 en ms de CONSULTAS peticiones secuenciales por endpoint
+latencias() {
+  local url
+  for url in "${ENDPOINTS[@]}"; do
+    for _ in $(seq "$CONSULTAS"); do
+      curl -s -o /dev/null -w '%{time_total}\n' "$url"
+    done
+  done | sort -n | awk '{ v[NR] = $1 } END {
+    printf "%.1f %.1f", v[int(NR * 0.5) + 1] * 1000, v[int(NR * 0.99) + 1] * 1000 }'
+}
+
+medir() {
+  local nombre=$1 arranque
+  arranque=$(esperar_puertos)
+  # Una pasada de calentamiento para no medir el JIT ni la carga perezosa de clases
+  CONSULTAS=50 latencias >/dev/null
+  read -r p50 p99 < <(latencias)
+  printf "%-14s %10s %10s %12s %9s %9s\n" "$nombre" "$arranque" "$(rss_total_mb)" "$(conexiones)" "$p50" "$p99"
+  detener
+}
+
+printf "%-14s %10s %10s %12s %9s %9s\n" "despliegue" "listo (ms)" "RSS (MB)" "conexiones" "p50 (ms)" "p99 (ms)"
+
+for servicio in "${SERVICIOS[@]}"; do
+  jar=$(ls "$RAIZ/$servicio-service"/target/*-exec.jar 2>/dev/null | head -n1 || true)
+  if [ -z "$jar" ]; then
+    echo "Falta el jar ejecutable de $servicio-service" >&2
+    exit 1
+  fi
+  java -jar "$jar" >/dev/null 2>&1 &
+  PIDS+=($!)
+done
+medir "multi-JVM"
+
+jar=$(ls "$RAIZ"/monolito/target/monolito-*.jar 2>/dev/null | grep -v -- '\.original' | head -n1 || true)
+if [ -z "$jar" ]; then
+  echo "Falta el jar del monolito" >&2
+  exit 1
+fi
+java -jar "$jar" >/dev/null 2>&1 &
+PIDS+=($!)
+medir "monolito"
@@ -0,0 +1,46 @@
+#!/usr/bin/env bash
+# Arranque y memoria de la imagen nativa de medidor-service (perfil Maven "nativo").
+# Objetivo: primera respuesta de GET /medidores/{id} en menos de 100 ms y RSS por
+# debajo de 64 MB tras una ráfaga de consultas. Requiere la base levantada.
+#
+#   mvn -f medidor-service -Pnativo -DskipTests package
+#   ./scripts/bench-nativo-medidor.sh [id-medidor] [consultas]
+set -euo pipefail
+
+ID=${1:-1}
+CONSULTAS=${2:-1000}
+RAIZ=$(cd "$(dirname "$0")/.." && pwd)
+BINARIO=${BINARIO:-$RAIZ/medidor-service/target/medidor-service}
+PUERTO=${PUERTO:-18004}
+URL="http://localhost:$PUERTO/medidores/$ID"
+
+if [ ! -x "$BINARIO" ]; then
+  echo "No se encontró $BINARIO; construir con -Pnativo" >&2
+  exit 1
+fi
+
+ahora_ms() {
+  echo $(( $(date +%s%N) / 1000000 ))
+}
+
+inicio=$(ahora_ms)
+"$BINARIO" --server.port="$PUERTO" >/dev/null 2>&1 &
+pid=$!
+trap 'kill $pid 2>/dev/null || true' EXIT
+
+until [ "$(curl -s -o /dev/null -w '%{http_code}' "$URL" || true)" != "000" ]; do
+  if ! kill -0 "$pid" 2>/dev/null; then
+    echo "El binario terminó antes de responder" >&2
+    exit 1
+  fi
+  sleep 0.005
+done
+primera=$(( $(ahora_ms) - inicio ))
+
+for _ in $(seq "$CONSULTAS"); do
+  curl -s -o /dev/null "$URL"
+done
+rss_kb=$(awk '/VmRSS/ {print $2}' "/proc/$pid/status")
+
+echo "primera respuesta: ${primera} ms (objetivo < 100)"
+echo "RSS tras $CONSULTAS consultas: $(( rss_kb / 1024 )) MB (objetivo < 64)"
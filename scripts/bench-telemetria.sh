@@ -0,0 +1,24 @@
+#!/usr/bin/env bash
+# Carga la telemetría binaria de consumo-service (ya levantado) con el simulador
+# de concentradores de los tests. Compila las clases de test si hace falta.
+#
+#   ./scripts/bench-telemetria.sh [conexiones] [medidores-por-conexion] [segundos]
+#
+# Cada corrida manda intervalos nuevos, así que las lecturas se acumulan en la base.
+set -euo pipefail
+
+CONEXIONES=${1:-50}
+MEDIDORES=${2:-2000}
+SEGUNDOS=${3:-30}
+HOST=${HOST:-localhost}
+PUERTO=${PUERTO:-9005}
+RAIZ=$(cd "$(dirname "$0")/.." && pwd)
+MODULO="$RAIZ/consumo-service"
+
+if [ ! -d "$MODULO/target/test-classes" ]; then
+  mvn -q -f "$MODULO" -DskipTests test-compile
+fi
+
+java -cp "$MODULO/target/classes:$MODULO/target/test-classes" \
+  com.energia.enrique.consumoservice.telemetria.SimuladorConcentradores \
+  "$HOST" "$PUERTO" "$CONEXIONES" "$MEDIDORES" "$SEGUNDOS"
@@ -28,6 +28,18 @@ public abstract class DomainException extends RuntimeException {
         this.codigoError = codigoError;
     }
 
+    /**
+     * Para excepciones que son un resultado esperado (reglas de validación):
+     * sin traza ni excepciones suprimidas, así que crearlas es barato y una
+     * misma instancia se puede reutilizar entre hilos.
+     * @param codigoError Código del error; si es null se deriva del nombre de la clase
+     */
+    protected DomainException(String mensaje, String codigoError, boolean conTraza) {
+        super(mensaje, null, conTraza, conTraza);
+        this.codigoError = codigoError != null
+                ? codigoError : this.getClass().getSimpleName().replace("Exception", "").toUpperCase();
+    }
+
     public String getCodigoError() {
         return codigoError;
     }
@@ -1,37 +1,63 @@
 package com.energia.shared.domain.exceptions;
 
+import com.energia.shared.domain.validacion.ErrorValidacion;
+
+import java.util.List;
+
 /**
  * Excepción que se lanza cuando se violan reglas de validación del dominio.
  * Parte de la Clean Architecture - representa errores de negocio.
+ * Sin causa no lleva traza: el campo y el mensaje ya identifican la regla.
  */
 public class DomainValidationException extends DomainException {
 
     private final String campo;
+    private final List<ErrorValidacion> errores;
 
     public DomainValidationException(String mensaje) {
-        super(mensaje);
+        super(mensaje, null, false);
         this.campo = null;
+        this.errores = null;
     }
 
     public DomainValidationException(String mensaje, String campo) {
-        super(mensaje);
+        super(mensaje, null, false);
         this.campo = campo;
+        this.errores = null;
     }
 
     public DomainValidationException(String mensaje, Throwable causa) {
         super(mensaje, causa);
         this.campo = null;
+        this.errores = null;
     }
 
     public DomainValidationException(String mensaje, String campo, Throwable causa) {
         super(mensaje, causa);
         this.campo = campo;
+        this.errores = null;
+    }
+
+    /**
+     * Varias reglas incumplidas a la vez. El campo es el del primer error.
+     */
+    public DomainValidationException(List<ErrorValidacion> errores) {
+        super(String.format("Se encontraron %d errores de validación", errores.size()), null, false);
+        this.campo = errores.isEmpty() ? null : errores.get(0).getCampo();
+        this.errores = List.copyOf(errores);
     }
 
     public String getCampo() {
         return campo;
     }
 
+    /**
+     * Todos los errores de la validación; uno solo si se creó con mensaje y campo.
+     */
+    public List<ErrorValidacion> getErrores() {
+        return errores != null ? errores : List.of(ErrorValidacion.de(campo, getMessage()));
+    }
+
     @Override
     public String toString() {
         if (campo != null) {
@@ -0,0 +1,47 @@
+package com.energia.shared.domain.validacion;
+
+import com.energia.shared.domain.exceptions.DomainValidationException;
+
+import java.util.Objects;
+
+/**
+ * Regla de validación incumplida: campo y mensaje. Las reglas con mensaje fijo
+ * se declaran como constantes y reutilizan siempre la misma excepción, que no
+ * tiene traza ni estado mutable.
+ */
+public final class ErrorValidacion {
+
+    private final String campo;
+    private final String mensaje;
+    private final DomainValidationException excepcion;
+
+    private ErrorValidacion(String campo, String mensaje) {
+        this.campo = campo;
+        this.mensaje = Objects.requireNonNull(mensaje);
+        this.excepcion = new DomainValidationException(mensaje, campo);
+    }
+
+    public static ErrorValidacion de(String campo, String mensaje) {
+        return new ErrorValidacion(campo, mensaje);
+    }
+
+    public String getCampo() {
+        return campo;
+    }
+
+    public String getMensaje() {
+        return mensaje;
+    }
+
+    /**
+     * Excepción equivalente, para los puntos que siguen lanzando.
+     */
+    public DomainValidationException excepcion() {
+        return excepcion;
+    }
+
+    @Override
+    public String toString() {
+        return campo != null ? campo + ": " + mensaje : mensaje;
+    }
+}
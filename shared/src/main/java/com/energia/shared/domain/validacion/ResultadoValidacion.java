@@ -0,0 +1,55 @@
+package com.energia.shared.domain.validacion;
+
+import com.energia.shared.domain.exceptions.DomainValidationException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Acumula los errores de una validación sin lanzar excepciones. Un resultado
+ * válido no reserva la lista, así que validar una entrada correcta no genera
+ * basura.
+ */
+public final class ResultadoValidacion {
+
+    private List<ErrorValidacion> errores;
+
+    public ResultadoValidacion agregar(ErrorValidacion error) {
+        if (errores == null) {
+            errores = new ArrayList<>(4);
+        }
+        errores.add(error);
+        return this;
+    }
+
+    public boolean esValido() {
+        return errores == null;
+    }
+
+    public List<ErrorValidacion> getErrores() {
+        return errores == null ? Collections.emptyList() : Collections.unmodifiableList(errores);
+    }
+
+    /**
+     * Lanza la excepción del primer error registrado, si lo hay.
+     */
+    public void lanzarPrimerError() {
+        if (errores != null) {
+            throw errores.get(0).excepcion();
+        }
+    }
+
+    /**
+     * Lanza una única excepción con todos los errores registrados, si los hay.
+     */
+    public void lanzarSiInvalido() {
+        if (errores == null) {
+            return;
+        }
+        if (errores.size() == 1) {
+            throw errores.get(0).excepcion();
+        }
+        throw new DomainValidationException(List.copyOf(errores));
+    }
+}
@@ -1,6 +1,7 @@
 package com.energia.shared.domain.valueobjects;
 
-import com.energia.shared.domain.exceptions.DomainValidationException;
+import com.energia.shared.domain.validacion.ErrorValidacion;
+import com.energia.shared.domain.validacion.ResultadoValidacion;
 
 import java.util.Objects;
 import java.util.regex.Pattern;
@@ -17,6 +18,21 @@ public final class ContactoInfo {
     private static final Pattern TELEFONO_PATTERN =
         Pattern.compile("^[+]?[0-9]{8,15}$");
 
+    private static final ErrorValidacion TELEFONO_OBLIGATORIO =
+        ErrorValidacion.de("telefonoPrincipal", "El teléfono principal es obligatorio");
+    private static final ErrorValidacion TELEFONO_INVALIDO =
+        ErrorValidacion.de("telefonoPrincipal", "Formato de teléfono principal inválido");
+    private static final ErrorValidacion EMAIL_OBLIGATORIO =
+        ErrorValidacion.de("email", "El email es obligatorio");
+    private static final ErrorValidacion EMAIL_INVALIDO =
+        ErrorValidacion.de("email", "Formato de email inválido");
+    private static final ErrorValidacion TELEFONO_SECUNDARIO_INVALIDO =
+        ErrorValidacion.de("telefonoSecundario", "Formato de teléfono secundario inválido");
+    private static final ErrorValidacion EMAIL_SECUNDARIO_INVALIDO =
+        ErrorValidacion.de("emailSecundario", "Formato de email secundario inválido");
+    private static final ErrorValidacion DIRECCION_OBLIGATORIA =
+        ErrorValidacion.de("direccion", "La dirección es obligatoria");
+
     private final String telefonoPrincipal;
     private final String telefonoSecundario;
     private final String email;
@@ -36,45 +52,43 @@ public final class ContactoInfo {
         this.codigoPostal = builder.codigoPostal;
         this.pais = builder.pais;
 
-        validar();
+        validar(builder, new ResultadoValidacion()).lanzarSiInvalido();
     }
 
     public static Builder builder() {
         return new Builder();
     }
 
-    private void validar() {
-        if (telefonoPrincipal == null || telefonoPrincipal.trim().isEmpty()) {
-            throw new DomainValidationException("El teléfono principal es obligatorio");
-        }
-
-        if (!TELEFONO_PATTERN.matcher(telefonoPrincipal).matches()) {
-            throw new DomainValidationException("Formato de teléfono principal inválido");
+    // Registra todos los errores en el orden de las reglas; el constructor los lanza juntos
+    private static ResultadoValidacion validar(Builder datos, ResultadoValidacion resultado) {
+        if (datos.telefonoPrincipal == null || datos.telefonoPrincipal.trim().isEmpty()) {
+            resultado.agregar(TELEFONO_OBLIGATORIO);
+        } else if (!TELEFONO_PATTERN.matcher(datos.telefonoPrincipal).matches()) {
+            resultado.agregar(TELEFONO_INVALIDO);
         }
 
-        if (email == null || email.trim().isEmpty()) {
-            throw new DomainValidationException("El email es obligatorio");
+        if (datos.email == null || datos.email.trim().isEmpty()) {
+            resultado.agregar(EMAIL_OBLIGATORIO);
+        } else if (!EMAIL_PATTERN.matcher(datos.email).matches()) {
+            resultado.agregar(EMAIL_INVALIDO);
         }
 
-        if (!EMAIL_PATTERN.matcher(email).matches()) {
-            throw new DomainValidationException("Formato de email inválido");
-        }
-
-        if (telefonoSecundario != null && !telefonoSecundario.trim().isEmpty()) {
-            if (!TELEFONO_PATTERN.matcher(telefonoSecundario).matches()) {
-                throw new DomainValidationException("Formato de teléfono secundario inválido");
+        if (datos.telefonoSecundario != null && !datos.telefonoSecundario.trim().isEmpty()) {
+            if (!TELEFONO_PATTERN.matcher(datos.telefonoSecundario).matches()) {
+                resultado.agregar(TELEFONO_SECUNDARIO_INVALIDO);
             }
         }
 
-        if (emailSecundario != null && !emailSecundario.trim().isEmpty()) {
-            if (!EMAIL_PATTERN.matcher(emailSecundario).matches()) {
-                throw new DomainValidationException("Formato de email secundario inválido");
+        if (datos.emailSecundario != null && !datos.emailSecundario.trim().isEmpty()) {
+            if (!EMAIL_PATTERN.matcher(datos.emailSecundario).matches()) {
+                resultado.agregar(EMAIL_SECUNDARIO_INVALIDO);
             }
         }
 
-        if (direccion == null || direccion.trim().isEmpty()) {
-            throw new DomainValidationException("La dirección es obligatoria");
+        if (datos.direccion == null || datos.direccion.trim().isEmpty()) {
+            resultado.agregar(DIRECCION_OBLIGATORIA);
         }
+        return resultado;
     }
 
     // Getters
@@ -186,6 +200,15 @@ public final class ContactoInfo {
             return this;
         }
 
+        /**
+         * Valida los datos sin construir ni lanzar excepciones.
+         * @param resultado Resultado donde se agregan los errores
+         * @return El mismo resultado
+         */
+        public ResultadoValidacion validar(ResultadoValidacion resultado) {
+            return ContactoInfo.validar(this, resultado);
+        }
+
         public ContactoInfo build() {
             return new ContactoInfo(this);
         }
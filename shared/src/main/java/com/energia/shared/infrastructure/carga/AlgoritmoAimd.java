@@ -0,0 +1,45 @@
+package com.energia.shared.infrastructure.carga;
+
+/**
+ * Aumento aditivo, disminución multiplicativa: suma uno mientras las
+ * operaciones terminan bien y por debajo de la latencia objetivo, y multiplica
+ * por {@code factorReduccion} ante una sobrecarga o una operación lenta.
+ * Reacciona rápido pero necesita conocer la latencia aceptable.
+ */
+public final class AlgoritmoAimd implements AlgoritmoLimite {
+
+    private final int inicial;
+    private final int minimo;
+    private final int maximo;
+    private final long latenciaObjetivoNanos;
+    private final double factorReduccion;
+    private int limite;
+
+    public AlgoritmoAimd(int inicial, int minimo, int maximo, long latenciaObjetivoNanos, double factorReduccion) {
+        if (minimo <= 0 || inicial < minimo || maximo < inicial || factorReduccion <= 0 || factorReduccion >= 1) {
+            throw new IllegalArgumentException("Límites o factor de reducción inválidos");
+        }
+        this.inicial = inicial;
+        this.minimo = minimo;
+        this.maximo = maximo;
+        this.latenciaObjetivoNanos = latenciaObjetivoNanos;
+        this.factorReduccion = factorReduccion;
+        this.limite = inicial;
+    }
+
+    @Override
+    public int limiteInicial() {
+        return inicial;
+    }
+
+    @Override
+    public int actualizar(long latenciaNanos, int enVuelo, boolean sobrecarga) {
+        if (sobrecarga || latenciaNanos > latenciaObjetivoNanos) {
+            limite = Math.max(minimo, (int) (limite * factorReduccion));
+        } else if (enVuelo * 2 >= limite) {
+            // Solo crece si el límite se está usando: con poco tráfico no dice nada de la capacidad
+            limite = Math.min(maximo, limite + 1);
+        }
+        return limite;
+    }
+}
@@ -0,0 +1,67 @@
+package com.energia.shared.infrastructure.carga;
+
+/**
+ * Límite por gradiente de latencia, al estilo de Gradient2 de Netflix
+ * concurrency-limits. Compara la latencia de cada muestra con un promedio
+ * exponencial de largo plazo: si la muestra es más lenta (se forma cola
+ * aguas abajo, p. ej. en PostgreSQL), el gradiente baja de 1 y el límite se
+ * achica; si no, crece en √límite. No necesita una latencia objetivo: se
+ * ajusta a la que el servicio muestre en sano.
+ */
+public final class AlgoritmoGradiente implements AlgoritmoLimite {
+
+    private static final int MUESTRAS_LARGO_PLAZO = 600;
+    private static final double SUAVIZADO = 0.2;
+
+    private final int inicial;
+    private final int minimo;
+    private final int maximo;
+    private final double tolerancia;
+    private final double pesoLargoPlazo = 2.0 / (MUESTRAS_LARGO_PLAZO + 1);
+    private double estimado;
+    private double latenciaLargoPlazo;
+
+    /**
+     * @param tolerancia Cuánto más lenta que la de largo plazo se admite una muestra sin achicar el límite (p. ej. 1.5)
+     */
+    public AlgoritmoGradiente(int inicial, int minimo, int maximo, double tolerancia) {
+        if (minimo <= 0 || inicial < minimo || maximo < inicial || tolerancia < 1) {
+            throw new IllegalArgumentException("Límites o tolerancia inválidos");
+        }
+        this.inicial = inicial;
+        this.minimo = minimo;
+        this.maximo = maximo;
+        this.tolerancia = tolerancia;
+        this.estimado = inicial;
+    }
+
+    @Override
+    public int limiteInicial() {
+        return inicial;
+    }
+
+    @Override
+    public int actualizar(long latenciaNanos, int enVuelo, boolean sobrecarga) {
+        double corta = Math.max(1, latenciaNanos);
+        if (sobrecarga) {
+            estimado = Math.max(minimo, estimado * 0.9);
+            return (int) estimado;
+        }
+
+        latenciaLargoPlazo = latenciaLargoPlazo == 0
+                ? corta : latenciaLargoPlazo * (1 - pesoLargoPlazo) + corta * pesoLargoPlazo;
+        // Tras un período lento el promedio queda alto y ocultaría la próxima degradación: se lo acerca rápido
+        if (latenciaLargoPlazo / corta > 2) {
+            latenciaLargoPlazo *= 0.95;
+        }
+        // Con la mitad del límite sin usar, la latencia no refleja la capacidad
+        if (enVuelo < estimado / 2) {
+            return (int) estimado;
+        }
+
+        double gradiente = Math.max(0.5, Math.min(1.0, tolerancia * latenciaLargoPlazo / corta));
+        double nuevo = estimado * gradiente + Math.sqrt(estimado);
+        estimado = Math.max(minimo, Math.min(maximo, estimado * (1 - SUAVIZADO) + nuevo * SUAVIZADO));
+        return (int) estimado;
+    }
+}
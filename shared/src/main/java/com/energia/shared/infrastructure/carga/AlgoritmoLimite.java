@@ -0,0 +1,19 @@
+package com.energia.shared.infrastructure.carga;
+
+/**
+ * Calcula el límite de concurrencia a partir de cada muestra. Lo invoca
+ * {@link LimiteConcurrencia} de a una muestra por vez: la implementación puede
+ * guardar estado sin sincronizar.
+ */
+public interface AlgoritmoLimite {
+
+    int limiteInicial();
+
+    /**
+     * @param latenciaNanos Duración de la operación medida
+     * @param enVuelo Operaciones en curso cuando empezó la medida
+     * @param sobrecarga La operación terminó en error del servidor o de la base
+     * @return Nuevo límite
+     */
+    int actualizar(long latenciaNanos, int enVuelo, boolean sobrecarga);
+}
@@ -0,0 +1,61 @@
+package com.energia.shared.infrastructure.carga;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Límite de concurrencia de un servicio y su filtro HTTP, configurados con
+ * {@code energia.carga.*}. Cada servicio la importa desde su clase de
+ * aplicación; el estado del rechazo (503 o 429) lo elige cada uno.
+ */
+@Configuration
+public class CargaConfig {
+
+    @Bean
+    public LimiteConcurrencia limiteConcurrencia(MeterRegistry registro,
+            @Value("${energia.carga.algoritmo:gradiente}") String algoritmo,
+            @Value("${energia.carga.limite-inicial:20}") int inicial,
+            @Value("${energia.carga.limite-minimo:4}") int minimo,
+            @Value("${energia.carga.limite-maximo:200}") int maximo,
+            @Value("${energia.carga.latencia-objetivo-ms:500}") long latenciaObjetivoMs,
+            @Value("${energia.carga.fraccion-fondo:0.5}") double fraccionFondo) {
+        LimiteConcurrencia limite = LimiteConcurrencia.algoritmo(algoritmo)
+                .limites(inicial, minimo, maximo)
+                .latenciaObjetivoMs(latenciaObjetivoMs)
+                .fraccionFondo(fraccionFondo)
+                .build();
+        Gauge.builder("energia.carga.limite", limite, LimiteConcurrencia::getLimite)
+                .description("Límite de concurrencia vigente")
+                .register(registro);
+        Gauge.builder("energia.carga.en_vuelo", limite, LimiteConcurrencia::getEnVuelo)
+                .description("Operaciones en curso dentro del límite")
+                .register(registro);
+        FunctionCounter.builder("energia.carga.rechazos", limite, LimiteConcurrencia::getRechazos)
+                .description("Operaciones rechazadas por el límite de concurrencia")
+                .tag("prioridad", "primer_plano")
+                .register(registro);
+        FunctionCounter.builder("energia.carga.rechazos", limite, LimiteConcurrencia::getRechazosFondo)
+                .description("Operaciones rechazadas por el límite de concurrencia")
+                .tag("prioridad", "fondo")
+                .register(registro);
+        return limite;
+    }
+
+    // Justo después de la correlación, donde la hay: los rechazos también llevan id de traza.
+    // Sin ella, antes que cualquier otro filtro: una petición rechazada no debe costar nada
+    @Bean
+    public FilterRegistrationBean<FiltroLimiteConcurrencia> filtroLimiteConcurrencia(LimiteConcurrencia limite,
+            @Value("${energia.carga.estado-rechazo:503}") int estadoRechazo,
+            @Value("${energia.carga.reintentar-en-s:1}") int reintentarEnSegundos) {
+        FilterRegistrationBean<FiltroLimiteConcurrencia> registro =
+                new FilterRegistrationBean<>(new FiltroLimiteConcurrencia(limite, estadoRechazo, reintentarEnSegundos));
+        registro.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return registro;
+    }
+}
@@ -0,0 +1,97 @@
+package com.energia.shared.infrastructure.carga;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.RequestDispatcher;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.transaction.TransactionTimedOutException;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.DispatcherServlet;
+
+import java.io.IOException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientConnectionException;
+
+/**
+ * Aplica el {@link LimiteConcurrencia} a las peticiones HTTP: la que no entra
+ * recibe enseguida el estado configurado con Retry-After, sin ocupar un hilo
+ * de Tomcat esperando a la base. Actuator queda afuera para que las sondas y
+ * las métricas respondan aun con el servicio saturado.
+ * <p>
+ * Solo achica el límite lo que indica una base saturada: conexión o consulta
+ * con tiempo agotado, o la base inalcanzable. Los demás errores y 5xx (un bug,
+ * una validación tardía) liberan el lugar sin aportar muestra.
+ */
+public class FiltroLimiteConcurrencia extends OncePerRequestFilter {
+
+    private final LimiteConcurrencia limite;
+    private final int estadoRechazo;
+    private final String reintentarEn;
+
+    public FiltroLimiteConcurrencia(LimiteConcurrencia limite, int estadoRechazo, int reintentarEnSegundos) {
+        this.limite = limite;
+        this.estadoRechazo = estadoRechazo;
+        this.reintentarEn = Integer.toString(reintentarEnSegundos);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith(request.getContextPath() + "/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        LimiteConcurrencia.Permiso permiso = limite.adquirir();
+        if (permiso == null) {
+            response.setStatus(estadoRechazo);
+            response.setHeader(HttpHeaders.RETRY_AFTER, reintentarEn);
+            response.setContentType("text/plain;charset=UTF-8");
+            response.getWriter().write("Servicio saturado. Reintente más tarde.");
+            return;
+        }
+        Throwable propagada = null;
+        try {
+            chain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException e) {
+            propagada = e;
+            throw e;
+        } finally {
+            if (esSobrecarga(propagada != null ? propagada : errorResuelto(request))) {
+                permiso.sobrecarga();
+            } else if (propagada != null || response.getStatus() >= 500) {
+                permiso.liberar();
+            } else {
+                permiso.exito();
+            }
+        }
+    }
+
+    /** Si algún eslabón de la causa es una señal de base saturada. */
+    static boolean esSobrecarga(Throwable error) {
+        for (Throwable causa = error; causa != null; causa = causa.getCause()) {
+            // Incluye CannotGetJdbcConnectionException: el pool no entregó conexión a tiempo
+            if (causa instanceof DataAccessResourceFailureException
+                    || causa instanceof QueryTimeoutException
+                    || causa instanceof TransactionTimedOutException
+                    || causa instanceof SQLTransientConnectionException
+                    || causa instanceof SQLTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Excepción que un @ExceptionHandler ya convirtió en respuesta: el filtro no la ve pasar
+    private static Throwable errorResuelto(HttpServletRequest request) {
+        Object error = request.getAttribute(DispatcherServlet.EXCEPTION_ATTRIBUTE);
+        if (error == null) {
+            error = request.getAttribute(RequestDispatcher.ERROR_EXCEPTION);
+        }
+        return error instanceof Throwable throwable ? throwable : null;
+    }
+}
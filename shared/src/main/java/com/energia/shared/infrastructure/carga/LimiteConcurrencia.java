@@ -0,0 +1,175 @@
+package com.energia.shared.infrastructure.carga;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Límite adaptativo de operaciones simultáneas. Lo que no entra se rechaza en
+ * el acto en vez de esperar un hilo o una conexión: cuando la base se pone
+ * lenta, el servicio responde rápido a una parte de las peticiones en lugar
+ * de atender tarde a todas y quedarse sin hilos.
+ * <p>
+ * El límite lo recalcula el {@link AlgoritmoLimite} con la latencia de cada
+ * operación de primer plano. Las de fondo (relays, drenajes) comparten el
+ * límite pero solo pueden ocupar {@code fraccionFondo} de él y no aportan
+ * muestras: con carga, ceden primero. Es seguro entre hilos.
+ */
+public final class LimiteConcurrencia {
+
+    private final AlgoritmoLimite algoritmo;
+    private final double fraccionFondo;
+    private final AtomicInteger enVuelo = new AtomicInteger();
+    private final LongAdder rechazos = new LongAdder();
+    private final LongAdder rechazosFondo = new LongAdder();
+    private volatile int limite;
+
+    private LimiteConcurrencia(AlgoritmoLimite algoritmo, double fraccionFondo) {
+        this.algoritmo = algoritmo;
+        this.fraccionFondo = fraccionFondo;
+        this.limite = algoritmo.limiteInicial();
+    }
+
+    /** Builder del algoritmo indicado por nombre ("gradiente" o "aimd"), p. ej. desde la configuración. */
+    public static Builder algoritmo(String nombre) {
+        return new Builder(nombre);
+    }
+
+    /** Permiso de primer plano, o null si el límite está ocupado. */
+    public Permiso adquirir() {
+        return ocupar(limite) ? new Permiso(true) : rechazar(rechazos);
+    }
+
+    /** Permiso de fondo, o null si las operaciones de fondo ya ocupan su parte del límite. */
+    public Permiso adquirirParaFondo() {
+        int tope = Math.max(1, (int) (limite * fraccionFondo));
+        return ocupar(tope) ? new Permiso(false) : rechazar(rechazosFondo);
+    }
+
+    public int getLimite() {
+        return limite;
+    }
+
+    public int getEnVuelo() {
+        return enVuelo.get();
+    }
+
+    public long getRechazos() {
+        return rechazos.sum();
+    }
+
+    public long getRechazosFondo() {
+        return rechazosFondo.sum();
+    }
+
+    private boolean ocupar(int tope) {
+        while (true) {
+            int actual = enVuelo.get();
+            if (actual >= tope) {
+                return false;
+            }
+            if (enVuelo.compareAndSet(actual, actual + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private static Permiso rechazar(LongAdder contador) {
+        contador.increment();
+        return null;
+    }
+
+    private synchronized void registrar(long latenciaNanos, int enVueloAlInicio, boolean sobrecarga) {
+        limite = algoritmo.actualizar(latenciaNanos, enVueloAlInicio, sobrecarga);
+    }
+
+    /** Lugar ocupado en el límite. Se libera una sola vez con uno de sus tres métodos. */
+    public final class Permiso {
+        private final boolean muestra;
+        private final long inicio = System.nanoTime();
+        private final int enVueloAlInicio = enVuelo.get();
+        private boolean liberado;
+
+        private Permiso(boolean muestra) {
+            this.muestra = muestra;
+        }
+
+        /** Terminó bien: su latencia ajusta el límite. */
+        public void exito() {
+            soltar(false, true);
+        }
+
+        /** Terminó por sobrecarga (error de la base, tiempo agotado, 5xx): achica el límite. */
+        public void sobrecarga() {
+            soltar(true, true);
+        }
+
+        /** Libera sin aportar muestra: operaciones de fondo, o fallos ajenos a la carga. */
+        public void liberar() {
+            soltar(false, false);
+        }
+
+        private void soltar(boolean sobrecarga, boolean registrar) {
+            if (liberado) {
+                return;
+            }
+            liberado = true;
+            enVuelo.decrementAndGet();
+            if (muestra && registrar) {
+                registrar(System.nanoTime() - inicio, enVueloAlInicio, sobrecarga);
+            }
+        }
+    }
+
+    public static final class Builder {
+        private final String algoritmo;
+        private int inicial = 20;
+        private int minimo = 4;
+        private int maximo = 200;
+        private long latenciaObjetivoMs = 500;
+        private double tolerancia = 1.5;
+        private double fraccionFondo = 0.5;
+
+        private Builder(String algoritmo) {
+            this.algoritmo = Objects.requireNonNull(algoritmo);
+        }
+
+        public Builder limites(int inicial, int minimo, int maximo) {
+            this.inicial = inicial;
+            this.minimo = minimo;
+            this.maximo = maximo;
+            return this;
+        }
+
+        /** Solo AIMD: latencia por encima de la cual una operación cuenta como sobrecarga. */
+        public Builder latenciaObjetivoMs(long latenciaObjetivoMs) {
+            this.latenciaObjetivoMs = latenciaObjetivoMs;
+            return this;
+        }
+
+        /** Solo gradiente: ver {@link AlgoritmoGradiente}. */
+        public Builder tolerancia(double tolerancia) {
+            this.tolerancia = tolerancia;
+            return this;
+        }
+
+        public Builder fraccionFondo(double fraccionFondo) {
+            if (fraccionFondo <= 0 || fraccionFondo > 1) {
+                throw new IllegalArgumentException("La fracción de fondo debe estar en (0, 1]");
+            }
+            this.fraccionFondo = fraccionFondo;
+            return this;
+        }
+
+        public LimiteConcurrencia build() {
+            AlgoritmoLimite elegido = switch (algoritmo) {
+                case "gradiente" -> new AlgoritmoGradiente(inicial, minimo, maximo, tolerancia);
+                case "aimd" -> new AlgoritmoAimd(inicial, minimo, maximo,
+                        TimeUnit.MILLISECONDS.toNanos(latenciaObjetivoMs), 0.9);
+                default -> throw new IllegalArgumentException("Algoritmo de límite desconocido: " + algoritmo);
+            };
+            return new LimiteConcurrencia(elegido, fraccionFondo);
+        }
+    }
+}
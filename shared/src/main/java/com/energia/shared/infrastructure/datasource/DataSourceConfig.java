@@ -0,0 +1,69 @@
+package com.energia.shared.infrastructure.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Pools separados para escritura (primario) y lectura (réplica), para cliente,
+ * contrato y medidor: cada servicio lo agrega con {@code @Import}.
+ * Solo se activa cuando se configura energia.datasource.lectura.url; sin réplica
+ * se usa el DataSource autoconfigurado de Spring Boot con spring.datasource.hikari.*.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "energia.datasource.lectura", name = "url")
+public class DataSourceConfig {
+
+    @Bean
+    @Primary
+    @ConfigurationProperties("spring.datasource")
+    public DataSourceProperties dataSourcePropertiesEscritura() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @FlywayDataSource
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSourceEscritura(
+            @Qualifier("dataSourcePropertiesEscritura") DataSourceProperties propiedades) {
+        return propiedades.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConfigurationProperties("energia.datasource.lectura")
+    public DataSourceProperties dataSourcePropertiesLectura() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties("energia.datasource.lectura.hikari")
+    public HikariDataSource dataSourceLectura(
+            @Qualifier("dataSourcePropertiesLectura") DataSourceProperties propiedades) {
+        HikariDataSource dataSource = propiedades.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("dataSourceEscritura") DataSource escritura,
+                                 @Qualifier("dataSourceLectura") DataSource lectura) {
+        DataSourceEnrutado enrutado = new DataSourceEnrutado();
+        enrutado.setTargetDataSources(Map.of(
+                DataSourceEnrutado.Destino.ESCRITURA, escritura,
+                DataSourceEnrutado.Destino.LECTURA, lectura));
+        enrutado.setDefaultTargetDataSource(escritura);
+        enrutado.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(enrutado);
+    }
+}
@@ -0,0 +1,22 @@
+package com.energia.shared.infrastructure.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Envía las transacciones de solo lectura a la réplica y el resto al primario.
+ * Debe envolverse en un LazyConnectionDataSourceProxy para que la conexión se
+ * obtenga después de que la transacción haya fijado su modo readOnly.
+ */
+public class DataSourceEnrutado extends AbstractRoutingDataSource {
+
+    public enum Destino {
+        ESCRITURA,
+        LECTURA
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? Destino.LECTURA : Destino.ESCRITURA;
+    }
+}
@@ -0,0 +1,20 @@
+package com.energia.shared.infrastructure.metricas;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuración de métricas común a los servicios. Cada servicio la importa
+ * desde su clase de aplicación.
+ */
+@Configuration
+public class MetricasConfig {
+
+    // Habilita @Timed en servicios y casos de uso; controladores y repositorios los mide Actuator
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+}
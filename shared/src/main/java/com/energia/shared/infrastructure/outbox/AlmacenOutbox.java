@@ -0,0 +1,50 @@
+package com.energia.shared.infrastructure.outbox;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Puerto de acceso a la tabla outbox de un servicio.
+ * Cada microservicio lo implementa sobre su propia persistencia.
+ */
+public interface AlmacenOutbox {
+
+    /**
+     * Reclama los mensajes aún no publicados, en orden de registro. Quedan fuera
+     * los descartados y los que esperan su próximo intento. Los reclamados no
+     * vuelven a salir hasta que pase {@code plazo}, sin bloquear filas mientras
+     * se entregan: si el relay cae a mitad del envío, otro los retoma después.
+     * @param limite Cantidad máxima de mensajes a devolver
+     * @param plazo Tiempo que el lote queda reservado para quien lo reclamó
+     * @return Lote de mensajes pendientes (vacío si no hay)
+     */
+    List<MensajeOutbox> reclamarPendientes(int limite, Duration plazo);
+
+    /**
+     * Devuelve a pendientes mensajes reclamados que no se llegaron a enviar.
+     * @param ids IDs de los mensajes
+     */
+    void liberar(List<Long> ids);
+
+    /**
+     * Marca los mensajes como publicados.
+     * @param ids IDs de los mensajes entregados al transporte
+     */
+    void marcarPublicados(List<Long> ids);
+
+    /**
+     * Registra un intento fallido de publicación y posterga el siguiente.
+     * @param id ID del mensaje que no se pudo entregar
+     * @param error Descripción del error
+     * @param espera Tiempo hasta que el mensaje vuelva a estar pendiente
+     */
+    void registrarFallo(long id, String error, Duration espera);
+
+    /**
+     * Aparta el mensaje: agotó sus intentos y no se vuelve a publicar
+     * hasta que alguien lo reencole a mano.
+     * @param id ID del mensaje
+     * @param error Descripción del último error
+     */
+    void descartar(long id, String error);
+}
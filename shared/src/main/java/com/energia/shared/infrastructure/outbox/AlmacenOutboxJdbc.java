@@ -0,0 +1,137 @@
+package com.energia.shared.infrastructure.outbox;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Tabla {@code outbox_eventos} del esquema del servicio, igual en cliente,
+ * contrato y medidor. Los publicadores de cada servicio registran acá sus
+ * eventos dentro de la transacción del cambio; el relay lee y marca.
+ */
+public class AlmacenOutboxJdbc implements AlmacenOutbox {
+
+    private static final int LARGO_MAXIMO_ERROR = 500;
+
+    private static final String INSERTAR = "INSERT INTO outbox_eventos " +
+            "(tipo_evento, tipo_agregado, id_agregado, payload, fecha_creacion, intentos) VALUES (?, ?, ?, ?, ?, 0)";
+
+    // Una sola sentencia: el bloqueo dura lo que el UPDATE, no el envío. SKIP LOCKED permite varias
+    // instancias del relay; el proximo_intento adelantado aparta el lote de las demás mientras se entrega
+    private static final String RECLAMAR_PENDIENTES = "UPDATE outbox_eventos " +
+            "SET proximo_intento = localtimestamp + ? * INTERVAL '1 millisecond' " +
+            "WHERE id IN (SELECT id FROM outbox_eventos " +
+            "WHERE fecha_publicacion IS NULL AND descartado_en IS NULL " +
+            "AND (proximo_intento IS NULL OR proximo_intento <= localtimestamp) " +
+            "ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED) " +
+            "RETURNING id, tipo_evento, tipo_agregado, id_agregado, payload, fecha_creacion, intentos";
+
+    private static final String LIBERAR = "UPDATE outbox_eventos SET proximo_intento = NULL " +
+            "WHERE id = ANY(?::bigint[]) AND fecha_publicacion IS NULL";
+
+    private static final String MARCAR_PUBLICADOS = "UPDATE outbox_eventos SET fecha_publicacion = ? " +
+            "WHERE id = ANY(?::bigint[])";
+
+    private static final String REGISTRAR_FALLO = "UPDATE outbox_eventos SET intentos = intentos + 1, ultimo_error = ?, " +
+            "proximo_intento = localtimestamp + ? * INTERVAL '1 millisecond' WHERE id = ?";
+
+    private static final String DESCARTAR = "UPDATE outbox_eventos SET intentos = intentos + 1, ultimo_error = ?, " +
+            "descartado_en = localtimestamp WHERE id = ?";
+
+    private static final String ELIMINAR_PUBLICADOS = "DELETE FROM outbox_eventos WHERE fecha_publicacion < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AlmacenOutboxJdbc(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Registra un evento. Debe llamarse dentro de la transacción del cambio que lo origina.
+     */
+    public void registrar(EventoNuevo evento) {
+        jdbcTemplate.update(INSERTAR, evento.tipoEvento(), evento.tipoAgregado(), evento.idAgregado(),
+                evento.payload(), Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    /**
+     * Registro masivo para operaciones por lote: un batch JDBC en lugar de un
+     * INSERT por evento (con reWriteBatchedInserts el driver los agrupa en INSERT multi-fila).
+     */
+    public void registrarTodos(List<EventoNuevo> eventos) {
+        if (eventos.isEmpty()) {
+            return;
+        }
+        Timestamp ahora = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> filas = new ArrayList<>(eventos.size());
+        for (EventoNuevo evento : eventos) {
+            filas.add(new Object[]{evento.tipoEvento(), evento.tipoAgregado(), evento.idAgregado(), evento.payload(), ahora});
+        }
+        jdbcTemplate.batchUpdate(INSERTAR, filas);
+    }
+
+    @Override
+    public List<MensajeOutbox> reclamarPendientes(int limite, Duration plazo) {
+        List<MensajeOutbox> lote = new ArrayList<>(jdbcTemplate.query(RECLAMAR_PENDIENTES, (rs, fila) ->
+                new MensajeOutbox(rs.getLong("id"), rs.getString("tipo_evento"), rs.getString("tipo_agregado"),
+                        rs.getString("id_agregado"), rs.getString("payload"),
+                        rs.getTimestamp("fecha_creacion").toLocalDateTime(), rs.getInt("intentos")),
+                plazo.toMillis(), limite));
+        // RETURNING no garantiza orden
+        lote.sort(Comparator.comparingLong(MensajeOutbox::getId));
+        return lote;
+    }
+
+    @Override
+    public void marcarPublicados(List<Long> ids) {
+        jdbcTemplate.update(con -> {
+            var ps = con.prepareStatement(MARCAR_PUBLICADOS);
+            ps.setTimestamp(1, Timestamp.valueOf(LocalDateTime.now()));
+            ps.setArray(2, con.createArrayOf("bigint", ids.toArray()));
+            return ps;
+        });
+    }
+
+    @Override
+    public void liberar(List<Long> ids) {
+        jdbcTemplate.update(con -> {
+            var ps = con.prepareStatement(LIBERAR);
+            ps.setArray(1, con.createArrayOf("bigint", ids.toArray()));
+            return ps;
+        });
+    }
+
+    @Override
+    public void registrarFallo(long id, String error, Duration espera) {
+        jdbcTemplate.update(REGISTRAR_FALLO, recortar(error), espera.toMillis(), id);
+    }
+
+    @Override
+    public void descartar(long id, String error) {
+        jdbcTemplate.update(DESCARTAR, recortar(error), id);
+    }
+
+    /**
+     * Borra lo publicado antes de {@code limite}. Los descartados se conservan para revisarlos.
+     * @return Cuántos eventos se borraron
+     */
+    public int eliminarPublicadosAntesDe(LocalDateTime limite) {
+        return jdbcTemplate.update(ELIMINAR_PUBLICADOS, Timestamp.valueOf(limite));
+    }
+
+    private static String recortar(String error) {
+        String mensaje = error == null ? "Error desconocido" : error;
+        return mensaje.length() > LARGO_MAXIMO_ERROR ? mensaje.substring(0, LARGO_MAXIMO_ERROR) : mensaje;
+    }
+
+    /**
+     * Evento a registrar, con el payload ya serializado.
+     */
+    public record EventoNuevo(String tipoEvento, String tipoAgregado, String idAgregado, String payload) {
+    }
+}
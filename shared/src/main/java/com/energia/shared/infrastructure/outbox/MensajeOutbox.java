@@ -0,0 +1,53 @@
+package com.energia.shared.infrastructure.outbox;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Mensaje pendiente de publicación registrado en la tabla outbox de un servicio.
+ * Inmutable: el relay solo lo lee y lo entrega al transporte.
+ */
+public final class MensajeOutbox {
+
+    private final Long id;
+    private final String tipoEvento;
+    private final String tipoAgregado;
+    private final String idAgregado;
+    private final String payload;
+    private final LocalDateTime fechaCreacion;
+    private final int intentos;
+
+    public MensajeOutbox(Long id, String tipoEvento, String tipoAgregado, String idAgregado,
+                         String payload, LocalDateTime fechaCreacion) {
+        this(id, tipoEvento, tipoAgregado, idAgregado, payload, fechaCreacion, 0);
+    }
+
+    /**
+     * @param intentos Publicaciones fallidas hasta ahora
+     */
+    public MensajeOutbox(Long id, String tipoEvento, String tipoAgregado, String idAgregado,
+                         String payload, LocalDateTime fechaCreacion, int intentos) {
+        this.id = id;
+        this.tipoEvento = Objects.requireNonNull(tipoEvento, "El tipo de evento es obligatorio");
+        this.tipoAgregado = tipoAgregado;
+        this.idAgregado = idAgregado;
+        this.payload = payload;
+        this.fechaCreacion = fechaCreacion;
+        this.intentos = intentos;
+    }
+
+    // Getters
+    public Long getId() { return id; }
+    public String getTipoEvento() { return tipoEvento; }
+    public String getTipoAgregado() { return tipoAgregado; }
+    public String getIdAgregado() { return idAgregado; }
+    public String getPayload() { return payload; }
+    public LocalDateTime getFechaCreacion() { return fechaCreacion; }
+    public int getIntentos() { return intentos; }
+
+    @Override
+    public String toString() {
+        return String.format("MensajeOutbox{id=%d, tipo='%s', agregado='%s:%s'}",
+                           id, tipoEvento, tipoAgregado, idAgregado);
+    }
+}
@@ -0,0 +1,59 @@
+package com.energia.shared.infrastructure.outbox;
+
+import com.energia.shared.infrastructure.carga.LimiteConcurrencia;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Outbox de cliente, contrato y medidor. Cada servicio lo agrega con
+ * {@code @Import} y aporta sus publicadores sobre {@link AlmacenOutboxJdbc}.
+ */
+@Configuration
+@EnableScheduling
+public class OutboxConfig {
+
+    // Los consumidores (facturación) reciben los lotes en POST /eventos; un broker puede reemplazarlo con otro bean
+    @Bean
+    @ConditionalOnMissingBean(TransporteEventos.class)
+    public TransporteEventos transporteEventos(RestClient.Builder builder,
+                                               @Value("${energia.outbox.destinos}") List<String> destinos,
+                                               @Value("${energia.outbox.conexion-ms:500}") long conexionMs,
+                                               @Value("${energia.outbox.lectura-ms:5000}") long lecturaMs) {
+        return TransporteHttp.crear(builder, destinos, conexionMs, lecturaMs);
+    }
+
+    @Bean
+    public AlmacenOutboxJdbc almacenOutbox(JdbcTemplate jdbcTemplate) {
+        return new AlmacenOutboxJdbc(jdbcTemplate);
+    }
+
+    @Bean
+    public RelayOutbox relayOutbox(AlmacenOutboxJdbc almacenOutbox, TransporteEventos transporteEventos,
+                                   @Value("${energia.outbox.tamano-lote:100}") int tamanoLote,
+                                   @Value("${energia.outbox.reclamo-ms:120000}") long reclamoMs,
+                                   @Value("${energia.outbox.maximo-intentos:20}") int maximoIntentos,
+                                   @Value("${energia.outbox.espera-base-ms:1000}") long esperaBaseMs,
+                                   @Value("${energia.outbox.espera-maxima-ms:600000}") long esperaMaximaMs) {
+        return new RelayOutbox(almacenOutbox, transporteEventos, tamanoLote, Duration.ofMillis(reclamoMs),
+                new RelayOutbox.Reintentos(maximoIntentos, Duration.ofMillis(esperaBaseMs),
+                        Duration.ofMillis(esperaMaximaMs)));
+    }
+
+    @Bean
+    public RelayOutboxProgramado relayOutboxProgramado(RelayOutbox relayOutbox, AlmacenOutboxJdbc almacenOutbox,
+                                                       TransactionTemplate transactionTemplate,
+                                                       LimiteConcurrencia limiteConcurrencia,
+                                                       @Value("${energia.outbox.dias-retencion:7}") int diasRetencion) {
+        return new RelayOutboxProgramado(relayOutbox, almacenOutbox, transactionTemplate, limiteConcurrencia,
+                diasRetencion);
+    }
+}
@@ -0,0 +1,138 @@
+package com.energia.shared.infrastructure.outbox;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Relay que lee la tabla outbox por lotes y los entrega al transporte.
+ * No conoce el planificador: el servicio decide cuándo invocar
+ * {@link #procesarLote()}. Debe llamarse fuera de una transacción: cada
+ * acceso al almacén es corto y el envío no retiene filas ni conexiones; los
+ * mensajes quedan reclamados por {@code plazoReclamo} mientras tanto.
+ * <p>
+ * Si el lote falla se reenvía de a un mensaje hasta dar con el que falla: los
+ * anteriores quedan publicados y ese se posterga con espera exponencial, así un
+ * mensaje que nunca se puede entregar no frena a los que vienen detrás. Al
+ * agotar {@link Reintentos#maximoIntentos()} se descarta.
+ */
+public class RelayOutbox {
+
+    private final AlmacenOutbox almacen;
+    private final TransporteEventos transporte;
+    private final int tamanoLote;
+    private final Duration plazoReclamo;
+    private final Reintentos reintentos;
+
+    /**
+     * @param plazoReclamo Cuánto queda reservado un lote para este relay; conviene que cubra el peor envío
+     *                     (el lote y después de a un mensaje). Si se pasa, otra instancia puede reenviarlo
+     */
+    public RelayOutbox(AlmacenOutbox almacen, TransporteEventos transporte, int tamanoLote, Duration plazoReclamo,
+                       Reintentos reintentos) {
+        if (tamanoLote <= 0) {
+            throw new IllegalArgumentException("El tamaño de lote debe ser mayor que 0");
+        }
+        if (plazoReclamo.isNegative() || plazoReclamo.isZero()) {
+            throw new IllegalArgumentException("El plazo de reclamo debe ser mayor que 0");
+        }
+        this.almacen = Objects.requireNonNull(almacen);
+        this.transporte = Objects.requireNonNull(transporte);
+        this.tamanoLote = tamanoLote;
+        this.plazoReclamo = plazoReclamo;
+        this.reintentos = Objects.requireNonNull(reintentos);
+    }
+
+    /**
+     * Publica un lote de mensajes pendientes.
+     * @return Cantidad de mensajes publicados; menos que el lote si alguno falló
+     */
+    public int procesarLote() {
+        List<MensajeOutbox> lote = almacen.reclamarPendientes(tamanoLote, plazoReclamo);
+        if (lote.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            transporte.publicar(lote);
+        } catch (RuntimeException e) {
+            if (lote.size() == 1) {
+                registrarFallo(lote.get(0), e);
+                return 0;
+            }
+            return publicarDeAUno(lote);
+        }
+
+        almacen.marcarPublicados(ids(lote));
+        return lote.size();
+    }
+
+    private int publicarDeAUno(List<MensajeOutbox> lote) {
+        List<MensajeOutbox> publicados = new ArrayList<>(lote.size());
+        int enviados = 0;
+        for (MensajeOutbox mensaje : lote) {
+            enviados++;
+            try {
+                transporte.publicar(List.of(mensaje));
+            } catch (RuntimeException e) {
+                registrarFallo(mensaje, e);
+                break;
+            }
+            publicados.add(mensaje);
+        }
+        if (!publicados.isEmpty()) {
+            almacen.marcarPublicados(ids(publicados));
+        }
+        // Los siguientes vuelven a pendientes sin sumar intentos: con el destino caído solo paga el primero
+        if (enviados < lote.size()) {
+            almacen.liberar(ids(lote.subList(enviados, lote.size())));
+        }
+        return publicados.size();
+    }
+
+    private void registrarFallo(MensajeOutbox mensaje, RuntimeException e) {
+        int intentos = mensaje.getIntentos() + 1;
+        if (intentos >= reintentos.maximoIntentos()) {
+            almacen.descartar(mensaje.getId(), e.getMessage());
+        } else {
+            almacen.registrarFallo(mensaje.getId(), e.getMessage(), reintentos.espera(intentos));
+        }
+    }
+
+    private static List<Long> ids(List<MensajeOutbox> mensajes) {
+        List<Long> ids = new ArrayList<>(mensajes.size());
+        for (MensajeOutbox mensaje : mensajes) {
+            ids.add(mensaje.getId());
+        }
+        return ids;
+    }
+
+    public int getTamanoLote() {
+        return tamanoLote;
+    }
+
+    /**
+     * Política de reintentos de un mensaje.
+     * @param maximoIntentos Fallos tras los cuales se descarta
+     * @param esperaBase Espera después del primer fallo; se duplica con cada uno
+     * @param esperaMaxima Tope de la espera
+     */
+    public record Reintentos(int maximoIntentos, Duration esperaBase, Duration esperaMaxima) {
+
+        public Reintentos {
+            if (maximoIntentos <= 0) {
+                throw new IllegalArgumentException("El máximo de intentos debe ser mayor que 0");
+            }
+            Objects.requireNonNull(esperaBase);
+            Objects.requireNonNull(esperaMaxima);
+        }
+
+        /** Espera antes del intento que sigue a {@code intentos} fallos. */
+        public Duration espera(int intentos) {
+            int duplicaciones = Math.min(intentos - 1, 30);
+            long esperaMs = esperaBase.toMillis() << duplicaciones;
+            return esperaMs <= 0 || esperaMs > esperaMaxima.toMillis() ? esperaMaxima : Duration.ofMillis(esperaMs);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.energia.shared.infrastructure.outbox;
+
+import com.energia.shared.infrastructure.carga.LimiteConcurrencia;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+
+/**
+ * Invoca periódicamente el relay del outbox, fuera de toda transacción: las
+ * filas se reclaman y se marcan con sentencias cortas y el envío HTTP no retiene
+ * bloqueos ni conexiones del pool. Mientras los lotes salgan completos se sigue
+ * drenando sin esperar.
+ */
+public class RelayOutboxProgramado {
+
+    private static final Logger logger = LoggerFactory.getLogger(RelayOutboxProgramado.class);
+
+    private final RelayOutbox relayOutbox;
+    private final AlmacenOutboxJdbc almacenOutbox;
+    private final TransactionTemplate transactionTemplate;
+    private final LimiteConcurrencia limiteConcurrencia;
+    private final int diasRetencion;
+
+    public RelayOutboxProgramado(RelayOutbox relayOutbox, AlmacenOutboxJdbc almacenOutbox,
+                                 TransactionTemplate transactionTemplate, LimiteConcurrencia limiteConcurrencia,
+                                 int diasRetencion) {
+        this.relayOutbox = relayOutbox;
+        this.almacenOutbox = almacenOutbox;
+        this.transactionTemplate = transactionTemplate;
+        this.limiteConcurrencia = limiteConcurrencia;
+        this.diasRetencion = diasRetencion;
+    }
+
+    @Scheduled(fixedDelayString = "${energia.outbox.intervalo-ms:500}")
+    public void publicarPendientes() {
+        int total = 0;
+        int procesados;
+        do {
+            // De fondo: con el servicio saturado cede el lugar a las peticiones y sigue en la próxima vuelta
+            LimiteConcurrencia.Permiso permiso = limiteConcurrencia.adquirirParaFondo();
+            if (permiso == null) {
+                break;
+            }
+            try {
+                procesados = relayOutbox.procesarLote();
+            } finally {
+                permiso.liberar();
+            }
+            total += procesados;
+        } while (procesados == relayOutbox.getTamanoLote());
+
+        if (total > 0) {
+            logger.debug("Eventos de outbox publicados: {}", total);
+        }
+    }
+
+    @Scheduled(cron = "${energia.outbox.cron-limpieza:0 0 3 * * *}")
+    public void limpiarPublicados() {
+        Integer eliminados = transactionTemplate.execute(status ->
+                almacenOutbox.eliminarPublicadosAntesDe(LocalDateTime.now().minusDays(diasRetencion)));
+        logger.info("Eventos de outbox publicados eliminados: {}", eliminados);
+    }
+}
@@ -0,0 +1,39 @@
+package com.energia.shared.infrastructure.outbox;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Transporte en proceso: entrega cada mensaje a los suscriptores registrados
+ * para su tipo de evento. No requiere broker: sirve para tests y, del lado
+ * del consumidor, para repartir lo que llega por {@link TransporteHttp}.
+ * No guarda lo entregado; un test que lo necesite se suscribe a {@link #TODOS}.
+ */
+public class TransporteEnMemoria implements TransporteEventos {
+
+    /** Tipo comodín para suscribirse a todos los eventos. */
+    public static final String TODOS = "*";
+
+    private final Map<String, List<Consumer<MensajeOutbox>>> suscriptores = new ConcurrentHashMap<>();
+
+    public void suscribir(String tipoEvento, Consumer<MensajeOutbox> consumidor) {
+        suscriptores.computeIfAbsent(tipoEvento, k -> new CopyOnWriteArrayList<>()).add(consumidor);
+    }
+
+    @Override
+    public void publicar(List<MensajeOutbox> lote) {
+        List<Consumer<MensajeOutbox>> comodines = suscriptores.getOrDefault(TODOS, Collections.emptyList());
+        for (MensajeOutbox mensaje : lote) {
+            for (Consumer<MensajeOutbox> consumidor : suscriptores.getOrDefault(mensaje.getTipoEvento(), Collections.emptyList())) {
+                consumidor.accept(mensaje);
+            }
+            for (Consumer<MensajeOutbox> consumidor : comodines) {
+                consumidor.accept(mensaje);
+            }
+        }
+    }
+}
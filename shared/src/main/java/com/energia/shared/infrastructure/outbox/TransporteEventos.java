@@ -0,0 +1,17 @@
+package com.energia.shared.infrastructure.outbox;
+
+import java.util.List;
+
+/**
+ * Transporte por el que el relay entrega los eventos a los consumidores.
+ * Permite cambiar el broker (o prescindir de él en tests) sin tocar los servicios.
+ */
+public interface TransporteEventos {
+
+    /**
+     * Publica un lote de mensajes. Debe lanzar excepción si el lote no pudo entregarse
+     * completo, para que el relay lo reintente.
+     * @param lote Mensajes a publicar, en orden
+     */
+    void publicar(List<MensajeOutbox> lote);
+}
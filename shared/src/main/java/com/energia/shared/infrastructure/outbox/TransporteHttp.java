@@ -0,0 +1,61 @@
+package com.energia.shared.infrastructure.outbox;
+
+import org.springframework.boot.web.client.ClientHttpRequestFactories;
+import org.springframework.boot.web.client.ClientHttpRequestFactorySettings;
+import org.springframework.http.MediaType;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Transporte entre servicios: entrega cada lote por HTTP ({@code POST /eventos})
+ * a todos los destinos configurados. Un destino caído o que responde con error
+ * hace fallar el lote entero y el relay lo reintenta, así que la entrega es al
+ * menos una vez: los consumidores descartan lo repetido por el id del mensaje.
+ */
+public class TransporteHttp implements TransporteEventos {
+
+    public static final String RUTA = "/eventos";
+
+    private final List<RestClient> destinos;
+
+    public TransporteHttp(List<RestClient> destinos) {
+        if (destinos.isEmpty()) {
+            throw new IllegalArgumentException("El transporte HTTP necesita al menos un destino");
+        }
+        this.destinos = List.copyOf(destinos);
+    }
+
+    /**
+     * Un cliente por URL base a partir del builder de Spring, que ya propaga la traza.
+     */
+    public static TransporteHttp crear(RestClient.Builder builder, List<String> urls, long conexionMs, long lecturaMs) {
+        ClientHttpRequestFactorySettings ajustes = ClientHttpRequestFactorySettings.DEFAULTS
+                .withConnectTimeout(Duration.ofMillis(conexionMs))
+                .withReadTimeout(Duration.ofMillis(lecturaMs));
+        return new TransporteHttp(urls.stream()
+                .map(String::strip)
+                .filter(url -> !url.isEmpty())
+                .map(url -> builder.clone()
+                        .baseUrl(url)
+                        .requestFactory(ClientHttpRequestFactories.get(ajustes))
+                        .build())
+                .toList());
+    }
+
+    @Override
+    public void publicar(List<MensajeOutbox> lote) {
+        Objects.requireNonNull(lote);
+        for (RestClient destino : destinos) {
+            // retrieve() lanza ante 4xx y 5xx
+            destino.post()
+                    .uri(RUTA)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(lote)
+                    .retrieve()
+                    .toBodilessEntity();
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package com.energia.shared.infrastructure.persistencia;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Genera el UPDATE de una actualización parcial (PATCH): solo las columnas
+ * presentes en la máscara de campos van al SET, en una única sentencia.
+ * <p>
+ * La definición se arma una vez por tabla y es segura entre hilos. El texto
+ * SQL se cachea por combinación de campos, de modo que la misma máscara
+ * produce siempre la misma sentencia y el driver puede reutilizar su plan.
+ * Los nombres de tabla y columna salen de la definición, nunca del cliente.
+ * <p>
+ * Si hace falta el valor anterior de alguna columna (p. ej. para emitir un
+ * evento de cambio), {@link Builder#filaPrevia} la lee y bloquea con
+ * {@code SELECT ... FOR UPDATE} en un CTE de la misma sentencia. Un subselect
+ * en el RETURNING no sirve: lee la foto del inicio de la sentencia y, si otra
+ * transacción actualizó la fila mientras se esperaba el bloqueo, devuelve un
+ * valor que ya no era el anterior.
+ */
+public final class ActualizacionParcial {
+
+    private final String tabla;
+    private final String columnaId;
+    private final String columnaVersion;
+    private final String retorno;
+    private final String filaPrevia;
+    private final List<Campo> campos;
+    private final Map<String, Integer> indicePorCampo;
+    private final Map<Long, String> sentencias = new ConcurrentHashMap<>();
+
+    private ActualizacionParcial(Builder builder) {
+        this.tabla = builder.tabla;
+        this.columnaId = builder.columnaId;
+        this.columnaVersion = builder.columnaVersion;
+        this.retorno = builder.retorno;
+        this.filaPrevia = builder.filaPrevia;
+        this.campos = List.copyOf(builder.campos.values());
+        Map<String, Integer> indice = new LinkedHashMap<>();
+        for (int i = 0; i < campos.size(); i++) {
+            indice.put(campos.get(i).nombre, i);
+        }
+        this.indicePorCampo = Collections.unmodifiableMap(indice);
+    }
+
+    public static Builder tabla(String tabla) {
+        return new Builder(tabla);
+    }
+
+    /**
+     * Arma la sentencia para los cambios recibidos.
+     * @param cambios Campo → nuevo valor; las claves presentes son la máscara
+     * @param versionEsperada Versión leída por el cliente; null no condiciona la escritura.
+     *                        Se ignora si la tabla no tiene columna de versión.
+     * @throws IllegalArgumentException si no hay cambios, un campo no es actualizable o un valor es inválido
+     */
+    public Sentencia construir(Object id, Map<String, ?> cambios, Long versionEsperada) {
+        Objects.requireNonNull(id, "El id es obligatorio");
+        if (cambios == null || cambios.isEmpty()) {
+            throw new IllegalArgumentException("No se indicó ningún campo a actualizar");
+        }
+
+        // Los parámetros siguen el orden de la definición, no el del cuerpo, para que la máscara decida el SQL
+        Object[] valores = new Object[campos.size()];
+        long mascara = 0;
+        for (Map.Entry<String, ?> cambio : cambios.entrySet()) {
+            Integer indice = indicePorCampo.get(cambio.getKey());
+            if (indice == null) {
+                throw new IllegalArgumentException("El campo '" + cambio.getKey() + "' no se puede actualizar");
+            }
+            valores[indice] = campos.get(indice).convertir(cambio.getValue());
+            mascara |= 1L << indice;
+        }
+
+        boolean conVersion = columnaVersion != null && versionEsperada != null;
+        List<Object> parametros = new ArrayList<>(Long.bitCount(mascara) + 2);
+        if (filaPrevia != null) {
+            parametros.add(id);
+        }
+        for (int i = 0; i < campos.size(); i++) {
+            if ((mascara & (1L << i)) != 0) {
+                parametros.add(valores[i]);
+            }
+        }
+        if (filaPrevia == null) {
+            parametros.add(id);
+        }
+        if (conVersion) {
+            parametros.add(versionEsperada);
+        }
+
+        // El bit 63 distingue la variante condicionada por versión
+        long clave = conVersion ? mascara | Long.MIN_VALUE : mascara;
+        String sql = sentencias.computeIfAbsent(clave, k -> generarSql(k));
+        return new Sentencia(sql, parametros.toArray());
+    }
+
+    private String generarSql(long clave) {
+        StringBuilder sql = new StringBuilder();
+        if (filaPrevia != null) {
+            sql.append("WITH previa AS (SELECT ").append(columnaId).append(", ").append(filaPrevia)
+                    .append(" FROM ").append(tabla).append(" WHERE ").append(columnaId).append(" = ? FOR UPDATE) ");
+        }
+        // Con el CTE las columnas de la tabla van calificadas: previa tiene columnas con el mismo nombre
+        String prefijo = filaPrevia != null ? tabla + "." : "";
+        sql.append("UPDATE ").append(tabla).append(" SET ");
+        boolean primera = true;
+        for (int i = 0; i < campos.size(); i++) {
+            if ((clave & (1L << i)) != 0) {
+                if (!primera) {
+                    sql.append(", ");
+                }
+                sql.append(campos.get(i).columna).append(" = ?");
+                primera = false;
+            }
+        }
+        if (columnaVersion != null) {
+            sql.append(", ").append(columnaVersion).append(" = ").append(prefijo).append(columnaVersion).append(" + 1");
+        }
+        if (filaPrevia != null) {
+            sql.append(" FROM previa WHERE ").append(prefijo).append(columnaId).append(" = previa.").append(columnaId);
+        } else {
+            sql.append(" WHERE ").append(columnaId).append(" = ?");
+        }
+        if (clave < 0) {
+            sql.append(" AND ").append(prefijo).append(columnaVersion).append(" = ?");
+        }
+        if (retorno != null) {
+            sql.append(" RETURNING ").append(retorno);
+        }
+        return sql.toString();
+    }
+
+    /** SQL con parámetros posicionales, listo para un PreparedStatement. */
+    public record Sentencia(String sql, Object[] parametros) {
+    }
+
+    /** Convierte texto no vacío; rechaza null y cadenas en blanco. */
+    public static Function<Object, Object> textoObligatorio() {
+        return valor -> {
+            if (!(valor instanceof String texto) || texto.isBlank()) {
+                throw new IllegalArgumentException("no puede estar en blanco");
+            }
+            return texto;
+        };
+    }
+
+    /** Convierte a Long cualquier número entero (Jackson entrega Integer o Long). */
+    public static Function<Object, Object> enteroObligatorio() {
+        return valor -> {
+            if (valor instanceof Integer || valor instanceof Long) {
+                return ((Number) valor).longValue();
+            }
+            if (valor instanceof String texto) {
+                try {
+                    return Long.parseLong(texto.trim());
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("debe ser un número entero");
+                }
+            }
+            throw new IllegalArgumentException(valor == null ? "no puede ser nulo" : "debe ser un número entero");
+        };
+    }
+
+    /** Acepta el nombre de una constante del enum y guarda ese nombre. */
+    public static <E extends Enum<E>> Function<Object, Object> enumerado(Class<E> tipo) {
+        return valor -> {
+            if (valor instanceof String texto) {
+                for (E constante : tipo.getEnumConstants()) {
+                    if (constante.name().equals(texto)) {
+                        return texto;
+                    }
+                }
+            }
+            throw new IllegalArgumentException("debe ser uno de " + Arrays.toString(tipo.getEnumConstants()));
+        };
+    }
+
+    private static final class Campo {
+        private final String nombre;
+        private final String columna;
+        private final Function<Object, Object> conversor;
+
+        private Campo(String nombre, String columna, Function<Object, Object> conversor) {
+            this.nombre = nombre;
+            this.columna = columna;
+            this.conversor = conversor;
+        }
+
+        private Object convertir(Object valor) {
+            try {
+                return conversor.apply(valor);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("El campo '" + nombre + "' " + e.getMessage(), e);
+            }
+        }
+    }
+
+    public static final class Builder {
+        private final String tabla;
+        private String columnaId = "id";
+        private String columnaVersion;
+        private String retorno;
+        private String filaPrevia;
+        private final Map<String, Campo> campos = new LinkedHashMap<>();
+
+        private Builder(String tabla) {
+            this.tabla = Objects.requireNonNull(tabla);
+        }
+
+        public Builder columnaId(String columnaId) {
+            this.columnaId = Objects.requireNonNull(columnaId);
+            return this;
+        }
+
+        /** Columna de versión optimista: se incrementa en cada UPDATE y condiciona la escritura. */
+        public Builder columnaVersion(String columnaVersion) {
+            this.columnaVersion = columnaVersion;
+            return this;
+        }
+
+        /** Lista de expresiones para RETURNING, p. ej. "*". */
+        public Builder retornando(String retorno) {
+            this.retorno = retorno;
+            return this;
+        }
+
+        /**
+         * Columnas de la fila antes del UPDATE, separadas por comas. Se leen y bloquean en
+         * el CTE {@code previa}; el RETURNING las referencia como {@code previa.<columna>}
+         * y debe calificar las de la tabla, p. ej. {@code "medidores.*"}.
+         */
+        public Builder filaPrevia(String columnas) {
+            this.filaPrevia = columnas;
+            return this;
+        }
+
+        public Builder campo(String nombre, String columna, Function<Object, Object> conversor) {
+            if (campos.size() == 63) {
+                throw new IllegalStateException("Se admiten como máximo 63 campos actualizables");
+            }
+            campos.put(nombre, new Campo(nombre, columna, Objects.requireNonNull(conversor)));
+            return this;
+        }
+
+        public ActualizacionParcial build() {
+            if (campos.isEmpty()) {
+                throw new IllegalStateException("La tabla " + tabla + " no tiene campos actualizables");
+            }
+            return new ActualizacionParcial(this);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.energia.shared.infrastructure.trazas;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.data.repository.Repository;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Registra un tramo por cada llamada a servicios, casos de uso y repositorios
+ * hecha dentro de una traza. Fuera de una petición (tareas programadas) no
+ * traza nada, para no generar una traza por cada ciclo del planificador.
+ */
+@Aspect
+public class AspectoTrazas {
+
+    private final Trazador trazador;
+
+    public AspectoTrazas(Trazador trazador) {
+        this.trazador = trazador;
+    }
+
+    @Around("this(org.springframework.data.repository.Repository) || @within(org.springframework.stereotype.Service)")
+    public Object trazar(ProceedingJoinPoint punto) throws Throwable {
+        Span padre = trazador.actual();
+        if (padre == null) {
+            return punto.proceed();
+        }
+        Span span = trazador.iniciar(tipo(punto.getThis()) + "." + punto.getSignature().getName());
+        try {
+            return punto.proceed();
+        } catch (Throwable e) {
+            span.registrarError(e);
+            throw e;
+        } finally {
+            trazador.finalizar(span, padre);
+        }
+    }
+
+    // Los repositorios son proxies de interfaz: se nombra la interfaz propia, no CrudRepository
+    private static String tipo(Object instancia) {
+        if (instancia instanceof Repository<?, ?>) {
+            Class<?>[] interfaces = AopProxyUtils.proxiedUserInterfaces(instancia);
+            if (interfaces.length > 0) {
+                return interfaces[0].getSimpleName();
+            }
+        }
+        return ClassUtils.getUserClass(instancia).getSimpleName();
+    }
+}
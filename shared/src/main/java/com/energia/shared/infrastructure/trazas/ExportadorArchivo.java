@@ -0,0 +1,150 @@
+package com.energia.shared.infrastructure.trazas;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Escribe los tramos como JSON, uno por línea, desde un hilo propio. El hilo
+ * de la operación solo encola; si la cola está llena el tramo se descarta y se
+ * cuenta, para que las trazas nunca frenen una petición.
+ */
+public class ExportadorArchivo implements ExportadorSpans, AutoCloseable {
+
+    private static final int TAMANO_LOTE = 256;
+
+    private final BlockingQueue<Span> cola;
+    private final BufferedWriter escritor;
+    private final Thread hilo;
+    private final AtomicLong descartados = new AtomicLong();
+    private volatile boolean activo = true;
+
+    public ExportadorArchivo(Path archivo, int capacidadCola) {
+        try {
+            Path directorio = archivo.toAbsolutePath().getParent();
+            if (directorio != null) {
+                Files.createDirectories(directorio);
+            }
+            this.escritor = Files.newBufferedWriter(archivo, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo abrir el archivo de trazas " + archivo, e);
+        }
+        this.cola = new ArrayBlockingQueue<>(capacidadCola);
+        this.hilo = new Thread(this::escribirLotes, "exportador-trazas");
+        this.hilo.setDaemon(true);
+        this.hilo.start();
+    }
+
+    @Override
+    public void exportar(Span span) {
+        if (!cola.offer(span)) {
+            descartados.incrementAndGet();
+        }
+    }
+
+    public long getDescartados() {
+        return descartados.get();
+    }
+
+    private void escribirLotes() {
+        List<Span> lote = new ArrayList<>(TAMANO_LOTE);
+        StringBuilder linea = new StringBuilder(256);
+        while (activo || !cola.isEmpty()) {
+            try {
+                Span primero = cola.poll(200, TimeUnit.MILLISECONDS);
+                if (primero == null) {
+                    continue;
+                }
+                lote.add(primero);
+                cola.drainTo(lote, TAMANO_LOTE - 1);
+                for (Span span : lote) {
+                    linea.setLength(0);
+                    aJson(span, linea);
+                    escritor.append(linea).append('\n');
+                }
+                escritor.flush();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException e) {
+                descartados.addAndGet(lote.size());
+            } finally {
+                lote.clear();
+            }
+        }
+    }
+
+    static void aJson(Span span, StringBuilder destino) {
+        destino.append("{\"traceId\":");
+        texto(span.getIdTraza(), destino);
+        destino.append(",\"spanId\":");
+        texto(span.getIdSpan(), destino);
+        if (span.getIdPadre() != null) {
+            destino.append(",\"parentId\":");
+            texto(span.getIdPadre(), destino);
+        }
+        destino.append(",\"service\":");
+        texto(span.getServicio(), destino);
+        destino.append(",\"name\":");
+        texto(span.getNombre(), destino);
+        destino.append(",\"timestamp\":").append(span.getInicioEpochMicros());
+        destino.append(",\"duration\":").append(span.getDuracionNanos() / 1000);
+        if (span.getError() != null) {
+            destino.append(",\"error\":");
+            texto(span.getError(), destino);
+        }
+        if (!span.getAtributos().isEmpty()) {
+            destino.append(",\"tags\":{");
+            boolean primero = true;
+            for (Map.Entry<String, String> atributo : span.getAtributos().entrySet()) {
+                if (!primero) {
+                    destino.append(',');
+                }
+                texto(atributo.getKey(), destino);
+                destino.append(':');
+                texto(atributo.getValue(), destino);
+                primero = false;
+            }
+            destino.append('}');
+        }
+        destino.append('}');
+    }
+
+    private static void texto(String valor, StringBuilder destino) {
+        destino.append('"');
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            if (c == '"' || c == '\\') {
+                destino.append('\\').append(c);
+            } else if (c < 0x20) {
+                destino.append(String.format("\\u%04x", (int) c));
+            } else {
+                destino.append(c);
+            }
+        }
+        destino.append('"');
+    }
+
+    @Override
+    public void close() throws IOException {
+        activo = false;
+        try {
+            hilo.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        escritor.close();
+    }
+}
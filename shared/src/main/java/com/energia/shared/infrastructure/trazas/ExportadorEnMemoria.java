@@ -0,0 +1,30 @@
+package com.energia.shared.infrastructure.trazas;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Guarda los tramos en memoria, para tests y diagnóstico local.
+ */
+public class ExportadorEnMemoria implements ExportadorSpans {
+
+    private final ConcurrentLinkedQueue<Span> spans = new ConcurrentLinkedQueue<>();
+
+    @Override
+    public void exportar(Span span) {
+        spans.add(span);
+    }
+
+    public List<Span> getSpans() {
+        return new ArrayList<>(spans);
+    }
+
+    public List<Span> getSpansDeTraza(String idTraza) {
+        return spans.stream().filter(span -> span.getIdTraza().equals(idTraza)).toList();
+    }
+
+    public void limpiar() {
+        spans.clear();
+    }
+}
@@ -0,0 +1,13 @@
+package com.energia.shared.infrastructure.trazas;
+
+/**
+ * Destino de los tramos terminados. Se invoca en el hilo de la operación,
+ * así que una implementación no debe bloquear.
+ */
+public interface ExportadorSpans {
+
+    void exportar(Span span);
+
+    /** Exportador que descarta todo, para desactivar las trazas. */
+    ExportadorSpans NINGUNO = span -> { };
+}
@@ -0,0 +1,48 @@
+package com.energia.shared.infrastructure.trazas;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Abre el tramo raíz de cada petición con el id de correlación recibido (o uno
+ * nuevo), lo deja en el MDC para los logs y lo devuelve en la respuesta.
+ */
+public class FiltroCorrelacion extends OncePerRequestFilter {
+
+    public static final String MDC_CORRELACION = "correlationId";
+
+    private final Trazador trazador;
+
+    public FiltroCorrelacion(Trazador trazador) {
+        this.trazador = trazador;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Span span = trazador.iniciarEntrada(request.getMethod(),
+                request.getHeader(Trazador.CABECERA_CORRELACION), request.getHeader(Trazador.CABECERA_SPAN_PADRE));
+        MDC.put(MDC_CORRELACION, span.getIdTraza());
+        response.setHeader(Trazador.CABECERA_CORRELACION, span.getIdTraza());
+        try {
+            chain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException e) {
+            span.registrarError(e);
+            throw e;
+        } finally {
+            // La plantilla de la ruta solo se conoce después del mapeo; la URI real tiene ids
+            Object ruta = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            span.renombrar(request.getMethod() + " " + (ruta != null ? ruta : "SIN_RUTA"));
+            span.atributo("http.status", Integer.toString(response.getStatus()));
+            trazador.finalizar(span, null);
+            MDC.remove(MDC_CORRELACION);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.energia.shared.infrastructure.trazas;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+
+/**
+ * Propaga la traza activa en las llamadas salientes de RestClient y registra
+ * el tramo de la llamada.
+ */
+public class InterceptorCorrelacion implements ClientHttpRequestInterceptor {
+
+    private final Trazador trazador;
+
+    public InterceptorCorrelacion(Trazador trazador) {
+        this.trazador = trazador;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        Span padre = trazador.actual();
+        if (padre == null) {
+            return execution.execute(request, body);
+        }
+        Span span = trazador.iniciar("HTTP " + request.getMethod() + " " + request.getURI().getHost());
+        request.getHeaders().set(Trazador.CABECERA_CORRELACION, span.getIdTraza());
+        request.getHeaders().set(Trazador.CABECERA_SPAN_PADRE, span.getIdSpan());
+        try {
+            ClientHttpResponse respuesta = execution.execute(request, body);
+            span.atributo("http.status", Integer.toString(respuesta.getStatusCode().value()));
+            return respuesta;
+        } catch (IOException | RuntimeException e) {
+            span.registrarError(e);
+            throw e;
+        } finally {
+            trazador.finalizar(span, padre);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.energia.shared.infrastructure.trazas;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Deja pasar solo una de cada {@code tasa} peticiones en DEBUG/TRACE. La
+ * decisión se toma por id de correlación, así que una petición muestreada
+ * conserva todas sus líneas; fuera de una petición se muestrea por evento.
+ */
+public class MuestreoDebugFilter extends TurboFilter {
+
+    private int tasa = 100;
+
+    public void setTasa(int tasa) {
+        this.tasa = tasa;
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (tasa <= 1 || level == null || level.isGreaterOrEqual(Level.INFO)) {
+            return FilterReply.NEUTRAL;
+        }
+        // Nivel efectivo y no isEnabledFor: este último volvería a invocar el filtro
+        if (!level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+            return FilterReply.NEUTRAL;
+        }
+        String correlacion = MDC.get(FiltroCorrelacion.MDC_CORRELACION);
+        boolean muestreado = correlacion != null
+                ? Math.floorMod(correlacion.hashCode(), tasa) == 0
+                : ThreadLocalRandom.current().nextInt(tasa) == 0;
+        return muestreado ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+}
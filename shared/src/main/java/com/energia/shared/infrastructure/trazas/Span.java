@@ -0,0 +1,86 @@
+package com.energia.shared.infrastructure.trazas;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Tramo de una traza: una operación con inicio, duración y el tramo padre que
+ * la originó. El id de traza es el id de correlación que viaja entre servicios.
+ */
+public class Span {
+
+    private final String idTraza;
+    private final String idSpan;
+    private final String idPadre;
+    private final String servicio;
+    private final long inicioEpochMicros;
+    private final long inicioNanos;
+    private final Map<String, String> atributos = new LinkedHashMap<>(4);
+    private String nombre;
+    private long duracionNanos = -1;
+    private String error;
+
+    Span(String idTraza, String idSpan, String idPadre, String servicio, String nombre) {
+        this.idTraza = idTraza;
+        this.idSpan = idSpan;
+        this.idPadre = idPadre;
+        this.servicio = servicio;
+        this.nombre = nombre;
+        this.inicioEpochMicros = System.currentTimeMillis() * 1000;
+        this.inicioNanos = System.nanoTime();
+    }
+
+    public Span atributo(String clave, String valor) {
+        atributos.put(clave, valor);
+        return this;
+    }
+
+    public void registrarError(Throwable error) {
+        this.error = error.getClass().getSimpleName();
+    }
+
+    public void renombrar(String nombre) {
+        this.nombre = nombre;
+    }
+
+    void finalizar() {
+        duracionNanos = System.nanoTime() - inicioNanos;
+    }
+
+    public String getIdTraza() {
+        return idTraza;
+    }
+
+    public String getIdSpan() {
+        return idSpan;
+    }
+
+    public String getIdPadre() {
+        return idPadre;
+    }
+
+    public String getServicio() {
+        return servicio;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public long getInicioEpochMicros() {
+        return inicioEpochMicros;
+    }
+
+    public long getDuracionNanos() {
+        return duracionNanos;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public Map<String, String> getAtributos() {
+        return Collections.unmodifiableMap(atributos);
+    }
+}
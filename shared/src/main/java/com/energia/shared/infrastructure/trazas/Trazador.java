@@ -0,0 +1,100 @@
+package com.energia.shared.infrastructure.trazas;
+
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+
+/**
+ * Crea tramos y mantiene el tramo activo de cada hilo. El id de correlación
+ * que llega en {@link #CABECERA_CORRELACION} se usa como id de traza, así que
+ * la misma petición queda agrupada en todos los servicios que atraviesa.
+ */
+public class Trazador {
+
+    public static final String CABECERA_CORRELACION = "X-Correlation-Id";
+    public static final String CABECERA_SPAN_PADRE = "X-Parent-Span-Id";
+
+    // Se aceptan ids de correlación externos solo si son cortos y sin caracteres especiales (van a logs y cabeceras)
+    private static final Pattern ID_VALIDO = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+
+    private final String servicio;
+    private final ExportadorSpans exportador;
+    private final ThreadLocal<Span> actual = new ThreadLocal<>();
+
+    public Trazador(String servicio, ExportadorSpans exportador) {
+        this.servicio = Objects.requireNonNull(servicio);
+        this.exportador = Objects.requireNonNull(exportador);
+    }
+
+    /**
+     * Abre el tramo raíz de una petición entrante.
+     * @param idCorrelacion Id recibido del llamador; si falta o no es válido se genera uno
+     * @param idPadre Tramo del llamador, si lo informó
+     */
+    public Span iniciarEntrada(String nombre, String idCorrelacion, String idPadre) {
+        String idTraza = idCorrelacion != null && ID_VALIDO.matcher(idCorrelacion).matches()
+                ? idCorrelacion : generarId(16);
+        String padre = idPadre != null && ID_VALIDO.matcher(idPadre).matches() ? idPadre : null;
+        Span span = new Span(idTraza, generarId(8), padre, servicio, nombre);
+        actual.set(span);
+        return span;
+    }
+
+    /**
+     * Abre un tramo hijo del activo, o uno raíz si el hilo no tiene traza
+     * (tareas programadas, por ejemplo).
+     */
+    public Span iniciar(String nombre) {
+        Span padre = actual.get();
+        Span span = padre == null
+                ? new Span(generarId(16), generarId(8), null, servicio, nombre)
+                : new Span(padre.getIdTraza(), generarId(8), padre.getIdSpan(), servicio, nombre);
+        actual.set(span);
+        return span;
+    }
+
+    /**
+     * Cierra el tramo, lo exporta y vuelve a dejar activo a su padre.
+     * @param padre Tramo que estaba activo al abrirlo (el valor de {@link #actual()} antes de iniciar)
+     */
+    public void finalizar(Span span, Span padre) {
+        span.finalizar();
+        if (padre == null) {
+            actual.remove();
+        } else {
+            actual.set(padre);
+        }
+        exportador.exportar(span);
+    }
+
+    /**
+     * Deja activo en este hilo un tramo abierto en otro, para que el trabajo
+     * delegado a un pool quede dentro de la misma traza. Con null el hilo queda sin traza.
+     */
+    public void continuar(Span span) {
+        if (span == null) {
+            actual.remove();
+        } else {
+            actual.set(span);
+        }
+    }
+
+    public Span actual() {
+        return actual.get();
+    }
+
+    public String idCorrelacionActual() {
+        Span span = actual.get();
+        return span == null ? null : span.getIdTraza();
+    }
+
+    private static String generarId(int bytes) {
+        ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+        StringBuilder id = new StringBuilder(bytes * 2);
+        for (int i = 0; i < bytes; i++) {
+            int valor = aleatorio.nextInt(256);
+            id.append(Character.forDigit(valor >> 4, 16)).append(Character.forDigit(valor & 0xF, 16));
+        }
+        return id.toString();
+    }
+}
@@ -0,0 +1,60 @@
+package com.energia.shared.infrastructure.trazas;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.client.RestClientCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Trazas de los servicios web: filtro de entrada, aspecto de servicios y
+ * repositorios, y propagación en RestClient. Cada servicio la importa desde su
+ * clase de aplicación.
+ */
+@Configuration
+public class TrazasConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "energia.trazas", name = "exportador", havingValue = "archivo", matchIfMissing = true)
+    public ExportadorArchivo exportadorArchivo(@Value("${energia.trazas.archivo}") String archivo,
+                                               @Value("${energia.trazas.capacidad-cola:10000}") int capacidadCola) {
+        return new ExportadorArchivo(Path.of(archivo), capacidadCola);
+    }
+
+    // Para tests: los tramos quedan en memoria y se consultan por id de traza
+    @Bean
+    @ConditionalOnProperty(prefix = "energia.trazas", name = "exportador", havingValue = "memoria")
+    public ExportadorEnMemoria exportadorEnMemoria() {
+        return new ExportadorEnMemoria();
+    }
+
+    @Bean
+    public Trazador trazador(@Value("${spring.application.name}") String servicio,
+                             Optional<ExportadorSpans> exportador) {
+        return new Trazador(servicio, exportador.orElse(ExportadorSpans.NINGUNO));
+    }
+
+    @Bean
+    public FilterRegistrationBean<FiltroCorrelacion> filtroCorrelacion(Trazador trazador) {
+        FilterRegistrationBean<FiltroCorrelacion> registro = new FilterRegistrationBean<>(new FiltroCorrelacion(trazador));
+        registro.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registro;
+    }
+
+    @Bean
+    public AspectoTrazas aspectoTrazas(Trazador trazador) {
+        return new AspectoTrazas(trazador);
+    }
+
+    // Todo RestClient construido desde el builder de Spring propaga la correlación
+    @Bean
+    public RestClientCustomizer propagacionCorrelacion(Trazador trazador) {
+        InterceptorCorrelacion interceptor = new InterceptorCorrelacion(trazador);
+        return builder -> builder.requestInterceptor(interceptor);
+    }
+}
@@ -0,0 +1,70 @@
+package com.energia.shared.infrastructure.web;
+
+/**
+ * Traduce la versión optimista de una entidad a ETag y viceversa. El ETag es
+ * la versión entre comillas: {@code "3"}.
+ */
+public final class VersionEtag {
+
+    /** Versión que nunca coincide: un If-Match ilegible debe terminar en 412, no en escritura incondicional. */
+    public static final long VERSION_INVALIDA = -1L;
+
+    private VersionEtag() {
+    }
+
+    /** ETag de la versión, o null si la entidad no tiene versión (p. ej. una fila archivada). */
+    public static String etag(Long version) {
+        return version == null ? null : "\"" + version + "\"";
+    }
+
+    /**
+     * Versión esperada según If-Match; si no viene la cabecera (o es "*") se
+     * usa la versión del cuerpo, que puede ser null (actualización incondicional).
+     * Los reemplazos completos comprueban antes {@link #sinPrecondicion}.
+     */
+    public static Long versionEsperada(String ifMatch, Long versionCuerpo) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return versionCuerpo;
+        }
+        Long version = aVersion(ifMatch.trim());
+        return version != null ? version : VERSION_INVALIDA;
+    }
+
+    /**
+     * Indica si la petición no trae ninguna precondición: ni If-Match ni versión
+     * en el cuerpo. Un PUT así se rechaza con 428 para no pisar cambios ajenos;
+     * quien de verdad quiere escribir sin condición manda {@code If-Match: *}.
+     */
+    public static boolean sinPrecondicion(String ifMatch, Long versionCuerpo) {
+        return (ifMatch == null || ifMatch.isBlank()) && versionCuerpo == null;
+    }
+
+    /**
+     * Indica si un If-None-Match incluye la versión actual, es decir, si el
+     * cliente ya tiene la representación vigente y se puede responder 304.
+     */
+    public static boolean coincide(String ifNoneMatch, Long version) {
+        if (ifNoneMatch == null || version == null) {
+            return false;
+        }
+        for (String etiqueta : ifNoneMatch.split(",")) {
+            String valor = etiqueta.trim();
+            if (valor.equals("*") || version.equals(aVersion(valor))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Long aVersion(String etiqueta) {
+        String valor = etiqueta.startsWith("W/") ? etiqueta.substring(2) : etiqueta;
+        if (valor.length() >= 2 && valor.startsWith("\"") && valor.endsWith("\"")) {
+            valor = valor.substring(1, valor.length() - 1);
+        }
+        try {
+            return Long.parseLong(valor);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
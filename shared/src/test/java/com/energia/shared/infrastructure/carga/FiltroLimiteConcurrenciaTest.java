@@ -0,0 +1,77 @@
+package com.energia.shared.infrastructure.carga;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.servlet.DispatcherServlet;
+
+import java.sql.SQLTransientConnectionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FiltroLimiteConcurrenciaTest {
+
+    // AIMD con factor 0.9: una sobrecarga baja el límite de 20 a 18
+    private final LimiteConcurrencia limite = LimiteConcurrencia.algoritmo("aimd").limites(20, 4, 40).build();
+    private final FiltroLimiteConcurrencia filtro = new FiltroLimiteConcurrencia(limite, 503, 1);
+
+    @Test
+    void unPoolAgotadoAchicaElLimite() {
+        // Como llega desde JPA: la transacción no pudo empezar porque Hikari no entregó conexión
+        RuntimeException error = new CannotCreateTransactionException("Sin conexión",
+                new SQLTransientConnectionException("facturacion-escritura - Connection is not available"));
+
+        assertThrows(CannotCreateTransactionException.class, () -> filtrar((req, res) -> {
+            throw error;
+        }));
+
+        assertEquals(18, limite.getLimite());
+        assertEquals(0, limite.getEnVuelo());
+    }
+
+    @Test
+    void unTiempoAgotadoResueltoPorUnExceptionHandlerTambienCuenta() throws Exception {
+        filtrar((req, res) -> {
+            req.setAttribute(DispatcherServlet.EXCEPTION_ATTRIBUTE, new QueryTimeoutException("statement timeout"));
+            ((MockHttpServletResponse) res).setStatus(500);
+        });
+
+        assertEquals(18, limite.getLimite());
+    }
+
+    @Test
+    void unErrorAjenoALaCargaLiberaSinTocarElLimite() throws Exception {
+        assertThrows(IllegalStateException.class, () -> filtrar((req, res) -> {
+            throw new IllegalStateException("bug");
+        }));
+        filtrar((req, res) -> ((MockHttpServletResponse) res).setStatus(500));
+        filtrar((req, res) -> {
+            req.setAttribute(DispatcherServlet.EXCEPTION_ATTRIBUTE, new DataIntegrityViolationException("duplicado"));
+            ((MockHttpServletResponse) res).setStatus(500);
+        });
+
+        assertEquals(20, limite.getLimite());
+        assertEquals(0, limite.getEnVuelo());
+    }
+
+    @Test
+    void soloLasSenalesDeBaseSaturadaSonSobrecarga() {
+        assertTrue(FiltroLimiteConcurrencia.esSobrecarga(new CannotGetJdbcConnectionException("pool")));
+        assertTrue(FiltroLimiteConcurrencia.esSobrecarga(new RuntimeException(new QueryTimeoutException("lenta"))));
+        assertFalse(FiltroLimiteConcurrencia.esSobrecarga(new DataIntegrityViolationException("duplicado")));
+        assertFalse(FiltroLimiteConcurrencia.esSobrecarga(new IllegalArgumentException("dato inválido")));
+        assertFalse(FiltroLimiteConcurrencia.esSobrecarga(null));
+    }
+
+    private void filtrar(FilterChain cadena) throws Exception {
+        filtro.doFilter(new MockHttpServletRequest("GET", "/contratos/7"), new MockHttpServletResponse(), cadena);
+    }
+}
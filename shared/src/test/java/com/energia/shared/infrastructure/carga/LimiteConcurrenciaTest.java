@@ -0,0 +1,81 @@
+package com.energia.shared.infrastructure.carga;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LimiteConcurrenciaTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    void rechazaLoQueNoEntraYLiberaAlTerminar() {
+        LimiteConcurrencia limite = LimiteConcurrencia.algoritmo("aimd").limites(4, 1, 10).build();
+        List<LimiteConcurrencia.Permiso> permisos = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            permisos.add(limite.adquirir());
+        }
+
+        assertEquals(null, limite.adquirir());
+        assertEquals(1L, limite.getRechazos());
+
+        permisos.get(0).liberar();
+        // Liberar dos veces no abre un lugar de más
+        permisos.get(0).liberar();
+        assertEquals(3, limite.getEnVuelo());
+        assertTrue(limite.adquirir() != null);
+        assertEquals(null, limite.adquirir());
+    }
+
+    @Test
+    void elFondoSoloOcupaSuFraccion() {
+        LimiteConcurrencia limite = LimiteConcurrencia.algoritmo("gradiente")
+                .limites(10, 2, 20).fraccionFondo(0.3).build();
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limite.adquirirParaFondo() != null);
+        }
+
+        assertEquals(null, limite.adquirirParaFondo());
+        assertEquals(1L, limite.getRechazosFondo());
+        // El primer plano todavía tiene lugar
+        assertTrue(limite.adquirir() != null);
+    }
+
+    @Test
+    void aimdAchicaConSobrecargaYCreceSoloSiSeUsa() {
+        AlgoritmoAimd aimd = new AlgoritmoAimd(20, 4, 30, 100 * MS, 0.5);
+
+        assertEquals(10, aimd.actualizar(10 * MS, 15, true));
+        assertEquals(5, aimd.actualizar(500 * MS, 15, false));
+        assertEquals(6, aimd.actualizar(10 * MS, 5, false));
+        assertEquals(6, aimd.actualizar(10 * MS, 1, false));
+        assertEquals(4, aimd.actualizar(10 * MS, 5, true));
+    }
+
+    @Test
+    void gradienteAchicaCuandoLaLatenciaSubeYCreceCuandoEsEstable() {
+        AlgoritmoGradiente gradiente = new AlgoritmoGradiente(20, 4, 100, 1.5);
+        int limite = 20;
+        for (int i = 0; i < 50; i++) {
+            limite = gradiente.actualizar(10 * MS, limite, false);
+        }
+        assertTrue(limite > 20);
+
+        int sano = limite;
+        for (int i = 0; i < 20; i++) {
+            limite = gradiente.actualizar(200 * MS, limite, false);
+        }
+        assertTrue(limite < sano);
+    }
+
+    @Test
+    void rechazaAlgoritmoDesconocido() {
+        assertThrows(IllegalArgumentException.class, () -> LimiteConcurrencia.algoritmo("vegas").build());
+    }
+}
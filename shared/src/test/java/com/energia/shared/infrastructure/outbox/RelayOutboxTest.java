@@ -0,0 +1,183 @@
+package com.energia.shared.infrastructure.outbox;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RelayOutboxTest {
+
+    private static final String CONTRATO_CREADO = "ContratoCreado";
+    private static final Duration RECLAMO = Duration.ofMinutes(2);
+    private static final RelayOutbox.Reintentos REINTENTOS =
+            new RelayOutbox.Reintentos(3, Duration.ofSeconds(1), Duration.ofSeconds(3));
+
+    @Test
+    void publicaLotesEnOrdenYLosMarcaComoPublicados() {
+        AlmacenEnMemoria almacen = new AlmacenEnMemoria();
+        for (long i = 1; i <= 5; i++) {
+            almacen.agregar(mensaje(i));
+        }
+        TransporteEnMemoria transporte = new TransporteEnMemoria();
+        List<String> recibidos = new ArrayList<>();
+        transporte.suscribir(CONTRATO_CREADO, m -> recibidos.add(m.getIdAgregado()));
+        RelayOutbox relay = new RelayOutbox(almacen, transporte, 2, RECLAMO, REINTENTOS);
+
+        assertEquals(2, relay.procesarLote());
+        assertEquals(2, relay.procesarLote());
+        assertEquals(1, relay.procesarLote());
+        assertEquals(0, relay.procesarLote());
+
+        assertEquals(List.of("1", "2", "3", "4", "5"), recibidos);
+        assertTrue(almacen.pendientes.isEmpty());
+    }
+
+    @Test
+    void registraFalloYPostergaElMensajeCuandoElTransporteFalla() {
+        AlmacenEnMemoria almacen = new AlmacenEnMemoria();
+        almacen.agregar(mensaje(1));
+        TransporteEnMemoria transporte = new TransporteEnMemoria();
+        transporte.suscribir(TransporteEnMemoria.TODOS, m -> {
+            throw new IllegalStateException("consumidor caído");
+        });
+        RelayOutbox relay = new RelayOutbox(almacen, transporte, 10, RECLAMO, REINTENTOS);
+
+        assertEquals(0, relay.procesarLote());
+        assertEquals(1, almacen.pendientes.size());
+        assertEquals(1, almacen.pendientes.get(1L).getIntentos());
+        // Hasta que pase la espera no vuelve a salir
+        assertEquals(0, relay.procesarLote());
+        assertEquals(1, almacen.pendientes.get(1L).getIntentos());
+    }
+
+    @Test
+    void unMensajeQueSiempreFallaNoFrenaALosSiguientesYTerminaDescartado() {
+        AlmacenEnMemoria almacen = new AlmacenEnMemoria();
+        for (long i = 1; i <= 4; i++) {
+            almacen.agregar(mensaje(i));
+        }
+        TransporteEnMemoria transporte = new TransporteEnMemoria();
+        List<String> recibidos = new ArrayList<>();
+        transporte.suscribir(TransporteEnMemoria.TODOS, m -> {
+            if (m.getId() == 2L) {
+                throw new IllegalArgumentException("payload ilegible");
+            }
+            recibidos.add(m.getIdAgregado());
+        });
+        RelayOutbox relay = new RelayOutbox(almacen, transporte, 10, RECLAMO, REINTENTOS);
+
+        // Sale el 1, el 2 falla y el resto queda pendiente sin sumar intentos
+        assertEquals(1, relay.procesarLote());
+        assertEquals(1, almacen.pendientes.get(2L).getIntentos());
+        assertEquals(0, almacen.pendientes.get(3L).getIntentos());
+
+        // Con el 2 esperando, el resto sale
+        assertEquals(2, relay.procesarLote());
+
+        almacen.avanzar(Duration.ofSeconds(1));
+        assertEquals(0, relay.procesarLote());
+        assertEquals(2, almacen.pendientes.get(2L).getIntentos());
+        assertEquals(Duration.ofSeconds(2), almacen.esperas.get(2L));
+
+        almacen.avanzar(Duration.ofSeconds(2));
+        assertEquals(0, relay.procesarLote());
+
+        // El 1 llega dos veces: con el lote y al reenviar de a uno. La entrega es al menos una vez
+        assertEquals(List.of("1", "3", "4"), recibidos.stream().distinct().toList());
+        assertTrue(almacen.pendientes.isEmpty());
+        assertEquals(List.of(2L), almacen.descartados);
+    }
+
+    @Test
+    void unLoteReclamadoNoVuelveASalirHastaQueVenceElPlazo() {
+        AlmacenEnMemoria almacen = new AlmacenEnMemoria();
+        almacen.agregar(mensaje(1));
+
+        // Otro relay lo reclamó y cayó sin marcarlo
+        assertEquals(1, almacen.reclamarPendientes(10, RECLAMO).size());
+        TransporteEnMemoria transporte = new TransporteEnMemoria();
+        List<String> recibidos = new ArrayList<>();
+        transporte.suscribir(TransporteEnMemoria.TODOS, m -> recibidos.add(m.getIdAgregado()));
+        RelayOutbox relay = new RelayOutbox(almacen, transporte, 10, RECLAMO, REINTENTOS);
+
+        assertEquals(0, relay.procesarLote());
+        almacen.avanzar(RECLAMO);
+        assertEquals(1, relay.procesarLote());
+        assertEquals(List.of("1"), recibidos);
+    }
+
+    @Test
+    void laEsperaSeDuplicaHastaElTope() {
+        RelayOutbox.Reintentos reintentos = new RelayOutbox.Reintentos(100, Duration.ofSeconds(1), Duration.ofMinutes(10));
+
+        assertEquals(Duration.ofSeconds(1), reintentos.espera(1));
+        assertEquals(Duration.ofSeconds(8), reintentos.espera(4));
+        assertEquals(Duration.ofMinutes(10), reintentos.espera(11));
+        assertEquals(Duration.ofMinutes(10), reintentos.espera(99));
+    }
+
+    private static MensajeOutbox mensaje(long id) {
+        return new MensajeOutbox(id, CONTRATO_CREADO, "Contrato", String.valueOf(id),
+                "{}", LocalDateTime.now());
+    }
+
+    private static class AlmacenEnMemoria implements AlmacenOutbox {
+
+        private final Map<Long, MensajeOutbox> pendientes = new TreeMap<>();
+        private final Map<Long, Long> proximoIntentoMs = new HashMap<>();
+        private final Map<Long, Duration> esperas = new HashMap<>();
+        private final List<Long> descartados = new ArrayList<>();
+        private long ahoraMs;
+
+        void agregar(MensajeOutbox mensaje) {
+            pendientes.put(mensaje.getId(), mensaje);
+        }
+
+        void avanzar(Duration tiempo) {
+            ahoraMs += tiempo.toMillis();
+        }
+
+        @Override
+        public List<MensajeOutbox> reclamarPendientes(int limite, Duration plazo) {
+            List<MensajeOutbox> lote = pendientes.values().stream()
+                    .filter(m -> proximoIntentoMs.getOrDefault(m.getId(), 0L) <= ahoraMs)
+                    .limit(limite)
+                    .toList();
+            lote.forEach(m -> proximoIntentoMs.put(m.getId(), ahoraMs + plazo.toMillis()));
+            return lote;
+        }
+
+        @Override
+        public void liberar(List<Long> ids) {
+            ids.forEach(proximoIntentoMs::remove);
+        }
+
+        @Override
+        public void marcarPublicados(List<Long> ids) {
+            ids.forEach(pendientes::remove);
+        }
+
+        @Override
+        public void registrarFallo(long id, String error, Duration espera) {
+            MensajeOutbox m = pendientes.get(id);
+            pendientes.put(id, new MensajeOutbox(id, m.getTipoEvento(), m.getTipoAgregado(), m.getIdAgregado(),
+                    m.getPayload(), m.getFechaCreacion(), m.getIntentos() + 1));
+            proximoIntentoMs.put(id, ahoraMs + espera.toMillis());
+            esperas.put(id, espera);
+        }
+
+        @Override
+        public void descartar(long id, String error) {
+            pendientes.remove(id);
+            descartados.add(id);
+        }
+    }
+}
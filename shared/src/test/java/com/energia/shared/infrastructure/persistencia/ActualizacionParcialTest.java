@@ -0,0 +1,106 @@
+package com.energia.shared.infrastructure.persistencia;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ActualizacionParcialTest {
+
+    private enum Ciclo { MENSUAL, BIMESTRAL }
+
+    private static final ActualizacionParcial CONTRATOS = ActualizacionParcial.tabla("contratos")
+            .columnaVersion("version")
+            .retornando("*")
+            .campo("titularContrato", "titular_contrato", ActualizacionParcial.textoObligatorio())
+            .campo("cicloFacturacion", "ciclo_facturacion", ActualizacionParcial.enumerado(Ciclo.class))
+            .campo("idCliente", "id_cliente", ActualizacionParcial.enteroObligatorio())
+            .build();
+
+    @Test
+    void soloLasColumnasPresentesVanAlSet() {
+        ActualizacionParcial.Sentencia sentencia = CONTRATOS.construir(7L, Map.of("idCliente", 3), null);
+
+        assertEquals("UPDATE contratos SET id_cliente = ?, version = version + 1 WHERE id = ? RETURNING *",
+                sentencia.sql());
+        assertEquals(List.of(3L, 7L), Arrays.asList(sentencia.parametros()));
+    }
+
+    @Test
+    void losParametrosSiguenLaDefinicionYNoElOrdenDelCuerpo() {
+        Map<String, Object> cambios = new LinkedHashMap<>();
+        cambios.put("idCliente", "12");
+        cambios.put("titularContrato", "Ana");
+        Map<String, Object> alReves = new LinkedHashMap<>();
+        alReves.put("titularContrato", "Ana");
+        alReves.put("idCliente", 12L);
+
+        ActualizacionParcial.Sentencia sentencia = CONTRATOS.construir(7L, cambios, 4L);
+
+        assertEquals("UPDATE contratos SET titular_contrato = ?, id_cliente = ?, version = version + 1 " +
+                "WHERE id = ? AND version = ? RETURNING *", sentencia.sql());
+        assertEquals(List.of("Ana", 12L, 7L, 4L), Arrays.asList(sentencia.parametros()));
+        // La misma máscara reutiliza el mismo texto SQL
+        assertSame(sentencia.sql(), CONTRATOS.construir(8L, alReves, 5L).sql());
+    }
+
+    @Test
+    void unNuloExplicitoSeRechazaYUnCampoAusenteNoSeToca() {
+        Map<String, Object> conNulo = new HashMap<>();
+        conNulo.put("titularContrato", null);
+
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> CONTRATOS.construir(7L, conNulo, null));
+        assertTrue(error.getMessage().contains("titularContrato"));
+        assertFalse(CONTRATOS.construir(7L, Map.of("idCliente", 1), null).sql().contains("titular_contrato"));
+    }
+
+    @Test
+    void rechazaCamposDesconocidosValoresInvalidosYCuerposVacios() {
+        assertThrows(IllegalArgumentException.class, () -> CONTRATOS.construir(7L, Map.of("version", 9), null));
+        assertThrows(IllegalArgumentException.class, () -> CONTRATOS.construir(7L, Map.of("id", 9), null));
+        assertThrows(IllegalArgumentException.class, () -> CONTRATOS.construir(7L, Map.of("cicloFacturacion", "ANUAL"), null));
+        assertThrows(IllegalArgumentException.class, () -> CONTRATOS.construir(7L, Map.of("idCliente", "doce"), null));
+        assertThrows(IllegalArgumentException.class, () -> CONTRATOS.construir(7L, Map.of("idCliente", 1.5), null));
+        assertThrows(IllegalArgumentException.class, () -> CONTRATOS.construir(7L, Map.of(), null));
+    }
+
+    @Test
+    void sinColumnaDeVersionLaVersionEsperadaSeIgnora() {
+        ActualizacionParcial clientes = ActualizacionParcial.tabla("clientes")
+                .campo("nombre", "nombre", ActualizacionParcial.textoObligatorio())
+                .build();
+
+        ActualizacionParcial.Sentencia sentencia = clientes.construir(1L, Map.of("nombre", "Ana"), 3L);
+
+        assertEquals("UPDATE clientes SET nombre = ? WHERE id = ?", sentencia.sql());
+        assertEquals(List.of("Ana", 1L), Arrays.asList(sentencia.parametros()));
+    }
+
+    @Test
+    void laFilaPreviaSeLeeBloqueadaEnUnCte() {
+        ActualizacionParcial medidores = ActualizacionParcial.tabla("medidores")
+                .columnaVersion("version")
+                .filaPrevia("id_contrato")
+                .retornando("medidores.*, previa.id_contrato AS id_contrato_anterior")
+                .campo("idContrato", "id_contrato", ActualizacionParcial.enteroObligatorio())
+                .build();
+
+        ActualizacionParcial.Sentencia sentencia = medidores.construir(5L, Map.of("idContrato", 9), 2L);
+
+        assertEquals("WITH previa AS (SELECT id, id_contrato FROM medidores WHERE id = ? FOR UPDATE) " +
+                "UPDATE medidores SET id_contrato = ?, version = medidores.version + 1 " +
+                "FROM previa WHERE medidores.id = previa.id AND medidores.version = ? " +
+                "RETURNING medidores.*, previa.id_contrato AS id_contrato_anterior", sentencia.sql());
+        assertEquals(List.of(5L, 9L, 2L), Arrays.asList(sentencia.parametros()));
+    }
+}
@@ -0,0 +1,66 @@
+package com.energia.shared.infrastructure.trazas;
+
+import jakarta.servlet.http.HttpServlet;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class FiltroCorrelacionTest {
+
+    private final ExportadorEnMemoria exportador = new ExportadorEnMemoria();
+    private final Trazador trazador = new Trazador("msvc-contrato", exportador);
+    private final FiltroCorrelacion filtro = new FiltroCorrelacion(trazador);
+
+    @Test
+    void usaElIdRecibidoEnLogsRespuestaYTramosHijos() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/contratos/7");
+        request.addHeader(Trazador.CABECERA_CORRELACION, "abc-123");
+        request.addHeader(Trazador.CABECERA_SPAN_PADRE, "padre01");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicReference<String> enMdc = new AtomicReference<>();
+
+        filtro.doFilter(request, response, new MockFilterChain(new HttpServlet() { }, (req, res, chain) -> {
+            enMdc.set(MDC.get(FiltroCorrelacion.MDC_CORRELACION));
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/contratos/{id}");
+            Span padre = trazador.actual();
+            Span hijo = trazador.iniciar("ContratoRepository.findById");
+            trazador.finalizar(hijo, padre);
+        }));
+
+        assertEquals("abc-123", enMdc.get());
+        assertEquals("abc-123", response.getHeader(Trazador.CABECERA_CORRELACION));
+        assertNull(MDC.get(FiltroCorrelacion.MDC_CORRELACION));
+        assertNull(trazador.actual());
+
+        List<Span> spans = exportador.getSpansDeTraza("abc-123");
+        assertEquals(2, spans.size());
+        Span hijo = spans.get(0);
+        Span raiz = spans.get(1);
+        assertEquals("GET /contratos/{id}", raiz.getNombre());
+        assertEquals("padre01", raiz.getIdPadre());
+        assertEquals(raiz.getIdSpan(), hijo.getIdPadre());
+    }
+
+    @Test
+    void generaUnIdNuevoSiElRecibidoNoEsValido() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/contratos");
+        request.addHeader(Trazador.CABECERA_CORRELACION, "id con\nsalto");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filtro.doFilter(request, response, new MockFilterChain());
+
+        String id = response.getHeader(Trazador.CABECERA_CORRELACION);
+        assertNotEquals("id con\nsalto", id);
+        assertEquals(32, id.length());
+    }
+}
@@ -0,0 +1,53 @@
+package com.energia.shared.infrastructure.web;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VersionEtagTest {
+
+    @Test
+    void elEtagEsLaVersionEntreComillas() {
+        assertEquals("\"3\"", VersionEtag.etag(3L));
+        assertNull(VersionEtag.etag(null));
+    }
+
+    @Test
+    void ifMatchMandaSobreLaVersionDelCuerpo() {
+        assertEquals(3L, VersionEtag.versionEsperada("\"3\"", 7L));
+        assertEquals(3L, VersionEtag.versionEsperada("W/\"3\"", null));
+        assertEquals(3L, VersionEtag.versionEsperada(" 3 ", null));
+    }
+
+    @Test
+    void sinIfMatchOConAsteriscoSeUsaLaVersionDelCuerpo() {
+        assertEquals(7L, VersionEtag.versionEsperada(null, 7L));
+        assertEquals(7L, VersionEtag.versionEsperada("*", 7L));
+        assertNull(VersionEtag.versionEsperada("*", null));
+    }
+
+    @Test
+    void unIfMatchIlegibleNuncaCoincide() {
+        assertEquals(VersionEtag.VERSION_INVALIDA, VersionEtag.versionEsperada("\"abc\"", 7L));
+    }
+
+    @Test
+    void sinIfMatchNiVersionNoHayPrecondicion() {
+        assertTrue(VersionEtag.sinPrecondicion(null, null));
+        assertTrue(VersionEtag.sinPrecondicion(" ", null));
+        assertFalse(VersionEtag.sinPrecondicion("*", null));
+        assertFalse(VersionEtag.sinPrecondicion(null, 0L));
+    }
+
+    @Test
+    void ifNoneMatchCoincideConCualquieraDeLasEtiquetas() {
+        assertTrue(VersionEtag.coincide("\"1\", W/\"4\"", 4L));
+        assertTrue(VersionEtag.coincide("*", 4L));
+        assertFalse(VersionEtag.coincide("\"1\"", 4L));
+        assertFalse(VersionEtag.coincide(null, 4L));
+        assertFalse(VersionEtag.coincide("\"1\"", null));
+    }
+}